@@ -0,0 +1,40 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * Runs the Jentry benchmarks with the GC profiler (allocation rate, bytes allocated per operation and GC counts),
+ * writing the results as JSON so two runs can be compared.
+ * <p/>
+ * Usage: java -jar target/benchmarks.jar [include regex] [result file]
+ * <p/>
+ * With no arguments every benchmark in the bench package is run and the results are written to
+ * {@link #DEFAULT_RESULT_FILE}. Any other JMH option can be had by running org.openjdk.jmh.Main from the same jar,
+ * for example java -cp target/benchmarks.jar org.openjdk.jmh.Main HashSet -prof gc -rf json.
+ */
+public class BenchRunner
+{
+    public static final String DEFAULT_INCLUDE = "bench\\..*";
+    public static final String DEFAULT_RESULT_FILE = "jentry-bench.json";
+
+    public static void main( String[] args ) throws RunnerException
+    {
+        String include = ( args.length > 0 ) ? args[ 0 ] : DEFAULT_INCLUDE;
+        String resultFile = ( args.length > 1 ) ? args[ 1 ] : DEFAULT_RESULT_FILE;
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include( include )
+                .addProfiler( GCProfiler.class )
+                .resultFormat( ResultFormatType.JSON )
+                .result( resultFile );
+        new Runner( options.build() ).run();
+    }
+}
@@ -0,0 +1,101 @@
+package bench.collections;
+
+import collections.heap.BinaryHeapInt;
+import core.util.comparator.Comparators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * BinaryHeapInt insert of <i>size</i> random keys into an empty heap, and removeGreatest until a full heap is
+ * drained. The score is the time to fill or to drain the whole heap, divide by <i>size</i> for the time of one
+ * operation.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BinaryHeapBenchmark
+{
+    public static final int SEED = 42;
+
+    @Param( { "1000", "100000", "1000000" } )
+    public int size;
+
+    protected int[] keys;
+    protected BinaryHeapInt heap;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        keys = new int[ size ];
+        for( int i = 0; i < size; i++ )
+        {
+            keys[ i ] = random.nextInt();
+        }
+        heap = new BinaryHeapInt( size, Comparators.intAsc );
+    }
+
+    /** A full heap for every invocation of {@link #removeGreatest(BinaryHeapBenchmark.Drain, Blackhole)} */
+    @State( Scope.Thread )
+    public static class Drain
+    {
+        protected BinaryHeapInt full;
+
+        @Setup( Level.Invocation )
+        public void setup( BinaryHeapBenchmark benchmark )
+        {
+            if( full == null )
+            {
+                full = new BinaryHeapInt( benchmark.size, Comparators.intAsc );
+            }
+            full.clear();
+            for( int i = 0; i < benchmark.size; i++ )
+            {
+                full.insert( benchmark.keys[ i ] );
+            }
+        }
+    }
+
+    @Benchmark
+    public int insert()
+    {
+        heap.clear();
+        for( int i = 0; i < size; i++ )
+        {
+            heap.insert( keys[ i ] );
+        }
+        return heap.getSize();
+    }
+
+    @Benchmark
+    public void removeGreatest( Drain drain, Blackhole bh )
+    {
+        BinaryHeapInt full = drain.full;
+        while( !full.isEmpty() )
+        {
+            bh.consume( full.peek() );
+            full.removeGreatest();
+        }
+    }
+}
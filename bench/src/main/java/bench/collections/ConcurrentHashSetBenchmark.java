@@ -0,0 +1,148 @@
+package bench.collections;
+
+import collections.hash.set.ConcurrentHashSetLong;
+import collections.hash.set.HashSetLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * Order intake from several threads into one shared set of long ids. Each thread takes in its own new ids,
+ * inserting one and removing the one it took in {@link #WINDOW} orders ago, so the set holds a steady number
+ * of live orders. The ConcurrentHashSetLong (with one segment, and with the default 16) is compared against a
+ * HashSetLong behind a single lock. The lookup benchmark reads random ids from a pre-loaded set.
+ * <p/>
+ * The scores are throughput per thread count, run {@link #main(String[])} to get them for 1 to 16 threads
+ * (JMH sets the thread count for the whole run, it can not be a parameter). The scaling only shows with as many
+ * cores as threads.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ConcurrentHashSetBenchmark
+{
+    public static final int[] THREADS = new int[]{ 1, 2, 4, 8, 16 };
+    /** Orders live per thread, each intake removes the order taken in this many intakes ago */
+    public static final int WINDOW = 4096;
+    public static final int PRELOADED = 1000000;
+    public static final int SEED = 42;
+
+    @Param( { "1", "16" } )
+    public int segments;
+
+    protected ConcurrentHashSetLong concurrent;
+    protected ConcurrentHashSetLong preloaded;
+    protected HashSetLong locked;
+    protected final Object lock = new Object();
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        concurrent = new ConcurrentHashSetLong( WINDOW * 16, segments );
+        locked = new HashSetLong( WINDOW * 16 );
+        preloaded = new ConcurrentHashSetLong( PRELOADED, segments );
+        for( int i = 0; i < PRELOADED; i++ )
+        {
+            preloaded.insert( i );
+        }
+    }
+
+    /** Ids of one thread, each thread takes ids from its own range */
+    @State( Scope.Thread )
+    public static class Ids
+    {
+        protected static final AtomicInteger threadCount = new AtomicInteger();
+
+        protected long next;
+        protected long first;
+        protected Random random;
+
+        @Setup( Level.Trial )
+        public void setup()
+        {
+            int thread = threadCount.getAndIncrement();
+            first = ( ( long ) thread ) << 40;
+            next = first;
+            random = new Random( SEED + thread );
+        }
+    }
+
+    @Benchmark
+    public int intake( Ids ids )
+    {
+        int entry = concurrent.insert( ids.next );
+        if( ids.next - ids.first >= WINDOW )
+        {
+            concurrent.remove( ids.next - WINDOW );
+        }
+        ids.next++;
+        return entry;
+    }
+
+    @Benchmark
+    public int lockedIntake( Ids ids )
+    {
+        synchronized( lock )
+        {
+            int entry = locked.insert( ids.next );
+            if( ids.next - ids.first >= WINDOW )
+            {
+                locked.remove( ids.next - WINDOW );
+            }
+            ids.next++;
+            return entry;
+        }
+    }
+
+    @Benchmark
+    public int lookup( Ids ids )
+    {
+        return preloaded.getEntry( ids.random.nextInt( PRELOADED ) );
+    }
+
+    /**
+     * Run this benchmark once for each of {@link #THREADS}, with the GC profiler, writing one JSON result file
+     * per thread count.
+     *
+     * @param args optional prefix of the result files
+     * @throws RunnerException on failure to run
+     */
+    public static void main( String[] args ) throws RunnerException
+    {
+        String prefix = ( args.length > 0 ) ? args[ 0 ] : "jentry-concurrent";
+        for( int i = 0; i < THREADS.length; i++ )
+        {
+            new Runner( new OptionsBuilder()
+                                .include( ConcurrentHashSetBenchmark.class.getName() )
+                                .threads( THREADS[ i ] )
+                                .addProfiler( GCProfiler.class )
+                                .resultFormat( ResultFormatType.JSON )
+                                .result( prefix + "-" + THREADS[ i ] + "t.json" )
+                                .build() ).run();
+        }
+    }
+}
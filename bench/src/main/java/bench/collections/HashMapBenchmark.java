@@ -0,0 +1,124 @@
+package bench.collections;
+
+import collections.generic.map.MapEntryConsumerIntInt;
+import collections.hash.map.HashMapIntInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * HashMapIntInt insert and get of <i>size</i> random keys, the score is the average time of one operation.
+ * The insert starts from a map of size 8, and is run with the re-hash done all at once and done incrementally.
+ * forEach is a scan of every pair, in entry order.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class HashMapBenchmark
+{
+    /** Operations per invocation, the keys are run through OPS / size times */
+    public static final int OPS = 1000000;
+    public static final int SEED = 42;
+
+    @Param( { "1000", "1000000" } )
+    public int size;
+
+    @Param( { "false", "true" } )
+    public boolean incrementalRehash;
+
+    protected int[] keys;
+    protected HashMapIntInt loaded;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        keys = new int[ size ];
+        for( int i = 0; i < size; i++ )
+        {
+            keys[ i ] = random.nextInt();
+        }
+        loaded = new HashMapIntInt( size );
+        for( int i = 0; i < size; i++ )
+        {
+            loaded.insert( keys[ i ], i );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public HashMapIntInt insert()
+    {
+        HashMapIntInt map = null;
+        int runs = OPS / size;
+        for( int run = 0; run < runs; run++ )
+        {
+            map = new HashMapIntInt( 8 );
+            map.setIncrementalRehash( incrementalRehash );
+            for( int i = 0; i < size; i++ )
+            {
+                map.insert( keys[ i ], i );
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public long forEach()
+    {
+        ValueSum sum = new ValueSum();
+        int runs = OPS / size;
+        for( int run = 0; run < runs; run++ )
+        {
+            loaded.forEach( sum );
+        }
+        return sum.sum;
+    }
+
+    /** Sums the values visited */
+    protected static final class ValueSum implements MapEntryConsumerIntInt
+    {
+        protected long sum;
+
+        @Override
+        public void accept( int entry, int key, int value )
+        {
+            sum += value;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void get( Blackhole bh )
+    {
+        int runs = OPS / size;
+        for( int run = 0; run < runs; run++ )
+        {
+            for( int i = 0; i < size; i++ )
+            {
+                bh.consume( loaded.get( keys[ i ], -1 ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package bench.collections;
+
+import collections.hash.set.HashSetCharSequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * HashSetCharSequence insert, getEntry and remove of a million String keys. The keys are built once in the
+ * setup, so the string hash codes are cached and the benchmark measures the set.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class HashSetCharSequenceBenchmark
+{
+    public static final int OPS = 1000000;
+    public static final int SEED = 42;
+
+    /** Keys are a prefix followed by a number from [0, keyRange) */
+    @Param( { "10000", "1000000" } )
+    public int keyRange;
+
+    protected CharSequence[] keys;
+    protected HashSetCharSequence loaded;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        keys = new CharSequence[ OPS ];
+        for( int i = 0; i < OPS; i++ )
+        {
+            keys[ i ] = "KEY-" + random.nextInt( keyRange );
+        }
+        loaded = newSet( OPS );
+        for( int i = 0; i < OPS; i++ )
+        {
+            loaded.insert( keys[ i ] );
+        }
+    }
+
+    /** A fresh copy of the loaded set for every invocation of {@link #remove(HashSetCharSequenceBenchmark.Removal, Blackhole)} */
+    @State( Scope.Thread )
+    public static class Removal
+    {
+        protected HashSetCharSequence working;
+
+        @Setup( Level.Invocation )
+        public void setup( HashSetCharSequenceBenchmark benchmark )
+        {
+            working = benchmark.loaded.copy( working );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public HashSetCharSequence insert()
+    {
+        HashSetCharSequence set = newSet( 8 );
+        for( int i = 0; i < OPS; i++ )
+        {
+            set.insert( keys[ i ] );
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void getEntry( Blackhole bh )
+    {
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( loaded.getEntry( keys[ i ] ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void remove( Removal removal, Blackhole bh )
+    {
+        HashSetCharSequence working = removal.working;
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( working.remove( keys[ i ] ) );
+        }
+    }
+
+    protected HashSetCharSequence newSet( int initialSize )
+    {
+        return new HashSetCharSequence( initialSize );
+    }
+}
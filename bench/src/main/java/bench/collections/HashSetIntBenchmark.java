@@ -0,0 +1,142 @@
+package bench.collections;
+
+import collections.hash.HashFunctions;
+import collections.hash.set.HashSetInt;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * HashSetInt insert, getEntry and remove of a million random keys. Every benchmark works through all the keys,
+ * so the score is the average time of one operation. The insert starts from a set of size 8, and so includes the
+ * re-hashing, the lookups and removes run against a set already holding every key. insertAll and getEntries
+ * are the batch versions of insert and getEntry, over the same keys.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class HashSetIntBenchmark
+{
+    public static final int OPS = 1000000;
+    public static final int SEED = 42;
+
+    /** Keys are drawn from [0, keyRange), a small range means many duplicate inserts */
+    @Param( { "10000", "2147483647" } )
+    public int keyRange;
+
+    @Param( { "false", "true" } )
+    public boolean powerOfTwoBuckets;
+
+    protected int[] keys;
+    /** Entries of the batch benchmarks */
+    protected int[] entries;
+    protected HashSetInt loaded;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        keys = new int[ OPS ];
+        entries = new int[ OPS ];
+        for( int i = 0; i < OPS; i++ )
+        {
+            keys[ i ] = random.nextInt( keyRange );
+        }
+        loaded = newSet( OPS );
+        for( int i = 0; i < OPS; i++ )
+        {
+            loaded.insert( keys[ i ] );
+        }
+    }
+
+    /** A fresh copy of the loaded set for every invocation of {@link #remove(HashSetIntBenchmark.Removal, Blackhole)} */
+    @State( Scope.Thread )
+    public static class Removal
+    {
+        protected HashSetInt working;
+
+        @Setup( Level.Invocation )
+        public void setup( HashSetIntBenchmark benchmark )
+        {
+            working = benchmark.loaded.copy( working );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public HashSetInt insert()
+    {
+        HashSetInt set = newSet( 8 );
+        for( int i = 0; i < OPS; i++ )
+        {
+            set.insert( keys[ i ] );
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void getEntry( Blackhole bh )
+    {
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( loaded.getEntry( keys[ i ] ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public HashSetInt insertAll()
+    {
+        HashSetInt set = newSet( 8 );
+        set.insertAll( keys, 0, OPS, entries );
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public int getEntries()
+    {
+        return loaded.getEntries( keys, 0, OPS, entries );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void remove( Removal removal, Blackhole bh )
+    {
+        HashSetInt working = removal.working;
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( working.remove( keys[ i ] ) );
+        }
+    }
+
+    protected HashSetInt newSet( int initialSize )
+    {
+        return new HashSetInt( initialSize, .75, ArrayFactoryInt.defaultIntProvider,
+                               ArrayFactoryInt.defaultIntProvider, HashFunctions.hashFunctionInt,
+                               GrowthStrategy.doubleGrowth, powerOfTwoBuckets );
+    }
+}
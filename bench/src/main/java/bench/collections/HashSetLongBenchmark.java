@@ -0,0 +1,125 @@
+package bench.collections;
+
+import collections.hash.HashFunctions;
+import collections.hash.Hasher;
+import collections.hash.set.HashSetLong;
+import core.NumberUtil;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import core.array.factory.ArrayFactoryLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * HashSetLong insert, getEntry and remove of a million keys, either random longs or (left, right) pairs packed
+ * with {@link NumberUtil#packLong(int, int)} the way OneToManyInt stores its associations. Each run with the
+ * hash tiers of {@link Hasher}.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class HashSetLongBenchmark
+{
+    public static final int OPS = 1000000;
+    public static final int SEED = 42;
+
+    @Param( { "random", "packed" } )
+    public String keyShape;
+
+    @Param( { "0", "1", "2", "3" } )
+    public byte tier;
+
+    protected long[] keys;
+    protected HashSetLong loaded;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        keys = new long[ OPS ];
+        for( int i = 0; i < OPS; i++ )
+        {
+            keys[ i ] = ( keyShape.equals( "packed" ) ) ? NumberUtil.packLong( i >>> 4, random.nextInt( 1000 ) ) :
+                        random.nextLong();
+        }
+        loaded = newSet( OPS );
+        for( int i = 0; i < OPS; i++ )
+        {
+            loaded.insert( keys[ i ] );
+        }
+    }
+
+    /** A fresh copy of the loaded set for every invocation of {@link #remove(HashSetLongBenchmark.Removal, Blackhole)} */
+    @State( Scope.Thread )
+    public static class Removal
+    {
+        protected HashSetLong working;
+
+        @Setup( Level.Invocation )
+        public void setup( HashSetLongBenchmark benchmark )
+        {
+            working = benchmark.loaded.copy( working );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public HashSetLong insert()
+    {
+        HashSetLong set = newSet( 8 );
+        for( int i = 0; i < OPS; i++ )
+        {
+            set.insert( keys[ i ] );
+        }
+        return set;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void getEntry( Blackhole bh )
+    {
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( loaded.getEntry( keys[ i ] ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( OPS )
+    public void remove( Removal removal, Blackhole bh )
+    {
+        HashSetLong working = removal.working;
+        for( int i = 0; i < OPS; i++ )
+        {
+            bh.consume( working.remove( keys[ i ] ) );
+        }
+    }
+
+    protected HashSetLong newSet( int initialSize )
+    {
+        return new HashSetLong( initialSize, .75, ArrayFactoryLong.defaultLongProvider,
+                                ArrayFactoryInt.defaultIntProvider, new HashFunctions.HashFunctionLong( tier ),
+                                GrowthStrategy.doubleGrowth );
+    }
+}
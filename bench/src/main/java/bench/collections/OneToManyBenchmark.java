@@ -0,0 +1,100 @@
+package bench.collections;
+
+import collections.relationship.OneToManyInt;
+import core.Const;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * OneToManyInt associate of <i>lefts</i> lefts with <i>rightsPerLeft</i> random rights each, and the iteration
+ * over every right of every left. The score is the average time of one association (or one step of the
+ * iteration).
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class OneToManyBenchmark
+{
+    public static final int SEED = 42;
+    /** Total associations, the lefts are this divided by the rights per left */
+    public static final int ASSOCIATIONS = 1000000;
+
+    @Param( { "1", "10", "1000" } )
+    public int rightsPerLeft;
+
+    @Param( { "false", "true" } )
+    public boolean countLefts;
+
+    protected int[] lefts;
+    protected int[] rights;
+    protected int numLefts;
+    protected OneToManyInt loaded;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        numLefts = ASSOCIATIONS / rightsPerLeft;
+        lefts = new int[ ASSOCIATIONS ];
+        rights = new int[ ASSOCIATIONS ];
+        //interleave the lefts, so the chains of one left are not inserted together
+        for( int i = 0; i < ASSOCIATIONS; i++ )
+        {
+            lefts[ i ] = i % numLefts;
+            rights[ i ] = random.nextInt();
+        }
+        loaded = new OneToManyInt( numLefts, ASSOCIATIONS, countLefts );
+        for( int i = 0; i < ASSOCIATIONS; i++ )
+        {
+            loaded.associate( lefts[ i ], rights[ i ] );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ASSOCIATIONS )
+    public OneToManyInt associate()
+    {
+        OneToManyInt oneToMany = new OneToManyInt( 8, 8, countLefts );
+        for( int i = 0; i < ASSOCIATIONS; i++ )
+        {
+            oneToMany.associate( lefts[ i ], rights[ i ] );
+        }
+        return oneToMany;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ASSOCIATIONS )
+    public void iterate( Blackhole bh )
+    {
+        for( int left = 0; left < numLefts; left++ )
+        {
+            int entry = loaded.getNextRightEntry( left, Const.NO_ENTRY );
+            while( entry != Const.NO_ENTRY )
+            {
+                bh.consume( loaded.getRight( entry ) );
+                entry = loaded.getNextRightEntry( left, entry );
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package bench.core;
+
+import core.array.MasterSlaveSortInt;
+import core.array.SwappableInt;
+import core.array.SwappableLong;
+import core.util.comparator.Comparators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * MasterSlaveSortInt of <i>size</i> random ints, with no slaves and with two slave arrays (an int and a long
+ * column) swapped along with the master. The arrays are restored to the same unsorted order before every sort,
+ * the score is the time of one sort.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class MasterSlaveSortBenchmark
+{
+    public static final int SEED = 42;
+
+    @Param( { "1000", "100000", "1000000" } )
+    public int size;
+
+    protected int[] unsorted;
+    protected int[] master;
+    protected int[] intSlave;
+    protected long[] longSlave;
+    protected SwappableInt intSwappable;
+    protected SwappableLong longSwappable;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        unsorted = new int[ size ];
+        for( int i = 0; i < size; i++ )
+        {
+            unsorted[ i ] = random.nextInt();
+        }
+        master = new int[ size ];
+        intSlave = new int[ size ];
+        longSlave = new long[ size ];
+        intSwappable = new SwappableInt( intSlave );
+        longSwappable = new SwappableLong( longSlave );
+    }
+
+    @Setup( Level.Invocation )
+    public void restore()
+    {
+        System.arraycopy( unsorted, 0, master, 0, size );
+        for( int i = 0; i < size; i++ )
+        {
+            intSlave[ i ] = i;
+            longSlave[ i ] = i;
+        }
+    }
+
+    @Benchmark
+    public int[] sort()
+    {
+        MasterSlaveSortInt.sort( master, Comparators.intAsc );
+        return master;
+    }
+
+    @Benchmark
+    public int[] sortWithSlaves()
+    {
+        MasterSlaveSortInt.sort( master, Comparators.intAsc, intSwappable, longSwappable );
+        return master;
+    }
+}
@@ -0,0 +1,137 @@
+package bench.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import store.col.storage.array.ColStorageArrayInt;
+import store.col.storage.block.ColStorageBlockedInt;
+import store.col.storage.generic.ColStorageInt;
+import store.col.storage.offheap.ColStorageOffHeapInt;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * ColStorageArrayInt against ColStorageBlockedInt (with small and large blocks) and ColStorageOffHeapInt for a
+ * column of a million rows.
+ * Gets are run in row order (a column scan) and in random row order, sets in row order, and copyFrom copies
+ * the whole column from a store of the same kind. The score is the average time per row.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ColStorageBenchmark
+{
+    public static final int ROWS = 1000000;
+    public static final int SEED = 42;
+
+    /** array, offHeap, or blocked followed by the block size */
+    @Param( { "array", "blocked1024", "blocked65536", "offHeap" } )
+    public String storage;
+
+    protected ColStorageInt column;
+    protected ColStorageInt source;
+    protected int[] randomRows;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        Random random = new Random( SEED );
+        column = newStorage();
+        source = newStorage();
+        randomRows = new int[ ROWS ];
+        for( int i = 0; i < ROWS; i++ )
+        {
+            column.setValue( random.nextInt(), i );
+            source.setValue( random.nextInt(), i );
+            randomRows[ i ] = random.nextInt( ROWS );
+        }
+    }
+
+    protected ColStorageInt newStorage()
+    {
+        if( storage.equals( "array" ) )
+        {
+            return new ColStorageArrayInt( ROWS );
+        }
+        if( storage.equals( "offHeap" ) )
+        {
+            return new ColStorageOffHeapInt( ROWS );
+        }
+        if( storage.startsWith( "blocked" ) )
+        {
+            return new ColStorageBlockedInt( Integer.parseInt( storage.substring( "blocked".length() ) ), ROWS );
+        }
+        throw new IllegalArgumentException( "Unknown storage [" + storage + "]" );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+    {
+        if( column instanceof ColStorageOffHeapInt )
+        {
+            ( ( ColStorageOffHeapInt ) column ).close();
+            ( ( ColStorageOffHeapInt ) source ).close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ROWS )
+    public long getSequential()
+    {
+        long sum = 0;
+        for( int i = 0; i < ROWS; i++ )
+        {
+            sum += column.getValue( i );
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ROWS )
+    public long getRandom()
+    {
+        long sum = 0;
+        for( int i = 0; i < ROWS; i++ )
+        {
+            sum += column.getValue( randomRows[ i ] );
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ROWS )
+    public ColStorageInt set()
+    {
+        for( int i = 0; i < ROWS; i++ )
+        {
+            column.setValue( i, i );
+        }
+        return column;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ROWS )
+    public ColStorageInt copyFrom()
+    {
+        column.copyFrom( source, 0, 0, ROWS );
+        return column;
+    }
+}
@@ -0,0 +1,22 @@
+package collections.generic;
+
+import core.stub.*;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * <p>Visitor of the live entries of a _KeyTypeName_ collection, see for instance
+ * {@link collections.hash.set.HashSet_KeyTypeName_#forEach(EntryConsumer_KeyTypeName_)}. The entry and the key are
+ * passed as primitives, so visiting does not box or allocate.</p>
+ */
+public interface EntryConsumer_KeyTypeName_
+{
+    /**
+     * Visit one entry of the collection.
+     *
+     * @param entry the entry (handle) of the key
+     * @param key   the key stored at the entry
+     */
+    public void accept( int entry, _key_ key );
+}
@@ -0,0 +1,23 @@
+package collections.generic.map;
+
+import core.stub.*;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * <p>Visitor of the live key/value pairs of a map, see
+ * {@link collections.hash.map.HashMap_KeyTypeName__ValueTypeName_#forEach(MapEntryConsumer_KeyTypeName__ValueTypeName_)}.
+ * The entry, key and value are passed as primitives, so visiting does not box or allocate.</p>
+ */
+public interface MapEntryConsumer_KeyTypeName__ValueTypeName_
+{
+    /**
+     * Visit one key/value pair of the map.
+     *
+     * @param entry the entry of the pair
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void accept( int entry, _key_ key, _val_ value );
+}
@@ -7,6 +7,14 @@ import core.stub._key_;
 /**
  * Copyright © 2012 Max Miller
  * All rights reserved.
+ * <p/>
+ * <p>Hash functions for each of the key types. By default a function uses the {@link Hasher#IDENTITY} tier,
+ * which is the cheapest (floating point keys default to {@link Hasher#XOR_SHIFT}). Sequential ids or packed longs should use a hash function constructed with a mixing
+ * tier (see {@link Hasher}), passed to the full constructor of the collection, for example:</p>
+ * <pre>
+ *     new HashSetLong( size, .75, ArrayFactoryLong.defaultLongProvider, ArrayFactoryInt.defaultIntProvider,
+ *                      new HashFunctions.HashFunctionLong( Hasher.WYHASH ), GrowthStrategy.doubleGrowth );
+ * </pre>
  */
 public class HashFunctions
 {
@@ -36,82 +44,270 @@ public class HashFunctions
 
     public static class HashFunction_KeyTypeName_
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunction_KeyTypeName_()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunction_KeyTypeName_( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( _key_ k )
         {
             return Const.NO_ENTRY;
         }
+
+        public byte getTier()
+        {
+            return tier;
+        }
     }
 
 
     public static class HashFunctionChar
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionChar()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionChar( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( char c )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( c ) );
+            return Hasher.getHashCode( IntValueConverter.toInt( c ), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionByte
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionByte()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionByte( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( byte b )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( b ) );
+            return Hasher.getHashCode( IntValueConverter.toInt( b ), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionShort
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionShort()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionShort( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( short s )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( s ) );
+            return Hasher.getHashCode( IntValueConverter.toInt( s ), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionInt
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionInt()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionInt( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( int i )
         {
-            return Hasher.getHashCode( i );
+            return Hasher.getHashCode( i, tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionFloat
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        /**
+         * The raw bits of a float have all of their variance in the exponent and the top of the mantissa,
+         * the low bits of whole numbers are all zero. Default to a mixing tier, so these reach the buckets.
+         */
+        public HashFunctionFloat()
+        {
+            this( Hasher.XOR_SHIFT );
+        }
+
+        public HashFunctionFloat( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( float f )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( f ) );
+            return Hasher.getHashCode( Float.floatToRawIntBits( f + 0.0f ), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionDouble
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        /**
+         * The raw bits of a double have all of their variance in the exponent and the top of the mantissa,
+         * the low bits of whole numbers are all zero. Default to a mixing tier, so these reach the buckets.
+         */
+        public HashFunctionDouble()
+        {
+            this( Hasher.XOR_SHIFT );
+        }
+
+        public HashFunctionDouble( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( double d )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( d ) );
+            return Hasher.getHashCode( Double.doubleToRawLongBits( d + 0.0 ), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionLong
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionLong()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionLong( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( long l )
         {
-            return Hasher.getHashCode( IntValueConverter.toInt( l ) );
+            return Hasher.getHashCode( l, tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionCharSequence
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionCharSequence()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionCharSequence( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( CharSequence cs )
         {
-            return cs.hashCode();
+            return Hasher.getHashCode( cs.hashCode(), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
     public static class HashFunctionObject
     {
+        /** Mixing tier, one of the tier constants of {@link Hasher} */
+        protected final byte tier;
+
+        public HashFunctionObject()
+        {
+            this( Hasher.IDENTITY );
+        }
+
+        public HashFunctionObject( byte tier )
+        {
+            this.tier = tier;
+        }
+
         public int getHashCode( Object o )
         {
-            return o.hashCode();
+            return Hasher.getHashCode( o.hashCode(), tier );
+        }
+
+        public byte getTier()
+        {
+            return tier;
         }
     }
 
@@ -3,12 +3,188 @@ package collections.hash;
 /**
  * Copyright © 2012 Max Miller
  * All rights reserved.
+ * <p/>
+ * <p>Mixing functions that turn a raw int or long into a hash code. The mixers are static, branch-free and do not
+ * allocate. They are grouped into tiers of quality (and cost), a {@link HashFunctions} hash function is
+ * constructed with the tier it should mix with.</p>
+ * <ul>
+ * <li>{@link #IDENTITY}, the value itself. Fastest, and fine for random keys. Longs are folded so
+ * that the high 32 bits are kept.</li>
+ * <li>{@link #XOR_SHIFT}, a multiply and a shift, cheap and enough to break up sequential ids.</li>
+ * <li>{@link #MURMUR3}, the murmur3 finalizer (fmix32/fmix64), full avalanche.</li>
+ * <li>{@link #WYHASH}, wyhash style 64x64 to 128 bit multiply and fold, for long keys that only differ in their
+ * high bits (such as ids packed with NumberUtil.packLong).</li>
+ * </ul>
  */
 public class Hasher
 {
-    //TODO: Perf vs. actually hashing
+    public static final byte IDENTITY = 0;
+    public static final byte XOR_SHIFT = 1;
+    public static final byte MURMUR3 = 2;
+    public static final byte WYHASH = 3;
+
+    /** Golden ratio constants, used by the xor-shift mixers */
+    protected static final int GOLDEN_32 = 0x9E3779B9;
+    protected static final long GOLDEN_64 = 0x9E3779B97F4A7C15L;
+    /** wyhash secrets */
+    protected static final long WY_P0 = 0xA0761D6478BD642FL;
+    protected static final long WY_P1 = 0xE7037ED1A0B428DBL;
+
     public static final int getHashCode( int i )
     {
         return i;
     }
+
+    /**
+     * Hash an int using the mixer of <i>tier</i>.
+     *
+     * @param i    the value
+     * @param tier one of the tier constants of this class
+     * @return the hash code
+     */
+    public static int getHashCode( int i, byte tier )
+    {
+        switch( tier )
+        {
+            case IDENTITY:
+                return i;
+            case XOR_SHIFT:
+                return xorShift( i );
+            case MURMUR3:
+                return fmix32( i );
+            case WYHASH:
+                return wyMix( i );
+            default:
+                throw new IllegalArgumentException( "Unknown hash tier [" + tier + "]" );
+        }
+    }
+
+    /**
+     * Hash a long using the mixer of <i>tier</i>, all 64 bits contribute to the hash code.
+     *
+     * @param l    the value
+     * @param tier one of the tier constants of this class
+     * @return the hash code
+     */
+    public static int getHashCode( long l, byte tier )
+    {
+        switch( tier )
+        {
+            case IDENTITY:
+                return fold( l );
+            case XOR_SHIFT:
+                return xorShift( l );
+            case MURMUR3:
+                return fold( fmix64( l ) );
+            case WYHASH:
+                return wyMix( l );
+            default:
+                throw new IllegalArgumentException( "Unknown hash tier [" + tier + "]" );
+        }
+    }
+
+    /**
+     * Fold the high 32 bits of a long into the low 32 bits, the same as Long.hashCode().
+     *
+     * @param l the value
+     * @return the folded value
+     */
+    public static int fold( long l )
+    {
+        return ( int ) ( l ^ ( l >>> 32 ) );
+    }
+
+    /**
+     * Fibonacci multiply, then bring the well mixed high bits down to the low bits.
+     *
+     * @param i the value
+     * @return the hash code
+     */
+    public static int xorShift( int i )
+    {
+        int h = i * GOLDEN_32;
+        return h ^ ( h >>> 16 );
+    }
+
+    /**
+     * Fibonacci multiply of the long, returning the high 32 bits (where the multiply is best mixed), xor-ed
+     * with the low.
+     *
+     * @param l the value
+     * @return the hash code
+     */
+    public static int xorShift( long l )
+    {
+        long h = l * GOLDEN_64;
+        return ( int ) ( h ^ ( h >>> 32 ) );
+    }
+
+    /**
+     * Murmur3 32 bit finalizer.
+     *
+     * @param h the value
+     * @return the hash code
+     */
+    public static int fmix32( int h )
+    {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Murmur3 64 bit finalizer.
+     *
+     * @param k the value
+     * @return the 64 bit hash
+     */
+    public static long fmix64( long k )
+    {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * wyhash mum mix, multiply the (salted) value by a secret to the full 128 bits, and xor the high and low
+     * halves together.
+     *
+     * @param l the value
+     * @return the hash code
+     */
+    public static int wyMix( long l )
+    {
+        long a = l ^ WY_P0;
+        long b = WY_P1;
+        long lo = a * b;
+        long hi = multiplyHigh( a, b );
+        return fold( lo ^ hi );
+    }
+
+    /**
+     * High 64 bits of the signed 128 bit product of <i>x</i> and <i>y</i>, built from 32 bit halves.
+     *
+     * @param x first factor
+     * @param y second factor
+     * @return the high 64 bits of x * y
+     */
+    protected static long multiplyHigh( long x, long y )
+    {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + ( z2 >>> 32 );
+        long z1 = t & 0xFFFFFFFFL;
+        long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + ( z1 >> 32 );
+    }
 }
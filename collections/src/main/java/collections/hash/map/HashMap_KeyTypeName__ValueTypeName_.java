@@ -1,5 +1,6 @@
 package collections.hash.map;
 
+import collections.generic.map.MapEntryConsumer_KeyTypeName__ValueTypeName_;
 import collections.generic.map.Map_KeyTypeName__ValueTypeName_;
 import collections.hash.HashFunctions;
 import collections.hash.set.HashSet_KeyTypeName_;
@@ -43,6 +44,8 @@ public class HashMap_KeyTypeName__ValueTypeName_ implements Map_KeyTypeName__Val
     protected HashSet_KeyTypeName_ set;
 
     protected GrowthStrategy growthStrategy;
+    /** Scratch entries for the batch methods when the caller does not want them, allocated on first use */
+    protected int[] batchEntries;
 
 
     /**
@@ -81,9 +84,31 @@ public class HashMap_KeyTypeName__ValueTypeName_ implements Map_KeyTypeName__Val
     public HashMap_KeyTypeName__ValueTypeName_( int initialSize, double loadFactor, ArrayFactory_KeyTypeName_ keyFactory,
                                                 ArrayFactoryInt intFactory, HashFunctions.HashFunction_KeyTypeName_ hashFunction,
                                                 GrowthStrategy growthStrategy, ArrayFactory_ValueTypeName_ valueFactory )
+    {
+        this( initialSize, loadFactor, keyFactory, intFactory, hashFunction, growthStrategy, valueFactory, false );
+    }
+
+    /**
+     * Full Constructor, choosing the bucket indexing mode of the underlying HashSet, see
+     * {@link HashSet_KeyTypeName_#HashSet_KeyTypeName_(int, double, ArrayFactory_KeyTypeName_, ArrayFactoryInt,
+     * HashFunctions.HashFunction_KeyTypeName_, GrowthStrategy, boolean)}.
+     *
+     * @param initialSize       the expected size that the HashSet will have to hold
+     * @param loadFactor        the portion of the capacity of the hashset items before re-hashing to new buckets
+     * @param keyFactory        the factory that allocates the _key_ array
+     * @param intFactory        the factory allocating the int arrays
+     * @param hashFunction      hash function to use for the hash set
+     * @param growthStrategy    strategy for growing the structures
+     * @param valueFactory      the factory that allocates the value array
+     * @param powerOfTwoBuckets true to use power of two buckets, masking the mixed hash code
+     */
+    public HashMap_KeyTypeName__ValueTypeName_( int initialSize, double loadFactor, ArrayFactory_KeyTypeName_ keyFactory,
+                                                ArrayFactoryInt intFactory, HashFunctions.HashFunction_KeyTypeName_ hashFunction,
+                                                GrowthStrategy growthStrategy, ArrayFactory_ValueTypeName_ valueFactory,
+                                                boolean powerOfTwoBuckets )
     {
         set = new HashSet_KeyTypeName_( initialSize, loadFactor, keyFactory, intFactory, hashFunction,
-                                        growthStrategy );
+                                        growthStrategy, powerOfTwoBuckets );
         this.valueFactory = valueFactory;
         values = valueFactory.alloc( initialSize );
         this.growthStrategy = set.getGrowthStrategy();
@@ -118,6 +143,80 @@ public class HashMap_KeyTypeName__ValueTypeName_ implements Map_KeyTypeName__Val
         return entry;
     }
 
+    /**
+     * Insert <i>len</i> key and value pairs, starting at <i>off</i> of the parallel <i>batchKeys</i> and
+     * <i>batchValues</i>, the same as calling {@link #insert(_key_, _val_)} for each. The keys are inserted with
+     * {@link HashSet_KeyTypeName_#insertAll(_key_[], int, int, int[])}, and the values array is grown once for the
+     * batch.
+     *
+     * @param batchKeys   the keys to insert
+     * @param batchValues the values, parallel to <i>batchKeys</i>
+     * @param off         index of the first pair
+     * @param len         number of pairs to insert
+     * @param entriesOut  parallel to <i>batchKeys</i>, filled with the entry of each pair (from <i>off</i>), may
+     *                    be null
+     * @return the number of keys that were not already in the map
+     */
+    public int insertAll( _key_[] batchKeys, _val_[] batchValues, int off, int len, int[] entriesOut )
+    {
+        int[] entries = ( entriesOut != null ) ? entriesOut : getBatchEntries( off + len );
+        int inserted = set.insertAll( batchKeys, off, len, entries );
+        int end = off + len;
+        int maxEntry = Const.NO_ENTRY;
+        for( int i = off; i < end; i++ )
+        {
+            if( entries[ i ] > maxEntry ) maxEntry = entries[ i ];
+        }
+        values = valueFactory.ensureArrayCapacity( values, maxEntry + 1, growthStrategy );
+        for( int i = off; i < end; i++ )
+        {
+            values[ entries[ i ] ] = batchValues[ i ];
+        }
+        return inserted;
+    }
+
+    /**
+     * Get the values of <i>len</i> keys of <i>batchKeys</i>, starting at <i>off</i>, the same as calling
+     * {@link #get(_key_, _val_)} for each. The keys are looked up with
+     * {@link HashSet_KeyTypeName_#getEntries(_key_[], int, int, int[])}.
+     *
+     * @param batchKeys the keys to look up
+     * @param off       index of the first key
+     * @param len       number of keys to look up
+     * @param valuesOut parallel to <i>batchKeys</i>, filled with the value of each key (from <i>off</i>)
+     * @param nullValue the value for the keys that are not in the map
+     * @return the number of keys found
+     */
+    public int getAll( _key_[] batchKeys, int off, int len, _val_[] valuesOut, _val_ nullValue )
+    {
+        int[] entries = getBatchEntries( off + len );
+        int found = set.getEntries( batchKeys, off, len, entries );
+        int end = off + len;
+        for( int i = off; i < end; i++ )
+        {
+            int entry = entries[ i ];
+            valuesOut[ i ] = ( entry == Const.NO_ENTRY ) ? nullValue : values[ entry ];
+        }
+        return found;
+    }
+
+    /**
+     * Return the scratch entries, grown to hold at least <i>minSize</i>.
+     *
+     * @param minSize the minimum length
+     * @return the scratch entries
+     */
+    private int[] getBatchEntries( int minSize )
+    {
+        if( batchEntries == null )
+        {
+            batchEntries = ArrayFactoryInt.defaultIntProvider.alloc( minSize );
+        }
+        batchEntries = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( batchEntries, minSize,
+                                                                                growthStrategy );
+        return batchEntries;
+    }
+
     /**
      * Remove the key/value pair from the set.
      * <p/>
@@ -203,4 +302,51 @@ public class HashMap_KeyTypeName__ValueTypeName_ implements Map_KeyTypeName__Val
         set.clear();
     }
 
+    /**
+     * Set whether the keys are re-hashed incrementally, see
+     * {@link HashSet_KeyTypeName_#setIncrementalRehash(boolean)}.
+     *
+     * @param incrementalRehash true to re-hash incrementally
+     */
+    public void setIncrementalRehash( boolean incrementalRehash )
+    {
+        set.setIncrementalRehash( incrementalRehash );
+    }
+
+    /**
+     * Is an incremental re-hash of the keys in progress.
+     *
+     * @return true when migrating buckets
+     */
+    public boolean isRehashing()
+    {
+        return set.isRehashing();
+    }
+
+    /**
+     * Cursor over the live entries of the map, in ascending entry order, see
+     * {@link HashSet_KeyTypeName_#nextEntry(int)}.
+     *
+     * @param prevEntry the previous entry returned, or Const.NO_ENTRY to start
+     * @return the next live entry after <i>prevEntry</i>, or Const.NO_ENTRY when there are no more
+     */
+    public int nextEntry( int prevEntry )
+    {
+        return set.nextEntry( prevEntry );
+    }
+
+    /**
+     * Visit every key/value pair of the map, in ascending entry order, so the keys and values are read in
+     * array order. Removing the pair being visited is safe, other changes to the map during the visit are not.
+     *
+     * @param consumer called with each entry, key and value
+     */
+    public void forEach( MapEntryConsumer_KeyTypeName__ValueTypeName_ consumer )
+    {
+        for( int entry = set.nextEntry( Const.NO_ENTRY ); entry != Const.NO_ENTRY; entry = set.nextEntry( entry ) )
+        {
+            consumer.accept( entry, set.get( entry ), values[ entry ] );
+        }
+    }
+
 }
\ No newline at end of file
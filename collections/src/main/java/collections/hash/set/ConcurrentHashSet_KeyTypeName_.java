@@ -0,0 +1,598 @@
+package collections.hash.set;
+
+import collections.generic.Collection_KeyTypeName_;
+import collections.hash.HashFunctions;
+import core.Const;
+import core.annotations.UncheckedArray;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactory_KeyTypeName_;
+import core.array.factory.*;
+import core.stub.*;
+import core.util.comparator.EqualityFunctions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * <p>A thread-safe set, with the same contract as the {@link HashSet_KeyTypeName_}: inserting a key returns a
+ * compact entry (0, 1, 2...), removed entries are re-used first, and the entry can be used to retrieve the key,
+ * or to index any parallel arrays of information. Any number of threads may insert, look up and remove at
+ * once.</p>
+ * <p/>
+ * <p>The keys are spread over a power of two number of <i>segments</i>, by the high bits of the mixed hash
+ * code. Each segment is an open-addressing table, the same [entry, hash] slots as the
+ * {@link OpenHashSet_KeyTypeName_}, guarded by its own {@link StampedLock}. Inserts and removes take the write
+ * lock of one segment, so threads only contend when their keys land in the same segment. Lookups do not lock
+ * at all, they probe the segment under an optimistic read stamp, and only if a write to the same segment
+ * happened meanwhile is the probe repeated under the read lock.</p>
+ * <pre>
+ *     segments[ hash >>> segmentShift ]  ->  slots [entry][hash][entry][hash]...
+ *     chunks[ entry >>> chunkBits ][ entry &amp; chunkMask ]  ->  key
+ * </pre>
+ * <p>The entries are shared by all the segments. A new entry comes from the free list if one has been removed,
+ * otherwise from an atomic counter, so the entries stay compact no matter which thread inserts. The keys are
+ * held in fixed size chunks indexed by the entry, a chunk is added when the counter enters it, and the keys
+ * already stored are never copied, so a key can be read while another thread grows the set.</p>
+ * <p/>
+ * <p>{@link #getSize()} sums the segments and is exact only when no thread is writing. {@link #clear()} locks
+ * every segment.</p>
+ */
+public class ConcurrentHashSet_KeyTypeName_ implements Collection_KeyTypeName_
+{
+    protected final static double DEFAULT_LOAD_FACTOR = .5;
+    protected static final int DEFAULT_CONCURRENCY = 16;
+    protected static final int DEFAULT_FREE_LIST_SIZE = 16;
+    /** Minimum number of slots in a segment */
+    protected static final int MIN_SLOTS = 2;
+    /** Bounds of the number of keys in a chunk, the chunk size follows the initial size of the set */
+    protected static final int MIN_CHUNK_BITS = 4;
+    protected static final int MAX_CHUNK_BITS = 16;
+    /** Returned by a probe without the lock that saw the segment written to, to probe again under the lock */
+    protected static final int RETRY = -2;
+
+
+    /** Factory that will provide us with the key chunks */
+    protected final ArrayFactory_KeyTypeName_ keyFactory;
+    /** Int Factory to provide us with the free list and the slots tables */
+    protected final ArrayFactoryInt intFactory;
+    /** Hash function used to hash our values */
+    protected final HashFunctions.HashFunction_KeyTypeName_ hashFunction;
+    /** Equality function that test the equality of the different typed values */
+    protected final EqualityFunctions.Equals_KeyTypeName_ equalityFunction = new
+            EqualityFunctions.Equals_KeyTypeName_();
+    /** Load factor (0 to 1) of each segment */
+    protected final double loadFactor;
+
+    /** The segments, a power of two of them */
+    protected final Segment[] segments;
+    /** The mixed hash code shifted right by this is the segment (along with <b>segmentMask</b>) */
+    protected final int segmentShift;
+    /** Number of segments - 1 */
+    protected final int segmentMask;
+
+    /** Chunks of keys, indexed by the entry, replaced (never modified in place) when a chunk is added */
+    protected volatile _key_[][] chunks;
+    /** Number of bits of the entry that index into a chunk */
+    protected final int chunkBits;
+    /** Number of keys in a chunk - 1 */
+    protected final int chunkMask;
+    /** Guards the adding of chunks */
+    protected final Object chunkLock = new Object();
+
+    /** Next never used entry */
+    protected final AtomicInteger nextEntry = new AtomicInteger();
+    /** List of free entries, guarded by <b>freeLock</b> */
+    protected int[] freeList;
+    /** Number of entries on the free list, read without the lock to skip it when empty */
+    protected volatile int freeListPtr = 0;
+    /** Guards the free list */
+    protected final Object freeLock = new Object();
+
+    /**
+     * Basic constructor
+     *
+     * @param initialSize the expected size that the set will have to hold. The segments are sized so that this
+     *                    many (well spread) items can be inserted without re-hashing.
+     */
+    public ConcurrentHashSet_KeyTypeName_( int initialSize )
+    {
+        this( initialSize, DEFAULT_CONCURRENCY );
+    }
+
+    /**
+     * Constructor
+     *
+     * @param initialSize      the expected size that the set will have to hold
+     * @param concurrencyLevel the number of threads expected to write at once, rounded up to a power of two for
+     *                         the number of segments
+     */
+    public ConcurrentHashSet_KeyTypeName_( int initialSize, int concurrencyLevel )
+    {
+        this( initialSize, concurrencyLevel, DEFAULT_LOAD_FACTOR,
+              ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+              ArrayFactoryInt.defaultIntProvider,
+              HashFunctions.hashFunction_KeyTypeName_ );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param initialSize      the expected size that the set will have to hold
+     * @param concurrencyLevel the number of threads expected to write at once, rounded up to a power of two for
+     *                         the number of segments
+     * @param loadFactor       the portion of the slots of a segment that may be used before doubling them, must
+     *                         be greater than 0 and less than 1.
+     * @param keyFactory       the factory that allocates the key chunks
+     * @param intFactory       the factory allocating the int arrays
+     * @param hashFunction     hash function to use for the set
+     */
+    public ConcurrentHashSet_KeyTypeName_( int initialSize, int concurrencyLevel, double loadFactor,
+                                           ArrayFactory_KeyTypeName_ keyFactory,
+                                           ArrayFactoryInt intFactory,
+                                           HashFunctions.HashFunction_KeyTypeName_ hashFunction )
+    {
+        if( loadFactor <= 0 || loadFactor >= 1 )
+        {
+            throw new IllegalArgumentException( "Load factor must be between 0 and 1 exclusive, was [" +
+                                                loadFactor + "]" );
+        }
+        if( concurrencyLevel <= 0 )
+        {
+            throw new IllegalArgumentException( "Concurrency level must be positive, was [" +
+                                                concurrencyLevel + "]" );
+        }
+        this.keyFactory = keyFactory;
+        this.intFactory = intFactory;
+        this.hashFunction = hashFunction;
+        this.loadFactor = loadFactor;
+
+        int numSegments = OpenHashSet_KeyTypeName_.tableSizeFor( concurrencyLevel );
+        if( concurrencyLevel == 1 ) numSegments = 1;
+        segmentMask = numSegments - 1;
+        segmentShift = 32 - Integer.numberOfTrailingZeros( numSegments );
+        segments = new Segment[ numSegments ];
+        int perSegment = ( initialSize + numSegments - 1 ) / numSegments;
+        for( int i = 0; i < numSegments; i++ )
+        {
+            segments[ i ] = new Segment( intFactory, perSegment, loadFactor );
+        }
+
+        int bits = 32 - Integer.numberOfLeadingZeros( Math.max( 1, initialSize ) - 1 );
+        chunkBits = Math.min( MAX_CHUNK_BITS, Math.max( MIN_CHUNK_BITS, bits ) );
+        chunkMask = ( 1 << chunkBits ) - 1;
+        _key_[][] initialChunks = new _key_[ 4 ][];
+        initialChunks[ 0 ] = keyFactory.alloc( chunkMask + 1 );
+        chunks = initialChunks;
+        freeList = intFactory.alloc( DEFAULT_FREE_LIST_SIZE );
+    }
+
+    /**
+     * Return the current size of the set. This sums the segments without locking them, it is exact when no
+     * thread is writing to the set.
+     *
+     * @return the size
+     */
+    @Override
+    public int getSize()
+    {
+        int size = 0;
+        for( int i = 0; i < segments.length; i++ )
+        {
+            size += segments[ i ].size;
+        }
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return getSize() == 0;
+    }
+
+    /** Remove every key, every segment is locked while the set is cleared. */
+    @Override
+    public void clear()
+    {
+        long[] stamps = new long[ segments.length ];
+        for( int i = 0; i < segments.length; i++ )
+        {
+            stamps[ i ] = segments[ i ].lock.writeLock();
+        }
+        try
+        {
+            for( int i = 0; i < segments.length; i++ )
+            {
+                Arrays.fill( segments[ i ].slots, Const.NO_ENTRY );
+                segments[ i ].size = 0;
+            }
+            synchronized( freeLock )
+            {
+                freeListPtr = 0;
+                nextEntry.set( 0 );
+            }
+        }
+        finally
+        {
+            for( int i = segments.length - 1; i >= 0; i-- )
+            {
+                segments[ i ].lock.unlockWrite( stamps[ i ] );
+            }
+        }
+    }
+
+    /**
+     * Does the Set contain <b>value</b>.
+     *
+     * @param value the value
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int contains( _key_ value )
+    {
+        return getEntry( value );
+    }
+
+    /**
+     * Retrieve the entry for the key, or return Const.NO_ENTRY if the key is not in the set. The segment is
+     * probed without locking, and probed again under its read lock only if it was written to during the probe.
+     *
+     * @param key the value
+     * @return the entry of the item (handle), or Const.NO_ENTRY
+     */
+    public int getEntry( _key_ key )
+    {
+        int hash = hash( key );
+        Segment segment = segments[ ( hash >>> segmentShift ) & segmentMask ];
+        long stamp = segment.lock.tryOptimisticRead();
+        if( stamp != 0 )
+        {
+            int entry = find( segment, hash, key, stamp );
+            if( entry != RETRY && segment.lock.validate( stamp ) )
+            {
+                return entry;
+            }
+        }
+        stamp = segment.lock.readLock();
+        try
+        {
+            return find( segment, hash, key, 0 );
+        }
+        finally
+        {
+            segment.lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * UNCHECKED method to retrieve an item in the set. The entry must have been returned by this set to the
+     * calling thread (or handed over safely), and may return a value that was removed since. See
+     * {@link #getEntry(_key_)} above for getting a specific value.
+     *
+     * @param entry the entry into the set
+     * @return the value
+     */
+    @UncheckedArray
+    @Override
+    public _key_ get( int entry )
+    {
+        return chunks[ entry >>> chunkBits ][ entry & chunkMask ];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>As with the {@link HashSet_KeyTypeName_}, if the key is already in the set, the entry of the existing key
+     * is returned and the size will not change. If several threads insert the same new key at once, they all
+     * get the same entry.</p>
+     *
+     * @param key the key to insert
+     * @return the handle to this key, whether already inserted or not
+     */
+    @Override
+    public int insert( _key_ key )
+    {
+        int hash = hash( key );
+        Segment segment = segments[ ( hash >>> segmentShift ) & segmentMask ];
+        long stamp = segment.lock.writeLock();
+        try
+        {
+            int[] slots = segment.slots;
+            int mask = segment.mask;
+            int slot = hash & mask;
+            int entry;
+            while( ( entry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+            {
+                if( slots[ ( slot << 1 ) + 1 ] == hash && equalityFunction.equals( get( entry ), key ) )
+                {
+                    return entry;
+                }
+                slot = ( slot + 1 ) & mask;
+            }
+            entry = getNextEntry();
+            chunks[ entry >>> chunkBits ][ entry & chunkMask ] = key;
+            slots[ ( slot << 1 ) + 1 ] = hash;
+            slots[ slot << 1 ] = entry;
+            if( ++segment.size >= segment.loadFactorSize )
+            {
+                segment.reHash( intFactory, loadFactor );
+            }
+            return entry;
+        }
+        finally
+        {
+            segment.lock.unlockWrite( stamp );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param value the value to remove
+     * @return the entry of the removed item, or Const.NO_ENTRY if it was not in the set
+     */
+    @Override
+    public int remove( _key_ value )
+    {
+        int hash = hash( value );
+        Segment segment = segments[ ( hash >>> segmentShift ) & segmentMask ];
+        long stamp = segment.lock.writeLock();
+        try
+        {
+            int[] slots = segment.slots;
+            int mask = segment.mask;
+            int slot = hash & mask;
+            int entry;
+            while( ( entry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+            {
+                if( slots[ ( slot << 1 ) + 1 ] == hash && equalityFunction.equals( get( entry ), value ) )
+                {
+                    segment.removeSlot( slot );
+                    addEntryToFreeList( entry );
+                    return entry;
+                }
+                slot = ( slot + 1 ) & mask;
+            }
+            return Const.NO_ENTRY;
+        }
+        finally
+        {
+            segment.lock.unlockWrite( stamp );
+        }
+    }
+
+    /**
+     * Probe <i>segment</i> for the key. This may run without a lock, so it only reads the slots array once,
+     * takes the mask from its length, and stops after probing every slot, so that a table being written to
+     * can not make it loop. Without the lock, the stamp is validated before the key of an entry is read, so only
+     * the entries of completed inserts are followed, whose chunk and key are visible to this thread.
+     *
+     * @param segment the segment of the key
+     * @param hash    the mixed hash code of the key
+     * @param key     the key
+     * @param stamp   the optimistic read stamp, 0 when the read lock is held
+     * @return the entry of the key, Const.NO_ENTRY, or RETRY if the segment was written to during the probe
+     */
+    private int find( Segment segment, int hash, _key_ key, long stamp )
+    {
+        int[] slots = segment.slots;
+        int mask = ( slots.length >>> 1 ) - 1;
+        int slot = hash & mask;
+        for( int probes = 0; probes <= mask; probes++ )
+        {
+            int entry = slots[ slot << 1 ];
+            if( entry == Const.NO_ENTRY )
+            {
+                return Const.NO_ENTRY;
+            }
+            if( slots[ ( slot << 1 ) + 1 ] == hash )
+            {
+                if( stamp != 0 && !segment.lock.validate( stamp ) )
+                {
+                    return RETRY;
+                }
+                if( equalityFunction.equals( get( entry ), key ) )
+                {
+                    return entry;
+                }
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return Const.NO_ENTRY;
+    }
+
+    /**
+     * Return the next available entry, from the free list if it is not empty, otherwise the next never used
+     * entry, adding a chunk for it if it is the first of its chunk.
+     *
+     * @return the next available entry
+     */
+    protected int getNextEntry()
+    {
+        if( freeListPtr != 0 )
+        {
+            synchronized( freeLock )
+            {
+                if( freeListPtr != 0 )
+                {
+                    return freeList[ --freeListPtr ];
+                }
+            }
+        }
+        int entry = nextEntry.getAndIncrement();
+        if( entry < 0 )
+        {
+            throw new IllegalStateException( "Cannot hold more than [" + Integer.MAX_VALUE + "] entries" );
+        }
+        ensureChunk( entry >>> chunkBits );
+        return entry;
+    }
+
+    /**
+     * Make sure chunk <i>chunk</i> exists. A chunk is added by publishing a copy of the chunks array through the
+     * volatile field, never by writing into the array a reader may hold, so a thread that reads the array sees
+     * every chunk added before it, and a reader holding an older array still finds the keys it is looking for.
+     *
+     * @param chunk the chunk
+     */
+    private void ensureChunk( int chunk )
+    {
+        _key_[][] current = chunks;
+        if( chunk < current.length && current[ chunk ] != null )
+        {
+            return;
+        }
+        synchronized( chunkLock )
+        {
+            current = chunks;
+            if( chunk < current.length && current[ chunk ] != null )
+            {
+                return;
+            }
+            int length = ( chunk < current.length ) ? current.length : Math.max( current.length * 2, chunk + 1 );
+            _key_[][] added = new _key_[ length ][];
+            System.arraycopy( current, 0, added, 0, current.length );
+            added[ chunk ] = keyFactory.alloc( chunkMask + 1 );
+            chunks = added;
+        }
+    }
+
+    /**
+     * Add an entry to the free list. If the freelist has run out of space, grow it.
+     *
+     * @param entry the entry to add to the free list of entries
+     */
+    private void addEntryToFreeList( int entry )
+    {
+        synchronized( freeLock )
+        {
+            int curLen = freeList.length;
+            if( freeListPtr >= curLen )
+            {
+                freeList = intFactory.grow( freeList, curLen * 2, 0, GrowthStrategy.doubleGrowth );
+            }
+            freeList[ freeListPtr ] = entry;
+            freeListPtr = freeListPtr + 1;
+        }
+    }
+
+    /**
+     * Hash the key, and spread the bits of the hash code. The segment is taken from the high bits, and the slot
+     * in the segment from the low bits, so both must be mixed.
+     *
+     * @param key the key
+     * @return the mixed hash code
+     */
+    protected int hash( _key_ key )
+    {
+        int h = hashFunction.getHashCode( key ) * 0x9E3779B9;
+        return h ^ ( h >>> 16 );
+    }
+
+    /**
+     * Return the number of segments.
+     *
+     * @return the number of segments
+     */
+    public int getNumSegments()
+    {
+        return segments.length;
+    }
+
+    /**
+     * One segment of the set, an open-addressing table of [entry, hash] slots, with the lock guarding it. The
+     * slots array is replaced, not modified in place, when the segment is re-hashed.
+     */
+    protected static final class Segment
+    {
+        /** Guards the slots of the segment */
+        protected final StampedLock lock = new StampedLock();
+        /** Pairs of [entry, hash] for each slot, the entry is Const.NO_ENTRY for an empty slot */
+        protected int[] slots;
+        /** Number of slots - 1 */
+        protected int mask;
+        /** Number of keys in the segment */
+        protected int size;
+        /** When the size reaches this, the slots are doubled */
+        protected int loadFactorSize;
+
+        protected Segment( ArrayFactoryInt intFactory, int initialSize, double loadFactor )
+        {
+            int numSlots = OpenHashSet_KeyTypeName_.tableSizeFor( ( int ) Math.ceil( initialSize / loadFactor ) + 1 );
+            slots = intFactory.alloc( numSlots * 2, Const.NO_ENTRY );
+            mask = numSlots - 1;
+            loadFactorSize = ( int ) ( numSlots * loadFactor );
+        }
+
+        /**
+         * Remove the entry in <i>slot</i>, shifting back the following entries into the hole, see
+         * {@link OpenHashSet_KeyTypeName_#removeSlot(int)}.
+         *
+         * @param slot the slot being vacated
+         */
+        protected void removeSlot( int slot )
+        {
+            size--;
+            int hole = slot;
+            int test = slot;
+            while( true )
+            {
+                test = ( test + 1 ) & mask;
+                int testEntry = slots[ test << 1 ];
+                if( testEntry == Const.NO_ENTRY ) break;
+                int home = slots[ ( test << 1 ) + 1 ] & mask;
+                if( ( ( test - home ) & mask ) >= ( ( hole - home ) & mask ) )
+                {
+                    slots[ ( hole << 1 ) + 1 ] = slots[ ( test << 1 ) + 1 ];
+                    slots[ hole << 1 ] = testEntry;
+                    hole = test;
+                }
+            }
+            slots[ hole << 1 ] = Const.NO_ENTRY;
+        }
+
+        /**
+         * Double the slots, placing each entry by its stored hash code. The new slots are filled before they
+         * replace the old.
+         *
+         * @param intFactory factory allocating the slots
+         * @param loadFactor the load factor
+         */
+        protected void reHash( ArrayFactoryInt intFactory, double loadFactor )
+        {
+            int oldNumSlots = mask + 1;
+            int numSlots = oldNumSlots << 1;
+            if( numSlots <= 0 )
+            {
+                throw new IllegalStateException( "Cannot grow the slots of the segment past [" + oldNumSlots + "]" );
+            }
+            int[] oldSlots = slots;
+            int[] newSlots = intFactory.alloc( numSlots * 2, Const.NO_ENTRY );
+            int newMask = numSlots - 1;
+            for( int i = 0; i < oldNumSlots; i++ )
+            {
+                int entry = oldSlots[ i << 1 ];
+                if( entry == Const.NO_ENTRY ) continue;
+                int hash = oldSlots[ ( i << 1 ) + 1 ];
+                int slot = hash & newMask;
+                while( newSlots[ slot << 1 ] != Const.NO_ENTRY )
+                {
+                    slot = ( slot + 1 ) & newMask;
+                }
+                newSlots[ slot << 1 ] = entry;
+                newSlots[ ( slot << 1 ) + 1 ] = hash;
+            }
+            slots = newSlots;
+            mask = newMask;
+            loadFactorSize = ( int ) ( numSlots * loadFactor );
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package collections.hash.set;
 
 import collections.generic.Collection_KeyTypeName_;
+import collections.generic.EntryConsumer_KeyTypeName_;
 import collections.hash.HashFunctions;
+import collections.hash.Hasher;
 import collections.util.MultiLinkedListInt;
 import core.Const;
 import core.annotations.UncheckedArray;
@@ -11,6 +13,8 @@ import core.array.factory.*;
 import core.stub.*;
 import core.util.comparator.EqualityFunctions;
 
+import java.util.Arrays;
+
 /**
  * Copyright © 2012 Max Miller
  * All rights reserved.
@@ -173,6 +177,16 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
 {
     protected final static double DEFAULT_LOAD_FACTOR = .75;
     protected static final int DEFAULT_FREE_LIST_SIZE = 16;
+    /**
+     * Number of old buckets migrated on each insert, remove and lookup while re-hashing incrementally. With
+     * the default load factor, the migration finishes well before the next re-hash is needed.
+     */
+    protected static final int MIGRATE_BUCKETS_PER_OP = 4;
+    /**
+     * Number of keys the batch methods work on at a time. The buckets of the group are found first, then the
+     * heads of their chains are loaded, so the cache misses of the group overlap rather than one at a time.
+     */
+    protected static final int BATCH_GROUP = 16;
 
 
     /** Factory that will provide us with value space */
@@ -198,8 +212,34 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
     protected int[] freeList;
     /** Pointer in the free list (that points to the remaining free entries) */
     protected int freeListPtr = 0;
+    /**
+     * Liveness bitmap of the entries, bit <i>entry &amp; 31</i> of word <i>entry &gt;&gt;&gt; 5</i> is set while the
+     * entry holds a key. Removed entries stay in <b>keys</b>, this is what tells them apart.
+     */
+    protected int[] live;
     /** Number of buckets in the HashSet */
     protected int numBuckets;
+    /**
+     * When true, the number of buckets is always a power of two, and the bucket is the mixed hash code masked
+     * with <i>bucketMask</i>, rather than the remainder of the hash code
+     */
+    protected boolean powerOfTwoBuckets;
+    /** numBuckets - 1, used to find the bucket when using power of two buckets */
+    protected int bucketMask;
+    /** When true, re-hashing migrates the buckets a few at a time, see {@link #setIncrementalRehash(boolean)} */
+    protected boolean incrementalRehash;
+    /** The bucket list being migrated from during an incremental re-hash, null otherwise */
+    protected MultiLinkedListInt oldBucketList;
+    /** Number of buckets in the <b>oldBucketList</b> */
+    protected int oldNumBuckets;
+    /** oldNumBuckets - 1, when using power of two buckets */
+    protected int oldBucketMask;
+    /** Old buckets below this have been migrated to the <b>bucketList</b> */
+    protected int migratePtr;
+    /** Scratch buckets of the current group of a batch, allocated on first use */
+    protected int[] batchBuckets;
+    /** Scratch heads of the chains of the current group of a batch, allocated on first use */
+    protected int[] batchHeads;
     /** Number of inserted values */
     protected int size = 0;
     /** Load factor size, when we hit this size, we shall grow and re-hash items */
@@ -245,17 +285,51 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
                                  ArrayFactoryInt intFactory,
                                  HashFunctions.HashFunction_KeyTypeName_ hashFunction,
                                  GrowthStrategy growthStrategy )
+    {
+        this( initialSize, loadFactor, keyFactory, intFactory, hashFunction, growthStrategy, false );
+    }
+
+    /**
+     * Full Constructor, choosing the bucket indexing mode.
+     * <p/>
+     * <p>With <i>powerOfTwoBuckets</i>, the number of buckets is rounded up to a power of two. The bucket is
+     * found by mixing the hash code ({@link Hasher#xorShift(int)}) and masking it, which avoids an integer divide
+     * on every insert, contains and remove. Re-hashing splits each bucket in place, into the same bucket and
+     * the bucket + the old number of buckets, rather than building a new bucket list.</p>
+     *
+     * @param initialSize       the expected size that the HashSet will have to
+     *                          hold. If this is known, then make this initial
+     *                          capacity large enough so that the load factor does
+     *                          not cause growth.
+     * @param loadFactor        the portion of the capacity of the hashset
+     *                          items before re-hashing to new buckets.
+     * @param keyFactory        the factory that allocates the _key_ arrays
+     * @param intFactory        the factory allocating the int arrays
+     * @param hashFunction      hash function to use for the hash set
+     * @param growthStrategy    strategy for growing the structures
+     * @param powerOfTwoBuckets true to use power of two buckets, masking the mixed hash code
+     */
+    public HashSet_KeyTypeName_( int initialSize, double loadFactor,
+                                 ArrayFactory_KeyTypeName_ keyFactory,
+                                 ArrayFactoryInt intFactory,
+                                 HashFunctions.HashFunction_KeyTypeName_ hashFunction,
+                                 GrowthStrategy growthStrategy,
+                                 boolean powerOfTwoBuckets )
     {
         this.keyFactory = keyFactory;
         this.intFactory = intFactory;
-        bucketList = new MultiLinkedListInt( initialSize, initialSize, growthStrategy, intFactory );
+        this.powerOfTwoBuckets = powerOfTwoBuckets;
+        //at least one bucket, so that a set of initial size 0 can be hashed into
+        this.numBuckets = ( powerOfTwoBuckets ) ? nextPowerOfTwo( initialSize ) : Math.max( 1, initialSize );
+        this.bucketMask = numBuckets - 1;
+        bucketList = new MultiLinkedListInt( numBuckets, numBuckets, growthStrategy, intFactory );
         freeList = intFactory.alloc( DEFAULT_FREE_LIST_SIZE );
-        keys = ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider.alloc( initialSize );
-        this.numBuckets = initialSize;
+        keys = keyFactory.alloc( initialSize );
+        live = intFactory.alloc( liveWords( initialSize ) );
         this.hashFunction = hashFunction;
         this.growthStrategy = growthStrategy;
         this.loadFactor = loadFactor;
-        this.loadFactorSize = ( int ) ( initialSize * loadFactor );
+        this.loadFactorSize = ( int ) ( ( ( powerOfTwoBuckets ) ? numBuckets : initialSize ) * loadFactor );
     }
 
     /**
@@ -289,15 +363,16 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
     @Override
     public int contains( _key_ value )
     {
-        int bucket = getBucket( value );
-        return inBucketList( bucket, value );
+        return getEntry( value );
     }
 
     /** {@inheritDoc} */
     @Override
     public void clear()
     {
+        oldBucketList = null;
         bucketList.clear();
+        Arrays.fill( live, 0 );
         size = 0;
         freeListPtr = nextEntry = 0;
     }
@@ -311,6 +386,16 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
      */
     public int getEntry( _key_ key )
     {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( MIGRATE_BUCKETS_PER_OP );
+            int route = routeBucket( key );
+            if( route < 0 )
+            {
+                return inBucketList( oldBucketList, ~route, key );
+            }
+            return inBucketList( bucketList, route, key );
+        }
         int bucket = getBucket( key );
         return inBucketList( bucket, key );
     }
@@ -350,26 +435,168 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
     @Override
     public int insert( _key_ key )
     {
-        if( size == loadFactorSize )
+        if( size >= loadFactorSize )
         {
             reHash();
         }
-        int bucket = getBucket( key );
+        else if( oldBucketList != null )
+        {
+            migrateBuckets( MIGRATE_BUCKETS_PER_OP );
+        }
+        MultiLinkedListInt list = bucketList;
+        int bucket;
+        if( oldBucketList != null )
+        {
+            bucket = routeBucket( key );
+            if( bucket < 0 )
+            {
+                list = oldBucketList;
+                bucket = ~bucket;
+            }
+        }
+        else
+        {
+            bucket = getBucket( key );
+        }
         int entry;
         //if our key exists in linked list, return its entry
-        if( ( entry = inBucketList( bucket, key ) ) != Const.NO_ENTRY )
+        if( ( entry = inBucketList( list, bucket, key ) ) != Const.NO_ENTRY )
         {
             return entry;
         }
         entry = getNextEntry();
         keys[ entry ] = key;
-        bucketList.insert( bucket, entry );   // we insert the entry into the bucket list, this means that when
+        setLive( entry );
+        list.insert( bucket, entry );   // we insert the entry into the bucket list, this means that when
         // we iterate over bucket, we get entries that will point to <b>keys</b>
         // array
         size++;
         return entry;
     }
 
+    /**
+     * <p>Insert <i>len</i> keys of <i>batchKeys</i>, starting at <i>off</i>, the same as calling
+     * {@link #insert(_key_)} for each. The set is sized for the whole batch up front, so there is at most one
+     * re-hash (finishing any incremental re-hash as well), and the load factor is not checked per key. The
+     * buckets are then found a group at a time, ahead of walking their chains.</p>
+     * <p/>
+     * <p>The set is sized as if every key of the batch is new, a batch with many duplicates may grow the
+     * buckets earlier than inserting one at a time would.</p>
+     *
+     * @param batchKeys  the keys to insert
+     * @param off        index of the first key in <i>batchKeys</i>
+     * @param len        number of keys to insert
+     * @param entriesOut parallel to <i>batchKeys</i>, filled with the entry of each key (from <i>off</i>), may
+     *                   be null
+     * @return the number of keys that were not already in the set
+     */
+    public int insertAll( _key_[] batchKeys, int off, int len, int[] entriesOut )
+    {
+        int startSize = size;
+        presize( size + len );
+        keys = keyFactory.ensureArrayCapacity( keys, nextEntry + Math.max( 0, len - freeListPtr ),
+                                               growthStrategy );
+        int[] buckets = getBatchBuckets();
+        int end = off + len;
+        for( int group = off; group < end; group += BATCH_GROUP )
+        {
+            int n = Math.min( BATCH_GROUP, end - group );
+            for( int i = 0; i < n; i++ )
+            {
+                buckets[ i ] = getBucket( batchKeys[ group + i ] );
+            }
+            for( int i = 0; i < n; i++ )
+            {
+                _key_ key = batchKeys[ group + i ];
+                int bucket = buckets[ i ];
+                int entry = inBucketList( bucket, key );
+                if( entry == Const.NO_ENTRY )
+                {
+                    entry = getNextEntry();
+                    keys[ entry ] = key;
+                    setLive( entry );
+                    bucketList.insert( bucket, entry );
+                    size++;
+                }
+                if( entriesOut != null )
+                {
+                    entriesOut[ group + i ] = entry;
+                }
+            }
+        }
+        return size - startSize;
+    }
+
+    /**
+     * <p>Look up <i>len</i> keys of <i>batchKeys</i>, starting at <i>off</i>, the same as calling
+     * {@link #getEntry(_key_)} for each. For each group of {@link #BATCH_GROUP} keys, the buckets are found,
+     * then the head of every chain is loaded, and only then are the keys compared and the chains walked. The
+     * loads of the group do not depend on each other, so their cache misses are in flight together.</p>
+     * <p/>
+     * <p>While an incremental re-hash is in progress, this looks up one key at a time.</p>
+     *
+     * @param batchKeys  the keys to look up
+     * @param off        index of the first key in <i>batchKeys</i>
+     * @param len        number of keys to look up
+     * @param entriesOut parallel to <i>batchKeys</i>, filled with the entry of each key (from <i>off</i>), or
+     *                   Const.NO_ENTRY when the key is not in the set
+     * @return the number of keys found
+     */
+    public int getEntries( _key_[] batchKeys, int off, int len, int[] entriesOut )
+    {
+        int found = 0;
+        int end = off + len;
+        if( oldBucketList != null )
+        {
+            for( int i = off; i < end; i++ )
+            {
+                if( ( entriesOut[ i ] = getEntry( batchKeys[ i ] ) ) != Const.NO_ENTRY ) found++;
+            }
+            return found;
+        }
+        int[] buckets = getBatchBuckets();
+        int[] heads = batchHeads;
+        for( int group = off; group < end; group += BATCH_GROUP )
+        {
+            int n = Math.min( BATCH_GROUP, end - group );
+            for( int i = 0; i < n; i++ )
+            {
+                buckets[ i ] = getBucket( batchKeys[ group + i ] );
+            }
+            for( int i = 0; i < n; i++ )
+            {
+                heads[ i ] = bucketList.getHead( buckets[ i ] );
+            }
+            for( int i = 0; i < n; i++ )
+            {
+                _key_ key = batchKeys[ group + i ];
+                int entry = heads[ i ];
+                if( entry != Const.NO_ENTRY && !equalityFunction.equals( keys[ entry ], key ) )
+                {
+                    entry = inBucketList( buckets[ i ], key );
+                }
+                if( entry != Const.NO_ENTRY ) found++;
+                entriesOut[ group + i ] = entry;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Return the scratch buckets for the batch methods, allocating the scratch arrays on first use.
+     *
+     * @return the scratch buckets, of length {@link #BATCH_GROUP}
+     */
+    private int[] getBatchBuckets()
+    {
+        if( batchBuckets == null )
+        {
+            batchBuckets = intFactory.alloc( BATCH_GROUP );
+            batchHeads = intFactory.alloc( BATCH_GROUP );
+        }
+        return batchBuckets;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -379,6 +606,22 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
     @Override
     public int remove( _key_ value )
     {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( MIGRATE_BUCKETS_PER_OP );
+            if( oldBucketList != null )
+            {
+                int route = routeBucket( value );
+                MultiLinkedListInt list = ( route < 0 ) ? oldBucketList : bucketList;
+                int bucket = ( route < 0 ) ? ~route : route;
+                int entry = inBucketList( list, bucket, value );
+                if( entry != Const.NO_ENTRY )
+                {
+                    remove( list, entry, bucket );
+                }
+                return entry;
+            }
+        }
         int bucket = getBucket( value );
         int entry = inBucketList( bucket, value );
         if( entry == Const.NO_ENTRY )
@@ -400,11 +643,115 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
     @UncheckedArray
     public int removeByEntry( int entry )
     {
+        if( oldBucketList != null )
+        {
+            int route = routeBucket( keys[ entry ] );
+            if( route < 0 )
+            {
+                remove( oldBucketList, entry, ~route );
+            }
+            else
+            {
+                remove( bucketList, entry, route );
+            }
+            return entry;
+        }
         int bucket = getBucket( keys[entry] );
         remove( entry, bucket );
         return entry;
     }
 
+    /**
+     * <p>Cursor over the live entries, in ascending entry order. Start with Const.NO_ENTRY, and pass the entry
+     * returned back in, until Const.NO_ENTRY is returned:</p>
+     * <pre>
+     *     for( int entry = set.nextEntry( Const.NO_ENTRY ); entry != Const.NO_ENTRY; entry = set.nextEntry( entry ) )
+     * </pre>
+     * <p>The entries are visited in the order of the <b>keys</b> array (and of any arrays kept parallel to the
+     * entries), not in the order of the buckets. Removing the current entry while iterating is safe.</p>
+     *
+     * @param prevEntry the previous entry returned, or Const.NO_ENTRY to start
+     * @return the next live entry after <i>prevEntry</i>, or Const.NO_ENTRY when there are no more
+     */
+    public int nextEntry( int prevEntry )
+    {
+        int from = prevEntry + 1;
+        int word = from >>> 5;
+        int numWords = liveWords( nextEntry );
+        if( word >= numWords )
+        {
+            return Const.NO_ENTRY;
+        }
+        int bits = live[ word ] & ( -1 << from );
+        while( bits == 0 )
+        {
+            if( ++word >= numWords )
+            {
+                return Const.NO_ENTRY;
+            }
+            bits = live[ word ];
+        }
+        return ( word << 5 ) + Integer.numberOfTrailingZeros( bits );
+    }
+
+    /**
+     * Visit every live entry, in ascending entry order, see {@link #nextEntry(int)}. Removing the entry being
+     * visited is safe, other changes to the set during the visit are not.
+     *
+     * @param consumer called with each entry and its key
+     */
+    public void forEach( EntryConsumer_KeyTypeName_ consumer )
+    {
+        int numWords = liveWords( nextEntry );
+        for( int word = 0; word < numWords; word++ )
+        {
+            int bits = live[ word ];
+            while( bits != 0 )
+            {
+                int entry = ( word << 5 ) + Integer.numberOfTrailingZeros( bits );
+                bits &= bits - 1;
+                consumer.accept( entry, keys[ entry ] );
+            }
+        }
+    }
+
+    /**
+     * Does <i>entry</i> currently hold a key of the set.
+     *
+     * @param entry the entry
+     * @return true if the entry is live
+     */
+    public boolean isLive( int entry )
+    {
+        return entry >= 0 && entry < nextEntry && ( live[ entry >>> 5 ] & ( 1 << entry ) ) != 0;
+    }
+
+    /**
+     * Mark <i>entry</i> as live, growing the liveness bitmap if needed.
+     *
+     * @param entry the entry
+     */
+    private void setLive( int entry )
+    {
+        int word = entry >>> 5;
+        if( word >= live.length )
+        {
+            live = intFactory.ensureArrayCapacity( live, word + 1, growthStrategy );
+        }
+        live[ word ] |= 1 << entry;
+    }
+
+    /**
+     * Number of words of the liveness bitmap covering <i>numEntries</i> entries.
+     *
+     * @param numEntries the number of entries
+     * @return the number of ints
+     */
+    protected static int liveWords( int numEntries )
+    {
+        return ( numEntries + 31 ) >>> 5;
+    }
+
     /**
      * Do the removal of the item in the HashSet. This will remove it from the bucket list
      * as well as add it to the free list. We do not remove it from the keys, they no longer
@@ -415,7 +762,21 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
      */
     protected void remove(int entry, int bucket)
     {
-        bucketList.remove( bucket, entry );
+        remove( bucketList, entry, bucket );
+    }
+
+    /**
+     * Do the removal of the item from <i>list</i>, which is either the bucket list or, during an incremental
+     * re-hash, the old bucket list.
+     *
+     * @param list   the bucket list holding the entry
+     * @param entry  entry of the item to remove
+     * @param bucket items hash bucket in <i>list</i>
+     */
+    private void remove( MultiLinkedListInt list, int entry, int bucket )
+    {
+        list.remove( bucket, entry );
+        live[ entry >>> 5 ] &= ~( 1 << entry );
         size--;
         addEntryToFreeList( entry );
     }
@@ -429,10 +790,70 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
      */
     private void reHash()
     {
+        if( incrementalRehash )
+        {
+            startIncrementalRehash();
+            return;
+        }
+        if( powerOfTwoBuckets )
+        {
+            splitBuckets();
+            return;
+        }
         int newSize = growthStrategy.growthRequest( size, size + 1 );
-        MultiLinkedListInt newBucketList = new MultiLinkedListInt( numBuckets * 2,
-                                                                   newSize + numBuckets );
-        for( int i = 0; i < numBuckets; i++ )
+        rebuildBuckets( numBuckets * 2, newSize );
+    }
+
+    /**
+     * Make sure the set holds <i>expectedSize</i> keys without re-hashing, growing the buckets (by doubling,
+     * so both bucket modes keep their sequence of sizes) in one re-hash if needed. Any incremental re-hash in
+     * progress is finished first.
+     *
+     * @param expectedSize the number of keys the set should hold
+     */
+    private void presize( int expectedSize )
+    {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( oldNumBuckets );
+        }
+        if( expectedSize <= loadFactorSize )
+        {
+            return;
+        }
+        int newNumBuckets = numBuckets;
+        while( ( int ) ( newNumBuckets * loadFactor ) < expectedSize )
+        {
+            newNumBuckets <<= 1;
+            if( newNumBuckets <= 0 )
+            {
+                throw new IllegalStateException( "Cannot grow the buckets of the set past [" + numBuckets +
+                                                 "] to hold [" + expectedSize + "] keys" );
+            }
+        }
+        if( powerOfTwoBuckets && newNumBuckets == numBuckets << 1 )
+        {
+            splitBuckets();
+            return;
+        }
+        rebuildBuckets( newNumBuckets, expectedSize );
+    }
+
+    /**
+     * Re-hash every entry to a new bucket list of <i>newNumBuckets</i> buckets.
+     *
+     * @param newNumBuckets the number of buckets
+     * @param newSize       the number of entries the new bucket list should hold without growing
+     */
+    private void rebuildBuckets( int newNumBuckets, int newSize )
+    {
+        int oldNumBuckets = numBuckets;
+        numBuckets = newNumBuckets;
+        bucketMask = newNumBuckets - 1;
+        //room for every entry to chain off a head, in case they all land in few buckets
+        MultiLinkedListInt newBucketList = new MultiLinkedListInt( numBuckets, newSize + numBuckets,
+                                                                   growthStrategy, intFactory );
+        for( int i = 0; i < oldNumBuckets; i++ )
         {
             int prevIdx = Const.NO_ENTRY;
             int idx;
@@ -451,7 +872,164 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
             }
         }
         bucketList = newBucketList;
-        loadFactorSize = ( int ) ( newSize * loadFactor );
+        loadFactorSize = ( int ) ( numBuckets * loadFactor );
+    }
+
+    /**
+     * <p>Begin an incremental re-hash. The current bucket list becomes the old bucket list, and a new (empty)
+     * bucket list with double the buckets takes its place. Entries are migrated from the old buckets, in
+     * order, by {@link #migrateBuckets(int)}. If a previous re-hash has not finished migrating, it is finished
+     * first.</p>
+     * <p/>
+     * <p>The keys of old bucket <i>b</i> can only hash to the new buckets <i>b</i> and <i>b + oldNumBuckets</i>
+     * (in both bucket modes), and no key is routed to the new buckets until <i>b</i> is migrated. So the new
+     * bucket list is created with lazy lists, and those two buckets are initialized as <i>b</i> is migrated,
+     * rather than filling the whole bucket list up front.</p>
+     */
+    private void startIncrementalRehash()
+    {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( oldNumBuckets );
+        }
+        int newNumBuckets = numBuckets << 1;
+        if( newNumBuckets <= 0 )
+        {
+            throw new IllegalStateException( "Cannot grow the buckets of the set past [" + numBuckets + "]" );
+        }
+        oldBucketList = bucketList;
+        oldNumBuckets = numBuckets;
+        oldBucketMask = bucketMask;
+        migratePtr = 0;
+        numBuckets = newNumBuckets;
+        bucketMask = newNumBuckets - 1;
+        //about a quarter of the entries chain past the heads at the default load factor
+        bucketList = new MultiLinkedListInt( numBuckets, numBuckets + ( size >> 1 ), growthStrategy, intFactory,
+                                             true );
+        loadFactorSize = ( int ) ( numBuckets * loadFactor );
+    }
+
+    /**
+     * Migrate up to <i>maxBuckets</i> of the old buckets to the bucket list. When the last old bucket is
+     * migrated, the old bucket list is released, and the re-hash is complete.
+     *
+     * @param maxBuckets the maximum number of old buckets to migrate
+     */
+    protected void migrateBuckets( int maxBuckets )
+    {
+        int end = Math.min( oldNumBuckets, migratePtr + maxBuckets );
+        for( int oldBucket = migratePtr; oldBucket < end; oldBucket++ )
+        {
+            bucketList.resetList( oldBucket );
+            bucketList.resetList( oldBucket + oldNumBuckets );
+            int idx = oldBucket;
+            while( idx != Const.NO_ENTRY )
+            {
+                int entry = oldBucketList.getHead( idx );
+                if( entry == Const.NO_ENTRY ) break;
+                bucketList.insert( getBucket( keys[ entry ] ), entry );
+                idx = oldBucketList.getNextIdxForList( oldBucket, idx );
+            }
+        }
+        migratePtr = end;
+        if( migratePtr >= oldNumBuckets )
+        {
+            oldBucketList = null;
+        }
+    }
+
+    /**
+     * During an incremental re-hash, find which bucket list holds <i>key</i>. If the old bucket of the key has
+     * been migrated, this is the bucket in the bucket list, otherwise the bucket in the old bucket list is
+     * returned as its complement (~bucket, which is negative).
+     *
+     * @param key the key
+     * @return the bucket in the bucket list, or the complement of the bucket in the old bucket list
+     */
+    private int routeBucket( _key_ key )
+    {
+        int hash = hashFunction.getHashCode( key );
+        int oldBucket = bucketFor( hash, oldNumBuckets, oldBucketMask );
+        if( oldBucket >= migratePtr )
+        {
+            return ~oldBucket;
+        }
+        return bucketFor( hash, numBuckets, bucketMask );
+    }
+
+    /**
+     * Set whether to re-hash incrementally. Normally, once the load factor is hit, every entry is re-hashed to
+     * the new buckets in one go, which for a large set is a long pause on the insert that triggers it. When
+     * incremental, the old buckets are kept, and {@link #MIGRATE_BUCKETS_PER_OP} of them are migrated to the
+     * new buckets on each insert, remove and lookup (so lookups will modify the set while re-hashing). The worst
+     * case insert is then bounded by the allocation of the new bucket list.
+     * <p/>
+     * Turning this off during a re-hash will finish the migration.
+     *
+     * @param incrementalRehash true to re-hash incrementally
+     */
+    public void setIncrementalRehash( boolean incrementalRehash )
+    {
+        this.incrementalRehash = incrementalRehash;
+        if( !incrementalRehash && oldBucketList != null )
+        {
+            migrateBuckets( oldNumBuckets );
+        }
+    }
+
+    public boolean isIncrementalRehash()
+    {
+        return incrementalRehash;
+    }
+
+    /**
+     * Is an incremental re-hash in progress, with entries still in the old buckets.
+     *
+     * @return true when migrating buckets
+     */
+    public boolean isRehashing()
+    {
+        return oldBucketList != null;
+    }
+
+    /**
+     * <p>Re-hash for power of two buckets. The number of buckets doubles, and as the bucket is the mixed hash
+     * code masked by the number of buckets, an entry in bucket <i>b</i> either stays in <i>b</i> or moves to
+     * <i>b + oldNumBuckets</i>, depending on a single bit of the mixed hash code. Each chain is split in place,
+     * only the entries that move are touched, and no new bucket list is allocated.</p>
+     */
+    private void splitBuckets()
+    {
+        int oldNumBuckets = numBuckets;
+        int newNumBuckets = oldNumBuckets << 1;
+        if( newNumBuckets <= 0 )
+        {
+            throw new IllegalStateException( "Cannot grow the buckets of the set past [" + oldNumBuckets + "]" );
+        }
+        bucketList.growLists( newNumBuckets );
+        numBuckets = newNumBuckets;
+        bucketMask = newNumBuckets - 1;
+        for( int bucket = 0; bucket < oldNumBuckets; bucket++ )
+        {
+            int prevIdx = Const.NO_ENTRY;
+            int idx = bucket;
+            while( idx != Const.NO_ENTRY )
+            {
+                int entry = bucketList.getHead( idx );
+                if( entry == Const.NO_ENTRY ) break;
+                if( ( Hasher.xorShift( hashFunction.getHashCode( keys[ entry ] ) ) & oldNumBuckets ) != 0 )
+                {
+                    //the following entry takes its place, so we stay on the same prevIdx
+                    bucketList.moveToList( bucket, prevIdx, idx, bucket + oldNumBuckets );
+                }
+                else
+                {
+                    prevIdx = idx;
+                }
+                idx = bucketList.getNextIdxForList( bucket, prevIdx );
+            }
+        }
+        loadFactorSize = ( int ) ( numBuckets * loadFactor );
     }
 
     /**
@@ -491,13 +1069,47 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
 
     /**
      * Return a bucket that this key will hash to. This will be within
-     * the set of our possible buckets.
+     * the set of our possible buckets. The sign bit of the hash code is dropped, as mixing hash functions
+     * will return negative hash codes.
      *
      * @return the bucket
      */
     private int getBucket( _key_ key )
     {
-        return hashFunction.getHashCode( key ) % numBuckets;
+        if( powerOfTwoBuckets )
+        {
+            return Hasher.xorShift( hashFunction.getHashCode( key ) ) & bucketMask;
+        }
+        return ( hashFunction.getHashCode( key ) & Integer.MAX_VALUE ) % numBuckets;
+    }
+
+    /**
+     * Bucket of the hash code for the given number of buckets (and mask), see {@link #getBucket(_key_)}.
+     *
+     * @param hash    the hash code of the key
+     * @param buckets the number of buckets
+     * @param mask    buckets - 1, used with power of two buckets
+     * @return the bucket
+     */
+    private int bucketFor( int hash, int buckets, int mask )
+    {
+        if( powerOfTwoBuckets )
+        {
+            return Hasher.xorShift( hash ) & mask;
+        }
+        return ( hash & Integer.MAX_VALUE ) % buckets;
+    }
+
+    /**
+     * The next power of two greater than or equal to <i>n</i>, with a minimum of 1.
+     *
+     * @param n the requested number of buckets
+     * @return the number of buckets to allocate
+     */
+    protected static int nextPowerOfTwo( int n )
+    {
+        if( n <= 1 ) return 1;
+        return Integer.highestOneBit( n - 1 ) << 1;
     }
 
     /**
@@ -511,20 +1123,105 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
      * @return the entry of the item, or Const.NO_ENTRY
      */
     protected int inBucketList( int bucket, _key_ key )
+    {
+        return inBucketList( bucketList, bucket, key );
+    }
+
+    /**
+     * Check to see if the item is in the <i>bucket</i> of <i>list</i>, see {@link #inBucketList(int, _key_)}.
+     *
+     * @param list   the bucket list
+     * @param bucket the bucket to check
+     * @param key    the key we are checking
+     * @return the entry of the item, or Const.NO_ENTRY
+     */
+    private int inBucketList( MultiLinkedListInt list, int bucket, _key_ key )
     {
         //get key for the head
-        int bucketListEntry = bucketList.getNextIdxForList( bucket, Const.NO_ENTRY );
+        int bucketListEntry = list.getNextIdxForList( bucket, Const.NO_ENTRY );
         while( bucketListEntry != Const.NO_ENTRY )
         {
-            int keyEntry = bucketList.getHead( bucketListEntry );
+            int keyEntry = list.getHead( bucketListEntry );
             if( keyEntry == Const.NO_ENTRY ) return Const.NO_ENTRY;
             //check equals
             if( equalityFunction.equals( keys[ keyEntry ], key ) ) return keyEntry;
-            bucketListEntry = bucketList.getNextIdxForList( bucket, bucketListEntry );
+            bucketListEntry = list.getNextIdxForList( bucket, bucketListEntry );
         }
         return Const.NO_ENTRY;
     }
 
+    /**
+     * Return the length of the chain in <i>bucket</i>.
+     *
+     * @param bucket the bucket
+     * @return the number of entries that hashed to the bucket
+     */
+    protected int getChainLength( int bucket )
+    {
+        int len = 0;
+        int bucketListEntry = bucketList.getNextIdxForList( bucket, Const.NO_ENTRY );
+        while( bucketListEntry != Const.NO_ENTRY && bucketList.getHead( bucketListEntry ) != Const.NO_ENTRY )
+        {
+            len++;
+            bucketListEntry = bucketList.getNextIdxForList( bucket, bucketListEntry );
+        }
+        return len;
+    }
+
+    /**
+     * <p>Bucket distribution diagnostic. Returns a histogram of the chain lengths of the buckets, where
+     * <i>histogram[len]</i> is the number of buckets holding exactly <i>len</i> entries (so
+     * <i>histogram[0]</i> is the number of empty buckets). The length of the array is the longest chain + 1.</p>
+     * <p/>
+     * <p>With a good hash function for the keys, the histogram follows a Poisson distribution around the
+     * load, and the longest chain stays in the single digits. A long tail means the keys are piling into a
+     * few buckets, and a mixing hash function (see {@link collections.hash.Hasher}) should be used.</p>
+     * <p/>
+     * <p>This walks every bucket (finishing any incremental re-hash), it is meant for tests and tuning, not for
+     * a hot path.</p>
+     *
+     * @param target the array to fill, may be null or too small, in which case a new array is allocated
+     * @return the histogram of chain lengths
+     */
+    public int[] getChainLengthHistogram( int[] target )
+    {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( oldNumBuckets );
+        }
+        int maxLen = getMaxChainLength();
+        if( target == null || target.length < maxLen + 1 )
+        {
+            target = intFactory.alloc( maxLen + 1 );
+        }
+        Arrays.fill( target, 0 );
+        for( int i = 0; i < numBuckets; i++ )
+        {
+            target[ getChainLength( i ) ]++;
+        }
+        return target;
+    }
+
+    /**
+     * Return the length of the longest chain of the set, see {@link #getChainLengthHistogram(int[])}.
+     *
+     * @return the longest chain length
+     */
+    public int getMaxChainLength()
+    {
+        if( oldBucketList != null )
+        {
+            migrateBuckets( oldNumBuckets );
+        }
+        int maxLen = 0;
+        for( int i = 0; i < numBuckets; i++ )
+        {
+            int len = getChainLength( i );
+            if( len > maxLen ) maxLen = len;
+        }
+        return maxLen;
+    }
+
     /**
      * Creates a deep copy of this HashSet by copying all of its attributes to the target. If the target is null,
      * then this method will create a new HashSet to copy all of its attributes to.
@@ -537,9 +1234,17 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
         if( target == null ) //creating a new one
         {
             target = new HashSet_KeyTypeName_( keys.length, loadFactor, keyFactory, intFactory, hashFunction,
-                                               growthStrategy );
+                                               growthStrategy, powerOfTwoBuckets );
         }
         target.nextEntry = nextEntry;
+        target.numBuckets = numBuckets;
+        target.powerOfTwoBuckets = powerOfTwoBuckets;
+        target.bucketMask = bucketMask;
+        target.incrementalRehash = incrementalRehash;
+        target.oldBucketList = ( oldBucketList == null ) ? null : oldBucketList.getDeepCopy();
+        target.oldNumBuckets = oldNumBuckets;
+        target.oldBucketMask = oldBucketMask;
+        target.migratePtr = migratePtr;
         target.loadFactor = loadFactor;
         target.size = size;
         target.loadFactorSize = loadFactorSize;
@@ -552,6 +1257,10 @@ public class HashSet_KeyTypeName_ implements Collection_KeyTypeName_
         target.freeList = intFactory.ensureArrayCapacity( target.freeList, freeListLen, GrowthStrategy.toExactSize );
         System.arraycopy( keys, 0, target.keys, 0, keyLen );
         System.arraycopy( freeList, 0, target.freeList, 0, freeListLen );
+        int liveLen = live.length;
+        target.live = intFactory.ensureArrayCapacity( target.live, liveLen, GrowthStrategy.toExactSize );
+        System.arraycopy( live, 0, target.live, 0, liveLen );
+        Arrays.fill( target.live, liveLen, target.live.length, 0 );
 
         //get a deep copy of the bucket list for the target
         target.bucketList = bucketList.getDeepCopy();
@@ -0,0 +1,515 @@
+package collections.hash.set;
+
+import collections.generic.Collection_KeyTypeName_;
+import collections.hash.HashFunctions;
+import core.Const;
+import core.annotations.UncheckedArray;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactory_KeyTypeName_;
+import core.array.factory.*;
+import core.stub.*;
+import core.util.comparator.EqualityFunctions;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ *
+ * <p>An open-addressing sibling of the {@link HashSet_KeyTypeName_}. The contract with the user is exactly the
+ * same, inserting a key returns a compact entry (0, 1, 2...), removed entries are re-used first, and the entry
+ * can be used to retrieve the key, or to index any parallel arrays of information.</p>
+ * <p/>
+ * <p>The difference is in how the keys are found. The {@link HashSet_KeyTypeName_} walks a bucket through the
+ * {@link collections.util.MultiLinkedListInt}, which is a few dependent loads into arrays that are not near each
+ * other. Here, the buckets are a single flat int[] <i>slots</i> table, probed linearly. Each slot is two ints
+ * wide, holding the entry into the <i>keys</i> array and the (mixed) hash code of that key:</p>
+ * <pre>
+ *     slots
+ *     [entry 0][hash 0][entry 1][hash 1] ... [entry n-1][hash n-1]
+ * </pre>
+ * <p>Because the hash lives beside the entry, a probe only has to touch the <i>keys</i> array when the hash codes
+ * match, which for a lookup is normally the key we are searching for. At large sizes, a lookup is about one
+ * cache miss into the slots table, and a second one into the keys only when the key is found.</p>
+ * <p/>
+ * <p>The number of slots is always a power of two, so that the slot is simply the hash masked with
+ * <i>mask</i>. Removal does not leave tombstones, instead following slots are shifted back into the hole
+ * (backwards-shift deletion), keeping the probe sequences short regardless of how many removes are done.
+ * Re-hashing never touches the <i>keys</i>, as the hash codes are already stored in the slots.</p>
+ * <p/>
+ * <p>Open addressing degrades quicker than chaining as the table fills, so the default load factor is lower
+ * than that of the {@link HashSet_KeyTypeName_}.</p>
+ */
+public class OpenHashSet_KeyTypeName_ implements Collection_KeyTypeName_
+{
+    protected final static double DEFAULT_LOAD_FACTOR = .5;
+    protected static final int DEFAULT_FREE_LIST_SIZE = 16;
+    /** Minimum number of slots in the table */
+    protected static final int MIN_SLOTS = 2;
+
+
+    /** Factory that will provide us with value space */
+    protected final ArrayFactory_KeyTypeName_ keyFactory;
+    /** Int Factory to provide us with freeList and the slots table */
+    protected final ArrayFactoryInt intFactory;
+    /** Hash function used to hash our values to an int bucket */
+    protected final HashFunctions.HashFunction_KeyTypeName_ hashFunction;
+    /** Growth strategy of our set, freelist, and slots */
+    protected final GrowthStrategy growthStrategy;
+    /** Equality function that test the equality of the different typed values */
+    protected final EqualityFunctions.Equals_KeyTypeName_ equalityFunction = new
+            EqualityFunctions.Equals_KeyTypeName_();
+
+    /** Pairs of [entry, hash] for each slot, the entry is Const.NO_ENTRY for an empty slot */
+    protected int[] slots;
+    /** Number of slots - 1, used to mask the hash to a slot */
+    protected int mask;
+    /** Array of the values in the set, for example, a OpenHashSetByte will hold the inserted bytes here */
+    protected _key_ keys[];
+
+    /** Next empty entry in the <b>keys</b> array */
+    protected int nextEntry = 0;
+    /** List of free entries (in the <b>keys</b> array) */
+    protected int[] freeList;
+    /** Pointer in the free list (that points to the remaining free entries) */
+    protected int freeListPtr = 0;
+    /** Number of inserted values */
+    protected int size = 0;
+    /** Load factor size, when we hit this size, we shall double the slots and re-hash items */
+    protected int loadFactorSize;
+    /** Load factor (0 to 1), that will indicate when we re-hash */
+    protected double loadFactor;
+
+    /**
+     * Basic constructor
+     *
+     * @param initialSize the expected size that the set will have to hold. The slots table will be
+     *                    sized so that this many items can be inserted without re-hashing.
+     */
+    public OpenHashSet_KeyTypeName_( int initialSize )
+    {
+        this( initialSize, DEFAULT_LOAD_FACTOR,
+              ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+              ArrayFactoryInt.defaultIntProvider,
+              HashFunctions.hashFunction_KeyTypeName_,
+              GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param initialSize    the expected size that the set will have to hold. The slots table will be sized
+     *                       so that this many items can be inserted without re-hashing.
+     * @param loadFactor     the portion of the slots that may be used before doubling the slots table, must
+     *                       be greater than 0 and less than 1.
+     * @param keyFactory     the factory that allocates the _key_ arrays
+     * @param intFactory     the factory allocating the int arrays
+     * @param hashFunction   hash function to use for the hash set
+     * @param growthStrategy strategy for growing the keys and free list
+     */
+    public OpenHashSet_KeyTypeName_( int initialSize, double loadFactor,
+                                     ArrayFactory_KeyTypeName_ keyFactory,
+                                     ArrayFactoryInt intFactory,
+                                     HashFunctions.HashFunction_KeyTypeName_ hashFunction,
+                                     GrowthStrategy growthStrategy )
+    {
+        if( loadFactor <= 0 || loadFactor >= 1 )
+        {
+            throw new IllegalArgumentException( "Load factor must be between 0 and 1 exclusive, was [" +
+                                                loadFactor + "]" );
+        }
+        this.keyFactory = keyFactory;
+        this.intFactory = intFactory;
+        this.hashFunction = hashFunction;
+        this.growthStrategy = growthStrategy;
+        this.loadFactor = loadFactor;
+        int numSlots = tableSizeFor( ( int ) Math.ceil( initialSize / loadFactor ) + 1 );
+        slots = intFactory.alloc( numSlots * 2, Const.NO_ENTRY );
+        mask = numSlots - 1;
+        loadFactorSize = ( int ) ( numSlots * loadFactor );
+        keys = keyFactory.alloc( initialSize );
+        freeList = intFactory.alloc( DEFAULT_FREE_LIST_SIZE );
+    }
+
+    /**
+     * Return the current size of the set, the number of unique values.
+     *
+     * @return the size
+     */
+    @Override
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear()
+    {
+        Arrays.fill( slots, Const.NO_ENTRY );
+        size = 0;
+        freeListPtr = nextEntry = 0;
+    }
+
+    /**
+     * Does the Set contain <b>value</b>.
+     *
+     * @param value the value
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int contains( _key_ value )
+    {
+        return getEntry( value );
+    }
+
+    /**
+     * Method for checking to see if an item is in the set. This will retrieve the entry
+     * for the item, or return Const.NO_ENTRY if the item is not in the set.
+     *
+     * @param key the value
+     * @return the entry of the item (handle), or Const.NO_ENTRY
+     */
+    public int getEntry( _key_ key )
+    {
+        int hash = hash( key );
+        int slot = hash & mask;
+        int entry;
+        while( ( entry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+        {
+            if( slots[ ( slot << 1 ) + 1 ] == hash && equalityFunction.equals( keys[ entry ], key ) )
+            {
+                return entry;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return Const.NO_ENTRY;
+    }
+
+    /**
+     * UNCHECKED method to retrieve an item in the set. This should be used with caution, as it may potentially
+     * return a value that was removed. See {@link #getEntry(_key_)}  above for getting a specific value.
+     *
+     * @param entry the entry into the set
+     * @return the value
+     */
+    @UncheckedArray
+    @Override
+    public _key_ get( int entry )
+    {
+        return keys[ entry ];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>As with the {@link HashSet_KeyTypeName_}, if the key is already in the set, the entry of the existing key
+     * is returned and the size will not change.</p>
+     *
+     * @param key the key to insert
+     * @return the handle to this key, whether already inserted or not
+     */
+    @Override
+    public int insert( _key_ key )
+    {
+        if( size >= loadFactorSize )
+        {
+            reHash();
+        }
+        int hash = hash( key );
+        int slot = hash & mask;
+        int entry;
+        while( ( entry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+        {
+            if( slots[ ( slot << 1 ) + 1 ] == hash && equalityFunction.equals( keys[ entry ], key ) )
+            {
+                return entry;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        entry = getNextEntry();
+        keys[ entry ] = key;
+        slots[ slot << 1 ] = entry;
+        slots[ ( slot << 1 ) + 1 ] = hash;
+        size++;
+        return entry;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param value the value to remove
+     * @return the entry of the removed item, or Const.NO_ENTRY if it was not in the set
+     */
+    @Override
+    public int remove( _key_ value )
+    {
+        int hash = hash( value );
+        int slot = hash & mask;
+        int entry;
+        while( ( entry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+        {
+            if( slots[ ( slot << 1 ) + 1 ] == hash && equalityFunction.equals( keys[ entry ], value ) )
+            {
+                removeSlot( slot );
+                return entry;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return Const.NO_ENTRY;
+    }
+
+    /**
+     * Remove the item in the set by entry. Usually used in conjunction with {@link #getEntry(_key_)}
+     * to remove the item without having to first ensure it is in the structure. We still return the entry
+     * of the item removed, or Const.NO_ENTRY if the entry is not in the set.
+     *
+     * @param entry the entry of the item to remove
+     * @return the entry
+     */
+    @UncheckedArray
+    public int removeByEntry( int entry )
+    {
+        int slot = hash( keys[ entry ] ) & mask;
+        int testEntry;
+        while( ( testEntry = slots[ slot << 1 ] ) != Const.NO_ENTRY )
+        {
+            if( testEntry == entry )
+            {
+                removeSlot( slot );
+                return entry;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return Const.NO_ENTRY;
+    }
+
+    /**
+     * <p>Remove the entry in <i>slot</i>, and add it to the free list. To keep every key reachable from its
+     * home slot without leaving tombstones, we walk the slots following the hole, and move back any
+     * entry whose home slot is not cyclically between the hole and its current slot.</p>
+     *
+     * @param slot the slot being vacated
+     */
+    protected void removeSlot( int slot )
+    {
+        addEntryToFreeList( slots[ slot << 1 ] );
+        size--;
+        int hole = slot;
+        int test = slot;
+        while( true )
+        {
+            test = ( test + 1 ) & mask;
+            int testEntry = slots[ test << 1 ];
+            if( testEntry == Const.NO_ENTRY ) break;
+            int home = slots[ ( test << 1 ) + 1 ] & mask;
+            //distance from home to the current slot, and from home to the hole (both cyclic)
+            if( ( ( test - home ) & mask ) >= ( ( hole - home ) & mask ) )
+            {
+                slots[ hole << 1 ] = testEntry;
+                slots[ ( hole << 1 ) + 1 ] = slots[ ( test << 1 ) + 1 ];
+                hole = test;
+            }
+        }
+        slots[ hole << 1 ] = Const.NO_ENTRY;
+    }
+
+    /**
+     * <p>When we hit the load factor, we double the slots and re-insert the entries. The stored hash codes are
+     * used to place each entry, so the keys are never read.</p>
+     */
+    protected void reHash()
+    {
+        int[] oldSlots = slots;
+        int oldNumSlots = mask + 1;
+        int numSlots = oldNumSlots << 1;
+        if( numSlots <= 0 )
+        {
+            throw new IllegalStateException( "Cannot grow the slots of the set past [" + oldNumSlots + "]" );
+        }
+        slots = intFactory.alloc( numSlots * 2, Const.NO_ENTRY );
+        mask = numSlots - 1;
+        for( int i = 0; i < oldNumSlots; i++ )
+        {
+            int entry = oldSlots[ i << 1 ];
+            if( entry == Const.NO_ENTRY ) continue;
+            int hash = oldSlots[ ( i << 1 ) + 1 ];
+            int slot = hash & mask;
+            while( slots[ slot << 1 ] != Const.NO_ENTRY )
+            {
+                slot = ( slot + 1 ) & mask;
+            }
+            slots[ slot << 1 ] = entry;
+            slots[ ( slot << 1 ) + 1 ] = hash;
+        }
+        loadFactorSize = ( int ) ( numSlots * loadFactor );
+    }
+
+    /**
+     * Add an item to the freelist. If the freelist has run out of
+     * entries, grow it.
+     *
+     * @param entry the entry to add to the free list of entries
+     */
+    private void addEntryToFreeList( int entry )
+    {
+        int curLen = freeList.length;
+        if( freeListPtr >= curLen )
+        {
+            freeList = intFactory.grow( freeList, curLen * 2, 0, growthStrategy );
+        }
+        freeList[ freeListPtr++ ] = entry;
+    }
+
+    /**
+     * Return the next available entry. If one is on the freelist, this should be returned first. Otherwise,
+     * get the next entry, which will be compact (the next un-used entry iteratively).
+     *
+     * @return the next available entry
+     */
+    protected int getNextEntry()
+    {
+        if( freeListPtr != 0 )
+        {
+            return freeList[ --freeListPtr ];
+        }
+        keys = keyFactory.ensureArrayCapacity( keys, nextEntry + 1, growthStrategy );
+        return nextEntry++;
+    }
+
+    /**
+     * Hash the key, and spread the bits of the hash code. The slot is taken from the low bits of the hash, so
+     * hash codes that only differ in their high bits must be mixed down.
+     *
+     * @param key the key
+     * @return the mixed hash code
+     */
+    protected int hash( _key_ key )
+    {
+        int h = hashFunction.getHashCode( key ) * 0x9E3779B9;
+        return h ^ ( h >>> 16 );
+    }
+
+    /**
+     * The next power of two greater than or equal to <i>n</i>, with a minimum of {@link #MIN_SLOTS}.
+     *
+     * @param n the requested number of slots
+     * @return the number of slots to allocate
+     */
+    protected static int tableSizeFor( int n )
+    {
+        if( n <= MIN_SLOTS ) return MIN_SLOTS;
+        return Integer.highestOneBit( n - 1 ) << 1;
+    }
+
+    /**
+     * Return the probe length of the entry held in <i>slot</i>, a probe length of 1 meaning the key is in its
+     * home slot.
+     *
+     * @param slot the slot, must not be empty
+     * @return the probe length
+     */
+    protected int getProbeLength( int slot )
+    {
+        return ( ( slot - ( slots[ ( slot << 1 ) + 1 ] & mask ) ) & mask ) + 1;
+    }
+
+    /**
+     * Return the length of the longest probe sequence in the table. Used to check the quality of the hash
+     * function on real keys.
+     *
+     * @return the longest probe length, or 0 if the set is empty
+     */
+    public int getMaxProbeLength()
+    {
+        int max = 0;
+        int numSlots = mask + 1;
+        for( int i = 0; i < numSlots; i++ )
+        {
+            if( slots[ i << 1 ] == Const.NO_ENTRY ) continue;
+            int probe = getProbeLength( i );
+            if( probe > max ) max = probe;
+        }
+        return max;
+    }
+
+    /**
+     * <p>Probe distribution diagnostic. Returns a histogram of the probe lengths of the keys, where
+     * <i>histogram[len]</i> is the number of keys found after probing exactly <i>len</i> slots. The length of
+     * the array is the longest probe + 1, <i>histogram[0]</i> is always 0.</p>
+     * <p/>
+     * <p>This walks the whole table, it is meant for tests and tuning, not for a hot path.</p>
+     *
+     * @param target the array to fill, may be null or too small, in which case a new array is allocated
+     * @return the histogram of probe lengths
+     */
+    public int[] getProbeLengthHistogram( int[] target )
+    {
+        int maxLen = getMaxProbeLength();
+        if( target == null || target.length < maxLen + 1 )
+        {
+            target = intFactory.alloc( maxLen + 1 );
+        }
+        Arrays.fill( target, 0 );
+        int numSlots = mask + 1;
+        for( int i = 0; i < numSlots; i++ )
+        {
+            if( slots[ i << 1 ] == Const.NO_ENTRY ) continue;
+            target[ getProbeLength( i ) ]++;
+        }
+        return target;
+    }
+
+    /**
+     * Creates a deep copy of this set by copying all of its attributes to the target. If the target is null,
+     * then this method will create a new set to copy all of its attributes to.
+     *
+     * @param target the target set, may be null
+     * @return the deep copy of this
+     */
+    public OpenHashSet_KeyTypeName_ copy( OpenHashSet_KeyTypeName_ target )
+    {
+        if( target == null ) //creating a new one
+        {
+            target = new OpenHashSet_KeyTypeName_( 0, loadFactor, keyFactory, intFactory, hashFunction,
+                                                   growthStrategy );
+        }
+        target.nextEntry = nextEntry;
+        target.loadFactor = loadFactor;
+        target.size = size;
+        target.loadFactorSize = loadFactorSize;
+        target.mask = mask;
+        target.freeListPtr = freeListPtr;
+
+        int keyLen = keys.length;
+        int freeListLen = freeList.length;
+        int slotsLen = slots.length;
+        target.keys = keyFactory.ensureArrayCapacity( target.keys, keyLen, GrowthStrategy.toExactSize );
+        target.freeList = intFactory.ensureArrayCapacity( target.freeList, freeListLen, GrowthStrategy.toExactSize );
+        if( target.slots.length != slotsLen )
+        {
+            target.slots = intFactory.alloc( slotsLen );
+        }
+        System.arraycopy( keys, 0, target.keys, 0, keyLen );
+        System.arraycopy( freeList, 0, target.freeList, 0, freeListLen );
+        System.arraycopy( slots, 0, target.slots, 0, slotsLen );
+        return target;
+    }
+
+    public GrowthStrategy getGrowthStrategy()
+    {
+        return growthStrategy;
+    }
+}
@@ -146,6 +146,8 @@ public class OneToManyInt implements Collection
     protected int[] lefts;
     /** The next pointer that will fill the index of the current entry to the next handle (see class docs) */
     protected int[] leftNexts;
+    /** The last entry of the list of each left, so that an association is appended without walking the list */
+    protected int[] leftTails;
     /** An optional parallel array that will track the count of the associations for each left */
     protected int[] leftCounts = null;
     /** Whether we keep track of the counts per left or not, Note: not editable after construction */
@@ -191,6 +193,7 @@ public class OneToManyInt implements Collection
             leftCounts = intFactory.alloc( initialLefts );
         }
         lefts = intFactory.alloc( initialLefts, Const.NO_ENTRY );
+        leftTails = intFactory.alloc( initialLefts, Const.NO_ENTRY );
         leftNexts = intFactory.alloc( initialAssociations, Const.NO_ENTRY );
         associations = new HashSetLong( initialAssociations );
 
@@ -209,6 +212,7 @@ public class OneToManyInt implements Collection
         if( left > leftHighWaterMark ) //guarding growth checks
         {
             lefts = intFactory.ensureArrayCapacity( lefts, left + 1, Const.NO_ENTRY, growthStrategy );
+            leftTails = intFactory.ensureArrayCapacity( leftTails, left + 1, Const.NO_ENTRY, growthStrategy );
             leftHighWaterMark = left;
             if( countLefts )
             {
@@ -229,14 +233,24 @@ public class OneToManyInt implements Collection
     /**
      * Do the insertion of the item into the linked list of the left side. If this is the first item
      * to be associated to this left, then it is inserted into the <i>lefts array</i>. Otherwise,
-     * iterate through the <i>leftNexts</i>, inserting the handle at the end of the chain.
+     * the handle is linked after the tail of the chain, held in <i>leftTails</i>, so that a left with many
+     * associations is not walked on each insertion.
      *
      * @param left left int of the association
      * @param handle the handle we are going to insertLeft for this association
      */
     protected void insertLeft( int left, int handle )
     {
-        insertIntoLinkedList( left, handle, lefts, leftNexts );
+        int tail = leftTails[ left ];
+        if( tail == Const.NO_ENTRY )
+        {
+            lefts[ left ] = handle;
+        }
+        else
+        {
+            leftNexts[ tail ] = handle;
+        }
+        leftTails[ left ] = handle;
     }
 
     /**
@@ -339,6 +353,7 @@ public class OneToManyInt implements Collection
         associations.clear();
         leftHighWaterMark++; //need extra size for Arrays.fill (last idx is exclusive)
         Arrays.fill( lefts, 0, leftHighWaterMark, Const.NO_ENTRY );
+        Arrays.fill( leftTails, 0, leftHighWaterMark, Const.NO_ENTRY );
         Arrays.fill( leftNexts, Const.NO_ENTRY );
         size = 0;
         if( countLefts )
@@ -501,12 +516,14 @@ public class OneToManyInt implements Collection
         }
         next = nextArray[ testEntry ];
         nextArray[ prev ] = next;
+        nextArray[ testEntry ] = Const.NO_ENTRY; //the entry may be handed out again
         return testEntry;
     }
 
     /**
      * Remove an item from the linked list formed from the <i>lefts</i> and <i>leftNexts</i>
-     * arrays.
+     * arrays, moving the tail of the left back if the item was the last in the chain. The chain
+     * is walked once, the entry before the item is both unlinked from it and the new tail.
      *
      * @param left int for the left association
      * @param entry entry in the list
@@ -514,7 +531,28 @@ public class OneToManyInt implements Collection
      */
     protected int removeLeft(int left, int entry)
     {
-        return removeFromLinkedList( left, entry, lefts, leftNexts );
+        int prev = Const.NO_ENTRY;
+        int testEntry = lefts[ left ];
+        while( testEntry != entry )
+        {
+            prev = testEntry;
+            testEntry = leftNexts[ testEntry ];
+        }
+        int next = leftNexts[ entry ];
+        if( prev == Const.NO_ENTRY ) //removing first
+        {
+            lefts[ left ] = next;
+        }
+        else
+        {
+            leftNexts[ prev ] = next;
+        }
+        leftNexts[ entry ] = Const.NO_ENTRY; //the entry may be handed out again
+        if( leftTails[ left ] == entry )
+        {
+            leftTails[ left ] = prev;
+        }
+        return entry;
     }
 
     /**
@@ -600,6 +638,8 @@ public class OneToManyInt implements Collection
         }
         target.lefts = intFactory.ensureArrayCapacity( target.lefts, leftLen, GrowthStrategy.toExactSize );
         System.arraycopy( lefts, 0, target.lefts, 0, leftLen );
+        target.leftTails = intFactory.ensureArrayCapacity( target.leftTails, leftLen, GrowthStrategy.toExactSize );
+        System.arraycopy( leftTails, 0, target.leftTails, 0, leftLen );
 
         int nextLen = leftNexts.length;
         target.leftNexts = intFactory.ensureArrayCapacity( target.leftNexts, nextLen, GrowthStrategy.toExactSize );
@@ -86,11 +86,40 @@ public class MultiLinkedListInt implements Collection
     public MultiLinkedListInt( int initialListSize, int totalSize,
                                GrowthStrategy growthStrategy,
                                ArrayFactoryInt intFactory )
+    {
+        this( initialListSize, totalSize, growthStrategy, intFactory, false );
+    }
+
+    /**
+     * Full Constructor, optionally leaving the lists un-initialized.
+     * <p/>
+     * <p>Filling the arrays with Const.NO_ENTRY is a pass over all of the memory, which for very large
+     * structures is a pause in itself. With <i>lazyLists</i>, the arrays are left as allocated, and each list
+     * <b>must</b> be initialized with {@link #resetList(int)} before it is used. Indexes past the heads are
+     * always written before they are read, so they do not need initializing.</p>
+     *
+     * @param initialListSize the initial number of singly linked list this structure will allocate
+     * @param totalSize       the estimated size of all of the lists
+     * @param growthStrategy  the growth strategy when growing the set of lists
+     * @param intFactory      the factory that will provide the int[] arrays
+     * @param lazyLists       true to leave the lists un-initialized
+     */
+    public MultiLinkedListInt( int initialListSize, int totalSize,
+                               GrowthStrategy growthStrategy,
+                               ArrayFactoryInt intFactory, boolean lazyLists )
     {
         this.growthStrategy = growthStrategy;
         this.intFactory = intFactory;
-        this.heads = intFactory.alloc( totalSize, Const.NO_ENTRY );
-        this.nexts = intFactory.alloc( totalSize, Const.NO_ENTRY );
+        if( lazyLists )
+        {
+            this.heads = intFactory.alloc( totalSize );
+            this.nexts = intFactory.alloc( totalSize );
+        }
+        else
+        {
+            this.heads = intFactory.alloc( totalSize, Const.NO_ENTRY );
+            this.nexts = intFactory.alloc( totalSize, Const.NO_ENTRY );
+        }
         maxHead = initialListSize - 1;
         nextUnusedIdx = initialListSize;
     }
@@ -268,6 +297,128 @@ public class MultiLinkedListInt implements Collection
     }
 
 
+    /**
+     * <p>Move the value at <i>idx</i> (in the list <i>listHead</i>) to the front of the list <i>targetHead</i>.
+     * This is used to move values between lists while iterating, without searching for the value as
+     * {@link #remove(int, int)} must.</p>
+     * <p/>
+     * <p>Iteration may continue with {@link #getNextIdxForList(int, int)} using the same <i>prevIdx</i>, as the
+     * value following the moved one takes its place in the list. The node freed by the move is re-used by
+     * the insert into the target list when one is needed, so this does not grow the structure.</p>
+     *
+     * @param listHead   the list holding the value
+     * @param prevIdx    the index before <i>idx</i> in the list, or Const.NO_ENTRY when <i>idx</i> is the head
+     * @param idx        the index of the value to move
+     * @param targetHead the list to move the value to
+     */
+    public void moveToList( int listHead, int prevIdx, int idx, int targetHead )
+    {
+        int val = heads[ idx ];
+        int next = nexts[ idx ];
+        if( prevIdx == Const.NO_ENTRY ) //moving the head, pull the next value into the head spot
+        {
+            if( next == Const.NO_ENTRY )
+            {
+                heads[ listHead ] = Const.NO_ENTRY;
+            }
+            else
+            {
+                heads[ listHead ] = heads[ next ];
+                nexts[ listHead ] = nexts[ next ];
+                heads[ next ] = Const.NO_ENTRY;
+                nexts[ next ] = Const.NO_ENTRY;
+                updateFreePointer( next );
+            }
+        }
+        else
+        {
+            nexts[ prevIdx ] = next;
+            heads[ idx ] = Const.NO_ENTRY;
+            nexts[ idx ] = Const.NO_ENTRY;
+            updateFreePointer( idx );
+        }
+        size--;
+        insert( targetHead, val );
+    }
+
+    /**
+     * Initialize the list <i>listHead</i> to an empty list. Required before using a list of a structure
+     * created with lazy lists, the list must not have any values.
+     *
+     * @param listHead the list to initialize
+     */
+    public void resetList( int listHead )
+    {
+        heads[ listHead ] = Const.NO_ENTRY;
+        nexts[ listHead ] = Const.NO_ENTRY;
+    }
+
+    /**
+     * <p>Increase the number of lists to <i>newNumLists</i>, keeping the contents of the existing lists. The
+     * new lists are empty.</p>
+     * <p/>
+     * <p>The heads of the new lists are the indexes directly after the current heads, which may be holding
+     * the following values of the existing lists. Those values are relocated past the new heads, and any
+     * free nodes in that range are dropped from the free list.</p>
+     *
+     * @param newNumLists the new number of lists, if not larger than the current number, nothing is done
+     */
+    public void growLists( int newNumLists )
+    {
+        int newMaxHead = newNumLists - 1;
+        int oldMaxHead = maxHead;
+        if( newMaxHead <= oldMaxHead ) return;
+
+        //drop the free nodes that are becoming heads
+        int prevFree = Const.NO_ENTRY;
+        int free = freeListPtr;
+        while( free != Const.NO_ENTRY )
+        {
+            int nextFree = nexts[ free ];
+            if( free <= newMaxHead )
+            {
+                if( prevFree == Const.NO_ENTRY ) freeListPtr = nextFree;
+                else nexts[ prevFree ] = nextFree;
+            }
+            else
+            {
+                prevFree = free;
+            }
+            free = nextFree;
+        }
+
+        if( nextUnusedIdx <= newMaxHead )
+        {
+            nextUnusedIdx = newMaxHead + 1;
+        }
+        //worst case, every index between the old and new heads is relocated
+        int required = nextUnusedIdx + ( newMaxHead - oldMaxHead );
+        heads = intFactory.ensureArrayCapacity( heads, required, Const.NO_ENTRY, growthStrategy );
+        nexts = intFactory.ensureArrayCapacity( nexts, required, Const.NO_ENTRY, growthStrategy );
+
+        for( int listHead = 0; listHead <= oldMaxHead; listHead++ )
+        {
+            int prev = listHead;
+            int idx = nexts[ listHead ];
+            while( idx != Const.NO_ENTRY )
+            {
+                if( idx <= newMaxHead )
+                {
+                    int newIdx = nextUnusedIdx++;
+                    heads[ newIdx ] = heads[ idx ];
+                    nexts[ newIdx ] = nexts[ idx ];
+                    nexts[ prev ] = newIdx;
+                    idx = newIdx;
+                }
+                prev = idx;
+                idx = nexts[ idx ];
+            }
+        }
+        Arrays.fill( heads, oldMaxHead + 1, newMaxHead + 1, Const.NO_ENTRY );
+        Arrays.fill( nexts, oldMaxHead + 1, newMaxHead + 1, Const.NO_ENTRY );
+        maxHead = newMaxHead;
+    }
+
     /**
      * Utility method to handle the linked list of 'free' items.
      *
@@ -284,7 +435,6 @@ public class MultiLinkedListInt implements Collection
             }
             else //creates a linked list using the un-used nexts
             {
-                nexts[ freeListPtr ] = Const.NO_ENTRY;
                 nexts[ idx ] = freeListPtr;
                 freeListPtr = idx;
             }
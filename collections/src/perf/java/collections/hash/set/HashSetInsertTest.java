@@ -1,5 +1,6 @@
 package collections.hash.set;
 
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -35,4 +36,30 @@ public class HashSetInsertTest
         long endTime = System.nanoTime();
         System.out.println( "Insertion with growth took [" + ( endTime - startTime ) / 1000000 + "] millis" );
     }
+
+    /**
+     * Check that <i>set</i> holds exactly the distinct keys of <i>loads</i>, so a timing is not reported for a
+     * set that lost or duplicated keys. Done outside of the timing.
+     *
+     * @param set   the loaded set
+     * @param loads the keys inserted
+     */
+    protected static void check( HashSetInt set, int[] loads )
+    {
+        int[] sorted = Arrays.copyOf( loads, loads.length );
+        Arrays.sort( sorted );
+        int distinct = 0;
+        for( int i = 0; i < sorted.length; i++ )
+        {
+            if( i == 0 || sorted[ i ] != sorted[ i - 1 ] ) distinct++;
+            if( set.contains( sorted[ i ] ) == -1 )
+            {
+                throw new IllegalStateException( "Lost key [" + sorted[ i ] + "]" );
+            }
+        }
+        if( set.getSize() != distinct )
+        {
+            throw new IllegalStateException( "Set size [" + set.getSize() + "] expected [" + distinct + "]" );
+        }
+    }
 }
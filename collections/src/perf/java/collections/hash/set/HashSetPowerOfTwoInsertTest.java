@@ -0,0 +1,90 @@
+package collections.hash.set;
+
+import collections.hash.HashFunctions;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * Compares the modulo buckets of the HashSet against power of two buckets. The first load is the same as
+ * {@link HashSetInsertTest}, a million inserts of random keys from a small range into a small set. The
+ * second is a million random keys from the full int range, where re-hashing (splitting the buckets in place)
+ * is a larger part of the time, followed by a lookup of every key. Each is run a few times so the later runs
+ * are compiled.
+ * <p/>
+ * Note that dense sequential ids with the identity hash function are a best case for modulo buckets, every
+ * bucket has one key and lookups walk memory in order, which the mixing of the power of two buckets gives up.
+ */
+public class HashSetPowerOfTwoInsertTest extends HashSetInsertTest
+{
+    public static final int RUNS = 5;
+
+    /** The set last loaded by {@link #time(int[], boolean)} */
+    protected static HashSetInt set;
+
+    public static void main( String[] args )
+    {
+        randomLoads = new int[ ONE_MILLION ];
+        int[] uniqueLoads = new int[ ONE_MILLION ];
+        for( int i = 0; i < ONE_MILLION; i++ )
+        {
+            randomLoads[ i ] = random.nextInt( 10000 );
+            uniqueLoads[ i ] = random.nextInt();
+        }
+
+        for( int run = 0; run < RUNS; run++ )
+        {
+            System.out.println( "Run [" + run + "]" );
+            System.out.println( "  random, modulo        [" + time( randomLoads, false ) + "] millis" );
+            System.out.println( "  random, power of two  [" + time( randomLoads, true ) + "] millis" );
+            System.out.println( "  unique, modulo        [" + time( uniqueLoads, false ) + "] millis, lookups [" +
+                                timeLookups( set, uniqueLoads ) + "] millis" );
+            System.out.println( "  unique, power of two  [" + time( uniqueLoads, true ) + "] millis, lookups [" +
+                                timeLookups( set, uniqueLoads ) + "] millis" );
+        }
+    }
+
+    /**
+     * Insert all of <i>loads</i> into a new set of initial size 8, with growth, and check the set holds them.
+     *
+     * @param loads             keys to insert
+     * @param powerOfTwoBuckets the bucket mode of the set
+     * @return the time taken in millis
+     */
+    protected static long time( int[] loads, boolean powerOfTwoBuckets )
+    {
+        set = new HashSetInt( 8, .75, ArrayFactoryInt.defaultIntProvider, ArrayFactoryInt.defaultIntProvider,
+                              HashFunctions.hashFunctionInt, GrowthStrategy.doubleGrowth,
+                              powerOfTwoBuckets );
+        long startTime = System.nanoTime();
+        for( int i = 0; i < loads.length; i++ )
+        {
+            set.insert( loads[ i ] );
+        }
+        long endTime = System.nanoTime();
+        check( set, loads );
+        return ( endTime - startTime ) / 1000000;
+    }
+
+    /**
+     * Look up all of <i>loads</i> in <i>set</i>.
+     *
+     * @param set   the set
+     * @param loads keys to look up
+     * @return the time taken in millis
+     */
+    protected static long timeLookups( HashSetInt set, int[] loads )
+    {
+        int found = 0;
+        long startTime = System.nanoTime();
+        for( int i = 0; i < loads.length; i++ )
+        {
+            if( set.contains( loads[ i ] ) != -1 ) found++;
+        }
+        long endTime = System.nanoTime();
+        if( found != loads.length ) throw new IllegalStateException( "Lost keys, found [" + found + "]" );
+        return ( endTime - startTime ) / 1000000;
+    }
+}
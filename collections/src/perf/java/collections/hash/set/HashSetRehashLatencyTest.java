@@ -0,0 +1,80 @@
+package collections.hash.set;
+
+import java.util.Arrays;
+
+/**
+ * Copyright © 2012 Max Miller
+ * All rights reserved.
+ * <p/>
+ * Insert latency percentiles of a growing HashSet, with the re-hash done all at once, and done incrementally.
+ * Every insert is timed on its own, so the pause of a full re-hash shows in the tail (p99.9 and max) rather
+ * than being averaged away.
+ * <p/>
+ * Run with a large, pre-touched heap, for example -Xms5g -Xmx5g -Xmn4g -XX:+AlwaysPreTouch, otherwise the GC and
+ * the page faults of first touching the large arrays are what is measured.
+ */
+public class HashSetRehashLatencyTest extends HashSetInsertTest
+{
+    public static final int TEN_MILLION = 10000000;
+    public static final int RUNS = 3;
+
+    public static void main( String[] args )
+    {
+        int numKeys = ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : TEN_MILLION;
+        randomLoads = new int[ numKeys ];
+        for( int i = 0; i < numKeys; i++ )
+        {
+            randomLoads[ i ] = random.nextInt();
+        }
+        long[] latencies = new long[ numKeys ];
+
+        for( int run = 0; run < RUNS; run++ )
+        {
+            System.out.println( "Run [" + run + "]" );
+            report( "  all at once ", latencies, time( latencies, false ) );
+            report( "  incremental ", latencies, time( latencies, true ) );
+        }
+    }
+
+    /**
+     * Insert all of the <i>randomLoads</i> into a small set, timing each insert, and check the set holds them.
+     *
+     * @param latencies   filled with the nanos of each insert
+     * @param incremental re-hash incrementally
+     * @return the total time in millis
+     */
+    protected static long time( long[] latencies, boolean incremental )
+    {
+        HashSetInt set = new HashSetInt( 8 );
+        set.setIncrementalRehash( incremental );
+        int len = randomLoads.length;
+        long startTime = System.nanoTime();
+        for( int i = 0; i < len; i++ )
+        {
+            long before = System.nanoTime();
+            set.insert( randomLoads[ i ] );
+            latencies[ i ] = System.nanoTime() - before;
+        }
+        long totalMillis = ( System.nanoTime() - startTime ) / 1000000;
+        check( set, randomLoads );
+        return totalMillis;
+    }
+
+    /**
+     * Print the percentiles of the latencies, sorts the latencies.
+     *
+     * @param name       name of the run
+     * @param latencies  nanos of each insert
+     * @param totalMilis total time of the run
+     */
+    protected static void report( String name, long[] latencies, long totalMilis )
+    {
+        Arrays.sort( latencies );
+        int len = latencies.length;
+        System.out.println( name + "total [" + totalMilis + "] millis, p50 [" + latencies[ len / 2 ] +
+                            "] p99 [" + latencies[ ( int ) ( len * .99 ) ] +
+                            "] p99.9 [" + latencies[ ( int ) ( len * .999 ) ] +
+                            "] p99.99 [" + latencies[ ( int ) ( len * .9999 ) ] +
+                            "] max [" + latencies[ len - 1 ] + "] nanos" );
+    }
+}
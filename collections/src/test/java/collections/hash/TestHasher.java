@@ -0,0 +1,154 @@
+package collections.hash;
+
+import collections.hash.set.HashSetInt;
+import collections.hash.set.HashSetLong;
+import core.NumberUtil;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import core.array.factory.ArrayFactoryLong;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestHasher
+{
+    public static final int NUM_KEYS = 10000;
+    public static final int NUM_BUCKETS = 16384;
+    /** Longest chain we accept from a mixing tier, Poisson at this load puts the max around 6 */
+    public static final int MAX_ACCEPTABLE_CHAIN = 10;
+
+    public static final byte[] MIXING_TIERS = new byte[]{ Hasher.XOR_SHIFT, Hasher.MURMUR3, Hasher.WYHASH };
+
+
+    @Test
+    public void multiplyHighTest()
+    {
+        Random random = new Random( 42 );
+        long[] special = new long[]{ 0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, Hasher.WY_P0, Hasher.WY_P1 };
+        for( int i = 0; i < 1000; i++ )
+        {
+            long x = ( i < special.length ) ? special[ i ] : random.nextLong();
+            long y = ( i < special.length ) ? special[ special.length - 1 - i ] : random.nextLong();
+            long expected = BigInteger.valueOf( x ).multiply( BigInteger.valueOf( y ) ).shiftRight( 64 ).longValue();
+            TestCase.assertEquals( expected, Hasher.multiplyHigh( x, y ) );
+        }
+    }
+
+    /** Every long tier must use the high 32 bits of the key */
+    @Test
+    public void highBitsUsedTest()
+    {
+        byte[] tiers = new byte[]{ Hasher.IDENTITY, Hasher.XOR_SHIFT, Hasher.MURMUR3, Hasher.WYHASH };
+        for( int t = 0; t < tiers.length; t++ )
+        {
+            HashSetInt hashes = new HashSetInt( NUM_BUCKETS );
+            for( int i = 0; i < NUM_KEYS; i++ )
+            {
+                hashes.insert( Hasher.getHashCode( NumberUtil.packLong( i, 0 ), tiers[ t ] ) );
+            }
+            TestCase.assertEquals( NUM_KEYS, hashes.getSize() );
+        }
+    }
+
+    /** Flipping one input bit of the murmur mixers should flip about half of the output bits */
+    @Test
+    public void avalancheTest()
+    {
+        Random random = new Random( 7 );
+        long flipped32 = 0;
+        long flipped64 = 0;
+        int samples = 200;
+        for( int i = 0; i < samples; i++ )
+        {
+            int x = random.nextInt();
+            long l = random.nextLong();
+            for( int bit = 0; bit < 32; bit++ )
+            {
+                flipped32 += Integer.bitCount( Hasher.fmix32( x ) ^ Hasher.fmix32( x ^ ( 1 << bit ) ) );
+            }
+            for( int bit = 0; bit < 64; bit++ )
+            {
+                flipped64 += Long.bitCount( Hasher.fmix64( l ) ^ Hasher.fmix64( l ^ ( 1L << bit ) ) );
+            }
+        }
+        double avg32 = flipped32 / ( double ) ( samples * 32 );
+        double avg64 = flipped64 / ( double ) ( samples * 64 );
+        TestCase.assertTrue( avg32 > 15 && avg32 < 17 );
+        TestCase.assertTrue( avg64 > 31 && avg64 < 33 );
+    }
+
+    /**
+     * Packed (left, right) pairs where the two halves are equal fold to 0 with the identity tier, every key
+     * goes into one bucket. The mixing tiers keep the chains flat.
+     */
+    @Test
+    public void packedLongDistributionTest()
+    {
+        HashSetLong identity = newLongSet( Hasher.IDENTITY );
+        for( int i = 0; i < NUM_KEYS; i++ )
+        {
+            identity.insert( NumberUtil.packLong( i, i ) );
+        }
+        TestCase.assertEquals( NUM_KEYS, identity.getMaxChainLength() );
+
+        for( int t = 0; t < MIXING_TIERS.length; t++ )
+        {
+            HashSetLong set = newLongSet( MIXING_TIERS[ t ] );
+            for( int i = 0; i < NUM_KEYS; i++ )
+            {
+                set.insert( NumberUtil.packLong( i, i ) );
+            }
+            TestCase.assertEquals( NUM_KEYS, set.getSize() );
+            TestCase.assertTrue( set.getMaxChainLength() <= MAX_ACCEPTABLE_CHAIN );
+        }
+    }
+
+    /** Sequential ids spaced by a multiple of the bucket count */
+    @Test
+    public void stridedIntDistributionTest()
+    {
+        for( int t = 0; t < MIXING_TIERS.length; t++ )
+        {
+            HashSetInt set = new HashSetInt( NUM_BUCKETS, .75, ArrayFactoryInt.defaultIntProvider,
+                                             ArrayFactoryInt.defaultIntProvider,
+                                             new HashFunctions.HashFunctionInt( MIXING_TIERS[ t ] ),
+                                             GrowthStrategy.doubleGrowth );
+            for( int i = 0; i < NUM_KEYS; i++ )
+            {
+                set.insert( i * NUM_BUCKETS );
+            }
+            int[] histogram = set.getChainLengthHistogram( null );
+            TestCase.assertTrue( histogram.length <= MAX_ACCEPTABLE_CHAIN + 1 );
+        }
+    }
+
+    @Test
+    public void negativeHashCodeTest()
+    {
+        HashSetLong set = newLongSet( Hasher.MURMUR3 );
+        for( int i = 0; i < NUM_KEYS; i++ )
+        {
+            TestCase.assertEquals( i, set.insert( -i * 31L ) );
+        }
+        for( int i = 0; i < NUM_KEYS; i++ )
+        {
+            TestCase.assertEquals( i, set.getEntry( -i * 31L ) );
+        }
+    }
+
+    private static HashSetLong newLongSet( byte tier )
+    {
+        return new HashSetLong( NUM_BUCKETS, .75, ArrayFactoryLong.defaultLongProvider,
+                                ArrayFactoryInt.defaultIntProvider, new HashFunctions.HashFunctionLong( tier ),
+                                GrowthStrategy.doubleGrowth );
+    }
+}
@@ -1,10 +1,13 @@
 package collections.hash.map;
 
+import collections.generic.map.MapEntryConsumer_KeyTypeName__ValueTypeName_;
 import collections.hash.HashFunctions;
 import collections.hash.set.TestHashSet_KeyTypeName_;
+import core.Const;
 import core.array.GrowthStrategy;
 import core.array.factory.*;
 import core.stub.IntValueConverter;
+import core.stub.*;
 import junit.framework.TestCase;
 import org.junit.Before;
 import org.junit.Test;
@@ -111,6 +114,117 @@ public class TestHashMap_KeyTypeName__ValueTypeName_
     }
 
     /** Basic test, assert item returns false when not present (duh) */
+    /** The map over a power of two bucket set, grown past its initial buckets */
+    @Test
+    public void powerOfTwoBucketsTest()
+    {
+        if( template ) return;
+        map = new HashMap_KeyTypeName__ValueTypeName_( 2, .75,
+                                                       ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                                       ArrayFactoryInt.defaultIntProvider,
+                                                       HashFunctions.hashFunction_KeyTypeName_,
+                                                       GrowthStrategy.doubleGrowth,
+                                                       ArrayFactory_ValueTypeName_.default_ValueTypeName_Provider,
+                                                       true );
+        for( int i = 0; i < LARGE_TEST_SIZE / 2; i++ )
+        {
+            TestCase.assertEquals( i, map.insert( IntValueConverter._key_FromInt( i ),
+                                                  IntValueConverter._val_FromInt( i ) ) );
+        }
+        for( int i = 0; i < LARGE_TEST_SIZE / 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._val_FromInt( i ),
+                                   map.get( IntValueConverter._key_FromInt( i ), IntValueConverter._val_FromInt( -1 ) ) );
+        }
+        TestCase.assertEquals( LARGE_TEST_SIZE / 2, map.getSize() );
+    }
+
+    /** Values stay with their keys while the keys are re-hashed incrementally */
+    @Test
+    public void incrementalRehashTest()
+    {
+        if( template ) return;
+        map.setIncrementalRehash( true );
+        boolean sawRehashing = false;
+        for( int i = 0; i < LARGE_TEST_SIZE / 2; i++ )
+        {
+            map.insert( IntValueConverter._key_FromInt( i ), IntValueConverter._val_FromInt( i ) );
+            sawRehashing |= map.isRehashing();
+        }
+        TestCase.assertTrue( sawRehashing );
+        for( int i = 0; i < LARGE_TEST_SIZE / 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._val_FromInt( i ),
+                                   map.get( IntValueConverter._key_FromInt( i ), IntValueConverter._val_FromInt( -1 ) ) );
+        }
+    }
+
+    /** insertAll replaces the values of keys already in the map, and getAll reads them back */
+    @Test
+    public void insertAllTest()
+    {
+        if( template ) return;
+        int numKeys = LARGE_TEST_SIZE / 2;
+        _key_[] keys = new _key_[ numKeys ];
+        _val_[] values = new _val_[ numKeys ];
+        for( int i = 0; i < numKeys; i++ )
+        {
+            keys[ i ] = IntValueConverter._key_FromInt( i );
+            values[ i ] = IntValueConverter._val_FromInt( i + 1 );
+        }
+        map.insert( keys[ 0 ], IntValueConverter._val_FromInt( -1 ) );
+        int[] entries = new int[ numKeys ];
+        TestCase.assertEquals( numKeys - 1, map.insertAll( keys, values, 0, numKeys, entries ) );
+        TestCase.assertEquals( numKeys, map.getSize() );
+        for( int i = 0; i < numKeys; i++ )
+        {
+            TestCase.assertEquals( i, entries[ i ] );
+            TestCase.assertEquals( values[ i ],
+                                   map.get( keys[ i ], IntValueConverter._val_FromInt( -1 ) ) );
+        }
+
+        map.remove( keys[ 1 ] );
+        _val_[] found = new _val_[ numKeys ];
+        TestCase.assertEquals( numKeys - 1, map.getAll( keys, 0, numKeys, found, IntValueConverter._val_FromInt( -1 ) ) );
+        TestCase.assertEquals( IntValueConverter._val_FromInt( -1 ), found[ 1 ] );
+        for( int i = 2; i < numKeys; i++ )
+        {
+            TestCase.assertEquals( values[ i ], found[ i ] );
+        }
+    }
+
+    /** forEach visits the live pairs in entry order, skipping removed keys */
+    @Test
+    public void forEachTest()
+    {
+        if( template ) return;
+        int numKeys = LARGE_TEST_SIZE / 2;
+        for( int i = 0; i < numKeys; i++ )
+        {
+            map.insert( IntValueConverter._key_FromInt( i ), IntValueConverter._val_FromInt( i + 1 ) );
+        }
+        for( int i = 0; i < numKeys; i += 2 )
+        {
+            map.remove( IntValueConverter._key_FromInt( i ) );
+        }
+        final int[] visited = new int[]{ 0, 1 };
+        map.forEach( new MapEntryConsumer_KeyTypeName__ValueTypeName_()
+        {
+            @Override
+            public void accept( int entry, _key_ key, _val_ value )
+            {
+                TestCase.assertEquals( visited[ 1 ], entry );
+                TestCase.assertEquals( IntValueConverter._key_FromInt( entry ), key );
+                TestCase.assertEquals( IntValueConverter._val_FromInt( entry + 1 ), value );
+                visited[ 0 ]++;
+                visited[ 1 ] += 2;
+            }
+        } );
+        TestCase.assertEquals( numKeys / 2, visited[ 0 ] );
+        TestCase.assertEquals( 1, map.nextEntry( Const.NO_ENTRY ) );
+        TestCase.assertEquals( 3, map.nextEntry( 1 ) );
+    }
+
     @Test
     public void assertRemoveIsNotThereFalse()
     {
@@ -0,0 +1,351 @@
+package collections.hash.set;
+
+import collections.hash.HashFunctions;
+import core.Const;
+import core.array.factory.ArrayFactory_KeyTypeName_;
+import core.array.factory.*;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestConcurrentHashSet_KeyTypeName_
+{
+    ConcurrentHashSet_KeyTypeName_ hashSet;
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    public static final int TEST_SIZE = 8;
+    //when adding values around 0,1 can get results that would indicate correct behavior
+    public static final int OFFSET_FROM_ZERO = 10;
+    /** Number of distinct keys for the multi-threaded tests, small enough for every key type */
+    public static final int NUM_KEYS = 100;
+    public static final int NUM_THREADS = 8;
+    public static final int ROUNDS = 200;
+
+
+    /**
+     * Initially load with TEST_SIZE items, where the initial capacity is set to that size
+     * Assert the sizes, and that entries are returned in compact manner
+     */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        hashSet = new ConcurrentHashSet_KeyTypeName_( TEST_SIZE );
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertTrue( hashSet.getSize() == 0 );
+
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j ); //compact
+            TestCase.assertTrue( hashSet.contains( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) == i );
+        }
+
+        //fill up exact same will return the exact same entries
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j );
+        }
+
+        TestCase.assertTrue( hashSet.getSize() == TEST_SIZE );
+        TestCase.assertFalse( hashSet.isEmpty() );
+
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( hashSet.get( i ), IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+    }
+
+    /** Remove each item iteratively */
+    @Test
+    public void fullRemove()
+    {
+        if( template ) return;
+        loadTest();
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+            TestCase.assertEquals( ( TEST_SIZE - i - 1 ), hashSet.getSize() );
+            TestCase.assertTrue( hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) )
+                                 == Const.NO_ENTRY );
+        }
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.remove( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) ) );
+    }
+
+    /**
+     * Load more items than the initial capacity, with one segment and with many, so that the segments re-hash
+     * and the keys spill over several chunks.
+     */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        int[] concurrency = new int[]{ 1, 3, 16 };
+        for( int c = 0; c < concurrency.length; c++ )
+        {
+            hashSet = new ConcurrentHashSet_KeyTypeName_( TEST_SIZE, concurrency[ c ] );
+            TestCase.assertEquals( ( c == 0 ) ? 1 : ( c == 1 ) ? 4 : 16, hashSet.getNumSegments() );
+            for( int i = 0; i < NUM_KEYS; i++ )
+            {
+                int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+                TestCase.assertEquals( i, j ); //compact
+            }
+            TestCase.assertEquals( NUM_KEYS, hashSet.getSize() );
+            TestCase.assertTrue( hashSet.chunks.length > 1 );
+            for( int i = 0; i < NUM_KEYS; i++ )
+            {
+                TestCase.assertEquals( i, hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+                TestCase.assertEquals( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ), hashSet.get( i ) );
+            }
+        }
+    }
+
+    /** A chunk is added by publishing a new chunks array, the array a reader holds is never written to */
+    @Test
+    public void chunkPublishTest()
+    {
+        if( template ) return;
+        hashSet = new ConcurrentHashSet_KeyTypeName_( TEST_SIZE );
+        int chunkSize = hashSet.chunkMask + 1;
+        for( int i = 0; i < chunkSize; i++ )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        Object[] held = hashSet.chunks;
+        TestCase.assertTrue( held.length > 1 );
+        hashSet.insert( IntValueConverter._key_FromInt( chunkSize + OFFSET_FROM_ZERO ) );
+        TestCase.assertNotSame( held, hashSet.chunks );
+        TestCase.assertNull( held[ 1 ] );
+        TestCase.assertSame( held[ 0 ], hashSet.chunks[ 0 ] );
+        TestCase.assertEquals( chunkSize, hashSet.getEntry( IntValueConverter._key_FromInt( chunkSize + OFFSET_FROM_ZERO ) ) );
+    }
+
+    /** Test that after removing, next insert will use that vacated entry */
+    @Test
+    public void freeListCompactNessTest()
+    {
+        if( template ) return;
+        loadTest();
+        hashSet.remove( IntValueConverter._key_FromInt( 0 + OFFSET_FROM_ZERO ) );
+        TestCase.assertTrue( hashSet.insert( IntValueConverter._key_FromInt( 100 ) ) == 0 );
+        TestCase.assertTrue( hashSet.contains( IntValueConverter._key_FromInt( 100 ) ) == 0 );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.contains( IntValueConverter._key_FromInt( 0 ) ) );
+
+        //remove everything, more than the initial free list, and insert again
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        hashSet.remove( IntValueConverter._key_FromInt( 100 ) );
+        TestCase.assertTrue( hashSet.isEmpty() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertTrue( hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) < TEST_SIZE );
+        }
+        TestCase.assertEquals( TEST_SIZE, hashSet.getSize() );
+    }
+
+    @Test
+    public void clearTest()
+    {
+        if( template ) return;
+        loadTest();
+        hashSet.remove( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) );
+        hashSet.clear();
+        TestCase.assertTrue( hashSet.isEmpty() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( Const.NO_ENTRY,
+                                   hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        //entries start again from 0
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+    }
+
+    @Test
+    public void badLoadFactorTest()
+    {
+        if( template ) return;
+        try
+        {
+            new ConcurrentHashSet_KeyTypeName_( TEST_SIZE, 4, 1.0, ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                                ArrayFactoryInt.defaultIntProvider,
+                                                HashFunctions.hashFunction_KeyTypeName_ );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+
+    /**
+     * Every thread inserts all of the keys, starting from a different key. Each key must get exactly one entry, and the
+     * entries must be compact, 0 to NUM_KEYS - 1.
+     */
+    @Test
+    public void concurrentInsertTest() throws Exception
+    {
+        if( template ) return;
+        for( int round = 0; round < ROUNDS / 10; round++ )
+        {
+            hashSet = new ConcurrentHashSet_KeyTypeName_( 0, 4 );
+            final int[][] entries = new int[ NUM_THREADS ][ NUM_KEYS ];
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            final CountDownLatch start = new CountDownLatch( 1 );
+            Thread[] threads = new Thread[ NUM_THREADS ];
+            for( int t = 0; t < NUM_THREADS; t++ )
+            {
+                final int thread = t;
+                threads[ t ] = new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            start.await();
+                            for( int i = 0; i < NUM_KEYS; i++ )
+                            {
+                                int key = ( i + thread * 37 ) % NUM_KEYS;
+                                entries[ thread ][ key ] =
+                                        hashSet.insert( IntValueConverter._key_FromInt( key + OFFSET_FROM_ZERO ) );
+                            }
+                        }
+                        catch( Throwable e )
+                        {
+                            failure.compareAndSet( null, e );
+                        }
+                    }
+                };
+                threads[ t ].start();
+            }
+            start.countDown();
+            for( int t = 0; t < NUM_THREADS; t++ )
+            {
+                threads[ t ].join();
+            }
+            if( failure.get() != null ) throw new AssertionError( failure.get() );
+
+            TestCase.assertEquals( NUM_KEYS, hashSet.getSize() );
+            boolean[] used = new boolean[ NUM_KEYS ];
+            for( int key = 0; key < NUM_KEYS; key++ )
+            {
+                int entry = entries[ 0 ][ key ];
+                for( int t = 1; t < NUM_THREADS; t++ )
+                {
+                    TestCase.assertEquals( entry, entries[ t ][ key ] );
+                }
+                TestCase.assertTrue( entry >= 0 && entry < NUM_KEYS );
+                TestCase.assertFalse( used[ entry ] );
+                used[ entry ] = true;
+                TestCase.assertEquals( IntValueConverter._key_FromInt( key + OFFSET_FROM_ZERO ), hashSet.get( entry ) );
+                TestCase.assertEquals( entry,
+                                       hashSet.getEntry( IntValueConverter._key_FromInt( key + OFFSET_FROM_ZERO ) ) );
+            }
+        }
+    }
+
+    /**
+     * Each writer owns its own keys and inserts and removes them over and over, while readers look up the keys
+     * that are never removed. The readers must always find those, at the entry they were inserted at, and the
+     * entries must stay compact.
+     */
+    @Test
+    public void concurrentInsertRemoveTest() throws Exception
+    {
+        if( template ) return;
+        final int writers = NUM_THREADS / 2;
+        final int stable = NUM_KEYS / 2;
+        final int perWriter = ( NUM_KEYS - stable ) / writers;
+        hashSet = new ConcurrentHashSet_KeyTypeName_( 0, 2 );
+        final int[] stableEntries = new int[ stable ];
+        for( int i = 0; i < stable; i++ )
+        {
+            stableEntries[ i ] = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] threads = new Thread[ NUM_THREADS ];
+        for( int t = 0; t < NUM_THREADS; t++ )
+        {
+            final int thread = t;
+            threads[ t ] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for( int round = 0; round < ROUNDS; round++ )
+                        {
+                            if( thread < writers )
+                            {
+                                int first = stable + thread * perWriter + OFFSET_FROM_ZERO;
+                                for( int i = 0; i < perWriter; i++ )
+                                {
+                                    int entry = hashSet.insert( IntValueConverter._key_FromInt( first + i ) );
+                                    TestCase.assertEquals( IntValueConverter._key_FromInt( first + i ),
+                                                           hashSet.get( entry ) );
+                                }
+                                for( int i = 0; i < perWriter; i++ )
+                                {
+                                    if( hashSet.remove( IntValueConverter._key_FromInt( first + i ) ) ==
+                                        Const.NO_ENTRY )
+                                    {
+                                        throw new AssertionError( "Lost key [" + ( first + i ) + "]" );
+                                    }
+                                }
+                            }
+                            else
+                            {
+                                for( int i = 0; i < stable; i++ )
+                                {
+                                    int entry = hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+                                    if( entry != stableEntries[ i ] )
+                                    {
+                                        throw new AssertionError( "Key [" + i + "] at [" + entry + "]" );
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    catch( Throwable e )
+                    {
+                        failure.compareAndSet( null, e );
+                    }
+                }
+            };
+            threads[ t ].start();
+        }
+        start.countDown();
+        for( int t = 0; t < NUM_THREADS; t++ )
+        {
+            threads[ t ].join();
+        }
+        if( failure.get() != null ) throw new AssertionError( failure.get() );
+
+        TestCase.assertEquals( stable, hashSet.getSize() );
+        //every writer held at most perWriter entries at once
+        TestCase.assertTrue( hashSet.nextEntry.get() <= stable + writers * perWriter );
+    }
+}
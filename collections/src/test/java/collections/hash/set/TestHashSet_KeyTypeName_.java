@@ -1,5 +1,6 @@
 package collections.hash.set;
 
+import collections.generic.EntryConsumer_KeyTypeName_;
 import collections.hash.HashFunctions;
 import core.Const;
 import core.array.GrowthStrategy;
@@ -12,6 +13,10 @@ import org.junit.Test;
 import util.TestUtils_KeyTypeName_;
 import util.TestUtilsInt;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 
 /**
  * Copyright 1/14/13
@@ -327,6 +332,519 @@ public class TestHashSet_KeyTypeName_
     }
 
 
+    /** The chain length histogram accounts for every bucket and every entry */
+    @Test
+    public void chainLengthHistogramTest()
+    {
+        if( template ) return;
+        loadTest();
+        assertHistogram( hashSet );
+
+        sameBucketTest();
+        int[] histogram = hashSet.getChainLengthHistogram( null );
+        TestCase.assertEquals( TEST_SIZE + 1, histogram.length );
+        TestCase.assertEquals( 1, histogram[ TEST_SIZE ] );
+        TestCase.assertEquals( TEST_SIZE, hashSet.getMaxChainLength() );
+        assertHistogram( hashSet );
+    }
+
+    /**
+     * Sum of the histogram is the number of buckets, and the sum of each length times its count is the
+     * size.
+     *
+     * @param set the set to test
+     */
+    public static void assertHistogram( HashSet_KeyTypeName_ set )
+    {
+        int[] histogram = set.getChainLengthHistogram( new int[ 1 ] );
+        int buckets = 0;
+        int entries = 0;
+        for( int i = 0; i < histogram.length; i++ )
+        {
+            buckets += histogram[ i ];
+            entries += i * histogram[ i ];
+        }
+        TestCase.assertEquals( set.numBuckets, buckets );
+        TestCase.assertEquals( set.getSize(), entries );
+    }
+
+    /**
+     * Power of two buckets, grown a few times so that chains are split in place. Every key must be found, and
+     * the number of buckets stays a power of two.
+     */
+    @Test
+    public void powerOfTwoGrowthTest()
+    {
+        if( template ) return;
+        TestCase.assertEquals( 4, newPowerOfTwoSet( 3, HashFunctions.hashFunction_KeyTypeName_ ).numBuckets );
+        hashSet = newPowerOfTwoSet( 4, HashFunctions.hashFunction_KeyTypeName_ );
+        for( int i = 0; i < TEST_SIZE * 8; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j ); //compact
+            for( int k = 0; k <= i; k++ )
+            {
+                TestCase.assertEquals( k, hashSet.getEntry( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+            }
+        }
+        TestCase.assertEquals( TEST_SIZE * 8, hashSet.getSize() );
+        TestCase.assertEquals( 0, hashSet.numBuckets & ( hashSet.numBuckets - 1 ) );
+        TestCase.assertTrue( hashSet.numBuckets >= TEST_SIZE * 8 );
+        TestCase.assertEquals( TEST_SIZE * 8, hashSet.bucketList.getSize() );
+        assertHistogram( hashSet );
+
+        //remove every other, then re-insert
+        for( int i = 0; i < TEST_SIZE * 8; i += 2 )
+        {
+            TestCase.assertEquals( i, hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        for( int i = 0; i < TEST_SIZE * 8; i++ )
+        {
+            int expected = ( i % 2 == 0 ) ? Const.NO_ENTRY : i;
+            TestCase.assertEquals( expected, hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        for( int i = 0; i < TEST_SIZE * 8; i += 2 )
+        {
+            TestCase.assertTrue( hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) < TEST_SIZE * 8 );
+        }
+        TestCase.assertEquals( TEST_SIZE * 8, hashSet.getSize() );
+    }
+
+    /** Every key in one bucket, the split moves nothing (all keys have the same hash), and removes still work */
+    @Test
+    public void powerOfTwoSameBucketTest()
+    {
+        if( template ) return;
+        hashSet = newPowerOfTwoSet( 2, new SameBucketHashFunction_KeyTypeName_() );
+        for( int i = 0; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertEquals( TEST_SIZE * 2, hashSet.getMaxChainLength() );
+        for( int i = 0; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertTrue( hashSet.isEmpty() );
+    }
+
+    @Test
+    public void powerOfTwoCopyTest()
+    {
+        if( template ) return;
+        powerOfTwoGrowthTest();
+        HashSet_KeyTypeName_ copy = hashSet.copy( null );
+        assertEquals( hashSet, copy );
+        copy = hashSet.copy( new HashSet_KeyTypeName_( 1 ) );
+        assertEquals( hashSet, copy );
+        for( int i = 0; i < TEST_SIZE * 8; i++ )
+        {
+            TestCase.assertEquals( hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ),
+                                   copy.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+    }
+
+    /** Modulo buckets grow as well, and a set of initial size 0 can be inserted into */
+    @Test
+    public void bucketGrowthTest()
+    {
+        if( template ) return;
+        hashSet = new HashSet_KeyTypeName_( 0 );
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertTrue( hashSet.numBuckets >= TEST_SIZE * 2 );
+        assertHistogram( hashSet );
+    }
+
+    /**
+     * Incremental re-hash in both bucket modes, every key inserted so far must be found after every insert,
+     * while buckets are being migrated.
+     */
+    @Test
+    public void incrementalRehashTest()
+    {
+        if( template ) return;
+        boolean[] modes = new boolean[]{ false, true };
+        for( int m = 0; m < modes.length; m++ )
+        {
+            hashSet = newIncrementalSet( modes[ m ] );
+            boolean sawRehashing = false;
+            for( int i = 0; i < TEST_SIZE * 8; i++ )
+            {
+                TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+                sawRehashing |= hashSet.isRehashing();
+                for( int k = 0; k <= i; k++ )
+                {
+                    TestCase.assertEquals( k, hashSet.contains( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+                }
+            }
+            TestCase.assertTrue( sawRehashing );
+            TestCase.assertEquals( TEST_SIZE * 8, hashSet.getSize() );
+        }
+    }
+
+    /** Removing and re-inserting while the buckets are being migrated */
+    @Test
+    public void incrementalRehashRemoveTest()
+    {
+        if( template ) return;
+        hashSet = newIncrementalSet( false );
+        int i = 0;
+        while( !hashSet.isRehashing() )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO + i++ ) );
+        }
+        int loaded = i;
+        //remove by key and by entry, touching both the old and the new buckets
+        for( int k = 0; k < loaded; k += 2 )
+        {
+            TestCase.assertEquals( k, hashSet.remove( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+        }
+        for( int k = 1; k < loaded; k += 4 )
+        {
+            TestCase.assertEquals( k, hashSet.removeByEntry( k ) );
+        }
+        for( int k = 0; k < loaded; k++ )
+        {
+            int expected = ( k % 2 == 0 || k % 4 == 1 ) ? Const.NO_ENTRY : k;
+            TestCase.assertEquals( expected, hashSet.getEntry( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+        }
+        assertHistogram( hashSet );
+    }
+
+    /** A copy taken during the migration finds every key, and finishing the migration keeps them */
+    @Test
+    public void incrementalRehashCopyTest()
+    {
+        if( template ) return;
+        hashSet = newIncrementalSet( true );
+        int i = 0;
+        while( !hashSet.isRehashing() )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO + i++ ) );
+        }
+        HashSet_KeyTypeName_ copy = hashSet.copy( null );
+        TestCase.assertTrue( copy.isRehashing() );
+        hashSet.setIncrementalRehash( false );
+        TestCase.assertFalse( hashSet.isRehashing() );
+        for( int k = 0; k < i; k++ )
+        {
+            TestCase.assertEquals( k, copy.getEntry( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+            TestCase.assertEquals( k, hashSet.getEntry( IntValueConverter._key_FromInt( k + OFFSET_FROM_ZERO ) ) );
+        }
+        hashSet.clear();
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.getEntry( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) ) );
+    }
+
+    /**
+     * insertAll gives the same entries as inserting one at a time, in both bucket modes and while re-hashing
+     * incrementally. The batch holds every key twice, and is inserted from an offset.
+     */
+    @Test
+    public void insertAllTest()
+    {
+        if( template ) return;
+        int numKeys = TEST_SIZE * 8;
+        int off = 3;
+        _key_[] batch = new _key_[ off + numKeys * 2 ];
+        for( int i = 0; i < numKeys * 2; i++ )
+        {
+            batch[ off + i ] = IntValueConverter._key_FromInt( ( i % numKeys ) + OFFSET_FROM_ZERO );
+        }
+        HashSet_KeyTypeName_[] sets = new HashSet_KeyTypeName_[]{ new HashSet_KeyTypeName_( 4 ),
+                                                                  newPowerOfTwoSet( 4, HashFunctions.hashFunction_KeyTypeName_ ),
+                                                                  newIncrementalSet( false ) };
+        for( int s = 0; s < sets.length; s++ )
+        {
+            hashSet = sets[ s ];
+            //a few keys one at a time first, so the batch sees keys already in the set
+            for( int i = 0; i < TEST_SIZE; i++ )
+            {
+                hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            }
+            int[] entries = new int[ batch.length ];
+            TestCase.assertEquals( numKeys - TEST_SIZE, hashSet.insertAll( batch, off, numKeys * 2, entries ) );
+            TestCase.assertEquals( numKeys, hashSet.getSize() );
+            for( int i = 0; i < numKeys * 2; i++ )
+            {
+                TestCase.assertEquals( i % numKeys, entries[ off + i ] );
+            }
+            TestCase.assertEquals( 0, hashSet.insertAll( batch, off, numKeys, null ) );
+            assertHistogram( hashSet );
+        }
+    }
+
+    /** A batch large enough to grow the buckets more than once re-hashes once, and every key is found */
+    @Test
+    public void insertAllGrowthTest()
+    {
+        if( template ) return;
+        int numKeys = TEST_SIZE * 8;
+        _key_[] batch = new _key_[ numKeys ];
+        for( int i = 0; i < numKeys; i++ )
+        {
+            batch[ i ] = IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO );
+        }
+        hashSet = new HashSet_KeyTypeName_( 1 );
+        hashSet.insertAll( batch, 0, numKeys, null );
+        TestCase.assertTrue( hashSet.numBuckets * .75 >= numKeys );
+        for( int i = 0; i < numKeys; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.getEntry( batch[ i ] ) );
+        }
+    }
+
+    /** getEntries finds the same entries as getEntry, and Const.NO_ENTRY for keys not in the set */
+    @Test
+    public void getEntriesTest()
+    {
+        if( template ) return;
+        int numKeys = TEST_SIZE * 8;
+        boolean[] modes = new boolean[]{ false, true };
+        for( int m = 0; m < modes.length; m++ )
+        {
+            hashSet = newIncrementalSet( modes[ m ] );
+            _key_[] batch = new _key_[ numKeys ];
+            for( int i = 0; i < numKeys; i++ )
+            {
+                batch[ i ] = IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO );
+                //every other key is inserted
+                if( i % 2 == 0 )
+                {
+                    hashSet.insert( batch[ i ] );
+                }
+            }
+            //remove one, so its entry is on the free list
+            hashSet.remove( batch[ 2 ] );
+            int[] entries = new int[ numKeys ];
+            TestCase.assertEquals( numKeys / 2 - 1, hashSet.getEntries( batch, 0, numKeys, entries ) );
+            for( int i = 0; i < numKeys; i++ )
+            {
+                TestCase.assertEquals( hashSet.getEntry( batch[ i ] ), entries[ i ] );
+            }
+            TestCase.assertEquals( Const.NO_ENTRY, entries[ 2 ] );
+            TestCase.assertEquals( Const.NO_ENTRY, entries[ 1 ] );
+        }
+    }
+
+    /**
+     * The cursor and forEach visit exactly the live entries, in ascending order, across more than one word of
+     * the liveness bitmap. Removed entries are skipped until re-used from the free list.
+     */
+    @Test
+    public void liveEntriesTest()
+    {
+        if( template ) return;
+        int numKeys = 100;
+        hashSet = new HashSet_KeyTypeName_( 4 );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.nextEntry( Const.NO_ENTRY ) );
+        for( int i = 0; i < numKeys; i++ )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        for( int i = 0; i < numKeys; i += 3 )
+        {
+            hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        assertLiveEntries( hashSet, 3 );
+
+        //re-use of a removed entry makes it live again
+        int entry = hashSet.insert( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) );
+        TestCase.assertTrue( hashSet.isLive( entry ) );
+        hashSet.removeByEntry( entry );
+        TestCase.assertFalse( hashSet.isLive( entry ) );
+
+        HashSet_KeyTypeName_ copy = hashSet.copy( new HashSet_KeyTypeName_( 256 ) );
+        assertLiveEntries( copy, 3 );
+
+        hashSet.clear();
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.nextEntry( Const.NO_ENTRY ) );
+        TestCase.assertEquals( 0, hashSet.insert( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) ) );
+        TestCase.assertEquals( 0, hashSet.nextEntry( Const.NO_ENTRY ) );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.nextEntry( 0 ) );
+    }
+
+    /** Removing the entry being visited does not skip the following entries */
+    @Test
+    public void forEachRemoveTest()
+    {
+        if( template ) return;
+        hashSet = new HashSet_KeyTypeName_( 4 );
+        for( int i = 0; i < TEST_SIZE * 8; i++ )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        final int[] visited = new int[ 1 ];
+        hashSet.forEach( new EntryConsumer_KeyTypeName_()
+        {
+            @Override
+            public void accept( int entry, _key_ key )
+            {
+                TestCase.assertEquals( visited[ 0 ]++, entry );
+                hashSet.removeByEntry( entry );
+            }
+        } );
+        TestCase.assertEquals( TEST_SIZE * 8, visited[ 0 ] );
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.nextEntry( Const.NO_ENTRY ) );
+    }
+
+    /**
+     * Assert that the live entries of <i>set</i> are those not a multiple of <i>removedEvery</i>, with both the
+     * cursor and forEach.
+     */
+    private static void assertLiveEntries( final HashSet_KeyTypeName_ set, final int removedEvery )
+    {
+        int expected = 1;
+        int count = 0;
+        for( int entry = set.nextEntry( Const.NO_ENTRY ); entry != Const.NO_ENTRY; entry = set.nextEntry( entry ) )
+        {
+            if( expected % removedEvery == 0 ) expected++;
+            TestCase.assertEquals( expected++, entry );
+            TestCase.assertEquals( IntValueConverter._key_FromInt( entry + OFFSET_FROM_ZERO ), set.get( entry ) );
+            count++;
+        }
+        TestCase.assertEquals( set.getSize(), count );
+        final int[] visited = new int[]{ 0, Const.NO_ENTRY };
+        set.forEach( new EntryConsumer_KeyTypeName_()
+        {
+            @Override
+            public void accept( int entry, _key_ key )
+            {
+                TestCase.assertTrue( entry > visited[ 1 ] );
+                TestCase.assertTrue( entry % removedEvery != 0 );
+                TestCase.assertEquals( set.get( entry ), key );
+                visited[ 0 ]++;
+                visited[ 1 ] = entry;
+            }
+        } );
+        TestCase.assertEquals( set.getSize(), visited[ 0 ] );
+    }
+
+    /** The liveness bitmap is allocated, grown and copied by the int factory of the set */
+    @Test
+    public void liveFactoryTest()
+    {
+        if( template ) return;
+        TrackingIntFactory factory = new TrackingIntFactory();
+        hashSet = new HashSet_KeyTypeName_( 8, .75, ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider, factory,
+                                            HashFunctions.hashFunction_KeyTypeName_, GrowthStrategy.doubleGrowth,
+                                            false );
+        TestCase.assertTrue( factory.arrays.contains( hashSet.live ) );
+        for( int i = 0; i < 100; i++ )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        for( int i = 0; i < 100; i += 3 )
+        {
+            hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        TestCase.assertTrue( hashSet.live.length >= 4 );
+        TestCase.assertTrue( factory.arrays.contains( hashSet.live ) );
+        assertLiveEntries( hashSet, 3 );
+
+        HashSet_KeyTypeName_ copy = hashSet.copy( new HashSet_KeyTypeName_( 1, .75,
+                                                                            ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                                                            factory, HashFunctions.hashFunction_KeyTypeName_,
+                                                                            GrowthStrategy.doubleGrowth, false ) );
+        TestCase.assertNotSame( hashSet.live, copy.live );
+        TestCase.assertTrue( factory.arrays.contains( copy.live ) );
+        assertLiveEntries( copy, 3 );
+    }
+
+    /** The bucket list of a re-hash is allocated by the int factory of the set */
+    @Test
+    public void rehashFactoryTest()
+    {
+        if( template ) return;
+        TrackingIntFactory factory = new TrackingIntFactory();
+        hashSet = new HashSet_KeyTypeName_( 8, 1.00, ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider, factory,
+                                            HashFunctions.hashFunction_KeyTypeName_, GrowthStrategy.doubleGrowth,
+                                            false );
+        for( int i = 0; i < 9; i++ )
+        {
+            hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+        //16 buckets and room for 16 entries
+        TestCase.assertEquals( 32, factory.largest );
+        for( int i = 0; i < 9; i++ )
+        {
+            TestCase.assertTrue( hashSet.contains( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) != -1 );
+        }
+    }
+
+    /** Hands out the arrays of the default int factory, keeping track of them */
+    protected static class TrackingIntFactory extends ArrayFactoryInt
+    {
+        protected final Set<int[]> arrays = Collections.newSetFromMap( new IdentityHashMap<int[], Boolean>() );
+        /** Length of the longest array handed out */
+        protected int largest;
+
+        protected int[] track( int[] array )
+        {
+            arrays.add( array );
+            largest = Math.max( largest, array.length );
+            return array;
+        }
+
+        @Override
+        public int[] ensureArrayCapacity( int[] array, int minSize, int defaultValue, GrowthStrategy growthStrategy )
+        {
+            return track( defaultIntProvider.ensureArrayCapacity( array, minSize, defaultValue, growthStrategy ) );
+        }
+
+        @Override
+        public int[] ensureArrayCapacity( int[] array, int minSize, GrowthStrategy growthStrategy )
+        {
+            return track( defaultIntProvider.ensureArrayCapacity( array, minSize, growthStrategy ) );
+        }
+
+        @Override
+        public int[] grow( int[] array, int minSize, int defaultValue, GrowthStrategy growthStrategy )
+        {
+            return track( defaultIntProvider.grow( array, minSize, defaultValue, growthStrategy ) );
+        }
+
+        @Override
+        public int[] grow( int[] array, int minSize, GrowthStrategy growthStrategy )
+        {
+            return track( defaultIntProvider.grow( array, minSize, growthStrategy ) );
+        }
+
+        @Override
+        public int[] alloc( int size )
+        {
+            return track( defaultIntProvider.alloc( size ) );
+        }
+
+        @Override
+        public int[] alloc( int size, int fillValue )
+        {
+            return track( defaultIntProvider.alloc( size, fillValue ) );
+        }
+    }
+
+    private HashSet_KeyTypeName_ newIncrementalSet( boolean powerOfTwoBuckets )
+    {
+        HashSet_KeyTypeName_ set = new HashSet_KeyTypeName_( 4, .75,
+                                                             ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                                             ArrayFactoryInt.defaultIntProvider,
+                                                             HashFunctions.hashFunction_KeyTypeName_,
+                                                             GrowthStrategy.doubleGrowth, powerOfTwoBuckets );
+        set.setIncrementalRehash( true );
+        return set;
+    }
+
+    private HashSet_KeyTypeName_ newPowerOfTwoSet( int initialSize, HashFunctions.HashFunction_KeyTypeName_ hash )
+    {
+        return new HashSet_KeyTypeName_( initialSize, .75, ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                         ArrayFactoryInt.defaultIntProvider, hash, GrowthStrategy.doubleGrowth,
+                                         true );
+    }
+
     //free list, exactly same with same pointer
     //keys, same keys
     //size is same, rehash size is same, load factor same
@@ -378,6 +896,8 @@ public class TestHashSet_KeyTypeName_
         TestCase.assertEquals( expected.loadFactorSize, actual.loadFactorSize );
         TestCase.assertEquals( expected.getSize(), actual.getSize() );
         TestCase.assertEquals( expected.nextEntry, actual.nextEntry );
+        TestCase.assertEquals( expected.numBuckets, actual.numBuckets );
+        TestCase.assertEquals( expected.powerOfTwoBuckets, actual.powerOfTwoBuckets );
 
     }
 
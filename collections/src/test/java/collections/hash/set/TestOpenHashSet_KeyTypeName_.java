@@ -0,0 +1,314 @@
+package collections.hash.set;
+
+import collections.hash.HashFunctions;
+import core.Const;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactory_KeyTypeName_;
+import core.array.factory.*;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Test;
+import util.TestUtils_KeyTypeName_;
+import util.TestUtilsInt;
+
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestOpenHashSet_KeyTypeName_
+{
+    OpenHashSet_KeyTypeName_ hashSet;
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    public static final int TEST_SIZE = 8;
+    //when adding values around 0,1 can get results that would indicate correct behavior
+    public static final int OFFSET_FROM_ZERO = 10;
+
+
+    /**
+     * Initially load with TEST_SIZE items, where the initial capacity is set to that size
+     * Assert the sizes, and that entries are returned in compact manner
+     */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        hashSet = new OpenHashSet_KeyTypeName_( TEST_SIZE );
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertTrue( hashSet.getSize() == 0 );
+
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j ); //compact
+            TestCase.assertTrue( hashSet.contains( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) == i );
+        }
+
+        //fill up exact same will return the exact same entries
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j );
+        }
+
+        TestCase.assertTrue( hashSet.getSize() == TEST_SIZE );
+        TestCase.assertFalse( hashSet.isEmpty() );
+
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( hashSet.get( i ), IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+        }
+    }
+
+    /**
+     * Every item hashes to the same slot, so each one is a longer probe than the last. Inserts, lookups and
+     * removes must all still work.
+     */
+    @Test
+    public void sameSlotTest()
+    {
+        if( template ) return;
+        hashSet = new OpenHashSet_KeyTypeName_( TEST_SIZE, .5, ArrayFactory_KeyTypeName_.default_KeyTypeName_Provider,
+                                                ArrayFactoryInt.defaultIntProvider,
+                                                new SameBucketHashFunction_KeyTypeName_(),
+                                                GrowthStrategy.doubleGrowth );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j );
+        }
+        TestCase.assertEquals( TEST_SIZE, hashSet.getSize() );
+        TestCase.assertEquals( TEST_SIZE, hashSet.getMaxProbeLength() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+    }
+
+    /**
+     * Removing from the start, the middle and the end of a single probe sequence must shift the following
+     * slots back, so everything that is left can still be found.
+     */
+    @Test
+    public void removeFromSameSlot()
+    {
+        if( template ) return;
+        int[] toRemove = new int[]{ 0, TEST_SIZE - 1, TEST_SIZE / 2 };
+        for( int r = 0; r < toRemove.length; r++ )
+        {
+            sameSlotTest();
+            int removed = toRemove[ r ];
+            TestCase.assertEquals( removed,
+                                   hashSet.remove( IntValueConverter._key_FromInt( removed + OFFSET_FROM_ZERO ) ) );
+            TestCase.assertEquals( TEST_SIZE - 1, hashSet.getSize() );
+            TestCase.assertEquals( TEST_SIZE - 1, hashSet.getMaxProbeLength() );
+            for( int i = 0; i < TEST_SIZE; i++ )
+            {
+                int expected = ( i == removed ) ? Const.NO_ENTRY : i;
+                TestCase.assertEquals( expected,
+                                       hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+            }
+        }
+    }
+
+    /** Remove each item iteratively */
+    @Test
+    public void fullRemove()
+    {
+        if( template ) return;
+        loadTest();
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.remove( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+            TestCase.assertEquals( ( TEST_SIZE - i - 1 ), hashSet.getSize() );
+            TestCase.assertTrue( hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) )
+                                 == Const.NO_ENTRY );
+        }
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertEquals( 0, hashSet.getMaxProbeLength() );
+    }
+
+    @Test
+    public void fullRemoveByEntry()
+    {
+        if( template ) return;
+        loadTest();
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int entry = hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( entry, hashSet.removeByEntry( entry ) );
+            TestCase.assertEquals( ( TEST_SIZE - i - 1 ), hashSet.getSize() );
+            TestCase.assertTrue( hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) )
+                                 == Const.NO_ENTRY );
+        }
+        TestCase.assertTrue( hashSet.isEmpty() );
+    }
+
+    /** Load more items into the set than its initial capacity can accommodate */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        hashSet = new OpenHashSet_KeyTypeName_( TEST_SIZE );
+        int slotsLen = hashSet.slots.length;
+
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, j ); //compact
+        }
+        TestCase.assertTrue( hashSet.slots.length > slotsLen );
+        TestCase.assertTrue( hashSet.getSize() == TEST_SIZE * 4 );
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+    }
+
+    /** Starting from a size of 0 should grow the keys and the slots */
+    @Test
+    public void zeroSizeTest()
+    {
+        if( template ) return;
+        hashSet = new OpenHashSet_KeyTypeName_( 0 );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertEquals( TEST_SIZE, hashSet.getSize() );
+    }
+
+    /** Test that after removing, next insert will use that vacated entry */
+    @Test
+    public void freeListCompactNessTest()
+    {
+        if( template ) return;
+        loadTest();
+        hashSet.remove( IntValueConverter._key_FromInt( 0 + OFFSET_FROM_ZERO ) );
+        TestCase.assertTrue( hashSet.insert( IntValueConverter._key_FromInt( 100 ) ) == 0 );
+        TestCase.assertTrue( hashSet.contains( IntValueConverter._key_FromInt( 100 ) ) == 0 );
+        TestCase.assertEquals( Const.NO_ENTRY, hashSet.contains( IntValueConverter._key_FromInt( 0 ) ) );
+    }
+
+    /** Remove enough items to have to grow the free list, and insert them again */
+    @Test
+    public void growFreeListTest()
+    {
+        if( template ) return;
+        growthTest();
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            TestCase.assertTrue( Const.NO_ENTRY != hashSet.remove( IntValueConverter._key_FromInt( i +
+                                                                                                   OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertTrue( hashSet.isEmpty() );
+        TestCase.assertTrue( hashSet.freeList.length >= TEST_SIZE * 4 );
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            int j = hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertTrue( j < ( TEST_SIZE * 4 ) );
+        }
+        TestCase.assertTrue( hashSet.getSize() == TEST_SIZE * 4 );
+    }
+
+    /** Test our clear method, that it will result in an empty set */
+    @Test
+    public void clearTest()
+    {
+        if( template ) return;
+        loadTest();
+        hashSet.clear();
+        TestCase.assertTrue( hashSet.isEmpty() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( Const.NO_ENTRY,
+                                   hashSet.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        for( int i = 0; i < TEST_SIZE * 4; i++ )
+        {
+            TestCase.assertEquals( i, hashSet.insert( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+        TestCase.assertTrue( hashSet.getSize() == TEST_SIZE * 4 );
+    }
+
+    /** The probe histogram accounts for every key */
+    @Test
+    public void probeLengthHistogramTest()
+    {
+        if( template ) return;
+        sameSlotTest();
+        int[] histogram = hashSet.getProbeLengthHistogram( null );
+        TestCase.assertEquals( TEST_SIZE + 1, histogram.length );
+        TestCase.assertEquals( 0, histogram[ 0 ] );
+        for( int i = 1; i < histogram.length; i++ )
+        {
+            TestCase.assertEquals( 1, histogram[ i ] );
+        }
+
+        growthTest();
+        histogram = hashSet.getProbeLengthHistogram( histogram );
+        int keys = 0;
+        for( int i = 0; i < histogram.length; i++ )
+        {
+            keys += histogram[ i ];
+        }
+        TestCase.assertEquals( hashSet.getSize(), keys );
+    }
+
+    @Test
+    public void fullCopyValidSetTest()
+    {
+        if( template ) return;
+        loadTest();
+        OpenHashSet_KeyTypeName_ copy = hashSet.copy( null );
+        assertEquals( hashSet, copy );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( i, copy.getEntry( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) ) );
+        }
+    }
+
+    /** Copy to a larger and a smaller set */
+    @Test
+    public void copyToDifferentSizes()
+    {
+        if( template ) return;
+        loadTest();
+        assertEquals( hashSet, hashSet.copy( new OpenHashSet_KeyTypeName_( 4096 ) ) );
+        assertEquals( hashSet, hashSet.copy( new OpenHashSet_KeyTypeName_( 1 ) ) );
+    }
+
+
+    /**
+     * Test the equality of all state of the set.
+     *
+     * @param expected expected results
+     * @param actual   what we actually have
+     */
+    public static void assertEquals( OpenHashSet_KeyTypeName_ expected, OpenHashSet_KeyTypeName_ actual )
+    {
+        TestUtils_KeyTypeName_.assertArrayContentsToLen( expected.keys, actual.keys, expected.keys.length );
+        TestUtilsInt.assertArrayContentsToLen( expected.freeList, actual.freeList, expected.freeListPtr );
+        TestUtilsInt.assertArrayContentsEqual( expected.slots, actual.slots );
+        TestCase.assertEquals( expected.mask, actual.mask );
+        TestCase.assertEquals( expected.loadFactor, actual.loadFactor );
+        TestCase.assertEquals( expected.loadFactorSize, actual.loadFactorSize );
+        TestCase.assertEquals( expected.getSize(), actual.getSize() );
+        TestCase.assertEquals( expected.nextEntry, actual.nextEntry );
+    }
+
+    protected class SameBucketHashFunction_KeyTypeName_ extends HashFunctions.HashFunction_KeyTypeName_
+    {
+        @Override
+        public int getHashCode( _key_ k )
+        {
+            return 0;
+        }
+    }
+
+}
@@ -286,6 +286,39 @@ public class TestOneToManyInt
     }
 
 
+    /** Removing the last right of a left, then associating again, appends after the new tail in order */
+    @Test
+    public void removeTailTest()
+    {
+        for( int i = 0; i < 5; i++ )
+        {
+            oneToManyInt.associate( 1, i );
+        }
+        oneToManyInt.disassociate( 1, 4 );
+        oneToManyInt.disassociate( 1, 2 );
+        oneToManyInt.associate( 1, 10 ); //reuses a removed entry
+        oneToManyInt.associate( 1, 11 );
+        oneToManyInt.disassociate( 1, 0 );
+        int[] rights = oneToManyInt.getAllRightAssociations( 1, null, Const.NO_ENTRY );
+        TestCase.assertEquals( 4, oneToManyInt.getCountForLeft( 1 ) );
+        TestCase.assertEquals( 1, rights[ 0 ] );
+        TestCase.assertEquals( 3, rights[ 1 ] );
+        TestCase.assertEquals( 10, rights[ 2 ] );
+        TestCase.assertEquals( 11, rights[ 3 ] );
+
+        for( int i = 1; i < 12; i++ )
+        {
+            oneToManyInt.disassociate( 1, i );
+        }
+        TestCase.assertEquals( Const.NO_ENTRY, oneToManyInt.getNextRightEntry( 1, Const.NO_ENTRY ) );
+        oneToManyInt.associate( 1, 7 );
+        oneToManyInt.associate( 1, 8 );
+        TestCase.assertEquals( 2, oneToManyInt.getCountForLeft( 1 ) );
+        rights = oneToManyInt.getAllRightAssociations( 1, null, Const.NO_ENTRY );
+        TestCase.assertEquals( 7, rights[ 0 ] );
+        TestCase.assertEquals( 8, rights[ 1 ] );
+    }
+
     /**
      * Cheating way of comparing equality (cheating because it accesses internals).
      * We dont care if one OneToManyInt counts lefts and the other doesnt
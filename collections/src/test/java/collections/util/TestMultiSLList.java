@@ -469,5 +469,101 @@ public class TestMultiSLList
         }
     }
 
+    /**
+     * Growing from 3 to 6 lists, indexes 3, 4 and 5 are holding the following values of lists 0 and 1, they
+     * must be relocated and the lists keep their contents.
+     */
+    @Test
+    public void growListsTest()
+    {
+        dataLoadedLists.growLists( 6 );
+        TestCase.assertEquals( 5, dataLoadedLists.maxHead );
+        TestCase.assertEquals( 6, dataLoadedLists.getSize() );
+        assertListContents( dataLoadedLists, 0, 9, 8 );
+        assertListContents( dataLoadedLists, 1, 17, 16, 15 );
+        assertListContents( dataLoadedLists, 2, 6 );
+        for( int i = 3; i < 6; i++ )
+        {
+            assertListContents( dataLoadedLists, i, null );
+        }
+        dataLoadedLists.insert( 4, 40 );
+        dataLoadedLists.insert( 4, 41 );
+        dataLoadedLists.insert( 5, 50 );
+        assertListContents( dataLoadedLists, 1, 17, 16, 15 );
+        assertListContents( dataLoadedLists, 4, 40, 41 );
+        assertListContents( dataLoadedLists, 5, 50 );
+
+        //growing to less lists does nothing
+        dataLoadedLists.growLists( 2 );
+        TestCase.assertEquals( 5, dataLoadedLists.maxHead );
+    }
+
+    /** Free nodes that become heads are dropped from the free list */
+    @Test
+    public void growListsWithFreeListTest()
+    {
+        dataLoadedLists.remove( 1, 16 );
+        dataLoadedLists.remove( 0, 9 );
+        TestCase.assertTrue( dataLoadedLists.freeListPtr != Const.NO_ENTRY );
+        dataLoadedLists.growLists( 8 );
+        int free = dataLoadedLists.freeListPtr;
+        while( free != Const.NO_ENTRY )
+        {
+            TestCase.assertTrue( free > dataLoadedLists.maxHead );
+            free = dataLoadedLists.nexts[ free ];
+        }
+        assertListContents( dataLoadedLists, 0, 8 );
+        assertListContents( dataLoadedLists, 1, 17, 15 );
+        assertListContents( dataLoadedLists, 2, 6 );
+        for( int i = 0; i < 8; i++ )
+        {
+            dataLoadedLists.insert( 7, 70 + i );
+        }
+        assertListContents( dataLoadedLists, 7, 70, 71, 72, 73, 74, 75, 76, 77 );
+        assertListContents( dataLoadedLists, 1, 17, 15 );
+    }
+
+    /** Move the head, the middle and the tail of a list to another list, while iterating */
+    @Test
+    public void moveToListTest()
+    {
+        int[] values = new int[]{ 17, 16, 15 };
+        for( int v = 0; v < values.length; v++ )
+        {
+            setup();
+            int prevIdx = Const.NO_ENTRY;
+            int idx = dataLoadedLists.getNextIdxForList( 1, prevIdx );
+            while( idx != Const.NO_ENTRY && dataLoadedLists.getHead( idx ) != Const.NO_ENTRY )
+            {
+                if( dataLoadedLists.getHead( idx ) == values[ v ] )
+                {
+                    dataLoadedLists.moveToList( 1, prevIdx, idx, 2 );
+                }
+                else
+                {
+                    prevIdx = idx;
+                }
+                idx = dataLoadedLists.getNextIdxForList( 1, prevIdx );
+            }
+            TestCase.assertEquals( 6, dataLoadedLists.getSize() );
+            TestCase.assertEquals( 2, countList( dataLoadedLists, 1 ) );
+            assertListContents( dataLoadedLists, 2, 6, values[ v ] );
+            //the node freed from list 1 was re-used by list 2, nothing new was allocated
+            TestCase.assertEquals( 6, dataLoadedLists.nextUnusedIdx );
+        }
+    }
+
+    private int countList( MultiLinkedListInt list, int head )
+    {
+        int count = 0;
+        int idx = list.getNextIdxForList( head, Const.NO_ENTRY );
+        while( idx != Const.NO_ENTRY && list.getHead( idx ) != Const.NO_ENTRY )
+        {
+            count++;
+            idx = list.getNextIdxForList( head, idx );
+        }
+        return count;
+    }
+
 
 }
@@ -112,6 +112,38 @@ public class Types
     }
 
 
+    /**
+     * Return the number of bytes one element of <i>type</i> takes in an array. CharSequence and Object are
+     * references, estimated at 4 bytes (compressed references, the default for heaps under 32 GB), the objects
+     * they refer to are not counted.
+     *
+     * @param type the type
+     * @return the size of an element in bytes
+     */
+    public static int getSizeInBytes( byte type )
+    {
+        switch( type )
+        {
+            case Types.Bool:
+            case Types.Byte:
+                return 1;
+            case Types.Char:
+            case Types.Short:
+                return 2;
+            case Types.Int:
+            case Types.Float:
+            case Types.CharSequence:
+            case Types.Object:
+                return 4;
+            case Types.Double:
+            case Types.Long:
+                return 8;
+            default:
+                throw new IllegalArgumentException( "Not a valid type" );
+        }
+    }
+
+
     //stub types
     public static final byte _KeyTypeName_ = -1;
     public static final byte _ValueTypeName_ = _KeyTypeName_;
@@ -228,4 +228,15 @@ public abstract class ArrayFactory_KeyTypeName_
         return t;
 
     }
+
+    /**
+     * Hand back an array that the caller no longer uses. The default factory does nothing (the array is left
+     * to the garbage collector), a pooling factory keeps it to be returned by a later allocation. The caller
+     * must not use the array after releasing it.
+     *
+     * @param array the array that is no longer used
+     */
+    public void release( _key_[] array )
+    {
+    }
 }
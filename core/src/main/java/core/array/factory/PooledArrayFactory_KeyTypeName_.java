@@ -0,0 +1,305 @@
+package core.array.factory;
+
+import core.Types;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import core.stub.*;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>An array factory that recycles arrays rather than leaving them to the garbage collector. When
+ * {@link #grow} or {@link #ensureArrayCapacity} replace an array with a larger one, the old array is kept in a
+ * pool, as is any array handed back with {@link #release(_key_[])}. Allocations are served from the pool when
+ * it holds an array of exactly the length asked for, so a loop that builds up and tears down the same
+ * collections every cycle stops producing garbage once the pool is warm.</p>
+ * <p/>
+ * <p>Each thread has its own pool, so there is no locking. The pool is split into size classes, one per power
+ * of two, each holding at most <i>arraysPerClass</i> arrays; arrays longer than <i>maxPooledLength</i> are
+ * never kept. Pooled arrays are cleared when they are returned to the pool, so an allocated array holds the
+ * default values, as a new array would, and the pool does not keep the objects of an Object array alive.</p>
+ * <p/>
+ * <p>Hits, misses and the bytes held by the pool are counted, for the calling thread, see
+ * {@link #getHits()}, {@link #getMisses()} and {@link #getRetainedBytes()}.</p>
+ * <p/>
+ * <p><b>Note:</b> the array passed to grow (or to ensureArrayCapacity, when it has to grow) is taken by the
+ * pool, and will be handed out again. The caller must only keep the returned array, which is how every Jentry
+ * collection uses its factory.</p>
+ */
+public class PooledArrayFactory_KeyTypeName_ extends ArrayFactory_KeyTypeName_
+{
+    public static final int DEFAULT_ARRAYS_PER_CLASS = 4;
+    public static final int DEFAULT_MAX_POOLED_LENGTH = 1 << 20;
+    /** One size class for each power of two length */
+    protected static final int NUM_CLASSES = 32;
+
+    /** Maximum number of arrays kept for each size class */
+    protected final int arraysPerClass;
+    /** Arrays longer than this are left to the garbage collector */
+    protected final int maxPooledLength;
+    /** Estimated size of an element, for the retained bytes */
+    protected final int elementBytes;
+    /** Holds the default value of the type (0, false or null), that a new array is filled with */
+    private final _key_[] natural = new _key_[ 1 ];
+
+    protected final ThreadLocal<Pool> pools = new ThreadLocal<Pool>()
+    {
+        @Override
+        protected Pool initialValue()
+        {
+            return new Pool();
+        }
+    };
+
+    public PooledArrayFactory_KeyTypeName_()
+    {
+        this( DEFAULT_ARRAYS_PER_CLASS, DEFAULT_MAX_POOLED_LENGTH );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param arraysPerClass  the maximum number of arrays kept for each power of two size class
+     * @param maxPooledLength arrays longer than this are not pooled
+     */
+    public PooledArrayFactory_KeyTypeName_( int arraysPerClass, int maxPooledLength )
+    {
+        if( arraysPerClass < 0 || maxPooledLength < 0 )
+        {
+            throw new IllegalArgumentException( "Pool limits must not be negative, arrays per class [" +
+                                                arraysPerClass + "] max length [" + maxPooledLength + "]" );
+        }
+        this.arraysPerClass = arraysPerClass;
+        this.maxPooledLength = maxPooledLength;
+        this.elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+    }
+
+    @Override
+    public _key_[] ensureArrayCapacity( _key_[] array, int minSize, _key_ defaultValue,
+                                        GrowthStrategy growthStrategy )
+    {
+        if( minSize > array.length )
+        {
+            return grow( array, minSize, defaultValue, growthStrategy );
+        }
+        return array;
+    }
+
+    @Override
+    public _key_[] ensureArrayCapacity( _key_[] array, int minSize, GrowthStrategy growthStrategy )
+    {
+        if( minSize > array.length )
+        {
+            return grow( array, minSize, growthStrategy );
+        }
+        return array;
+    }
+
+    @Override
+    public _key_[] grow( _key_[] array, int minSize, _key_ defaultValue, GrowthStrategy growthStrategy )
+    {
+        int len = array.length;
+        _key_[] temp = grow( array, minSize, growthStrategy );
+        if( defaultValue != natural[ 0 ] )
+        {
+            Arrays.fill( temp, len, temp.length, defaultValue );
+        }
+        return temp;
+    }
+
+    @Override
+    public _key_[] grow( _key_[] array, int minSize, GrowthStrategy growthStrategy )
+    {
+        int len = array.length;
+        int newSize = growthStrategy.growthRequest( len, minSize );
+        if( newSize < minSize )
+        {
+            throw new ArrayGrowthException( PooledArrayFactory_KeyTypeName_.class, len, minSize,
+                                            Types._KeyTypeName_ );
+        }
+        _key_[] temp = alloc( newSize );
+        System.arraycopy( array, 0, temp, 0, len );
+        release( array );
+        return temp;
+    }
+
+    /**
+     * Allocate an array of exactly <i>size</i>, from the pool of the calling thread if it holds one.
+     *
+     * @param size size of array
+     * @return the array, filled with the default value of the type
+     */
+    @Override
+    public _key_[] alloc( int size )
+    {
+        _key_[] array = pools.get().take( size );
+        return ( array != null ) ? array : new _key_[ size ];
+    }
+
+    @Override
+    public _key_[] alloc( int size, _key_ fillValue )
+    {
+        _key_[] array = alloc( size );
+        if( fillValue != natural[ 0 ] )
+        {
+            Arrays.fill( array, fillValue );
+        }
+        return array;
+    }
+
+    /**
+     * Return the array to the pool of the calling thread, if its size class is not already full.
+     *
+     * @param array the array that is no longer used
+     */
+    @Override
+    public void release( _key_[] array )
+    {
+        if( array != null )
+        {
+            pools.get().give( array );
+        }
+    }
+
+    /**
+     * Number of allocations of the calling thread that were served from the pool.
+     *
+     * @return the hits
+     */
+    public long getHits()
+    {
+        return pools.get().hits;
+    }
+
+    /**
+     * Number of allocations of the calling thread that had to create a new array.
+     *
+     * @return the misses
+     */
+    public long getMisses()
+    {
+        return pools.get().misses;
+    }
+
+    /**
+     * Estimated bytes of the arrays held in the pool of the calling thread.
+     *
+     * @return the retained bytes
+     */
+    public long getRetainedBytes()
+    {
+        return pools.get().retainedBytes;
+    }
+
+    /** Reset the hit and miss counts of the calling thread. */
+    public void resetCounters()
+    {
+        Pool pool = pools.get();
+        pool.hits = 0;
+        pool.misses = 0;
+    }
+
+    /** Drop every array held in the pool of the calling thread. */
+    public void clear()
+    {
+        pools.get().clear();
+    }
+
+    /**
+     * The size class of an array of <i>length</i>, the power of two it rounds up to.
+     *
+     * @param length the length
+     * @return the size class
+     */
+    protected static int sizeClass( int length )
+    {
+        return 32 - Integer.numberOfLeadingZeros( length - 1 );
+    }
+
+    /** The arrays of one thread, a small stack of arrays for each size class */
+    protected final class Pool
+    {
+        protected final _key_[][][] arrays = new _key_[ NUM_CLASSES ][][];
+        protected final int[] counts = new int[ NUM_CLASSES ];
+        protected long hits;
+        protected long misses;
+        protected long retainedBytes;
+
+        /**
+         * Take an array of exactly <i>length</i> out of the pool.
+         *
+         * @param length the length
+         * @return the array, or null if the pool does not hold one
+         */
+        protected _key_[] take( int length )
+        {
+            if( length > 0 && length <= maxPooledLength )
+            {
+                int sizeClass = sizeClass( length );
+                _key_[][] stack = arrays[ sizeClass ];
+                int count = counts[ sizeClass ];
+                for( int i = count - 1; i >= 0; i-- )
+                {
+                    _key_[] array = stack[ i ];
+                    if( array.length == length )
+                    {
+                        stack[ i ] = stack[ count - 1 ];
+                        stack[ count - 1 ] = null;
+                        counts[ sizeClass ] = count - 1;
+                        retainedBytes -= ( long ) length * elementBytes;
+                        hits++;
+                        return array;
+                    }
+                }
+            }
+            misses++;
+            return null;
+        }
+
+        /**
+         * Clear the array and keep it, unless it is too long or its size class is full.
+         *
+         * @param array the array
+         */
+        protected void give( _key_[] array )
+        {
+            int length = array.length;
+            if( length == 0 || length > maxPooledLength ) return;
+            int sizeClass = sizeClass( length );
+            int count = counts[ sizeClass ];
+            if( count >= arraysPerClass ) return;
+            _key_[][] stack = arrays[ sizeClass ];
+            if( stack == null )
+            {
+                stack = arrays[ sizeClass ] = new _key_[ arraysPerClass ][];
+            }
+            for( int i = 0; i < count; i++ )
+            {
+                if( stack[ i ] == array ) return; //released twice
+            }
+            Arrays.fill( array, natural[ 0 ] );
+            stack[ count ] = array;
+            counts[ sizeClass ] = count + 1;
+            retainedBytes += ( long ) length * elementBytes;
+        }
+
+        protected void clear()
+        {
+            for( int i = 0; i < NUM_CLASSES; i++ )
+            {
+                if( arrays[ i ] != null )
+                {
+                    Arrays.fill( arrays[ i ], null );
+                }
+                counts[ i ] = 0;
+            }
+            retainedBytes = 0;
+        }
+    }
+}
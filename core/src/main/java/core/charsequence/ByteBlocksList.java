@@ -228,4 +228,24 @@ public class ByteBlocksList
         return new CharSequenceBytes( target );
     }
 
+    /**
+     * Get the block at <i>idx</i> into <i>target</i>, rather than allocating a new sequence on every call. The
+     * bytes are copied, so <i>target</i> stays valid when the list is changed.
+     *
+     * @param idx    the index of the block
+     * @param target the sequence to copy the block into, if null a new one is allocated
+     * @return the target, or null if there is no block at <i>idx</i>
+     */
+    public CharSequenceBytes getByteBlock( int idx, CharSequenceBytes target )
+    {
+        int len = lengths[ idx ];
+        if( len < 0 ) return null;
+        if( target == null )
+        {
+            target = new CharSequenceBytes( new byte[ len ] );
+        }
+        target.set( data, offsets[ idx ], len );
+        return target;
+    }
+
 }
@@ -19,6 +19,25 @@ public class CharSequenceBytes implements CharSequence
         this.len = data.length;
     }
 
+    /**
+     * Replace the contents with <i>length</i> bytes of <i>src</i> from <i>offset</i>, copied into this sequence's
+     * own bytes, which are only re-allocated if they are too short. This allows one sequence to be re-used as
+     * the target of many reads.
+     *
+     * @param src    source of the bytes
+     * @param offset start in the source
+     * @param length number of bytes
+     */
+    public void set( byte[] src, int offset, int length )
+    {
+        if( data.length < length )
+        {
+            data = new byte[ length ];
+        }
+        System.arraycopy( src, offset, data, 0, length );
+        this.len = length;
+    }
+
 
     /**
      * Returns the length of this character sequence.  The length is the number
@@ -122,6 +141,6 @@ public class CharSequenceBytes implements CharSequence
     @Override
     public String toString()
     {
-        return new String(data);
+        return new String( data, 0, len );
     }
 }
@@ -0,0 +1,209 @@
+package core.memory;
+
+import core.stub._key_;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Absolute get and put of each primitive type in a {@link ByteBuffer}, named by type so the templates can
+ * call them as get_KeyTypeName_ and put_KeyTypeName_ (ByteBuffer itself names the byte accessors get and put).
+ * The index is in bytes. The array versions copy a run of values at once, through a view of the buffer of the
+ * type. The _KeyTypeName_ versions are only stubs for the templates to compile against.</p>
+ */
+public class Buffers
+{
+    public static byte getByte( ByteBuffer buffer, int index )
+    {
+        return buffer.get( index );
+    }
+
+    public static void putByte( ByteBuffer buffer, int index, byte value )
+    {
+        buffer.put( index, value );
+    }
+
+    public static char getChar( ByteBuffer buffer, int index )
+    {
+        return buffer.getChar( index );
+    }
+
+    public static void putChar( ByteBuffer buffer, int index, char value )
+    {
+        buffer.putChar( index, value );
+    }
+
+    public static short getShort( ByteBuffer buffer, int index )
+    {
+        return buffer.getShort( index );
+    }
+
+    public static void putShort( ByteBuffer buffer, int index, short value )
+    {
+        buffer.putShort( index, value );
+    }
+
+    public static int getInt( ByteBuffer buffer, int index )
+    {
+        return buffer.getInt( index );
+    }
+
+    public static void putInt( ByteBuffer buffer, int index, int value )
+    {
+        buffer.putInt( index, value );
+    }
+
+    public static float getFloat( ByteBuffer buffer, int index )
+    {
+        return buffer.getFloat( index );
+    }
+
+    public static void putFloat( ByteBuffer buffer, int index, float value )
+    {
+        buffer.putFloat( index, value );
+    }
+
+    public static double getDouble( ByteBuffer buffer, int index )
+    {
+        return buffer.getDouble( index );
+    }
+
+    public static void putDouble( ByteBuffer buffer, int index, double value )
+    {
+        buffer.putDouble( index, value );
+    }
+
+    public static long getLong( ByteBuffer buffer, int index )
+    {
+        return buffer.getLong( index );
+    }
+
+    public static void putLong( ByteBuffer buffer, int index, long value )
+    {
+        buffer.putLong( index, value );
+    }
+
+    /** Stub for the templates */
+    public static _key_ get_KeyTypeName_( ByteBuffer buffer, int index )
+    {
+        return null;
+    }
+
+    /** Stub for the templates */
+    public static void put_KeyTypeName_( ByteBuffer buffer, int index, _key_ value )
+    {
+    }
+
+    /**
+     * Put <i>length</i> bytes of <i>src</i> from <i>offset</i>, at byte <i>index</i> of the buffer, in one
+     * copy. The position of the buffer is not changed.
+     *
+     * @param buffer the buffer
+     * @param index  index in bytes of the first value
+     * @param src    the values
+     * @param offset index of the first value in <i>src</i>
+     * @param length number of values
+     */
+    public static void putByte( ByteBuffer buffer, int index, byte[] src, int offset, int length )
+    {
+        view( buffer, index ).put( src, offset, length );
+    }
+
+    /**
+     * Get <i>length</i> bytes at byte <i>index</i> of the buffer into <i>dest</i> from <i>offset</i>, in one
+     * copy. The position of the buffer is not changed.
+     *
+     * @param buffer the buffer
+     * @param index  index in bytes of the first value
+     * @param dest   the values
+     * @param offset index of the first value in <i>dest</i>
+     * @param length number of values
+     */
+    public static void getByte( ByteBuffer buffer, int index, byte[] dest, int offset, int length )
+    {
+        view( buffer, index ).get( dest, offset, length );
+    }
+
+    public static void putChar( ByteBuffer buffer, int index, char[] src, int offset, int length )
+    {
+        view( buffer, index ).asCharBuffer().put( src, offset, length );
+    }
+
+    public static void getChar( ByteBuffer buffer, int index, char[] dest, int offset, int length )
+    {
+        view( buffer, index ).asCharBuffer().get( dest, offset, length );
+    }
+
+    public static void putShort( ByteBuffer buffer, int index, short[] src, int offset, int length )
+    {
+        view( buffer, index ).asShortBuffer().put( src, offset, length );
+    }
+
+    public static void getShort( ByteBuffer buffer, int index, short[] dest, int offset, int length )
+    {
+        view( buffer, index ).asShortBuffer().get( dest, offset, length );
+    }
+
+    public static void putInt( ByteBuffer buffer, int index, int[] src, int offset, int length )
+    {
+        view( buffer, index ).asIntBuffer().put( src, offset, length );
+    }
+
+    public static void getInt( ByteBuffer buffer, int index, int[] dest, int offset, int length )
+    {
+        view( buffer, index ).asIntBuffer().get( dest, offset, length );
+    }
+
+    public static void putFloat( ByteBuffer buffer, int index, float[] src, int offset, int length )
+    {
+        view( buffer, index ).asFloatBuffer().put( src, offset, length );
+    }
+
+    public static void getFloat( ByteBuffer buffer, int index, float[] dest, int offset, int length )
+    {
+        view( buffer, index ).asFloatBuffer().get( dest, offset, length );
+    }
+
+    public static void putDouble( ByteBuffer buffer, int index, double[] src, int offset, int length )
+    {
+        view( buffer, index ).asDoubleBuffer().put( src, offset, length );
+    }
+
+    public static void getDouble( ByteBuffer buffer, int index, double[] dest, int offset, int length )
+    {
+        view( buffer, index ).asDoubleBuffer().get( dest, offset, length );
+    }
+
+    public static void putLong( ByteBuffer buffer, int index, long[] src, int offset, int length )
+    {
+        view( buffer, index ).asLongBuffer().put( src, offset, length );
+    }
+
+    public static void getLong( ByteBuffer buffer, int index, long[] dest, int offset, int length )
+    {
+        view( buffer, index ).asLongBuffer().get( dest, offset, length );
+    }
+
+    /** Stub for the templates */
+    public static void put_KeyTypeName_( ByteBuffer buffer, int index, _key_[] src, int offset, int length )
+    {
+    }
+
+    /** Stub for the templates */
+    public static void get_KeyTypeName_( ByteBuffer buffer, int index, _key_[] dest, int offset, int length )
+    {
+    }
+
+    /** A view of the buffer from byte <i>index</i>, in the byte order of the buffer. */
+    protected static ByteBuffer view( ByteBuffer buffer, int index )
+    {
+        ByteBuffer view = buffer.duplicate().order( buffer.order() );
+        view.position( index );
+        return view;
+    }
+}
@@ -0,0 +1,196 @@
+package core.memory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Native memory outside of the Java heap, for storage that should not be scanned (or copied) by the garbage
+ * collector. The memory is a direct {@link ByteBuffer} in the native byte order, zeroed when allocated, read and
+ * written with the absolute typed accessors of {@link Buffers}. A buffer holds at most
+ * {@link Integer#MAX_VALUE} bytes.</p>
+ * <p/>
+ * <p>Every {@link #allocate(long)} is matched by a {@link #free(ByteBuffer)}, which releases the memory at once
+ * through the cleaner of the buffer, so the memory in use does not wait on the garbage collector (and on
+ * <code>-XX:MaxDirectMemorySize</code>). A buffer freed must not be used again, by any of its duplicates either,
+ * the memory behind it is gone. On a runtime that does not give access to the cleaner the memory is released
+ * once the buffer is no longer reachable, the owner of the buffer drops its reference when it frees it. The bytes
+ * allocated and not yet freed are counted either way, see {@link #getAllocatedBytes()}.</p>
+ */
+public class OffHeap
+{
+    public static final int sizeOfByte = 1;
+    public static final int sizeOfChar = 2;
+    public static final int sizeOfShort = 2;
+    public static final int sizeOfInt = 4;
+    public static final int sizeOfFloat = 4;
+    public static final int sizeOfDouble = 8;
+    public static final int sizeOfLong = 8;
+    /** Stub for the templates, the generated classes use the size of their type */
+    public static final int sizeOf_KeyTypeName_ = 8;
+
+    protected static final AtomicLong allocatedBytes = new AtomicLong();
+    /** Releases the memory of a buffer, null when the runtime does not allow it */
+    protected static final BufferCleaner cleaner = findCleaner();
+
+    /**
+     * Allocate <i>bytes</i> of native memory, zeroed.
+     *
+     * @param bytes number of bytes, at most {@link Integer#MAX_VALUE}
+     * @return the memory
+     */
+    public static ByteBuffer allocate( long bytes )
+    {
+        if( bytes < 0 || bytes > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Cannot allocate [" + bytes + "] bytes" );
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect( ( int ) bytes ).order( ByteOrder.nativeOrder() );
+        allocatedBytes.addAndGet( bytes );
+        return buffer;
+    }
+
+    /**
+     * Resize memory from {@link #allocate(long)}, keeping the contents up to the smaller of the two sizes, the
+     * bytes past the old size are zeroed. The old buffer is freed as soon as it is copied, and must not be used
+     * after; while it is copied both the old and the new memory are held.
+     *
+     * @param buffer   the current memory
+     * @param newBytes the new size
+     * @return the resized memory
+     */
+    public static ByteBuffer reallocate( ByteBuffer buffer, long newBytes )
+    {
+        ByteBuffer resized = allocate( newBytes );
+        copy( buffer, 0, resized, 0, ( int ) Math.min( buffer.capacity(), newBytes ) );
+        free( buffer );
+        return resized;
+    }
+
+    /**
+     * Free memory from {@link #allocate(long)}, releasing it at once where the runtime allows. The buffer (and
+     * any duplicate of it) must not be used after.
+     *
+     * @param buffer the memory, as returned by allocate, not a duplicate or slice of it
+     */
+    public static void free( ByteBuffer buffer )
+    {
+        allocatedBytes.addAndGet( -buffer.capacity() );
+        if( cleaner != null )
+        {
+            cleaner.clean( buffer );
+        }
+    }
+
+    /**
+     * Is the memory released by {@link #free(ByteBuffer)}, rather than once the buffer is no longer reachable.
+     *
+     * @return true if freed at once
+     */
+    public static boolean isFreedAtOnce()
+    {
+        return cleaner != null;
+    }
+
+    /**
+     * Copy <i>bytes</i> bytes from one buffer to another, or within a buffer, the ranges may overlap. The bytes are
+     * moved by the buffers, native memory to native memory, as if through an intermediate copy when they overlap.
+     *
+     * @param src       source buffer
+     * @param srcIndex  index of the first byte in the source
+     * @param dest      destination buffer
+     * @param destIndex index of the first byte in the destination
+     * @param bytes     number of bytes
+     */
+    public static void copy( ByteBuffer src, int srcIndex, ByteBuffer dest, int destIndex, int bytes )
+    {
+        ByteBuffer from = src.duplicate();
+        from.limit( srcIndex + bytes ).position( srcIndex );
+        ByteBuffer to = dest.duplicate();
+        to.position( destIndex );
+        to.put( from );
+    }
+
+    /**
+     * Return the number of bytes allocated and not yet freed, by all users of this class.
+     *
+     * @return the number of bytes
+     */
+    public static long getAllocatedBytes()
+    {
+        return allocatedBytes.get();
+    }
+
+    /** Releases the memory of a direct buffer */
+    protected interface BufferCleaner
+    {
+        void clean( ByteBuffer buffer );
+    }
+
+    /**
+     * Find the cleaner of direct buffers by reflection, as neither runtime exports it: Unsafe.invokeCleaner on 9
+     * and later, the Cleaner of the buffer on 8.
+     *
+     * @return the cleaner, null if the runtime gives no access to it
+     */
+    protected static BufferCleaner findCleaner()
+    {
+        try
+        {
+            Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+            Field theUnsafe = unsafeClass.getDeclaredField( "theUnsafe" );
+            theUnsafe.setAccessible( true );
+            final Object unsafe = theUnsafe.get( null );
+            final Method invokeCleaner = unsafeClass.getMethod( "invokeCleaner", ByteBuffer.class );
+            return new BufferCleaner()
+            {
+                @Override
+                public void clean( ByteBuffer buffer )
+                {
+                    invoke( invokeCleaner, unsafe, buffer );
+                }
+            };
+        }
+        catch( Exception e )
+        {
+            //before 9, through the buffer
+        }
+        try
+        {
+            final Method cleanerOf = Class.forName( "sun.nio.ch.DirectBuffer" ).getMethod( "cleaner" );
+            final Method clean = Class.forName( "sun.misc.Cleaner" ).getMethod( "clean" );
+            return new BufferCleaner()
+            {
+                @Override
+                public void clean( ByteBuffer buffer )
+                {
+                    invoke( clean, invoke( cleanerOf, buffer ) );
+                }
+            };
+        }
+        catch( Exception e )
+        {
+            return null;
+        }
+    }
+
+    protected static Object invoke( Method method, Object target, Object... args )
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch( Exception e )
+        {
+            throw new IllegalStateException( "Could not free the buffer", e );
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package core.array.factory;
+
+import core.array.GrowthStrategy;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestPooledArrayFactory_KeyTypeName_
+{
+    public static final int TEST_SIZE = 16;
+
+    protected PooledArrayFactory_KeyTypeName_ factory;
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        if( template ) return;
+        factory = new PooledArrayFactory_KeyTypeName_( 2, TEST_SIZE * 4 );
+    }
+
+    /** A released array is handed out again, cleared, for the same length only */
+    @Test
+    public void releaseAllocTest()
+    {
+        if( template ) return;
+        _key_[] array = factory.alloc( TEST_SIZE );
+        TestCase.assertEquals( 0, factory.getHits() );
+        TestCase.assertEquals( 1, factory.getMisses() );
+        array[ 3 ] = IntValueConverter._key_FromInt( 7 );
+        factory.release( array );
+        TestCase.assertTrue( factory.getRetainedBytes() > 0 );
+
+        _key_[] other = factory.alloc( TEST_SIZE - 1 ); //same size class, different length
+        TestCase.assertNotSame( array, other );
+        TestCase.assertEquals( 2, factory.getMisses() );
+
+        _key_[] again = factory.alloc( TEST_SIZE );
+        TestCase.assertSame( array, again );
+        TestCase.assertEquals( 1, factory.getHits() );
+        TestCase.assertEquals( 0, factory.getRetainedBytes() );
+        _key_[] fresh = new _key_[ 1 ];
+        TestCase.assertEquals( fresh[ 0 ], again[ 3 ] );
+    }
+
+    /** Growing hands the old array to the pool, and keeps the contents */
+    @Test
+    public void growTest()
+    {
+        if( template ) return;
+        _key_[] array = factory.alloc( TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            array[ i ] = IntValueConverter._key_FromInt( i );
+        }
+        _key_[] grown = factory.grow( array, TEST_SIZE + 1, IntValueConverter._key_FromInt( 5 ),
+                                      GrowthStrategy.doubleGrowth );
+        TestCase.assertEquals( TEST_SIZE * 2, grown.length );
+        for( int i = 0; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( ( i < TEST_SIZE ) ? i : 5 ), grown[ i ] );
+        }
+        //the old array is re-used
+        TestCase.assertSame( array, factory.alloc( TEST_SIZE ) );
+
+        //no growth needed, same array, nothing pooled
+        TestCase.assertSame( grown, factory.ensureArrayCapacity( grown, TEST_SIZE, GrowthStrategy.doubleGrowth ) );
+        TestCase.assertEquals( 0, factory.getRetainedBytes() );
+        _key_[] ensured = factory.ensureArrayCapacity( grown, TEST_SIZE * 2 + 1, GrowthStrategy.doubleGrowth );
+        TestCase.assertEquals( TEST_SIZE * 4, ensured.length );
+        TestCase.assertSame( grown, factory.alloc( TEST_SIZE * 2 ) );
+    }
+
+    /** A steady cycle of growing the same sizes stops allocating once the pool is warm */
+    @Test
+    public void steadyStateTest()
+    {
+        if( template ) return;
+        for( int cycle = 0; cycle < 3; cycle++ )
+        {
+            factory.resetCounters();
+            _key_[] array = factory.alloc( 2 );
+            for( int size = 2; size < TEST_SIZE * 4; size *= 2 )
+            {
+                array = factory.grow( array, size + 1, GrowthStrategy.doubleGrowth );
+            }
+            factory.release( array );
+            if( cycle > 0 )
+            {
+                TestCase.assertEquals( 0, factory.getMisses() );
+            }
+        }
+    }
+
+    /** Limits of the pool, full size classes and arrays that are too long are dropped */
+    @Test
+    public void limitsTest()
+    {
+        if( template ) return;
+        _key_[] a = factory.alloc( TEST_SIZE );
+        _key_[] b = factory.alloc( TEST_SIZE );
+        _key_[] c = factory.alloc( TEST_SIZE );
+        factory.release( a );
+        factory.release( b );
+        factory.release( b ); //twice is ignored
+        long retained = factory.getRetainedBytes();
+        factory.release( c ); //class is full
+        TestCase.assertEquals( retained, factory.getRetainedBytes() );
+        factory.release( factory.alloc( TEST_SIZE * 8 ) ); //too long
+        TestCase.assertEquals( retained, factory.getRetainedBytes() );
+
+        factory.clear();
+        TestCase.assertEquals( 0, factory.getRetainedBytes() );
+        TestCase.assertNotSame( a, factory.alloc( TEST_SIZE ) );
+    }
+
+    /** Each thread has its own pool */
+    @Test
+    public void threadLocalTest() throws Exception
+    {
+        if( template ) return;
+        final _key_[] array = factory.alloc( TEST_SIZE );
+        factory.release( array );
+        final Object[] taken = new Object[ 1 ];
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                taken[ 0 ] = factory.alloc( TEST_SIZE );
+            }
+        };
+        thread.start();
+        thread.join();
+        TestCase.assertNotSame( array, taken[ 0 ] );
+        TestCase.assertSame( array, factory.alloc( TEST_SIZE ) );
+    }
+}
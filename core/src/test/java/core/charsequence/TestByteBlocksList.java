@@ -42,6 +42,24 @@ public class TestByteBlocksList
         TestCase.assertEquals( testObj.getByteBlock( 2 ), "baz" );
     }
 
+    /** Reading into one target, longer blocks grow it and shorter ones only use part of it */
+    @Test
+    public void reuseTargetTest()
+    {
+        loadStringsTest();
+        CharSequenceBytes target = testObj.getByteBlock( 0, null );
+        TestCase.assertEquals( target, "foo" );
+        TestCase.assertSame( target, testObj.getByteBlock( 3, target ) );
+        TestCase.assertEquals( target, "quux" );
+        TestCase.assertEquals( "quux", target.toString() );
+        TestCase.assertSame( target, testObj.getByteBlock( 1, target ) );
+        TestCase.assertEquals( target, "bar" );
+        TestCase.assertEquals( 3, target.length() );
+        TestCase.assertEquals( "bar", target.toString() );
+        testObj.remove( 2 );
+        TestCase.assertNull( testObj.getByteBlock( 2, target ) );
+    }
+
     @Test
     public void compactNoRemovesTest()
     {
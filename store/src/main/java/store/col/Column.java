@@ -1,5 +1,7 @@
 package store.col;
 
+import store.col.storage.generic.ColStorage;
+
 /**
  * Copyright 4/24/13
  * All rights reserved.
@@ -15,4 +17,11 @@ public interface Column
 
     CharSequence getName();
 
+    /**
+     * Return the storage of the column, null until the storage has been set.
+     *
+     * @return the storage
+     */
+    ColStorage getStorage();
+
 }
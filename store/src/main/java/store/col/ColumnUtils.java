@@ -86,4 +86,92 @@ public class ColumnUtils
             default:
         }
     }
+
+    /**
+     * Set the storage of the column, of the type of the column.
+     *
+     * @param c       the column
+     * @param storage the storage
+     */
+    public static void setStorage( Column c, ColStorage storage )
+    {
+        switch( c.getType() )
+        {
+            case Types.Bool:
+                ( ( ColumnBool ) c ).setStorage( ( ColStorageBool ) storage );
+                break;
+            case Types.Byte:
+                ( ( ColumnByte ) c ).setStorage( ( ColStorageByte ) storage );
+                break;
+            case Types.Char:
+                ( ( ColumnChar ) c ).setStorage( ( ColStorageChar ) storage );
+                break;
+            case Types.Short:
+                ( ( ColumnShort ) c ).setStorage( ( ColStorageShort ) storage );
+                break;
+            case Types.Int:
+                ( ( ColumnInt ) c ).setStorage( ( ColStorageInt ) storage );
+                break;
+            case Types.Float:
+                ( ( ColumnFloat ) c ).setStorage( ( ColStorageFloat ) storage );
+                break;
+            case Types.Double:
+                ( ( ColumnDouble ) c ).setStorage( ( ColStorageDouble ) storage );
+                break;
+            case Types.Long:
+                ( ( ColumnLong ) c ).setStorage( ( ColStorageLong ) storage );
+                break;
+            case Types.CharSequence:
+                ( ( ColumnCharSequence ) c ).setStorage( ( ColStorageCharSequence ) storage );
+                break;
+            case Types.Object:
+                ( ( ColumnObject ) c ).setStorage( ( ColStorageObject ) storage );
+                break;
+            case Types.Unknown:
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Fork the storage of the column, sharing its blocks if the storage is a {@link ForkableStorage}, otherwise
+     * a copy of the storage.
+     *
+     * @param c the column
+     * @return the fork, or the copy
+     */
+    public static ColStorage forkStorage( Column c )
+    {
+        ColStorage storage = c.getStorage();
+        if( storage instanceof ForkableStorage )
+        {
+            return ( ( ForkableStorage ) storage ).fork();
+        }
+        switch( c.getType() )
+        {
+            case Types.Bool:
+                return ( ( ColStorageBool ) storage ).getCopy();
+            case Types.Byte:
+                return ( ( ColStorageByte ) storage ).getCopy();
+            case Types.Char:
+                return ( ( ColStorageChar ) storage ).getCopy();
+            case Types.Short:
+                return ( ( ColStorageShort ) storage ).getCopy();
+            case Types.Int:
+                return ( ( ColStorageInt ) storage ).getCopy();
+            case Types.Float:
+                return ( ( ColStorageFloat ) storage ).getCopy();
+            case Types.Double:
+                return ( ( ColStorageDouble ) storage ).getCopy();
+            case Types.Long:
+                return ( ( ColStorageLong ) storage ).getCopy();
+            case Types.CharSequence:
+                return ( ( ColStorageCharSequence ) storage ).getCopy();
+            case Types.Object:
+                return ( ( ColStorageObject ) storage ).getCopy();
+            case Types.Unknown:
+            default:
+        }
+        return null;
+    }
 }
@@ -56,6 +56,12 @@ public class Column_KeyTypeName_ implements Column
         return name;
     }
 
+    @Override
+    public ColStorage_KeyTypeName_ getStorage()
+    {
+        return data;
+    }
+
     public void setStorage(ColStorage_KeyTypeName_ storage)
     {
         this.data = storage;
@@ -0,0 +1,315 @@
+package store.col.scan;
+
+import collections.hash.set.HashSet_KeyTypeName_;
+import core.Const;
+import core.stub.*;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+import store.col.storage.block.ColStorageBlocked_KeyTypeName_;
+import store.col.storage.generic.ColStorageEncoded_KeyTypeName_;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Scans of a column storage for the rows matching a predicate: a range, an equality, or membership in a
+ * set. The matching rows are written to an array of row ids, or set in a selection bitmap in the layout of
+ * {@link java.util.BitSet#toLongArray()} (and of the row tracker), so selections can be combined a word at a
+ * time.</p>
+ * <p/>
+ * <p>Array and blocked storages are scanned directly on their arrays, a block at a time, rather than through
+ * {@link ColStorage_KeyTypeName_#getValue(int)} for each row. The loops do not branch on a match: the row is
+ * always written and the count moves on only for a match, so the scan runs at the speed of the reads, whatever
+ * the selectivity. Encoded (compressed) storages are decoded a block at a time, and the decoded block scanned the
+ * same way. Other storages are scanned through getValue.</p>
+ * <p/>
+ * <p>The scan is over storage rows, removed rows included, filter the result with the row tracker where
+ * needed.</p>
+ */
+public class ColumnScan_KeyTypeName_
+{
+    protected static final int RANGE = 0;
+    protected static final int IN = 1;
+
+    /**
+     * Write the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is between <i>min</i> and <i>max</i>
+     * (inclusive) to <i>target</i>, in order.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param min     the minimum value
+     * @param max     the maximum value
+     * @param target  the matching rows, must hold <i>toRow - fromRow</i> rows
+     * @return the number of matching rows
+     */
+    public static int range( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, _key_ min, _key_ max,
+                             int[] target )
+    {
+        return selectRows( storage, fromRow, toRow, RANGE, min, max, null, target );
+    }
+
+    /**
+     * Write the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is <i>value</i> to <i>target</i>, in order.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param value   the value
+     * @param target  the matching rows, must hold <i>toRow - fromRow</i> rows
+     * @return the number of matching rows
+     */
+    public static int equal( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, _key_ value, int[] target )
+    {
+        return selectRows( storage, fromRow, toRow, RANGE, value, value, null, target );
+    }
+
+    /**
+     * Write the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is in <i>values</i> to <i>target</i>, in
+     * order.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param values  the values
+     * @param target  the matching rows, must hold <i>toRow - fromRow</i> rows
+     * @return the number of matching rows
+     */
+    public static int in( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, HashSet_KeyTypeName_ values,
+                          int[] target )
+    {
+        return selectRows( storage, fromRow, toRow, IN, DefaultValueProvider.Default_KeyTypeName_.getValue(),
+                           DefaultValueProvider.Default_KeyTypeName_.getValue(), values, target );
+    }
+
+    /**
+     * Set the bits of the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is between <i>min</i> and
+     * <i>max</i> (inclusive). Other bits are left as they are.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param min     the minimum value
+     * @param max     the maximum value
+     * @param bits    the selection, bit <i>row &amp; 63</i> of word <i>row &gt;&gt;&gt; 6</i>
+     */
+    public static void rangeBits( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, _key_ min, _key_ max,
+                                  long[] bits )
+    {
+        selectBits( storage, fromRow, toRow, RANGE, min, max, null, bits );
+    }
+
+    /**
+     * Set the bits of the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is <i>value</i>. Other bits are
+     * left as they are.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param value   the value
+     * @param bits    the selection, bit <i>row &amp; 63</i> of word <i>row &gt;&gt;&gt; 6</i>
+     */
+    public static void equalBits( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, _key_ value,
+                                  long[] bits )
+    {
+        selectBits( storage, fromRow, toRow, RANGE, value, value, null, bits );
+    }
+
+    /**
+     * Set the bits of the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is in <i>values</i>. Other bits
+     * are left as they are.
+     *
+     * @param storage the storage
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param values  the values
+     * @param bits    the selection, bit <i>row &amp; 63</i> of word <i>row &gt;&gt;&gt; 6</i>
+     */
+    public static void inBits( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, HashSet_KeyTypeName_ values,
+                               long[] bits )
+    {
+        selectBits( storage, fromRow, toRow, IN, DefaultValueProvider.Default_KeyTypeName_.getValue(),
+                    DefaultValueProvider.Default_KeyTypeName_.getValue(), values, bits );
+    }
+
+    protected static int selectRows( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, int op, _key_ min,
+                                     _key_ max, HashSet_KeyTypeName_ values, int[] target )
+    {
+        checkRows( storage, fromRow, toRow );
+        if( target.length < toRow - fromRow )
+        {
+            throw new IllegalArgumentException( "Target of length [" + target.length + "] can not hold [" +
+                                                ( toRow - fromRow ) + "] rows" );
+        }
+        if( storage instanceof ColStorageArray_KeyTypeName_ )
+        {
+            _key_[] data = ( ( ColStorageArray_KeyTypeName_ ) storage ).getData();
+            return selectRows( data, fromRow, toRow, 0, op, min, max, values, target, 0 );
+        }
+        if( storage instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) storage;
+            _key_[][] blocks = blocked.getBlocks();
+            int bitsPerBlock = blocked.getBitsPerBlock();
+            int blockSize = blocked.getBlockSize();
+            int ct = 0;
+            int row = fromRow;
+            while( row < toRow )
+            {
+                int start = row & ( blockSize - 1 );
+                int end = Math.min( blockSize, start + toRow - row );
+                ct = selectRows( blocks[ row >> bitsPerBlock ], start, end, row - start, op, min, max, values,
+                                 target, ct );
+                row += end - start;
+            }
+            return ct;
+        }
+        if( storage instanceof ColStorageEncoded_KeyTypeName_ )
+        {
+            ColStorageEncoded_KeyTypeName_ encoded = ( ColStorageEncoded_KeyTypeName_ ) storage;
+            int blockSize = encoded.getBlockSize();
+            _key_[] block = new _key_[ blockSize ];
+            int ct = 0;
+            int row = fromRow;
+            while( row < toRow )
+            {
+                int start = row & ( blockSize - 1 );
+                int end = Math.min( blockSize, start + toRow - row );
+                encoded.decodeBlock( row / blockSize, block );
+                ct = selectRows( block, start, end, row - start, op, min, max, values, target, ct );
+                row += end - start;
+            }
+            return ct;
+        }
+        int ct = 0;
+        for( int row = fromRow; row < toRow; row++ )
+        {
+            target[ ct ] = row;
+            ct += matches( storage.getValue( row ), op, min, max, values ) ? 1 : 0;
+        }
+        return ct;
+    }
+
+    /**
+     * Write the matching rows of <i>data</i> in [<i>from</i>, <i>to</i>), a row being <i>base</i> plus the
+     * index, from <i>target[ct]</i>.
+     *
+     * @return the count, with the rows written
+     */
+    protected static int selectRows( _key_[] data, int from, int to, int base, int op, _key_ min, _key_ max,
+                                     HashSet_KeyTypeName_ values, int[] target, int ct )
+    {
+        if( op == RANGE )
+        {
+            for( int i = from; i < to; i++ )
+            {
+                target[ ct ] = base + i;
+                ct += ScanUtils.between( data[ i ], min, max ) ? 1 : 0;
+            }
+        }
+        else
+        {
+            for( int i = from; i < to; i++ )
+            {
+                target[ ct ] = base + i;
+                ct += ( values.getEntry( data[ i ] ) != Const.NO_ENTRY ) ? 1 : 0;
+            }
+        }
+        return ct;
+    }
+
+    protected static void selectBits( ColStorage_KeyTypeName_ storage, int fromRow, int toRow, int op, _key_ min,
+                                      _key_ max, HashSet_KeyTypeName_ values, long[] bits )
+    {
+        checkRows( storage, fromRow, toRow );
+        if( toRow > fromRow && bits.length <= ( ( toRow - 1 ) >>> 6 ) )
+        {
+            throw new IllegalArgumentException( "Selection of [" + bits.length + "] words can not hold row [" +
+                                                ( toRow - 1 ) + "]" );
+        }
+        if( storage instanceof ColStorageArray_KeyTypeName_ )
+        {
+            _key_[] data = ( ( ColStorageArray_KeyTypeName_ ) storage ).getData();
+            selectBits( data, fromRow, toRow, 0, op, min, max, values, bits );
+            return;
+        }
+        if( storage instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) storage;
+            _key_[][] blocks = blocked.getBlocks();
+            int bitsPerBlock = blocked.getBitsPerBlock();
+            int blockSize = blocked.getBlockSize();
+            int row = fromRow;
+            while( row < toRow )
+            {
+                int start = row & ( blockSize - 1 );
+                int end = Math.min( blockSize, start + toRow - row );
+                selectBits( blocks[ row >> bitsPerBlock ], start, end, row - start, op, min, max, values, bits );
+                row += end - start;
+            }
+            return;
+        }
+        if( storage instanceof ColStorageEncoded_KeyTypeName_ )
+        {
+            ColStorageEncoded_KeyTypeName_ encoded = ( ColStorageEncoded_KeyTypeName_ ) storage;
+            int blockSize = encoded.getBlockSize();
+            _key_[] block = new _key_[ blockSize ];
+            int row = fromRow;
+            while( row < toRow )
+            {
+                int start = row & ( blockSize - 1 );
+                int end = Math.min( blockSize, start + toRow - row );
+                encoded.decodeBlock( row / blockSize, block );
+                selectBits( block, start, end, row - start, op, min, max, values, bits );
+                row += end - start;
+            }
+            return;
+        }
+        for( int row = fromRow; row < toRow; row++ )
+        {
+            bits[ row >>> 6 ] |= ( matches( storage.getValue( row ), op, min, max, values ) ? 1L : 0L ) << row;
+        }
+    }
+
+    /**
+     * Set the bits of the matching rows of <i>data</i> in [<i>from</i>, <i>to</i>), a row being <i>base</i> plus
+     * the index.
+     */
+    protected static void selectBits( _key_[] data, int from, int to, int base, int op, _key_ min, _key_ max,
+                                      HashSet_KeyTypeName_ values, long[] bits )
+    {
+        if( op == RANGE )
+        {
+            for( int i = from; i < to; i++ )
+            {
+                int row = base + i;
+                bits[ row >>> 6 ] |= ( ScanUtils.between( data[ i ], min, max ) ? 1L : 0L ) << row;
+            }
+        }
+        else
+        {
+            for( int i = from; i < to; i++ )
+            {
+                int row = base + i;
+                bits[ row >>> 6 ] |= ( ( values.getEntry( data[ i ] ) != Const.NO_ENTRY ) ? 1L : 0L ) << row;
+            }
+        }
+    }
+
+    protected static boolean matches( _key_ value, int op, _key_ min, _key_ max, HashSet_KeyTypeName_ values )
+    {
+        return ( op == RANGE ) ? ScanUtils.between( value, min, max ) : values.getEntry( value ) != Const.NO_ENTRY;
+    }
+
+    protected static void checkRows( ColStorage_KeyTypeName_ storage, int fromRow, int toRow )
+    {
+        if( fromRow < 0 || toRow < fromRow || toRow > storage.getCapacity() )
+        {
+            throw new IllegalArgumentException( "Can not scan rows [" + fromRow + ", " + toRow + ") of a storage " +
+                                                "of capacity [" + storage.getCapacity() + "]" );
+        }
+    }
+}
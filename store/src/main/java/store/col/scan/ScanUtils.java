@@ -0,0 +1,60 @@
+package store.col.scan;
+
+import core.stub.*;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>The predicates of the column scans, one per primitive type so the scan templates compile to plain
+ * comparisons (the comparators subtract, and overflow). The _key_ version is only a stub for the templates to
+ * compile against.</p>
+ */
+public class ScanUtils
+{
+    public static boolean between( char value, char min, char max )
+    {
+        return min <= value && value <= max;
+    }
+
+    public static boolean between( byte value, byte min, byte max )
+    {
+        return min <= value && value <= max;
+    }
+
+    public static boolean between( short value, short min, short max )
+    {
+        return min <= value && value <= max;
+    }
+
+    public static boolean between( int value, int min, int max )
+    {
+        return min <= value && value <= max;
+    }
+
+    /** NaN is never between */
+    public static boolean between( float value, float min, float max )
+    {
+        return min <= value && value <= max;
+    }
+
+    /** NaN is never between */
+    public static boolean between( double value, double min, double max )
+    {
+        return min <= value && value <= max;
+    }
+
+    public static boolean between( long value, long min, long max )
+    {
+        return min <= value && value <= max;
+    }
+
+    /** Stub for the templates */
+    public static boolean between( _key_ value, _key_ min, _key_ max )
+    {
+        return false;
+    }
+}
@@ -4,6 +4,7 @@ import core.array.GrowthStrategy;
 import store.col.storage.array.ArrayColStorageFactory;
 import store.col.storage.block.BlockedColStorageFactory;
 import store.col.storage.generic.ColStorage;
+import store.col.storage.offheap.OffHeapColStorageFactory;
 
 /**
  * Copyright 6/6/13
@@ -21,4 +22,6 @@ public abstract class ColStorageFactory
     public static final ColStorageFactory defaultBlockedStorageFactory = new BlockedColStorageFactory( GrowthStrategy.doubleGrowth,
                                                                                                        8 );
 
+    public static final ColStorageFactory defaultOffHeapStorageFactory = new OffHeapColStorageFactory( GrowthStrategy.doubleGrowth );
+
 }
@@ -3,6 +3,7 @@ package store.col.storage.array;
 import core.Types;
 import core.array.GrowthStrategy;
 import store.col.storage.ColStorageFactory;
+import store.col.storage.bits.ColStorageBitsBool;
 import store.col.storage.generic.ColStorage;
 
 /**
@@ -27,7 +28,7 @@ public class ArrayColStorageFactory extends ColStorageFactory
         switch( type )
         {
             case Types.Bool:
-                return new ColStorageArrayBool( numRows, strategy );
+                return new ColStorageBitsBool( numRows, strategy );
             case Types.Byte:
                 return new ColStorageArrayByte( numRows, strategy );
             case Types.Char:
@@ -5,6 +5,7 @@ import core.annotations.UncheckedArray;
 import core.array.ArrayGrowthException;
 import core.array.GrowthStrategy;
 import core.stub.*;
+import store.col.storage.block.ColStorageBlocked_KeyTypeName_;
 import store.col.storage.generic.ColStorage_KeyTypeName_;
 
 /**
@@ -83,7 +84,7 @@ public class ColStorageArray_KeyTypeName_ implements ColStorage_KeyTypeName_
     /**
      * Copy a portion (or all) data from <i>source</i> to this store. Starting copying
      * at index <i>srcPos</i> in the source, to <i>destPos</i> in this store for <i>length</i>
-     * items.
+     * items. From an array or a blocked storage the rows are copied with {@link System#arraycopy}.
      *
      * @param source  source of the data to copy from
      * @param srcPos  index in the source to start copying from
@@ -94,6 +95,28 @@ public class ColStorageArray_KeyTypeName_ implements ColStorage_KeyTypeName_
     @Override
     public void copyFrom( ColStorage_KeyTypeName_ source, int srcPos, int destPos, int length )
     {
+        if( source instanceof ColStorageArray_KeyTypeName_ )
+        {
+            System.arraycopy( ( ( ColStorageArray_KeyTypeName_ ) source ).data, srcPos, data, destPos, length );
+            return;
+        }
+        if( source instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) source;
+            _key_[][] srcBlocks = blocked.getBlocks();
+            int srcBits = blocked.getBitsPerBlock();
+            int srcMask = blocked.getBlockSize() - 1;
+            while( length > 0 )
+            {
+                int srcIdx = srcPos & srcMask;
+                int n = Math.min( length, srcMask + 1 - srcIdx );
+                System.arraycopy( srcBlocks[ srcPos >> srcBits ], srcIdx, data, destPos, n );
+                srcPos += n;
+                destPos += n;
+                length -= n;
+            }
+            return;
+        }
         for( int i = 0; i < length; i++ )
         {
             this.setValue( source.getValue( srcPos++ ), destPos++ );
@@ -110,4 +133,16 @@ public class ColStorageArray_KeyTypeName_ implements ColStorage_KeyTypeName_
     {
         return strategy;
     }
+
+    /**
+     * Get the backing array, for scans that read it directly. It is replaced when the store grows, so it must
+     * not be held on to.
+     *
+     * @return the backing array
+     */
+    @UncheckedArray
+    public _key_[] getData()
+    {
+        return data;
+    }
 }
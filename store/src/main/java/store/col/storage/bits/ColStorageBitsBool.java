@@ -0,0 +1,200 @@
+package store.col.storage.bits;
+
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import store.col.storage.generic.BitsStorage;
+import store.col.storage.generic.ColStorageBool;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A boolean storage of one bit per row, in one array of longs (see {@link BitsStorage}), an eighth of the
+ * memory of a boolean array. The capacity is a multiple of 64 rows.</p>
+ */
+public class ColStorageBitsBool implements ColStorageBool, BitsStorage
+{
+    protected final GrowthStrategy strategy;
+    protected long[] words;
+    private int capacity;
+
+
+    public ColStorageBitsBool( int initialSize )
+    {
+        this( initialSize, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param initialSize the number of rows, rounded up to a multiple of 64
+     * @param strategy    the growth strategy
+     */
+    public ColStorageBitsBool( int initialSize, GrowthStrategy strategy )
+    {
+        this.strategy = strategy;
+        words = new long[ getWords( initialSize ) ];
+        capacity = words.length << 6;
+    }
+
+    /** Number of words of <i>rows</i> rows. */
+    protected static int getWords( int rows )
+    {
+        return ( int ) ( ( rows + 63L ) >>> 6 );
+    }
+
+    @UncheckedArray
+    @Override
+    public boolean getValue( int row )
+    {
+        return ( words[ row >>> 6 ] & ( 1L << row ) ) != 0;
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( boolean val, int row )
+    {
+        long mask = 1L << row;
+        int word = row >>> 6;
+        words[ word ] = ( words[ word ] & ~mask ) | ( val ? mask : 0L );
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types.Bool;
+    }
+
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        if( capacity >= minSize ) return;
+        int newSize = strategy.growthRequest( capacity, minSize );
+        if( capacity == newSize ) throw new ArrayGrowthException( this.getClass(), capacity, newSize, getType() );
+        words = Arrays.copyOf( words, getWords( newSize ) );
+        capacity = words.length << 6;
+    }
+
+    /**
+     * Return a deep copy of this store.
+     *
+     * @return a copy of the store
+     */
+    @Override
+    public ColStorageBitsBool getCopy()
+    {
+        ColStorageBitsBool copy = new ColStorageBitsBool( capacity, strategy );
+        System.arraycopy( words, 0, copy.words, 0, words.length );
+        return copy;
+    }
+
+    /**
+     * Copy a portion (or all) data from <i>source</i> to this store. Starting copying
+     * at index <i>srcPos</i> in the source, to <i>destPos</i> in this store for <i>length</i>
+     * items. Whole words of another bits storage are copied a word at a time.
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorageBool source, int srcPos, int destPos, int length )
+    {
+        if( source instanceof BitsStorage && ( ( srcPos | destPos | length ) & 63 ) == 0 && source != this )
+        {
+            BitsStorage bits = ( BitsStorage ) source;
+            int srcWord = srcPos >>> 6;
+            int destWord = destPos >>> 6;
+            for( int i = 0; i < ( length >>> 6 ); i++ )
+            {
+                words[ destWord + i ] = bits.getWord( srcWord + i );
+            }
+            return;
+        }
+        for( int i = 0; i < length; i++ )
+        {
+            this.setValue( source.getValue( srcPos++ ), destPos++ );
+        }
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public GrowthStrategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * Get the words, for filters that read them directly. They are replaced when the store grows, so they must
+     * not be held on to.
+     *
+     * @return the words, 64 rows to a word
+     */
+    @UncheckedArray
+    public long[] getWords()
+    {
+        return words;
+    }
+
+    @UncheckedArray
+    @Override
+    public long getWord( int word )
+    {
+        return words[ word ];
+    }
+
+    @UncheckedArray
+    @Override
+    public void and( long[] bits, int fromWord, int toWord )
+    {
+        for( int i = fromWord; i < toWord; i++ )
+        {
+            bits[ i ] &= words[ i ];
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public void or( long[] bits, int fromWord, int toWord )
+    {
+        for( int i = fromWord; i < toWord; i++ )
+        {
+            bits[ i ] |= words[ i ];
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public void andNot( long[] bits, int fromWord, int toWord )
+    {
+        for( int i = fromWord; i < toWord; i++ )
+        {
+            bits[ i ] &= ~words[ i ];
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public int cardinality( int fromWord, int toWord )
+    {
+        int ct = 0;
+        for( int i = fromWord; i < toWord; i++ )
+        {
+            ct += Long.bitCount( words[ i ] );
+        }
+        return ct;
+    }
+}
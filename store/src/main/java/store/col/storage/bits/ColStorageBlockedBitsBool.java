@@ -0,0 +1,374 @@
+package store.col.storage.bits;
+
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import store.col.storage.generic.BitsStorage;
+import store.col.storage.generic.BlockedStorage;
+import store.col.storage.generic.ColStorageBool;
+import store.col.storage.generic.ForkableStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A boolean storage of one bit per row (see {@link BitsStorage}), in blocks of words as
+ * {@link store.col.storage.block.ColStorageBlockedBool} is in blocks of booleans, so growth adds blocks rather
+ * than copying every word. A block is a power of two of at least 64 rows, whole words.</p>
+ * <p/>
+ * <p>A {@link #fork()} shares the blocks until they are written, as the fork of the blocked storages does.</p>
+ */
+public class ColStorageBlockedBitsBool implements ColStorageBool, BitsStorage, BlockedStorage, ForkableStorage
+{
+    /** Growth strategy of the store */
+    protected final GrowthStrategy growthStrategy;
+    /** The block size, in rows */
+    protected final int blockSize;
+    /** Number of bits of the index of a word in its block */
+    protected final int wordBitsPerBlock;
+    /** Mask of the index of a word in its block */
+    protected final int wordMask;
+    /** The words, [block][word in block] */
+    protected long[][] blocks;
+    /** Number of our active blocks */
+    protected int numBlocks;
+    /** Count of the stores holding each block, null for a block only this store holds. Null until forked. */
+    protected AtomicInteger[] refs;
+
+    /**
+     * Short Constructor. Uses double growth for all growth requests.
+     *
+     * @param blockSize size of a block, in rows (converted to the next power of 2 of at least 64)
+     * @param storeSize the size of the storage
+     */
+    public ColStorageBlockedBitsBool( int blockSize, int storeSize )
+    {
+        this( blockSize, storeSize, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param blockSize      size of a block, in rows (converted to the next power of 2 of at least 64)
+     * @param size           the size of that storage. If not a multiple of the blockSize, will be the next multiple
+     *                       after the size passed.
+     * @param growthStrategy the growth strategy of the store.
+     */
+    public ColStorageBlockedBitsBool( int blockSize, int size, GrowthStrategy growthStrategy )
+    {
+        this.growthStrategy = growthStrategy;
+        blockSize = Math.max( 64, blockSize );
+        if( ( blockSize & ( blockSize - 1 ) ) != 0 )
+        {
+            blockSize = Integer.highestOneBit( blockSize ) << 1;
+        }
+        this.blockSize = blockSize;
+        int wordsPerBlock = blockSize >>> 6;
+        this.wordBitsPerBlock = Integer.numberOfTrailingZeros( wordsPerBlock );
+        this.wordMask = wordsPerBlock - 1;
+        numBlocks = ( size % blockSize == 0 ) ? size / blockSize : ( size / blockSize ) + 1;
+        blocks = new long[ numBlocks ][ wordsPerBlock ];
+    }
+
+    @Override
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    @UncheckedArray
+    @Override
+    public boolean getValue( int row )
+    {
+        return ( getWord( row >>> 6 ) & ( 1L << row ) ) != 0;
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( boolean val, int row )
+    {
+        long mask = 1L << row;
+        int word = row >>> 6;
+        long[] block = getWritableBlock( word >> wordBitsPerBlock );
+        int idx = word & wordMask;
+        block[ idx ] = ( block[ idx ] & ~mask ) | ( val ? mask : 0L );
+    }
+
+    /**
+     * Get the total size of the store. This will always be a multiple of <i>blockSize</i>.
+     *
+     * @return the size of the store
+     */
+    @Override
+    public int getCapacity()
+    {
+        return blockSize * numBlocks;
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types.Bool;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>This structure grows by blockSize, so as long as the {@link GrowthStrategy} allows
+     * for growth, this will grow it to the new size to a multiple of blocksize.</p>
+     *
+     * @param minSize the minimum new size of the store
+     */
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        int size = getCapacity();
+        if( size >= minSize )
+        {
+            return;
+        }
+        int newSize = growthStrategy.growthRequest( size, minSize );
+        if( newSize == size ) throw new ArrayGrowthException( this.getClass(), size, minSize, Types.Bool );
+        int newNumBlocks = newSize / blockSize;
+        if( newSize % blockSize != 0 ) newNumBlocks++;
+        blocks = Arrays.copyOf( blocks, newNumBlocks );
+        for( int i = numBlocks; i < newNumBlocks; i++ )
+        {
+            blocks[ i ] = new long[ blockSize >>> 6 ];
+        }
+        if( refs != null )
+        {
+            refs = Arrays.copyOf( refs, newNumBlocks );
+        }
+        numBlocks = newNumBlocks;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a copy of this store
+     */
+    @Override
+    public ColStorageBlockedBitsBool getCopy()
+    {
+        ColStorageBlockedBitsBool copy = new ColStorageBlockedBitsBool( blockSize, getCapacity(), growthStrategy );
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            System.arraycopy( blocks[ i ], 0, copy.blocks[ i ], 0, blocks[ i ].length );
+        }
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}. Whole words of another bits storage are copied a word at a time.
+     * <p>Note We do not check the bounds of the array for this method.</p>
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorageBool source, int srcPos, int destPos, int length )
+    {
+        if( source instanceof BitsStorage && ( ( srcPos | destPos | length ) & 63 ) == 0 && source != this )
+        {
+            BitsStorage bits = ( BitsStorage ) source;
+            int srcWord = srcPos >>> 6;
+            int destWord = destPos >>> 6;
+            for( int i = 0; i < ( length >>> 6 ); i++ )
+            {
+                int word = destWord + i;
+                getWritableBlock( word >> wordBitsPerBlock )[ word & wordMask ] = bits.getWord( srcWord + i );
+            }
+            return;
+        }
+        for( int i = 0; i < length; i++ )
+        {
+            this.setValue( source.getValue( srcPos++ ), destPos++ );
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the fork
+     */
+    @Override
+    public ColStorageBlockedBitsBool fork()
+    {
+        ColStorageBlockedBitsBool fork = new ColStorageBlockedBitsBool( blockSize, 0, growthStrategy );
+        if( refs == null )
+        {
+            refs = new AtomicInteger[ numBlocks ];
+        }
+        fork.blocks = blocks.clone();
+        fork.refs = new AtomicInteger[ numBlocks ];
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            if( refs[ i ] == null )
+            {
+                refs[ i ] = new AtomicInteger( 1 );
+            }
+            refs[ i ].incrementAndGet();
+            fork.refs[ i ] = refs[ i ];
+        }
+        fork.numBlocks = numBlocks;
+        return fork;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>The count of each block still shared is dropped, the store is left with no blocks.</p>
+     */
+    @Override
+    public void release()
+    {
+        if( refs != null )
+        {
+            for( int i = 0; i < numBlocks; i++ )
+            {
+                if( refs[ i ] != null )
+                {
+                    refs[ i ].decrementAndGet();
+                }
+            }
+        }
+        refs = null;
+        blocks = new long[ 0 ][];
+        numBlocks = 0;
+    }
+
+    /**
+     * Whether the block is shared, and will be cloned on the next write to it.
+     *
+     * @param block the block
+     * @return true if the block is shared
+     */
+    public boolean isShared( int block )
+    {
+        return refs != null && refs[ block ] != null && refs[ block ].get() > 1;
+    }
+
+    /**
+     * Get the block to write to, cloning it first if it is shared.
+     *
+     * @param block the block
+     * @return the block, held only by this store
+     */
+    @UncheckedArray
+    protected long[] getWritableBlock( int block )
+    {
+        if( refs != null && refs[ block ] != null )
+        {
+            AtomicInteger ref = refs[ block ];
+            refs[ block ] = null;
+            if( ref.get() > 1 )
+            {
+                blocks[ block ] = blocks[ block ].clone();
+            }
+            ref.decrementAndGet();
+        }
+        return blocks[ block ];
+    }
+
+    /**
+     * Get the blocks, for filters that read them directly. The array of blocks is replaced when the store grows
+     * (the blocks themselves are kept), so it must not be held on to. The blocks may be shared with a fork, so
+     * they must not be written through.
+     *
+     * @return the blocks, [block][word in block]
+     */
+    @UncheckedArray
+    public long[][] getBlocks()
+    {
+        return blocks;
+    }
+
+    @UncheckedArray
+    @Override
+    public long getWord( int word )
+    {
+        return blocks[ word >> wordBitsPerBlock ][ word & wordMask ];
+    }
+
+    @UncheckedArray
+    @Override
+    public void and( long[] bits, int fromWord, int toWord )
+    {
+        int word = fromWord;
+        while( word < toWord )
+        {
+            long[] block = blocks[ word >> wordBitsPerBlock ];
+            int start = word & wordMask;
+            int end = Math.min( block.length, start + toWord - word );
+            for( int i = start; i < end; i++ )
+            {
+                bits[ word++ ] &= block[ i ];
+            }
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public void or( long[] bits, int fromWord, int toWord )
+    {
+        int word = fromWord;
+        while( word < toWord )
+        {
+            long[] block = blocks[ word >> wordBitsPerBlock ];
+            int start = word & wordMask;
+            int end = Math.min( block.length, start + toWord - word );
+            for( int i = start; i < end; i++ )
+            {
+                bits[ word++ ] |= block[ i ];
+            }
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public void andNot( long[] bits, int fromWord, int toWord )
+    {
+        int word = fromWord;
+        while( word < toWord )
+        {
+            long[] block = blocks[ word >> wordBitsPerBlock ];
+            int start = word & wordMask;
+            int end = Math.min( block.length, start + toWord - word );
+            for( int i = start; i < end; i++ )
+            {
+                bits[ word++ ] &= ~block[ i ];
+            }
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public int cardinality( int fromWord, int toWord )
+    {
+        int ct = 0;
+        int word = fromWord;
+        while( word < toWord )
+        {
+            long[] block = blocks[ word >> wordBitsPerBlock ];
+            int start = word & wordMask;
+            int end = Math.min( block.length, start + toWord - word );
+            for( int i = start; i < end; i++ )
+            {
+                ct += Long.bitCount( block[ i ] );
+            }
+            word += end - start;
+        }
+        return ct;
+    }
+}
@@ -3,6 +3,7 @@ package store.col.storage.block;
 import core.Types;
 import core.array.GrowthStrategy;
 import store.col.storage.ColStorageFactory;
+import store.col.storage.bits.ColStorageBlockedBitsBool;
 import store.col.storage.generic.ColStorage;
 
 /**
@@ -19,6 +20,7 @@ public class BlockedColStorageFactory extends ColStorageFactory
 
     public BlockedColStorageFactory( GrowthStrategy strategy, int numInitialBlocks )
     {
+        this.strategy = strategy;
         this.numInitialBlocks = numInitialBlocks;
     }
 
@@ -29,7 +31,7 @@ public class BlockedColStorageFactory extends ColStorageFactory
         switch( type )
         {
             case Types.Bool:
-                return new ColStorageBlockedBool( blockSize, numRows, strategy );
+                return new ColStorageBlockedBitsBool( blockSize, numRows, strategy );
             case Types.Byte:
                 return new ColStorageBlockedByte( blockSize, numRows, strategy );
             case Types.Char:
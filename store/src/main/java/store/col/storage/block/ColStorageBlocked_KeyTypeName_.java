@@ -5,9 +5,13 @@ import core.annotations.UncheckedArray;
 import core.array.ArrayGrowthException;
 import core.array.GrowthStrategy;
 import core.stub.*;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+import store.col.storage.generic.BlockedStorage;
 import store.col.storage.generic.ColStorage_KeyTypeName_;
+import store.col.storage.generic.ForkableStorage;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Copyright 5/1/13
@@ -61,8 +65,14 @@ import java.util.Arrays;
  * </br>
  *
  * </p>
+ * <p/>
+ * <b>Forks</b>
+ * <p>A {@link #fork()} shares the blocks with this store, each shared block with a count of the stores holding it.
+ * The first write to a shared block, by either store, clones it for the writer (unless it is the last holder), so
+ * a fork costs a reference per block and only the blocks written after it are copied. The block is cloned before
+ * the count is dropped, so the forks may be written by different threads.</p>
  */
-public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
+public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_, BlockedStorage, ForkableStorage
 {
 
     /** Growth strategy of the store */
@@ -77,6 +87,8 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
     protected _key_[][] data;
     /** Number of our active blocks */
     protected int numBlocks = 0;
+    /** Count of the stores holding each block, null for a block only this store holds. Null until forked. */
+    protected AtomicInteger[] refs;
 
     /**
      * Short Constructor. Uses double growth for all growth requests.
@@ -124,6 +136,7 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
      *
      * @return the block size
      */
+    @Override
     public int getBlockSize()
     {
         return blockSize;
@@ -141,7 +154,7 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
     @UncheckedArray
     public void setValue( _key_ value, int idx )
     {
-        data[ idx >> bitsPerBlock ][ idx & bitsMask ] = value;
+        getWritableBlock( idx >> bitsPerBlock )[ idx & bitsMask ] = value;
     }
 
     /**
@@ -200,10 +213,15 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
 
         int newNumBlocks = newSize / blockSize;
         if( newSize % blockSize != 0 ) newNumBlocks++;
-        _key_[][] temp = new _key_[ newNumBlocks ][ blockSize ];
-        for( int i = 0; i < newNumBlocks; i++ )
+        //keep the blocks, allocate only the new ones
+        _key_[][] temp = Arrays.copyOf( data, newNumBlocks );
+        for( int i = this.numBlocks; i < newNumBlocks; i++ )
         {
-            temp[ i ] = ( i < this.numBlocks ) ? data[ i ] : new _key_[ blockSize ]; //update or allocate new blocks
+            temp[ i ] = new _key_[ blockSize ];
+        }
+        if( refs != null )
+        {
+            refs = Arrays.copyOf( refs, newNumBlocks );
         }
         this.numBlocks = newNumBlocks;
         data = temp;
@@ -221,7 +239,7 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
         int len = data.length;
         for( int i = 0; i < len; i++ )
         {
-            Arrays.fill( data[ i ], val );
+            Arrays.fill( getWritableBlock( i ), val );
         }
     }
 
@@ -243,17 +261,109 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
         int endIdx = getBlockIdx( toIndex );
         if( endBlock == startBlock ) //same block, from start to end
         {
-            Arrays.fill( data[ startBlock ], startIdx, endIdx, val );
+            Arrays.fill( getWritableBlock( startBlock ), startIdx, endIdx, val );
             return;
         }
         //multiple blocks
-        Arrays.fill( data[ startBlock ], startIdx, blockSize, val );
+        Arrays.fill( getWritableBlock( startBlock ), startIdx, blockSize, val );
         while( ++startBlock < endBlock )
         {
-            Arrays.fill( data[ startBlock ], val );
+            Arrays.fill( getWritableBlock( startBlock ), val );
         }
         if( endIdx != 0 ) //if zero, we are done
-            Arrays.fill( data[ endBlock ], 0, endIdx, val );
+            Arrays.fill( getWritableBlock( endBlock ), 0, endIdx, val );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>The fork takes the blocks of this store, and every block is counted as shared. Neither store copies a
+     * block until it writes to it.</p>
+     *
+     * @return the fork
+     */
+    @Override
+    public ColStorageBlocked_KeyTypeName_ fork()
+    {
+        ColStorageBlocked_KeyTypeName_ fork = new ColStorageBlocked_KeyTypeName_( this.blockSize, 0,
+                                                                                  this.growthStrategy );
+        if( refs == null )
+        {
+            refs = new AtomicInteger[ numBlocks ];
+        }
+        fork.data = data.clone();
+        fork.refs = new AtomicInteger[ numBlocks ];
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            if( refs[ i ] == null )
+            {
+                refs[ i ] = new AtomicInteger( 1 );
+            }
+            refs[ i ].incrementAndGet();
+            fork.refs[ i ] = refs[ i ];
+        }
+        fork.numBlocks = numBlocks;
+        return fork;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>The count of each block still shared is dropped, the store is left with no blocks.</p>
+     */
+    @Override
+    public void release()
+    {
+        if( refs != null )
+        {
+            for( int i = 0; i < numBlocks; i++ )
+            {
+                if( refs[ i ] != null )
+                {
+                    refs[ i ].decrementAndGet();
+                }
+            }
+        }
+        refs = null;
+        data = new _key_[ 0 ][];
+        numBlocks = 0;
+    }
+
+    /**
+     * Whether the block is shared with a fork (or the store it was forked from), and will be cloned on the
+     * next write to it.
+     *
+     * @param block the block
+     * @return true if the block is shared
+     */
+    public boolean isShared( int block )
+    {
+        return refs != null && refs[ block ] != null && refs[ block ].get() > 1;
+    }
+
+    /**
+     * Get the block to write to, cloning it first if it is shared. A block shared by this store alone (the
+     * others have cloned it) is taken back as it is. Bulk writers (such as a snapshot read) write the block
+     * directly, it must not be held past a fork.
+     *
+     * @param block the block
+     * @return the block, held only by this store
+     */
+    @UncheckedArray
+    public _key_[] getWritableBlock( int block )
+    {
+        if( refs != null && refs[ block ] != null )
+        {
+            AtomicInteger ref = refs[ block ];
+            refs[ block ] = null;
+            if( ref.get() > 1 )
+            {
+                data[ block ] = data[ block ].clone();
+            }
+            //after the clone, the last holder may write to the block
+            ref.decrementAndGet();
+        }
+        return data[ block ];
     }
 
     /**
@@ -264,15 +374,25 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
     @Override
     public ColStorageBlocked_KeyTypeName_ getCopy()
     {
-        ColStorageBlocked_KeyTypeName_ copy = new ColStorageBlocked_KeyTypeName_( this.blockSize, this.getCapacity(),
+        //no blocks, then a clone of each block
+        ColStorageBlocked_KeyTypeName_ copy = new ColStorageBlocked_KeyTypeName_( this.blockSize, 0,
                                                                                   this.growthStrategy );
-        copy.copyFrom( this, 0, 0, this.getCapacity() );
+        copy.data = new _key_[ numBlocks ][];
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            copy.data[ i ] = data[ i ].clone();
+        }
+        copy.numBlocks = numBlocks;
         return copy;
     }
 
     /**
      * {@inheritDoc}.
      * <p>Note We do not check the bounds of the array for this method.</p>
+     * <p/>
+     * <p>From a blocked or an array storage, the rows are copied with one {@link System#arraycopy} per run of
+     * rows that stays in one block of the source and one block of this store. A copy within this store is
+     * done as if through a temporary copy of the source rows.</p>
      *
      * @param source  source of the data to copy from
      * @param srcPos  index in the source to start copying from
@@ -283,12 +403,95 @@ public class ColStorageBlocked_KeyTypeName_ implements ColStorage_KeyTypeName_
     @Override
     public void copyFrom( ColStorage_KeyTypeName_ source, int srcPos, int destPos, int length )
     {
+        if( source instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) source;
+            if( blocked == this && destPos > srcPos && destPos < srcPos + length )
+            {
+                copyBlocksBackward( srcPos, destPos, length );
+                return;
+            }
+            _key_[][] srcBlocks = blocked.data;
+            int srcBits = blocked.bitsPerBlock;
+            int srcMask = blocked.bitsMask;
+            while( length > 0 )
+            {
+                int srcIdx = srcPos & srcMask;
+                int destIdx = destPos & bitsMask;
+                int n = Math.min( length, Math.min( srcMask + 1 - srcIdx, blockSize - destIdx ) );
+                System.arraycopy( srcBlocks[ srcPos >> srcBits ], srcIdx, getWritableBlock( destPos >> bitsPerBlock ),
+                                  destIdx, n );
+                srcPos += n;
+                destPos += n;
+                length -= n;
+            }
+            return;
+        }
+        if( source instanceof ColStorageArray_KeyTypeName_ )
+        {
+            _key_[] srcData = ( ( ColStorageArray_KeyTypeName_ ) source ).getData();
+            while( length > 0 )
+            {
+                int destIdx = destPos & bitsMask;
+                int n = Math.min( length, blockSize - destIdx );
+                System.arraycopy( srcData, srcPos, getWritableBlock( destPos >> bitsPerBlock ), destIdx, n );
+                srcPos += n;
+                destPos += n;
+                length -= n;
+            }
+            return;
+        }
         for( int i = 0; i < length; i++ )
         {
             this.setValue( source.getValue( srcPos++ ), destPos++ );
         }
     }
 
+    /**
+     * Copy rows within this store to overlapping rows after them, from the last row back, so each row is read
+     * before it is written.
+     */
+    @UncheckedArray
+    protected void copyBlocksBackward( int srcPos, int destPos, int length )
+    {
+        int srcEnd = srcPos + length;
+        int destEnd = destPos + length;
+        while( length > 0 )
+        {
+            int srcIdx = ( srcEnd - 1 ) & bitsMask;
+            int destIdx = ( destEnd - 1 ) & bitsMask;
+            int n = Math.min( length, Math.min( srcIdx, destIdx ) + 1 );
+            _key_[] dest = getWritableBlock( ( destEnd - 1 ) >> bitsPerBlock );
+            System.arraycopy( data[ ( srcEnd - 1 ) >> bitsPerBlock ], srcIdx - n + 1, dest, destIdx - n + 1, n );
+            srcEnd -= n;
+            destEnd -= n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Get the number of bits of an index in a block, the block of a row is <i>row &gt;&gt; bitsPerBlock</i>.
+     *
+     * @return the bits per block
+     */
+    public int getBitsPerBlock()
+    {
+        return bitsPerBlock;
+    }
+
+    /**
+     * Get the blocks, for scans that read them directly. The array of blocks is replaced when the store grows
+     * (the blocks themselves are kept), so it must not be held on to. The blocks may be shared with a fork, so
+     * they must not be written through.
+     *
+     * @return the blocks, [block][index in block]
+     */
+    @UncheckedArray
+    public _key_[][] getBlocks()
+    {
+        return data;
+    }
+
     protected int getBlock( int idx )
     {
         return idx >> bitsPerBlock;
@@ -0,0 +1,152 @@
+package store.col.storage.compressed;
+
+import core.stub.*;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Packing of values of <i>width</i> bits in an array of longs, value <i>i</i> at bit <i>i * width</i>, low
+ * bits first (a value may span two words). The integral types are packed as longs, widened by
+ * {@link #toLong(int)} and narrowed back by {@link #toInt(long)}, one method per type so the storage templates
+ * compile to plain casts. The _key_ versions are only stubs for the templates to compile against.</p>
+ */
+public class BitPacking
+{
+    /**
+     * Get the value of <i>width</i> bits at <i>index</i>.
+     *
+     * @param words the packed values
+     * @param index the index of the value
+     * @param width the bits per value, 1 to 64
+     * @return the value, zero extended
+     */
+    public static long getBits( long[] words, int index, int width )
+    {
+        long bit = ( long ) index * width;
+        int word = ( int ) ( bit >>> 6 );
+        int shift = ( int ) ( bit & 63 );
+        long value = words[ word ] >>> shift;
+        if( shift + width > 64 )
+        {
+            value |= words[ word + 1 ] << ( 64 - shift );
+        }
+        return ( width == 64 ) ? value : value & ( ( 1L << width ) - 1 );
+    }
+
+    /**
+     * Set the value of <i>width</i> bits at <i>index</i>, only the low <i>width</i> bits of <i>value</i> are
+     * kept.
+     *
+     * @param words the packed values
+     * @param index the index of the value
+     * @param width the bits per value, 1 to 64
+     * @param value the value
+     */
+    public static void setBits( long[] words, int index, int width, long value )
+    {
+        long mask = ( width == 64 ) ? -1L : ( 1L << width ) - 1;
+        value &= mask;
+        long bit = ( long ) index * width;
+        int word = ( int ) ( bit >>> 6 );
+        int shift = ( int ) ( bit & 63 );
+        words[ word ] = ( words[ word ] & ~( mask << shift ) ) | ( value << shift );
+        if( shift + width > 64 )
+        {
+            int low = 64 - shift;
+            words[ word + 1 ] = ( words[ word + 1 ] & ~( mask >>> low ) ) | ( value >>> low );
+        }
+    }
+
+    /**
+     * Get the bits needed for the offsets [0, <i>range</i>], the range taken as unsigned.
+     *
+     * @param range the largest offset
+     * @return the width, 0 to 64
+     */
+    public static int getWidth( long range )
+    {
+        return 64 - Long.numberOfLeadingZeros( range );
+    }
+
+    /**
+     * Whether <i>offset</i>, taken as unsigned, fits in <i>width</i> bits.
+     */
+    public static boolean fits( long offset, int width )
+    {
+        return width == 64 || ( offset >>> width ) == 0;
+    }
+
+    /**
+     * Get the number of words of <i>count</i> values of <i>width</i> bits.
+     *
+     * @param count the number of values
+     * @param width the bits per value
+     * @return the number of words
+     */
+    public static int getWords( int count, int width )
+    {
+        return ( int ) ( ( ( long ) count * width + 63 ) >>> 6 );
+    }
+
+    public static long toLong( char value )
+    {
+        return value;
+    }
+
+    public static long toLong( byte value )
+    {
+        return value;
+    }
+
+    public static long toLong( short value )
+    {
+        return value;
+    }
+
+    public static long toLong( int value )
+    {
+        return value;
+    }
+
+    /** Also the narrowing of a long, there is nothing to do either way. */
+    public static long toLong( long value )
+    {
+        return value;
+    }
+
+    public static char toChar( long value )
+    {
+        return ( char ) value;
+    }
+
+    public static byte toByte( long value )
+    {
+        return ( byte ) value;
+    }
+
+    public static short toShort( long value )
+    {
+        return ( short ) value;
+    }
+
+    public static int toInt( long value )
+    {
+        return ( int ) value;
+    }
+
+    /** Stub for the templates */
+    public static long toLong( _key_ value )
+    {
+        return 0;
+    }
+
+    /** Stub for the templates */
+    public static _key_ to_KeyTypeName_( long value )
+    {
+        return null;
+    }
+}
@@ -0,0 +1,173 @@
+package store.col.storage.compressed;
+
+import core.annotations.UncheckedArray;
+import core.array.GrowthStrategy;
+import core.stub.*;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A frame of reference, bit packed storage. Each block keeps its minimum value (the base) and the offset of
+ * each row from the base, packed in as many bits as the largest offset of the block needs (see
+ * {@link BitPacking}). A block of one value keeps no offsets at all.</p>
+ * <p/>
+ * <p>Suits columns whose values are close within a block: timestamps and sequence numbers (a block of a
+ * second of millisecond timestamps packs in 10 bits a row instead of 64), or small codes.</p>
+ * <p/>
+ * <p>A row is read in place, without decoding its block. A write in the frame of its block is done in place,
+ * any other write encodes the block again (see {@link ColStorageCompressed_KeyTypeName_}).</p>
+ */
+public class ColStorageBitPacked_KeyTypeName_ extends ColStorageCompressed_KeyTypeName_
+{
+    /** The frame of reference of each block, the minimum of its values */
+    protected long[] bases;
+    /** The bits per offset of each block, 0 for a block of one value */
+    protected byte[] widths;
+    /** The packed offsets of each block, null for a width of 0 */
+    protected long[][] offsets;
+
+    /**
+     * Short Constructor. Uses the default block size, and double growth for all growth requests.
+     *
+     * @param size the size of the storage
+     */
+    public ColStorageBitPacked_KeyTypeName_( int size )
+    {
+        this( DEFAULT_BLOCK_SIZE, size, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param blockSize      size of a block (will automatically be converted to the next power of 2, if not one).
+     * @param size           the size of that storage. If not a multiple of the blockSize, will be the next multiple
+     *                       after the size passed.
+     * @param growthStrategy the growth strategy of the store.
+     */
+    public ColStorageBitPacked_KeyTypeName_( int blockSize, int size, GrowthStrategy growthStrategy )
+    {
+        super( blockSize, size, growthStrategy );
+        bases = new long[ 0 ];
+        widths = new byte[ 0 ];
+        offsets = new long[ 0 ][];
+        growBlocks( numBlocks );
+    }
+
+    @UncheckedArray
+    @Override
+    public _key_ getValue( int row )
+    {
+        int block = row >> bitsPerBlock;
+        int width = widths[ block ];
+        long offset = ( width == 0 ) ? 0 : BitPacking.getBits( offsets[ block ], row & bitsMask, width );
+        return BitPacking.to_KeyTypeName_( bases[ block ] + offset );
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( _key_ val, int row )
+    {
+        int block = row >> bitsPerBlock;
+        int width = widths[ block ];
+        long offset = BitPacking.toLong( val ) - bases[ block ];
+        if( !BitPacking.fits( offset, width ) )
+        {
+            reEncode( val, row );
+        }
+        else if( width != 0 )
+        {
+            BitPacking.setBits( offsets[ block ], row & bitsMask, width, offset );
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    public void decodeBlock( int block, _key_[] target )
+    {
+        int width = widths[ block ];
+        long base = bases[ block ];
+        if( width == 0 )
+        {
+            Arrays.fill( target, 0, blockSize, BitPacking.to_KeyTypeName_( base ) );
+            return;
+        }
+        long[] packed = offsets[ block ];
+        for( int i = 0; i < blockSize; i++ )
+        {
+            target[ i ] = BitPacking.to_KeyTypeName_( base + BitPacking.getBits( packed, i, width ) );
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    protected void encodeBlock( int block, _key_[] values )
+    {
+        long min = BitPacking.toLong( values[ 0 ] );
+        long max = min;
+        for( int i = 1; i < blockSize; i++ )
+        {
+            long value = BitPacking.toLong( values[ i ] );
+            min = Math.min( min, value );
+            max = Math.max( max, value );
+        }
+        int width = BitPacking.getWidth( max - min );
+        bases[ block ] = min;
+        widths[ block ] = ( byte ) width;
+        if( width == 0 )
+        {
+            offsets[ block ] = null;
+            return;
+        }
+        long[] packed = new long[ BitPacking.getWords( blockSize, width ) ];
+        for( int i = 0; i < blockSize; i++ )
+        {
+            BitPacking.setBits( packed, i, width, BitPacking.toLong( values[ i ] ) - min );
+        }
+        offsets[ block ] = packed;
+    }
+
+    @Override
+    protected void growBlocks( int newNumBlocks )
+    {
+        //new blocks are all 0, a base of 0 and no offsets
+        bases = Arrays.copyOf( bases, newNumBlocks );
+        widths = Arrays.copyOf( widths, newNumBlocks );
+        offsets = Arrays.copyOf( offsets, newNumBlocks );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a copy of this store
+     */
+    @Override
+    public ColStorageBitPacked_KeyTypeName_ getCopy()
+    {
+        ColStorageBitPacked_KeyTypeName_ copy = new ColStorageBitPacked_KeyTypeName_( blockSize, getCapacity(),
+                                                                                      growthStrategy );
+        System.arraycopy( bases, 0, copy.bases, 0, numBlocks );
+        System.arraycopy( widths, 0, copy.widths, 0, numBlocks );
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            copy.offsets[ i ] = ( offsets[ i ] == null ) ? null : offsets[ i ].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Get the bits per row of <i>block</i>.
+     *
+     * @param block the block
+     * @return the width of the offsets of the block, 0 for a block of one value
+     */
+    public int getBitsPerValue( int block )
+    {
+        return widths[ block ];
+    }
+}
@@ -0,0 +1,198 @@
+package store.col.storage.compressed;
+
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import core.stub.*;
+import store.col.storage.generic.ColStorageEncoded_KeyTypeName_;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>The blocks of a compressed storage: rows are cut into blocks of a power of two, as
+ * {@link store.col.storage.block.ColStorageBlocked_KeyTypeName_}, and each block is encoded on its own by the
+ * subclass.</p>
+ * <p/>
+ * <p>The storages are read optimized, for tables loaded once (historical data). A write that the encoding of its
+ * block can not take in place decodes the whole block and encodes it again, so load another storage and
+ * {@link #copyFrom(ColStorage_KeyTypeName_, int, int, int)} it, which encodes each block once.</p>
+ */
+public abstract class ColStorageCompressed_KeyTypeName_ implements ColStorageEncoded_KeyTypeName_
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /** Growth strategy of the store */
+    protected final GrowthStrategy growthStrategy;
+    /** The block size, a power of 2 */
+    protected final int blockSize;
+    /** Number of bits of an index in a block, the block of a row is <i>row &gt;&gt; bitsPerBlock</i> */
+    protected final int bitsPerBlock;
+    /** Mask of the index of a row in its block */
+    protected final int bitsMask;
+    /** Number of our active blocks */
+    protected int numBlocks;
+
+    /**
+     * Full Constructor. The subclass allocates the blocks, with {@link #growBlocks(int)}.
+     *
+     * @param blockSize      size of a block (will automatically be converted to the next power of 2, if not one).
+     * @param size           the size of that storage. If not a multiple of the blockSize, will be the next multiple
+     *                       after the size passed.
+     * @param growthStrategy the growth strategy of the store.
+     */
+    protected ColStorageCompressed_KeyTypeName_( int blockSize, int size, GrowthStrategy growthStrategy )
+    {
+        this.growthStrategy = growthStrategy;
+        if( ( blockSize & ( blockSize - 1 ) ) != 0 )
+        {
+            blockSize = Integer.highestOneBit( blockSize ) << 1;
+        }
+        this.blockSize = blockSize;
+        this.bitsPerBlock = Integer.numberOfTrailingZeros( blockSize );
+        this.bitsMask = blockSize - 1;
+        this.numBlocks = ( size % blockSize == 0 ) ? size / blockSize : ( size / blockSize ) + 1;
+    }
+
+    /**
+     * Grow the blocks to <i>newNumBlocks</i>, the rows of the new blocks being the default value (0).
+     *
+     * @param newNumBlocks the number of blocks
+     */
+    protected abstract void growBlocks( int newNumBlocks );
+
+    /**
+     * Encode <i>values</i> as the rows of <i>block</i>.
+     *
+     * @param block  the block
+     * @param values the values of every row of the block, from index 0
+     */
+    protected abstract void encodeBlock( int block, _key_[] values );
+
+    /**
+     * Set a value the encoding of its block could not take in place: decode the block, set the value and encode
+     * the block again.
+     *
+     * @param value the value
+     * @param row   the row
+     */
+    @UncheckedArray
+    protected void reEncode( _key_ value, int row )
+    {
+        _key_[] values = new _key_[ blockSize ];
+        int block = row >> bitsPerBlock;
+        decodeBlock( block, values );
+        values[ row & bitsMask ] = value;
+        encodeBlock( block, values );
+    }
+
+    @Override
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * Get the number of bits of an index in a block, the block of a row is <i>row &gt;&gt; bitsPerBlock</i>.
+     *
+     * @return the bits per block
+     */
+    public int getBitsPerBlock()
+    {
+        return bitsPerBlock;
+    }
+
+    /**
+     * Get the total size of the store. This will always be a multiple of <i>blockSize</i>.
+     *
+     * @return the size of the store
+     */
+    @Override
+    public int getCapacity()
+    {
+        return blockSize * numBlocks;
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types._KeyTypeName_;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>This structure grows by blockSize, so as long as the {@link GrowthStrategy} allows
+     * for growth, this will grow it to the new size to a multiple of blocksize.</p>
+     *
+     * @param minSize the minimum new size of the store
+     */
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        int size = getCapacity();
+        if( size >= minSize )
+        {
+            return;
+        }
+        int newSize = growthStrategy.growthRequest( size, minSize );
+        if( newSize == size ) throw new ArrayGrowthException( this.getClass(), size, minSize, Types._KeyTypeName_ );
+        int newNumBlocks = newSize / blockSize;
+        if( newSize % blockSize != 0 ) newNumBlocks++;
+        growBlocks( newNumBlocks );
+        numBlocks = newNumBlocks;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>Each block of this store written to is decoded (unless written whole), the rows set, and encoded
+     * once.</p>
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorage_KeyTypeName_ source, int srcPos, int destPos, int length )
+    {
+        if( length <= 0 ) return;
+        if( source == this )
+        {
+            //the rows read may be encoded again before they are read
+            source = getCopy();
+        }
+        _key_[] values = new _key_[ blockSize ];
+        int end = destPos + length;
+        int row = destPos;
+        while( row < end )
+        {
+            int block = row >> bitsPerBlock;
+            int start = row & bitsMask;
+            int n = Math.min( blockSize - start, end - row );
+            if( n < blockSize )
+            {
+                decodeBlock( block, values );
+            }
+            int from = srcPos + ( row - destPos );
+            for( int i = 0; i < n; i++ )
+            {
+                values[ start + i ] = source.getValue( from + i );
+            }
+            encodeBlock( block, values );
+            row += n;
+        }
+    }
+
+    public GrowthStrategy getStrategy()
+    {
+        return growthStrategy;
+    }
+}
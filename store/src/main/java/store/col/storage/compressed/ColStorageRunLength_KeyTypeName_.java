@@ -0,0 +1,184 @@
+package store.col.storage.compressed;
+
+import core.annotations.UncheckedArray;
+import core.array.GrowthStrategy;
+import core.stub.*;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A run length encoded storage. Each block keeps its runs of equal values: the value of each run, and the
+ * index in the block after its last row. Suits columns of long runs of a value, status columns of
+ * historical data, or any column sorted on.</p>
+ * <p/>
+ * <p>A row is read by a binary search of the runs of its block, a block is decoded a run at a time. A write of
+ * the value a row already holds does nothing, any other write encodes the block again (see
+ * {@link ColStorageCompressed_KeyTypeName_}).</p>
+ */
+public class ColStorageRunLength_KeyTypeName_ extends ColStorageCompressed_KeyTypeName_
+{
+    /** The value of each run of each block */
+    protected _key_[][] runValues;
+    /** The end (exclusive index in the block) of each run of each block, in order */
+    protected int[][] runEnds;
+
+    /**
+     * Short Constructor. Uses the default block size, and double growth for all growth requests.
+     *
+     * @param size the size of the storage
+     */
+    public ColStorageRunLength_KeyTypeName_( int size )
+    {
+        this( DEFAULT_BLOCK_SIZE, size, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param blockSize      size of a block (will automatically be converted to the next power of 2, if not one).
+     * @param size           the size of that storage. If not a multiple of the blockSize, will be the next multiple
+     *                       after the size passed.
+     * @param growthStrategy the growth strategy of the store.
+     */
+    public ColStorageRunLength_KeyTypeName_( int blockSize, int size, GrowthStrategy growthStrategy )
+    {
+        super( blockSize, size, growthStrategy );
+        runValues = new _key_[ 0 ][];
+        runEnds = new int[ 0 ][];
+        growBlocks( numBlocks );
+    }
+
+    @UncheckedArray
+    @Override
+    public _key_ getValue( int row )
+    {
+        int block = row >> bitsPerBlock;
+        return runValues[ block ][ getRun( runEnds[ block ], row & bitsMask ) ];
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( _key_ val, int row )
+    {
+        if( getValue( row ) != val )
+        {
+            reEncode( val, row );
+        }
+    }
+
+    /**
+     * Get the run of <i>idx</i>, the first run that ends after it.
+     *
+     * @param ends the ends of the runs of a block
+     * @param idx  the index in the block
+     * @return the run
+     */
+    protected int getRun( int[] ends, int idx )
+    {
+        int lo = 0;
+        int hi = ends.length - 1;
+        while( lo < hi )
+        {
+            int mid = ( lo + hi ) >>> 1;
+            if( ends[ mid ] <= idx )
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    @UncheckedArray
+    @Override
+    public void decodeBlock( int block, _key_[] target )
+    {
+        _key_[] values = runValues[ block ];
+        int[] ends = runEnds[ block ];
+        int start = 0;
+        for( int run = 0; run < ends.length; run++ )
+        {
+            Arrays.fill( target, start, ends[ run ], values[ run ] );
+            start = ends[ run ];
+        }
+    }
+
+    @UncheckedArray
+    @Override
+    protected void encodeBlock( int block, _key_[] values )
+    {
+        int runs = 1;
+        for( int i = 1; i < blockSize; i++ )
+        {
+            runs += ( values[ i ] != values[ i - 1 ] ) ? 1 : 0;
+        }
+        _key_[] blockValues = new _key_[ runs ];
+        int[] ends = new int[ runs ];
+        int run = 0;
+        blockValues[ 0 ] = values[ 0 ];
+        for( int i = 1; i < blockSize; i++ )
+        {
+            if( values[ i ] != values[ i - 1 ] )
+            {
+                ends[ run++ ] = i;
+                blockValues[ run ] = values[ i ];
+            }
+        }
+        ends[ run ] = blockSize;
+        runValues[ block ] = blockValues;
+        runEnds[ block ] = ends;
+    }
+
+    @Override
+    protected void growBlocks( int newNumBlocks )
+    {
+        int oldNumBlocks = runValues.length;
+        runValues = Arrays.copyOf( runValues, newNumBlocks );
+        runEnds = Arrays.copyOf( runEnds, newNumBlocks );
+        for( int i = oldNumBlocks; i < newNumBlocks; i++ )
+        {
+            //one run of the default value
+            runValues[ i ] = new _key_[ 1 ];
+            runEnds[ i ] = new int[]{ blockSize };
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a copy of this store
+     */
+    @Override
+    public ColStorageRunLength_KeyTypeName_ getCopy()
+    {
+        ColStorageRunLength_KeyTypeName_ copy = new ColStorageRunLength_KeyTypeName_( blockSize, getCapacity(),
+                                                                                      growthStrategy );
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            //the runs of a block are replaced, never changed, so they may be shared
+            copy.runValues[ i ] = runValues[ i ];
+            copy.runEnds[ i ] = runEnds[ i ];
+        }
+        return copy;
+    }
+
+    /**
+     * Get the number of runs of <i>block</i>.
+     *
+     * @param block the block
+     * @return the number of runs, at least 1
+     */
+    public int getRunCount( int block )
+    {
+        return runEnds[ block ].length;
+    }
+}
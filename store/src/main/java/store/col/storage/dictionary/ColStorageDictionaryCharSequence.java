@@ -0,0 +1,423 @@
+package store.col.storage.dictionary;
+
+import collections.hash.set.HashSetCharSequence;
+import core.Const;
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import store.col.storage.generic.ColStorageCharSequence;
+import store.col.storage.generic.DictionaryStorage;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A CharSequence storage for columns of few distinct values (symbols, venues, accounts). Each distinct value
+ * is held once, in a {@link HashSetCharSequence} dictionary, and each row holds the code of its value, the entry
+ * of the value in the dictionary. A null value has the code {@link Const#NO_ENTRY}.</p>
+ * <p/>
+ * <p>The codes are held as bytes while the dictionary holds at most 128 values, then as shorts up to 32768
+ * values, then as ints. Each change of width copies the codes once, a dictionary never shrinks.</p>
+ * <p/>
+ * <p>A value is copied (by {@link CharSequence#toString()}) the first time it is set, so a mutable CharSequence
+ * may be reused by the caller. {@link #getValue(int)} returns the copy held by the dictionary.</p>
+ * <p/>
+ * <p>Rows of equal values have equal codes: {@link #equal(CharSequence, int, int, int[])} looks the value up
+ * once and compares the codes, and a group by on this storage maps each code to its group once.</p>
+ */
+public class ColStorageDictionaryCharSequence implements ColStorageCharSequence, DictionaryStorage
+{
+    //widths of the codes
+    protected static final int BYTE_CODES = 1;
+    protected static final int SHORT_CODES = 2;
+    protected static final int INT_CODES = 4;
+    protected static final int DEFAULT_DICTIONARY_SIZE = 16;
+
+    protected final GrowthStrategy strategy;
+    protected final HashSetCharSequence dictionary;
+    protected int codeWidth = BYTE_CODES;
+    /** The largest code the current width holds */
+    protected int maxCode = Byte.MAX_VALUE;
+    //the codes of the rows, only the array of the current width is allocated
+    protected byte[] byteCodes;
+    protected short[] shortCodes;
+    protected int[] intCodes;
+    private int capacity;
+
+
+    public ColStorageDictionaryCharSequence( int initialSize )
+    {
+        this( initialSize, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param initialSize the number of rows
+     * @param strategy    the growth strategy of the rows
+     */
+    public ColStorageDictionaryCharSequence( int initialSize, GrowthStrategy strategy )
+    {
+        this.strategy = strategy;
+        this.capacity = initialSize;
+        dictionary = new HashSetCharSequence( DEFAULT_DICTIONARY_SIZE );
+        byteCodes = new byte[ initialSize ];
+        Arrays.fill( byteCodes, ( byte ) Const.NO_ENTRY );
+    }
+
+    @UncheckedArray
+    @Override
+    public CharSequence getValue( int row )
+    {
+        int code = getCode( row );
+        return ( code == Const.NO_ENTRY ) ? null : dictionary.get( code );
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( CharSequence val, int row )
+    {
+        setCode( ( val == null ) ? Const.NO_ENTRY : encode( val ), row );
+    }
+
+    @UncheckedArray
+    @Override
+    public int getCode( int row )
+    {
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                return byteCodes[ row ];
+            case SHORT_CODES:
+                return shortCodes[ row ];
+            default:
+                return intCodes[ row ];
+        }
+    }
+
+    /**
+     * Get the code of <i>value</i>.
+     *
+     * @param value the value, may be null
+     * @return the code, {@link Const#NO_ENTRY} for null, or for a value not in the dictionary
+     */
+    public int getCode( CharSequence value )
+    {
+        return ( value == null ) ? Const.NO_ENTRY : dictionary.getEntry( value );
+    }
+
+    /**
+     * Get the value of <i>code</i>.
+     *
+     * @param code a code, in [0, {@link #getDictionarySize()})
+     * @return the value
+     */
+    public CharSequence getDictionaryValue( int code )
+    {
+        return dictionary.get( code );
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return dictionary.getSize();
+    }
+
+    /**
+     * Get the code of <i>val</i>, adding it to the dictionary (and widening the codes) if it is new.
+     */
+    protected int encode( CharSequence val )
+    {
+        int code = dictionary.getEntry( val );
+        if( code != Const.NO_ENTRY )
+        {
+            return code;
+        }
+        code = dictionary.insert( val.toString() );
+        while( code > maxCode )
+        {
+            widen();
+        }
+        return code;
+    }
+
+    @UncheckedArray
+    protected void setCode( int code, int row )
+    {
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                byteCodes[ row ] = ( byte ) code;
+                break;
+            case SHORT_CODES:
+                shortCodes[ row ] = ( short ) code;
+                break;
+            default:
+                intCodes[ row ] = code;
+        }
+    }
+
+    /** Copy the codes to the next width. */
+    protected void widen()
+    {
+        if( codeWidth == BYTE_CODES )
+        {
+            shortCodes = new short[ capacity ];
+            for( int i = 0; i < capacity; i++ )
+            {
+                shortCodes[ i ] = byteCodes[ i ];
+            }
+            byteCodes = null;
+            codeWidth = SHORT_CODES;
+            maxCode = Short.MAX_VALUE;
+        }
+        else
+        {
+            intCodes = new int[ capacity ];
+            for( int i = 0; i < capacity; i++ )
+            {
+                intCodes[ i ] = shortCodes[ i ];
+            }
+            shortCodes = null;
+            codeWidth = INT_CODES;
+            maxCode = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Write the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is <i>value</i> to <i>target</i>, in order.
+     * The value is looked up once, then the codes of the rows compared to its code, without a branch on a
+     * match (as {@link store.col.scan.ColumnScanInt}).
+     *
+     * @param value   the value, null for the rows of null values
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param target  the matching rows, must hold <i>toRow - fromRow</i> rows
+     * @return the number of matching rows
+     */
+    public int equal( CharSequence value, int fromRow, int toRow, int[] target )
+    {
+        checkRows( fromRow, toRow );
+        if( target.length < toRow - fromRow )
+        {
+            throw new IllegalArgumentException( "Target of length [" + target.length + "] can not hold [" +
+                                                ( toRow - fromRow ) + "] rows" );
+        }
+        int code = getCode( value );
+        if( code == Const.NO_ENTRY && value != null )
+        {
+            return 0;
+        }
+        int ct = 0;
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    target[ ct ] = row;
+                    ct += ( byteCodes[ row ] == code ) ? 1 : 0;
+                }
+                break;
+            case SHORT_CODES:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    target[ ct ] = row;
+                    ct += ( shortCodes[ row ] == code ) ? 1 : 0;
+                }
+                break;
+            default:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    target[ ct ] = row;
+                    ct += ( intCodes[ row ] == code ) ? 1 : 0;
+                }
+        }
+        return ct;
+    }
+
+    /**
+     * Set the bits of the rows in [<i>fromRow</i>, <i>toRow</i>) whose value is <i>value</i>. Other bits are
+     * left as they are.
+     *
+     * @param value   the value, null for the rows of null values
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param bits    the selection, bit <i>row &amp; 63</i> of word <i>row &gt;&gt;&gt; 6</i>
+     */
+    public void equalBits( CharSequence value, int fromRow, int toRow, long[] bits )
+    {
+        checkRows( fromRow, toRow );
+        if( toRow > fromRow && bits.length <= ( ( toRow - 1 ) >>> 6 ) )
+        {
+            throw new IllegalArgumentException( "Selection of [" + bits.length + "] words can not hold row [" +
+                                                ( toRow - 1 ) + "]" );
+        }
+        int code = getCode( value );
+        if( code == Const.NO_ENTRY && value != null )
+        {
+            return;
+        }
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    bits[ row >>> 6 ] |= ( ( byteCodes[ row ] == code ) ? 1L : 0L ) << row;
+                }
+                break;
+            case SHORT_CODES:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    bits[ row >>> 6 ] |= ( ( shortCodes[ row ] == code ) ? 1L : 0L ) << row;
+                }
+                break;
+            default:
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    bits[ row >>> 6 ] |= ( ( intCodes[ row ] == code ) ? 1L : 0L ) << row;
+                }
+        }
+    }
+
+    protected void checkRows( int fromRow, int toRow )
+    {
+        if( fromRow < 0 || toRow < fromRow || toRow > capacity )
+        {
+            throw new IllegalArgumentException( "Can not scan rows [" + fromRow + ", " + toRow + ") of a storage " +
+                                                "of capacity [" + capacity + "]" );
+        }
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types.CharSequence;
+    }
+
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        if( capacity >= minSize ) return;
+        int newSize = strategy.growthRequest( capacity, minSize );
+        if( capacity == newSize ) throw new ArrayGrowthException( this.getClass(), capacity, newSize, getType() );
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                byteCodes = Arrays.copyOf( byteCodes, newSize );
+                Arrays.fill( byteCodes, capacity, newSize, ( byte ) Const.NO_ENTRY );
+                break;
+            case SHORT_CODES:
+                shortCodes = Arrays.copyOf( shortCodes, newSize );
+                Arrays.fill( shortCodes, capacity, newSize, ( short ) Const.NO_ENTRY );
+                break;
+            default:
+                intCodes = Arrays.copyOf( intCodes, newSize );
+                Arrays.fill( intCodes, capacity, newSize, Const.NO_ENTRY );
+        }
+        capacity = newSize;
+    }
+
+    /**
+     * Return a deep copy of this store, with the same codes.
+     *
+     * @return a copy of the store
+     */
+    @Override
+    public ColStorageDictionaryCharSequence getCopy()
+    {
+        ColStorageDictionaryCharSequence copy = new ColStorageDictionaryCharSequence( this.capacity, this.strategy );
+        copy.copyFrom( this, 0, 0, this.capacity );
+        return copy;
+    }
+
+    /**
+     * Copy a portion (or all) data from <i>source</i> to this store. Starting copying
+     * at index <i>srcPos</i> in the source, to <i>destPos</i> in this store for <i>length</i>
+     * items.
+     * <p/>
+     * <p>From another dictionary storage, each code of the source is encoded in this dictionary once, then the
+     * codes of the rows translated.</p>
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorageCharSequence source, int srcPos, int destPos, int length )
+    {
+        if( source == this )
+        {
+            copyCodes( srcPos, destPos, length );
+            return;
+        }
+        if( source instanceof ColStorageDictionaryCharSequence )
+        {
+            ColStorageDictionaryCharSequence dictionarySource = ( ColStorageDictionaryCharSequence ) source;
+            int[] translation = new int[ dictionarySource.getDictionarySize() ];
+            Arrays.fill( translation, Const.NO_ENTRY );
+            for( int i = 0; i < length; i++ )
+            {
+                int code = dictionarySource.getCode( srcPos + i );
+                if( code != Const.NO_ENTRY )
+                {
+                    if( translation[ code ] == Const.NO_ENTRY )
+                    {
+                        translation[ code ] = encode( dictionarySource.getDictionaryValue( code ) );
+                    }
+                    code = translation[ code ];
+                }
+                setCode( code, destPos + i );
+            }
+            return;
+        }
+        for( int i = 0; i < length; i++ )
+        {
+            this.setValue( source.getValue( srcPos++ ), destPos++ );
+        }
+    }
+
+    /** Copy codes within this store, the ranges may overlap. */
+    protected void copyCodes( int srcPos, int destPos, int length )
+    {
+        switch( codeWidth )
+        {
+            case BYTE_CODES:
+                System.arraycopy( byteCodes, srcPos, byteCodes, destPos, length );
+                break;
+            case SHORT_CODES:
+                System.arraycopy( shortCodes, srcPos, shortCodes, destPos, length );
+                break;
+            default:
+                System.arraycopy( intCodes, srcPos, intCodes, destPos, length );
+        }
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public GrowthStrategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * Get the number of bytes of a code, 1, 2 or 4.
+     *
+     * @return the width of the codes
+     */
+    public int getCodeWidth()
+    {
+        return codeWidth;
+    }
+}
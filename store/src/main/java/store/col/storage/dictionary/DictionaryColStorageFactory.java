@@ -0,0 +1,38 @@
+package store.col.storage.dictionary;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.generic.ColStorage;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Dictionary encoded storage for CharSequence columns, the storage of <i>delegate</i> for every other
+ * type.</p>
+ */
+public class DictionaryColStorageFactory extends ColStorageFactory
+{
+    protected ColStorageFactory delegate;
+    protected GrowthStrategy strategy;
+
+    public DictionaryColStorageFactory( ColStorageFactory delegate, GrowthStrategy strategy )
+    {
+        this.delegate = delegate;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public ColStorage getStorage( byte type, int numRows )
+    {
+        if( type == Types.CharSequence )
+        {
+            return new ColStorageDictionaryCharSequence( numRows, strategy );
+        }
+        return delegate.getStorage( type, numRows );
+    }
+}
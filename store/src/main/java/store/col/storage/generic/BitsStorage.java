@@ -0,0 +1,62 @@
+package store.col.storage.generic;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A boolean storage of one bit per row, in words of 64 rows: bit <i>row &amp; 63</i> of word
+ * <i>row &gt;&gt;&gt; 6</i>, the layout of the selections of the column scans and of the row tracker. A filter
+ * combines the words of flag columns with its selection a word at a time, without reading the rows.</p>
+ * <p/>
+ * <p>The operations are over the words [<i>fromWord</i>, <i>toWord</i>), the same words of the selection and of
+ * the storage.</p>
+ */
+public interface BitsStorage
+{
+    /**
+     * Get the word of the rows [<i>word * 64</i>, <i>word * 64 + 64</i>).
+     *
+     * @param word the word
+     * @return the bits of the rows, bit <i>row &amp; 63</i> for each row
+     */
+    long getWord( int word );
+
+    /**
+     * Keep only the bits of <i>bits</i> whose rows are true.
+     *
+     * @param bits     the selection
+     * @param fromWord the first word (inclusive)
+     * @param toWord   the last word (exclusive)
+     */
+    void and( long[] bits, int fromWord, int toWord );
+
+    /**
+     * Set the bits of <i>bits</i> whose rows are true.
+     *
+     * @param bits     the selection
+     * @param fromWord the first word (inclusive)
+     * @param toWord   the last word (exclusive)
+     */
+    void or( long[] bits, int fromWord, int toWord );
+
+    /**
+     * Clear the bits of <i>bits</i> whose rows are true.
+     *
+     * @param bits     the selection
+     * @param fromWord the first word (inclusive)
+     * @param toWord   the last word (exclusive)
+     */
+    void andNot( long[] bits, int fromWord, int toWord );
+
+    /**
+     * Count the true rows of the words.
+     *
+     * @param fromWord the first word (inclusive)
+     * @param toWord   the last word (exclusive)
+     * @return the number of true rows
+     */
+    int cardinality( int fromWord, int toWord );
+}
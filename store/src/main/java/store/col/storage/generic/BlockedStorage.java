@@ -0,0 +1,21 @@
+package store.col.storage.generic;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * A storage split into blocks of a power of two rows. A range of rows on block boundaries touches no block
+ * of another range, so it is the unit of parallel work over the storage.
+ */
+public interface BlockedStorage
+{
+    /**
+     * Get the blockSize, will return the number of items one block may accommodate
+     *
+     * @return the block size, a power of two
+     */
+    int getBlockSize();
+}
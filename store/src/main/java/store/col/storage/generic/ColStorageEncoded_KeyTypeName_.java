@@ -0,0 +1,24 @@
+package store.col.storage.generic;
+
+import core.stub.*;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A storage that encodes its rows a block at a time. Reading a row decodes it alone, scans decode a whole
+ * block with {@link #decodeBlock(int, _key_[])} and read the plain values.</p>
+ */
+public interface ColStorageEncoded_KeyTypeName_ extends ColStorage_KeyTypeName_, BlockedStorage
+{
+    /**
+     * Decode the values of the rows of <i>block</i>, rows <i>block * blockSize</i> on, to <i>target</i>.
+     *
+     * @param block  the block
+     * @param target the values, from index 0, must hold the block size
+     */
+    void decodeBlock( int block, _key_[] target );
+}
@@ -0,0 +1,30 @@
+package store.col.storage.generic;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A storage that holds each distinct value once, in a dictionary, and a code of the value for each row.
+ * Rows of equal values have equal codes, so filters and group bys may compare the codes instead of the
+ * values.</p>
+ */
+public interface DictionaryStorage
+{
+    /**
+     * Get the code of the value at <i>row</i>, {@link core.Const#NO_ENTRY} for a null value.
+     *
+     * @param row the row
+     * @return the code, in [0, {@link #getDictionarySize()})
+     */
+    int getCode( int row );
+
+    /**
+     * Get the number of distinct values in the dictionary, one more than the largest code.
+     *
+     * @return the size of the dictionary
+     */
+    int getDictionarySize();
+}
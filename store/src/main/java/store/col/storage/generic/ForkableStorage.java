@@ -0,0 +1,32 @@
+package store.col.storage.generic;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A storage that can be forked: the fork starts with the same rows as this storage, and shares its blocks
+ * with it until either side writes to them. A block is cloned on the first write to it by either side, so
+ * the fork costs a reference per block, and only the blocks that are written to are copied.</p>
+ * <p/>
+ * <p>The storage and its fork are changed independently, they may be written by different threads, but each
+ * of them by one thread at a time. A fork (or the storage) that is no longer used is {@link #release()}d, so the
+ * other holders of its shared blocks write to them in place again.</p>
+ */
+public interface ForkableStorage
+{
+    /**
+     * Fork the storage, a storage of the same rows sharing the blocks of this one until they are written.
+     *
+     * @return the fork, of the type of this storage
+     */
+    ColStorage fork();
+
+    /**
+     * Release the blocks this storage still shares, so their other holders no longer clone them on a write. The
+     * storage must not be used after.
+     */
+    void release();
+}
@@ -0,0 +1,392 @@
+package store.col.storage.mapped;
+
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import core.memory.Buffers;
+import core.stub.*;
+import store.col.storage.block.ColStorageBlocked_KeyTypeName_;
+import store.col.storage.generic.BlockedStorage;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A column kept in a memory-mapped file, so that it survives a restart. Opening an existing file re-attaches
+ * to the column as it was left, without reading it: the blocks are mapped, and the operating system pages the
+ * data in as the rows are touched.</p>
+ * <p/>
+ * <p>The addressing is the same as {@link ColStorageBlocked_KeyTypeName_}, the high bits of the row select a
+ * block and the low bits (<i>bitsMask</i>) the row in the block. Each block is its own mapping of a fixed size
+ * region of the file, so growing maps new blocks at the end of the file, and the blocks already mapped are
+ * never moved or copied.</p>
+ * <pre>
+ *     [header, HEADER_BYTES][block 0, blockSize rows][block 1]...
+ * </pre>
+ * <p>The header records the type, the block size and the byte order, an existing file is opened with its own
+ * block size (whatever size is passed), and opening it as a different type, or a file too short to hold the
+ * header, fails. The capacity is the number of whole blocks in the file. Rows never written read as 0.</p>
+ * <p/>
+ * <p>Writes reach the file when the operating system writes back the pages, {@link #flush()} forces them out.
+ * {@link #close()} flushes and closes the file, the store must not be used after. The mappings themselves are
+ * released when they are garbage collected.</p>
+ * <p/>
+ * <p>Note: As with the other storages, get and set are unchecked.</p>
+ */
+public class ColStorageMapped_KeyTypeName_ implements ColStorage_KeyTypeName_, BlockedStorage, AutoCloseable
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    /** Largest block size, in bits, a block of more rows would overflow the row index */
+    public static final int MAX_BLOCK_BITS = 30;
+    /** Start of the first block, the header takes the bytes before */
+    public static final int HEADER_BYTES = 64;
+    /** 'JCOL' */
+    protected static final int MAGIC = 0x4A434F4C;
+    protected static final int VERSION = 1;
+
+    /** Growth strategy of the store */
+    protected final GrowthStrategy growthStrategy;
+    protected final File file;
+    protected final RandomAccessFile randomAccessFile;
+    protected final FileChannel channel;
+    /** Byte order of the values in the file */
+    protected ByteOrder order;
+    /** Bytes of one value */
+    protected final int elementBytes;
+    /** (2^bitsPerBlock-1), mask that when 'anded' gets index in the block */
+    protected int bitsMask;
+    /** Number of bits per block, the block size will be 2^(bitsPerBlock) */
+    protected int bitsPerBlock;
+    /** The block size, in rows */
+    protected int blockSize;
+    /** Mapped blocks, [block] and the byte offset of the row in the block */
+    protected ByteBuffer[] data;
+    /** Number of our active blocks */
+    protected int numBlocks = 0;
+
+    /**
+     * Short Constructor. Uses double growth for all growth requests.
+     *
+     * @param file      the file of the column, opened if it exists, otherwise created
+     * @param blockSize size of a block for a new file (will automatically be converted to the next power of 2)
+     * @param size      the minimum size of the storage
+     */
+    public ColStorageMapped_KeyTypeName_( File file, int blockSize, int size )
+    {
+        this( file, blockSize, size, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Fully Qualified Constructor
+     *
+     * @param file           the file of the column, opened if it exists, otherwise created
+     * @param blockSize      size of a block for a new file (will automatically be converted to the next power of
+     *                       2), at most 2^{@link #MAX_BLOCK_BITS}, an existing file keeps its own block size.
+     * @param size           the minimum size of the storage, an existing file grows to this if smaller
+     * @param growthStrategy the growth strategy of the store.
+     */
+    public ColStorageMapped_KeyTypeName_( File file, int blockSize, int size, GrowthStrategy growthStrategy )
+    {
+        if( blockSize <= 0 || blockSize > 1 << MAX_BLOCK_BITS )
+        {
+            throw new IllegalArgumentException( "Block size must be positive and at most [" + ( 1 << MAX_BLOCK_BITS ) +
+                                                "], was [" + blockSize + "]" );
+        }
+        if( ( blockSize & ( blockSize - 1 ) ) != 0 ) //if not a power of 2, round up to the next
+        {
+            blockSize = Integer.highestOneBit( blockSize ) << 1;
+        }
+        this.file = file;
+        this.growthStrategy = growthStrategy;
+        this.elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+        try
+        {
+            randomAccessFile = new RandomAccessFile( file, "rw" );
+        }
+        catch( IOException e )
+        {
+            throw new IllegalStateException( "Could not open the column file [" + file + "]", e );
+        }
+        channel = randomAccessFile.getChannel();
+        try
+        {
+            if( channel.size() > 0 )
+            {
+                readHeader();
+            }
+            else
+            {
+                setBlockSize( blockSize );
+                order = ByteOrder.nativeOrder();
+                writeHeader();
+            }
+            long blockBytes = ( long ) this.blockSize * elementBytes;
+            int existingBlocks = ( int ) ( ( channel.size() - HEADER_BYTES ) / blockBytes );
+            data = new ByteBuffer[ Math.max( 1, existingBlocks ) ];
+            for( int i = 0; i < existingBlocks; i++ )
+            {
+                data[ i ] = map( i );
+            }
+            numBlocks = existingBlocks;
+        }
+        catch( IOException e )
+        {
+            closeQuietly();
+            throw new IllegalStateException( "Could not open the column file [" + file + "]", e );
+        }
+        catch( RuntimeException e )
+        {
+            closeQuietly();
+            throw e;
+        }
+        checkGrowth( size );
+    }
+
+    @Override
+    @UncheckedArray
+    public _key_ getValue( int idx )
+    {
+        return Buffers.get_KeyTypeName_( data[ idx >> bitsPerBlock ], ( idx & bitsMask ) * elementBytes );
+    }
+
+    @Override
+    @UncheckedArray
+    public void setValue( _key_ value, int idx )
+    {
+        Buffers.put_KeyTypeName_( data[ idx >> bitsPerBlock ], ( idx & bitsMask ) * elementBytes, value );
+    }
+
+    /**
+     * Get the total size of the store. This will always be a multiple of <i>blockSize</i>.
+     *
+     * @return the size of the store
+     */
+    @Override
+    public int getCapacity()
+    {
+        return blockSize * numBlocks;
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types._KeyTypeName_;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>Maps new blocks at the end of the file, which extends the file.</p>
+     *
+     * @param minSize the minimum new size of the store
+     */
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        checkOpen();
+        int size = getCapacity();
+        if( size >= minSize )
+        {
+            return;
+        }
+        int newSize = growthStrategy.growthRequest( size, minSize );
+        if( newSize < minSize )
+            throw new ArrayGrowthException( this.getClass(), size, minSize, Types._KeyTypeName_ );
+
+        int newNumBlocks = newSize / blockSize;
+        if( newSize % blockSize != 0 ) newNumBlocks++;
+        if( newNumBlocks > data.length )
+        {
+            ByteBuffer[] temp = new ByteBuffer[ Math.max( newNumBlocks, data.length * 2 ) ];
+            System.arraycopy( data, 0, temp, 0, numBlocks );
+            data = temp;
+        }
+        try
+        {
+            for( int i = numBlocks; i < newNumBlocks; i++ )
+            {
+                data[ i ] = map( i );
+                numBlocks = i + 1;
+            }
+        }
+        catch( IOException e )
+        {
+            throw new IllegalStateException( "Could not grow the column file [" + file + "]", e );
+        }
+    }
+
+    /**
+     * Return a copy of this store. The copy is held on the heap, in a {@link ColStorageBlocked_KeyTypeName_} with
+     * the same block size, it is not persisted.
+     *
+     * @return a copy of the store
+     */
+    @Override
+    public ColStorage_KeyTypeName_ getCopy()
+    {
+        checkOpen();
+        ColStorageBlocked_KeyTypeName_ copy = new ColStorageBlocked_KeyTypeName_( blockSize, getCapacity(),
+                                                                                  growthStrategy );
+        copy.copyFrom( this, 0, 0, getCapacity() );
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}.
+     * <p>Note We do not check the bounds of the array for this method.</p>
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorage_KeyTypeName_ source, int srcPos, int destPos, int length )
+    {
+        for( int i = 0; i < length; i++ )
+        {
+            this.setValue( source.getValue( srcPos++ ), destPos++ );
+        }
+    }
+
+    /** Force the changes of every block out to the file. */
+    public void flush()
+    {
+        checkOpen();
+        for( int i = 0; i < numBlocks; i++ )
+        {
+            ( ( MappedByteBuffer ) data[ i ] ).force();
+        }
+    }
+
+    /** Flush, and close the file. Closing twice does nothing, any other use after closing is an error. */
+    @Override
+    public void close()
+    {
+        if( data == null ) return;
+        flush();
+        data = null;
+        numBlocks = 0;
+        try
+        {
+            randomAccessFile.close();
+        }
+        catch( IOException e )
+        {
+            throw new IllegalStateException( "Could not close the column file [" + file + "]", e );
+        }
+    }
+
+    public boolean isClosed()
+    {
+        return data == null;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Get the blockSize, will return the number of items one block may accommodate
+     *
+     * @return the block size
+     */
+    @Override
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    protected void closeQuietly()
+    {
+        try
+        {
+            randomAccessFile.close();
+        }
+        catch( IOException e )
+        {
+            //already failing, the first error is reported
+        }
+    }
+
+    protected void checkOpen()
+    {
+        if( data == null ) throw new IllegalStateException( "Store has been closed [" + file + "]" );
+    }
+
+    protected void setBlockSize( int blockSize )
+    {
+        if( ( long ) blockSize * elementBytes > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Block of [" + blockSize + "] rows is too large to map" );
+        }
+        this.blockSize = blockSize;
+        this.bitsPerBlock = Integer.numberOfTrailingZeros( blockSize );
+        this.bitsMask = blockSize - 1;
+    }
+
+    protected ByteBuffer map( int block ) throws IOException
+    {
+        int blockBytes = blockSize * elementBytes;
+        return channel.map( FileChannel.MapMode.READ_WRITE, HEADER_BYTES + ( long ) block * blockBytes,
+                            blockBytes ).order( order );
+    }
+
+    protected void writeHeader() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES );
+        header.putInt( MAGIC );
+        header.putInt( VERSION );
+        header.put( getType() );
+        header.put( ( byte ) ( order == ByteOrder.BIG_ENDIAN ? 1 : 0 ) );
+        header.putInt( bitsPerBlock );
+        header.clear();
+        channel.write( header, 0 );
+    }
+
+    protected void readHeader() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES );
+        while( header.hasRemaining() )
+        {
+            if( channel.read( header, header.position() ) < 0 )
+            {
+                throw new IllegalStateException( "Column file [" + file + "] is truncated, its header is [" +
+                                                 header.position() + "] bytes" );
+            }
+        }
+        header.flip();
+        if( header.getInt() != MAGIC || header.getInt() != VERSION )
+        {
+            throw new IllegalStateException( "Not a column file [" + file + "]" );
+        }
+        byte type = header.get();
+        if( type != getType() )
+        {
+            throw new IllegalStateException( "Column file [" + file + "] holds type [" + type + "], not [" +
+                                             getType() + "]" );
+        }
+        order = ( header.get() == 1 ) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        int bits = header.getInt();
+        if( bits < 0 || bits > MAX_BLOCK_BITS )
+        {
+            throw new IllegalStateException( "Column file [" + file + "] has a block of [" + bits + "] bits" );
+        }
+        setBlockSize( 1 << bits );
+    }
+}
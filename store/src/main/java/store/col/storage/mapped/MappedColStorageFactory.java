@@ -0,0 +1,112 @@
+package store.col.storage.mapped;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.array.ColStorageArrayCharSequence;
+import store.col.storage.array.ColStorageArrayObject;
+import store.col.storage.bits.ColStorageBitsBool;
+import store.col.storage.generic.ColStorage;
+
+import java.io.File;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * Provides memory-mapped storage for the primitive types, one file per column in <i>directory</i>. A column
+ * asked for by name re-attaches to its file if it exists, so a restarted process gets its columns back without
+ * reloading them. Columns asked for without a name are named in order (column0, column1...), which is only
+ * stable when the columns are created in the same order. Bool, CharSequence and Object columns get the (not
+ * persisted) bits and array storages. The mapped stores should be closed when they are no longer used.
+ */
+public class MappedColStorageFactory extends ColStorageFactory
+{
+    public static final String FILE_EXTENSION = ".col";
+
+    GrowthStrategy strategy;
+    File directory;
+    int blockSize;
+    int nextColumn = 0;
+
+    public MappedColStorageFactory( File directory )
+    {
+        this( directory, ColStorageMappedInt.DEFAULT_BLOCK_SIZE, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param directory directory of the column files, created if it does not exist
+     * @param blockSize rows in a block of a new column file
+     * @param strategy  the growth strategy of the stores
+     */
+    public MappedColStorageFactory( File directory, int blockSize, GrowthStrategy strategy )
+    {
+        if( !directory.isDirectory() && !directory.mkdirs() )
+        {
+            throw new IllegalStateException( "Could not create the column directory [" + directory + "]" );
+        }
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public ColStorage getStorage( byte type, int numRows )
+    {
+        return getStorage( type, numRows, "column" + ( nextColumn++ ) );
+    }
+
+    /**
+     * Get the storage of the column <i>name</i>, re-attaching to its file if it exists.
+     *
+     * @param type    the type of the column
+     * @param numRows the minimum size of the storage
+     * @param name    name of the column, the name of its file in the directory
+     * @return the storage, null for an unknown type
+     */
+    public ColStorage getStorage( byte type, int numRows, String name )
+    {
+        File file = getFile( name );
+        switch( type )
+        {
+            case Types.Bool:
+                return new ColStorageBitsBool( numRows, strategy );
+            case Types.Byte:
+                return new ColStorageMappedByte( file, blockSize, numRows, strategy );
+            case Types.Char:
+                return new ColStorageMappedChar( file, blockSize, numRows, strategy );
+            case Types.Short:
+                return new ColStorageMappedShort( file, blockSize, numRows, strategy );
+            case Types.Int:
+                return new ColStorageMappedInt( file, blockSize, numRows, strategy );
+            case Types.Float:
+                return new ColStorageMappedFloat( file, blockSize, numRows, strategy );
+            case Types.Double:
+                return new ColStorageMappedDouble( file, blockSize, numRows, strategy );
+            case Types.Long:
+                return new ColStorageMappedLong( file, blockSize, numRows, strategy );
+            case Types.CharSequence:
+                return new ColStorageArrayCharSequence( numRows, strategy );
+            case Types.Object:
+                return new ColStorageArrayObject( numRows, strategy );
+            case Types.Unknown:
+            default:
+                return null;
+        }
+    }
+
+    public File getFile( String name )
+    {
+        return new File( directory, name + FILE_EXTENSION );
+    }
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+}
@@ -0,0 +1,190 @@
+package store.col.storage.offheap;
+
+import core.Types;
+import core.annotations.UncheckedArray;
+import core.array.ArrayGrowthException;
+import core.array.GrowthStrategy;
+import core.memory.Buffers;
+import core.memory.OffHeap;
+import core.stub.*;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Storage of a primitive column in native memory, outside of the Java heap. The values are one direct buffer
+ * (see {@link OffHeap}), the same layout as the {@link store.col.storage.array.ColStorageArrayInt} array, but the
+ * garbage collector never marks or copies the values, so a column of hundreds of millions of rows adds nothing
+ * to the GC pauses. Only the numeric primitive types are generated, {@link OffHeapColStorageFactory} gives the
+ * other types their heap storage. The buffer holds at most {@link Integer#MAX_VALUE} bytes, so the capacity is
+ * at most {@link #MAX_ROWS} rows.</p>
+ * <p/>
+ * <p>The memory is zeroed when allocated and when grown, so an unset row reads as the default value, as it
+ * does in the array storage. Growing allocates the new memory and frees the old once the rows are copied, so the
+ * two are held together for the copy. {@link #close()} frees the memory when the column is no longer used, at
+ * once where the runtime allows it (see {@link OffHeap#free(ByteBuffer)}), after which the store must not be
+ * read or written.</p>
+ * <p/>
+ * <p>Note: As with the other storages, get and set are not checked against the capacity, a row past the
+ * capacity throws the exception of the buffer.</p>
+ */
+public class ColStorageOffHeap_KeyTypeName_ implements ColStorage_KeyTypeName_, AutoCloseable
+{
+
+    /** The most rows of a buffer */
+    public static final int MAX_ROWS = Integer.MAX_VALUE / OffHeap.sizeOf_KeyTypeName_;
+
+    protected final GrowthStrategy strategy;
+    /** The values, row 0 at index 0, null when closed */
+    protected ByteBuffer buffer;
+    protected int capacity;
+
+
+    public ColStorageOffHeap_KeyTypeName_( int initialSize )
+    {
+        this( initialSize, GrowthStrategy.doubleGrowth );
+    }
+
+    public ColStorageOffHeap_KeyTypeName_( int initialSize, GrowthStrategy strategy )
+    {
+        if( initialSize < 0 || initialSize > MAX_ROWS )
+        {
+            throw new IllegalArgumentException( "Cannot store [" + initialSize + "] rows off heap" );
+        }
+        this.strategy = strategy;
+        this.capacity = initialSize;
+        buffer = OffHeap.allocate( bytes( initialSize ) );
+    }
+
+    @UncheckedArray
+    @Override
+    public _key_ getValue( int row )
+    {
+        return Buffers.get_KeyTypeName_( buffer, row * OffHeap.sizeOf_KeyTypeName_ );
+    }
+
+    @UncheckedArray
+    @Override
+    public void setValue( _key_ val, int row )
+    {
+        Buffers.put_KeyTypeName_( buffer, row * OffHeap.sizeOf_KeyTypeName_, val );
+    }
+
+    @Override
+    public byte getType()
+    {
+        return Types._KeyTypeName_;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * <p>The memory is re-allocated and the rows copied to it, the new rows are zeroed. The growth is capped at
+     * {@link #MAX_ROWS}.</p>
+     *
+     * @param minSize the minimum number of elements
+     */
+    @Override
+    public void checkGrowth( int minSize )
+    {
+        checkOpen();
+        if( capacity >= minSize ) return;
+        int newSize = Math.min( MAX_ROWS, strategy.growthRequest( capacity, minSize ) );
+        if( capacity == newSize || newSize < minSize )
+        {
+            throw new ArrayGrowthException( this.getClass(), capacity, minSize, getType() );
+        }
+        buffer = OffHeap.reallocate( buffer, bytes( newSize ) );
+        capacity = newSize;
+    }
+
+    /**
+     * Return a deep copy of this store, in newly allocated memory that must be closed on its own.
+     *
+     * @return a copy of the store
+     */
+    @Override
+    public ColStorageOffHeap_KeyTypeName_ getCopy()
+    {
+        checkOpen();
+        ColStorageOffHeap_KeyTypeName_ copy = new ColStorageOffHeap_KeyTypeName_( this.capacity, this.strategy );
+        OffHeap.copy( buffer, 0, copy.buffer, 0, bytes( capacity ) );
+        return copy;
+    }
+
+    /**
+     * Copy a portion (or all) data from <i>source</i> to this store. Starting copying
+     * at index <i>srcPos</i> in the source, to <i>destPos</i> in this store for <i>length</i>
+     * items. From another off-heap store this is one copy of the memory, the ranges may overlap.
+     *
+     * @param source  source of the data to copy from
+     * @param srcPos  index in the source to start copying from
+     * @param destPos index in <i>this</i> to start copying to
+     * @param length  number of items to copy
+     */
+    @UncheckedArray
+    @Override
+    public void copyFrom( ColStorage_KeyTypeName_ source, int srcPos, int destPos, int length )
+    {
+        if( source instanceof ColStorageOffHeap_KeyTypeName_ )
+        {
+            ColStorageOffHeap_KeyTypeName_ offHeap = ( ColStorageOffHeap_KeyTypeName_ ) source;
+            OffHeap.copy( offHeap.buffer, bytes( srcPos ), buffer, bytes( destPos ), bytes( length ) );
+            return;
+        }
+        for( int i = 0; i < length; i++ )
+        {
+            this.setValue( source.getValue( srcPos++ ), destPos++ );
+        }
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public GrowthStrategy getStrategy()
+    {
+        return strategy;
+    }
+
+    /**
+     * Free the memory of the store, see {@link OffHeap#free(ByteBuffer)}. Closing twice does nothing, any other use
+     * after closing is an error.
+     */
+    @Override
+    public void close()
+    {
+        if( buffer == null ) return;
+        OffHeap.free( buffer );
+        buffer = null;
+        capacity = 0;
+    }
+
+    /**
+     * Has the store been closed, and its memory freed.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed()
+    {
+        return buffer == null;
+    }
+
+    protected void checkOpen()
+    {
+        if( buffer == null ) throw new IllegalStateException( "Store has been closed" );
+    }
+
+    protected static int bytes( int rows )
+    {
+        return rows * OffHeap.sizeOf_KeyTypeName_;
+    }
+}
@@ -0,0 +1,60 @@
+package store.col.storage.offheap;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.array.ColStorageArrayCharSequence;
+import store.col.storage.array.ColStorageArrayObject;
+import store.col.storage.bits.ColStorageBitsBool;
+import store.col.storage.generic.ColStorage;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * Provides off-heap storage for the primitive types. Bool, CharSequence and Object columns can not be held
+ * off-heap, they get the bits and array storages. The off-heap stores must be closed when they are no longer used.
+ */
+public class OffHeapColStorageFactory extends ColStorageFactory
+{
+    GrowthStrategy strategy;
+
+    public OffHeapColStorageFactory( GrowthStrategy strategy )
+    {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public ColStorage getStorage( byte type, int numRows )
+    {
+        switch( type )
+        {
+            case Types.Bool:
+                return new ColStorageBitsBool( numRows, strategy );
+            case Types.Byte:
+                return new ColStorageOffHeapByte( numRows, strategy );
+            case Types.Char:
+                return new ColStorageOffHeapChar( numRows, strategy );
+            case Types.Short:
+                return new ColStorageOffHeapShort( numRows, strategy );
+            case Types.Int:
+                return new ColStorageOffHeapInt( numRows, strategy );
+            case Types.Float:
+                return new ColStorageOffHeapFloat( numRows, strategy );
+            case Types.Double:
+                return new ColStorageOffHeapDouble( numRows, strategy );
+            case Types.Long:
+                return new ColStorageOffHeapLong( numRows, strategy );
+            case Types.CharSequence:
+                return new ColStorageArrayCharSequence( numRows, strategy );
+            case Types.Object:
+                return new ColStorageArrayObject( numRows, strategy );
+            case Types.Unknown:
+            default:
+                return null;
+        }
+    }
+}
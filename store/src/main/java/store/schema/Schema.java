@@ -45,10 +45,11 @@ public class Schema
      */
     public Schema( ColumnDefinition... defs )
     {
-        numColumns = defs.length;
-        colNames = new HashSetCharSequence( numColumns );
-        columns = new Column[ numColumns ];
-        for( int i = 0; i < numColumns; i++ )
+        int len = defs.length;
+        numColumns = 0;
+        colNames = new HashSetCharSequence( len );
+        columns = new Column[ len ];
+        for( int i = 0; i < len; i++ )
         {
             addColumn( defs[ i ] );
         }
@@ -97,6 +98,42 @@ public class Schema
     }
 
 
+    /**
+     * Get the column of <i>name</i>.
+     *
+     * @param name the name of the column
+     * @return the column, null if there is no such column
+     */
+    public Column getColumn( CharSequence name )
+    {
+        int entry = colNames.getEntry( name );
+        return ( entry == Const.NO_ENTRY ) ? null : columns[ entry ];
+    }
+
+    /**
+     * Return a copy of the schema: the same names and ids, with new columns of the same types. The columns have no
+     * storage, it is set for the copy by whoever copies the table.
+     *
+     * @return the copy, locked if this schema is
+     */
+    public Schema getCopy()
+    {
+        Schema copy = new Schema();
+        copy.colNames = colNames.copy( null );
+        copy.columns = new Column[ columns.length ];
+        for( int i = 0; i < columns.length; i++ )
+        {
+            Column col = columns[ i ];
+            if( col != null )
+            {
+                copy.columns[ i ] = ColumnUtils.getTypedColumn( col.getId(), col.getType(), col.getName() );
+            }
+        }
+        copy.numColumns = numColumns;
+        copy.locked = locked;
+        return copy;
+    }
+
     public Column[] getColumns()
     {
         return columns;
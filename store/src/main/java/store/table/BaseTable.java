@@ -59,6 +59,56 @@ public abstract class BaseTable
         }
     }
 
+    /**
+     * Grow the storage of every column to hold at least <i>numRows</i> rows, all the columns growing together.
+     *
+     * @param numRows the number of rows
+     */
+    public void ensureCapacity( int numRows )
+    {
+        if( numRows <= capacity ) return;
+        for( Column column : schema.getColumns() )
+        {
+            if( column != null )
+            {
+                column.getStorage().checkGrowth( numRows );
+            }
+        }
+        capacity = getStorageCapacity();
+    }
+
+    /**
+     * The number of rows every column can hold, the smallest capacity of the column storages.
+     *
+     * @return the capacity
+     */
+    protected int getStorageCapacity()
+    {
+        int min = Integer.MAX_VALUE;
+        for( Column column : schema.getColumns() )
+        {
+            if( column != null )
+            {
+                min = Math.min( min, column.getStorage().getCapacity() );
+            }
+        }
+        return min;
+    }
+
+    public Schema getSchema()
+    {
+        return schema;
+    }
+
+    public RowTracker getRowTracker()
+    {
+        return rowTracker;
+    }
+
+    public void setRowTracker( RowTracker rowTracker )
+    {
+        this.rowTracker = rowTracker;
+    }
 
     public abstract int beginAddRow();
 
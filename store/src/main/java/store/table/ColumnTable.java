@@ -0,0 +1,427 @@
+package store.table;
+
+import core.Const;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import store.col.Column;
+import store.col.ColumnUtils;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.generic.ColStorage;
+import store.col.storage.generic.ForkableStorage;
+import store.schema.Schema;
+import store.table.rowtracker.RowTracker;
+import store.table.rowtracker.RowTrackerBits;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>An in-memory table. Row ids are kept compact: a removed row goes on a free list and is handed out again by
+ * the next {@link #beginAddRow()}, the same as the entries of a HashSet, otherwise rows are taken from the end.
+ * The storage of every column grows together, when a row past the capacity is added.</p>
+ * <p/>
+ * <p>A row is added or changed between a begin and an end, the values are set through the columns of the
+ * schema. To load many rows, {@link #beginAddRows(int)} reserves a contiguous range of rows at once, growing the
+ * storage once and adding the rows to the row tracker together, and {@link #endAddRows()} ends the whole range,
+ * with no begin or end per row.</p>
+ * <p/>
+ * <p>{@link TableListener}s are told of each add, change and remove at its end. A listener that refuses an add
+ * (a unique index seeing a duplicate key) rolls it back, the rows are removed again and the exception is
+ * thrown. A refused change stays open, so the values can be corrected before ending it again.</p>
+ * <p/>
+ * <p>A {@link #fork()} is a scenario of the table: a table of the same rows, that shares the blocks of the
+ * column storages until either table writes to them (see {@link store.col.storage.generic.ForkableStorage}).</p>
+ */
+public class ColumnTable extends BaseTable
+{
+    protected static final int DEFAULT_FREE_LIST_SIZE = 16;
+
+    /** Growth strategy of the free list */
+    protected final GrowthStrategy growthStrategy;
+    /** Removed rows, handed out again before new rows */
+    protected int[] freeList;
+    /** Pointer in the free list (that points to the remaining free rows) */
+    protected int freeListPtr = 0;
+    /** The next row from the end, every row below it has been handed out */
+    protected int nextRow = 0;
+    /** Row being added or changed, NO_ENTRY outside of a change */
+    protected int currentRow = Const.NO_ENTRY;
+    /** Whether the current change adds the row */
+    protected boolean adding;
+    /** Number of rows of the open batch add, from <i>currentRow</i>, 0 when there is none */
+    protected int batchRows = 0;
+    protected TableListener[] listeners = new TableListener[ 0 ];
+
+    /**
+     * Constructor, blocked storage and double growth.
+     *
+     * @param schema  the schema
+     * @param numRows initial number of rows of the storage
+     */
+    public ColumnTable( Schema schema, int numRows )
+    {
+        this( schema, numRows, ColStorageFactory.defaultBlockedStorageFactory, GrowthStrategy.doubleGrowth );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param schema         the schema
+     * @param numRows        initial number of rows of the storage
+     * @param factory        the storage factory
+     * @param growthStrategy growth strategy of the free list, the storage grows by its own
+     */
+    public ColumnTable( Schema schema, int numRows, ColStorageFactory factory, GrowthStrategy growthStrategy )
+    {
+        super( schema );
+        this.growthStrategy = growthStrategy;
+        setStorage( numRows, factory );
+        rowTracker = new RowTrackerBits( numRows );
+        capacity = getStorageCapacity();
+        freeList = ArrayFactoryInt.defaultIntProvider.alloc( DEFAULT_FREE_LIST_SIZE );
+    }
+
+    /**
+     * Constructor of a fork of <i>table</i>, a copy of its schema with the storage of each column forked.
+     *
+     * @param table the table forked
+     */
+    protected ColumnTable( ColumnTable table )
+    {
+        super( table.schema.getCopy() );
+        this.growthStrategy = table.growthStrategy;
+        initialized = true;
+        Column[] columns = table.schema.getColumns();
+        Column[] forked = schema.getColumns();
+        for( int i = 0; i < columns.length; i++ )
+        {
+            if( columns[ i ] != null )
+            {
+                ColumnUtils.setStorage( forked[ i ], ColumnUtils.forkStorage( columns[ i ] ) );
+            }
+        }
+        rowTracker = table.rowTracker.getCopy();
+        capacity = table.capacity;
+        freeList = table.freeList.clone();
+        freeListPtr = table.freeListPtr;
+        nextRow = table.nextRow;
+    }
+
+    /**
+     * Fork the table, a table of the same rows that is changed independently of this one. The column storages
+     * share their blocks, so the fork is in the number of blocks (and the words of the row tracker), and a block
+     * is copied on the first write to it by either table. Storages that can not be forked are copied.
+     * <p/>
+     * <p>The fork has its own schema, of the same column names and ids, its values are set through its columns.
+     * The listeners are not carried over, an index of this table does not see the changes of the fork. A fork that
+     * is done with is {@link #release()}d.</p>
+     *
+     * @return the fork
+     */
+    public ColumnTable fork()
+    {
+        checkNoChange();
+        return new ColumnTable( this );
+    }
+
+    /**
+     * Release the blocks of the column storages still shared with a fork (or with the table this was forked from),
+     * so the tables still using them write to them in place again, and close the storages that hold memory or
+     * files of their own (the off-heap copy a fork makes of an off-heap column). A fork that is no longer used must
+     * be released, or the table it was forked from clones every block it still shares on the first write to it,
+     * and its copies are held until they are collected. The table must not be used after.
+     */
+    public void release()
+    {
+        checkNoChange();
+        for( Column column : schema.getColumns() )
+        {
+            if( column == null ) continue;
+            ColStorage storage = column.getStorage();
+            if( storage instanceof ForkableStorage )
+            {
+                ( ( ForkableStorage ) storage ).release();
+            }
+            else if( storage instanceof AutoCloseable )
+            {
+                try
+                {
+                    ( ( AutoCloseable ) storage ).close();
+                }
+                catch( Exception e )
+                {
+                    throw new IllegalStateException( "Could not close the storage of column [" + column.getName() +
+                                                     "]", e );
+                }
+            }
+        }
+        rowTracker.clear();
+        capacity = 0;
+    }
+
+    /**
+     * Replace the row tracker, as when a snapshot is restored into the table. New rows are taken after the maximum
+     * row of the tracker, the rows below it that are not in the tracker go on the free list (the lowest handed out
+     * first), and the capacity is that of the storage, which the restore may have grown.
+     *
+     * @param rowTracker the row tracker
+     */
+    @Override
+    public void setRowTracker( RowTracker rowTracker )
+    {
+        checkNoChange();
+        super.setRowTracker( rowTracker );
+        nextRow = rowTracker.getMaxRowId() + 1;
+        freeListPtr = 0;
+        int free = nextRow - rowTracker.getRowCount();
+        freeList = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( freeList, free, growthStrategy );
+        for( int row = nextRow - 1; row >= 0 && freeListPtr < free; row-- )
+        {
+            if( !rowTracker.containsRow( row ) )
+            {
+                freeList[ freeListPtr++ ] = row;
+            }
+        }
+        capacity = getStorageCapacity();
+    }
+
+    /**
+     * Begin adding a row, a free row if there is one, otherwise the next row from the end.
+     *
+     * @return the row
+     */
+    @Override
+    public int beginAddRow()
+    {
+        checkNoChange();
+        int row = getNextRow();
+        rowTracker.addRow( row );
+        currentRow = row;
+        adding = true;
+        return row;
+    }
+
+    @Override
+    public void endAddRow()
+    {
+        if( !adding || batchRows != 0 )
+        {
+            throw new IllegalStateException( "No row is being added" );
+        }
+        fireRowsAdded( currentRow, 1 );
+        currentRow = Const.NO_ENTRY;
+        adding = false;
+    }
+
+    @Override
+    public void beginChangeRow( int row )
+    {
+        checkNoChange();
+        if( !rowTracker.containsRow( row ) )
+        {
+            throw new IllegalArgumentException( "Row [" + row + "] is not in the table" );
+        }
+        currentRow = row;
+    }
+
+    @Override
+    public void endChangeRow()
+    {
+        if( currentRow == Const.NO_ENTRY || adding )
+        {
+            throw new IllegalStateException( "No row is being changed" );
+        }
+        for( TableListener listener : listeners )
+        {
+            listener.rowChanged( currentRow );
+        }
+        currentRow = Const.NO_ENTRY;
+    }
+
+    /**
+     * Remove the row, which will be handed out again by a later add.
+     *
+     * @param row the row
+     */
+    @Override
+    public void removeRow( int row )
+    {
+        checkNoChange();
+        if( !rowTracker.containsRow( row ) )
+        {
+            throw new IllegalArgumentException( "Row [" + row + "] is not in the table" );
+        }
+        for( TableListener listener : listeners )
+        {
+            listener.rowRemoved( row );
+        }
+        free( row );
+    }
+
+    /**
+     * Begin adding <i>numRows</i> rows, a contiguous range from the end of the table (free rows are not used).
+     * The storage is grown once, and the rows are in the table on return; the values are set through the columns,
+     * then the range is ended with {@link #endAddRows()}.
+     *
+     * @param numRows the number of rows
+     * @return the first row of the range
+     */
+    public int beginAddRows( int numRows )
+    {
+        checkNoChange();
+        if( numRows <= 0 )
+        {
+            throw new IllegalArgumentException( "Can not add [" + numRows + "] rows" );
+        }
+        int first = nextRow;
+        ensureCapacity( first + numRows );
+        rowTracker.addRows( first, numRows );
+        nextRow += numRows;
+        currentRow = first;
+        batchRows = numRows;
+        adding = true;
+        return first;
+    }
+
+    /** End the range of rows of {@link #beginAddRows(int)}. */
+    public void endAddRows()
+    {
+        if( batchRows == 0 )
+        {
+            throw new IllegalStateException( "No rows are being added" );
+        }
+        int numRows = batchRows;
+        batchRows = 0;
+        fireRowsAdded( currentRow, numRows );
+        currentRow = Const.NO_ENTRY;
+        adding = false;
+    }
+
+    public void addListener( TableListener listener )
+    {
+        TableListener[] temp = new TableListener[ listeners.length + 1 ];
+        System.arraycopy( listeners, 0, temp, 0, listeners.length );
+        temp[ listeners.length ] = listener;
+        listeners = temp;
+    }
+
+    public void removeListener( TableListener listener )
+    {
+        for( int i = 0; i < listeners.length; i++ )
+        {
+            if( listeners[ i ] == listener )
+            {
+                TableListener[] temp = new TableListener[ listeners.length - 1 ];
+                System.arraycopy( listeners, 0, temp, 0, i );
+                System.arraycopy( listeners, i + 1, temp, i, temp.length - i );
+                listeners = temp;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the number of rows in the table.
+     *
+     * @return the row count
+     */
+    public int getRowCount()
+    {
+        return rowTracker.getRowCount();
+    }
+
+    /**
+     * Get the row being added or changed.
+     *
+     * @return the row, -1 outside of a change
+     */
+    public int getCurrentRow()
+    {
+        return currentRow;
+    }
+
+    /** Remove every row, the storage is kept. */
+    public void clear()
+    {
+        checkNoChange();
+        rowTracker.clear();
+        freeListPtr = nextRow = 0;
+        for( TableListener listener : listeners )
+        {
+            listener.cleared();
+        }
+    }
+
+    /**
+     * Return a free row, or the next row from the end, growing the storage if needed.
+     *
+     * @return the row
+     */
+    protected int getNextRow()
+    {
+        if( freeListPtr != 0 )
+        {
+            return freeList[ --freeListPtr ];
+        }
+        //not on freelist, need growth check
+        ensureCapacity( nextRow + 1 );
+        return nextRow++;
+    }
+
+    /**
+     * Tell the listeners of the added rows. If one refuses them, those already told see the rows removed, and
+     * the rows are removed from the table.
+     *
+     * @param firstRow the first row
+     * @param numRows  the number of rows
+     */
+    protected void fireRowsAdded( int firstRow, int numRows )
+    {
+        int told = 0;
+        try
+        {
+            for( ; told < listeners.length; told++ )
+            {
+                listeners[ told ].rowsAdded( firstRow, numRows );
+            }
+        }
+        catch( RuntimeException e )
+        {
+            for( int i = firstRow + numRows - 1; i >= firstRow; i-- )
+            {
+                for( int j = 0; j < told; j++ )
+                {
+                    listeners[ j ].rowRemoved( i );
+                }
+                free( i );
+            }
+            currentRow = Const.NO_ENTRY;
+            adding = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Take the row out of the row tracker, and put it on the free list.
+     *
+     * @param row the row
+     */
+    protected void free( int row )
+    {
+        rowTracker.removeRow( row );
+        freeList = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( freeList, freeListPtr + 1,
+                                                                             growthStrategy );
+        freeList[ freeListPtr++ ] = row;
+    }
+
+    protected void checkNoChange()
+    {
+        if( currentRow != Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "Row [" + currentRow + "] is still being changed" );
+        }
+    }
+}
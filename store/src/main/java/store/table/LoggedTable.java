@@ -0,0 +1,324 @@
+package store.table;
+
+import core.Const;
+import core.Types;
+import store.col.*;
+import store.col.storage.ColStorageFactory;
+import store.schema.Schema;
+import store.table.change.ChangeLog;
+import store.table.rowtracker.RowTrackerBits;
+import store.table.snapshot.TableSnapshotReader;
+import store.table.snapshot.TableSnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A table whose changes are written ahead to a {@link ChangeLog}, so that it survives a restart. Rows are
+ * changed between a begin and an end: {@link #beginAddRow()} or {@link #beginChangeRow(int)}, the typed setters
+ * of the columns by id, then {@link #endAddRow()} or {@link #endChangeRow()}, which commit the change to the
+ * log. {@link #removeRow(int)} is a change on its own.</p>
+ * <p/>
+ * <p>On construction the table loads the snapshot, if there is one, and replays the log over it. The log grows
+ * with every change, {@link #checkpoint()} writes a snapshot of the whole table and empties the log, so that
+ * snapshots are only needed as often as the replay time calls for.</p>
+ * <p/>
+ * <p>The values are read through the columns of the schema. Object columns can not be logged, and can not be
+ * set through the table.</p>
+ */
+public class LoggedTable extends BaseTable
+{
+    protected final ChangeLog log;
+    /** The snapshot file, null when the table is only logged */
+    protected final File snapshotFile;
+    /** Row being added or changed, NO_ENTRY outside of a change */
+    protected int currentRow = Const.NO_ENTRY;
+    /** Whether the current change adds the row */
+    protected boolean adding;
+
+    /**
+     * Constructor, blocked storage, no snapshot and the default group of commits.
+     *
+     * @param schema  the schema
+     * @param numRows initial number of rows of the storage
+     * @param logFile the change log
+     * @throws IOException on failing to read or write the change log
+     */
+    public LoggedTable( Schema schema, int numRows, File logFile ) throws IOException
+    {
+        this( schema, numRows, ColStorageFactory.defaultBlockedStorageFactory, logFile, null,
+              ChangeLog.DEFAULT_SYNC_EVERY );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param schema       the schema
+     * @param numRows      initial number of rows of the storage
+     * @param factory      the storage factory
+     * @param logFile      the change log
+     * @param snapshotFile the snapshot of the table, written by {@link #checkpoint()}, may be null
+     * @param syncEvery    number of commits forced to the disk together
+     * @throws IOException on failing to read the snapshot, or to read or write the change log
+     */
+    public LoggedTable( Schema schema, int numRows, ColStorageFactory factory, File logFile, File snapshotFile,
+                        int syncEvery ) throws IOException
+    {
+        super( schema );
+        setStorage( numRows, factory );
+        rowTracker = new RowTrackerBits( numRows );
+        this.snapshotFile = snapshotFile;
+        if( snapshotFile != null && snapshotFile.exists() )
+        {
+            TableSnapshotReader reader = new TableSnapshotReader( snapshotFile );
+            try
+            {
+                reader.read( this );
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+        capacity = getStorageCapacity();
+        log = new ChangeLog( logFile, syncEvery, ChangeLog.DEFAULT_BUFFER_SIZE );
+        changeQueue = log;
+        log.replay( this );
+    }
+
+    /**
+     * Begin adding a row, the row after the maximum row.
+     *
+     * @return the row
+     */
+    @Override
+    public int beginAddRow()
+    {
+        checkNoChange();
+        int row = rowTracker.getMaxRowId() + 1;
+        ensureCapacity( row + 1 );
+        log.begin( row );
+        log.add();
+        rowTracker.addRow( row );
+        currentRow = row;
+        adding = true;
+        return row;
+    }
+
+    @Override
+    public void endAddRow()
+    {
+        if( currentRow != Const.NO_ENTRY && !adding )
+        {
+            throw new IllegalStateException( "Row [" + currentRow + "] is being changed, not added" );
+        }
+        endChange();
+    }
+
+    @Override
+    public void beginChangeRow( int row )
+    {
+        checkNoChange();
+        if( !rowTracker.containsRow( row ) )
+        {
+            throw new IllegalArgumentException( "Row [" + row + "] is not in the table" );
+        }
+        log.begin( row );
+        currentRow = row;
+        adding = false;
+    }
+
+    @Override
+    public void endChangeRow()
+    {
+        if( adding )
+        {
+            throw new IllegalStateException( "Row [" + currentRow + "] is being added, not changed" );
+        }
+        endChange();
+    }
+
+    @Override
+    public void removeRow( int row )
+    {
+        checkNoChange();
+        if( !rowTracker.containsRow( row ) )
+        {
+            throw new IllegalArgumentException( "Row [" + row + "] is not in the table" );
+        }
+        log.begin( row );
+        log.remove();
+        log.commit();
+        rowTracker.removeRow( row );
+    }
+
+    public void setBool( int colId, boolean value )
+    {
+        ( ( ColumnBool ) getColumn( colId, Types.Bool ) ).setBool( value, currentRow );
+        log.setBool( colId, value );
+    }
+
+    public void setByte( int colId, byte value )
+    {
+        ( ( ColumnByte ) getColumn( colId, Types.Byte ) ).setByte( value, currentRow );
+        log.setByte( colId, value );
+    }
+
+    public void setChar( int colId, char value )
+    {
+        ( ( ColumnChar ) getColumn( colId, Types.Char ) ).setChar( value, currentRow );
+        log.setChar( colId, value );
+    }
+
+    public void setShort( int colId, short value )
+    {
+        ( ( ColumnShort ) getColumn( colId, Types.Short ) ).setShort( value, currentRow );
+        log.setShort( colId, value );
+    }
+
+    public void setInt( int colId, int value )
+    {
+        ( ( ColumnInt ) getColumn( colId, Types.Int ) ).setInt( value, currentRow );
+        log.setInt( colId, value );
+    }
+
+    public void setFloat( int colId, float value )
+    {
+        ( ( ColumnFloat ) getColumn( colId, Types.Float ) ).setFloat( value, currentRow );
+        log.setFloat( colId, value );
+    }
+
+    public void setDouble( int colId, double value )
+    {
+        ( ( ColumnDouble ) getColumn( colId, Types.Double ) ).setDouble( value, currentRow );
+        log.setDouble( colId, value );
+    }
+
+    public void setLong( int colId, long value )
+    {
+        ( ( ColumnLong ) getColumn( colId, Types.Long ) ).setLong( value, currentRow );
+        log.setLong( colId, value );
+    }
+
+    public void setCharSequence( int colId, CharSequence value )
+    {
+        ( ( ColumnCharSequence ) getColumn( colId, Types.CharSequence ) ).setCharSequence( value, currentRow );
+        log.setCharSequence( colId, value );
+    }
+
+    /** Force every committed change to the disk, without waiting for the group to fill. */
+    public void sync()
+    {
+        log.sync();
+    }
+
+    /**
+     * Write a snapshot of the table, then empty the log. The snapshot is written next to the snapshot file and
+     * renamed over it, so a crash leaves either the old snapshot or the new one, with the whole log.
+     *
+     * @throws IOException on failing to write the snapshot
+     */
+    public void checkpoint() throws IOException
+    {
+        checkNoChange();
+        if( snapshotFile == null )
+        {
+            throw new IllegalStateException( "Table has no snapshot file" );
+        }
+        log.sync();
+        File temp = new File( snapshotFile.getPath() + ".tmp" );
+        new TableSnapshotWriter().write( this, temp );
+        Files.move( temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE );
+        log.truncate();
+    }
+
+    /** Sync and close the log, an open change is lost. */
+    public void close()
+    {
+        log.close();
+    }
+
+    /**
+     * Add the row, if not already in the table, when replaying the log.
+     *
+     * @param row the row
+     */
+    public void replayAdd( int row )
+    {
+        ensureCapacity( row + 1 );
+        if( !rowTracker.containsRow( row ) )
+        {
+            rowTracker.addRow( row );
+        }
+    }
+
+    /**
+     * Remove the row, if in the table, when replaying the log.
+     *
+     * @param row the row
+     */
+    public void replayRemove( int row )
+    {
+        if( rowTracker.containsRow( row ) )
+        {
+            rowTracker.removeRow( row );
+        }
+    }
+
+    /**
+     * Get the row being added or changed.
+     *
+     * @return the row, -1 outside of a change
+     */
+    public int getCurrentRow()
+    {
+        return currentRow;
+    }
+
+    public ChangeLog getChangeLog()
+    {
+        return log;
+    }
+
+    protected Column getColumn( int colId, byte type )
+    {
+        if( currentRow == Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "Values can only be set between a begin and an end of a row" );
+        }
+        Column column = schema.getColumns()[ colId ];
+        if( column == null || column.getType() != type )
+        {
+            throw new IllegalArgumentException( "No column [" + colId + "] of type [" + type + "]" );
+        }
+        return column;
+    }
+
+    protected void endChange()
+    {
+        if( currentRow == Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "No row is being added or changed" );
+        }
+        log.commit();
+        currentRow = Const.NO_ENTRY;
+        adding = false;
+    }
+
+    protected void checkNoChange()
+    {
+        if( currentRow != Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "Row [" + currentRow + "] is still being changed" );
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package store.table;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * Listens to the row changes of a {@link ColumnTable}, to keep a structure over the table (an index) in step
+ * with it. Each is called at the end of the change, when the values of the row are in the columns. A listener
+ * may refuse an add or a change by throwing, it must then leave itself as it was before the call.
+ */
+public interface TableListener
+{
+    /**
+     * The rows <i>firstRow</i> to <i>firstRow</i>+<i>numRows</i>-1 have been added.
+     *
+     * @param firstRow the first row
+     * @param numRows  the number of rows, 1 for a single add
+     */
+    void rowsAdded( int firstRow, int numRows );
+
+    /**
+     * The values of the row have been changed.
+     *
+     * @param row the row
+     */
+    void rowChanged( int row );
+
+    /**
+     * The row has been removed, its values are still in the columns. Also called for the rows of an add that
+     * is rolled back, which may not have been seen by the listener.
+     *
+     * @param row the row
+     */
+    void rowRemoved( int row );
+
+    /** Every row has been removed. */
+    void cleared();
+}
@@ -0,0 +1,702 @@
+package store.table.aggregate;
+
+import collections.hash.set.HashSet_KeyTypeName_;
+import core.Const;
+import core.Types;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryDouble;
+import core.array.factory.ArrayFactoryInt;
+import core.array.factory.ArrayFactoryLong;
+import core.stub.*;
+import store.col.*;
+import store.col.storage.array.*;
+import store.col.storage.block.*;
+import store.col.storage.generic.*;
+import store.table.rowtracker.RowTracker;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Count, sum, minimum, maximum and average of a value column, grouped by a key column. Each distinct key is
+ * a group, whose id is its entry in a {@link HashSet_KeyTypeName_}, and the accumulators are primitive arrays
+ * indexed by the group id.</p>
+ * <p/>
+ * <p>The live rows of the row tracker are taken {@link #CHUNK_SIZE} at a time: the keys of the chunk are read
+ * from the key storage, mapped to their groups with one batch insert, then the values are read from the value
+ * storage and accumulated, each step a tight loop over the chunk. The keys and values of an array or blocked
+ * storage are read from its array or blocks, as the {@link store.col.scan.ColumnScanInt} kernels do, other
+ * storages a row at a time.</p>
+ * <p/>
+ * <p>On a {@link DictionaryStorage} key storage the codes of the chunk are mapped to their groups instead, each
+ * code through the key set once, then through an array of the group of each code.</p>
+ * <p/>
+ * <p>Integral values (Byte, Char, Short, Int, Long) are summed as longs, Float and Double as doubles. Without a
+ * value column only the counts are kept.</p>
+ * <p/>
+ * <p>To aggregate in parallel, each thread aggregates a range of rows into its own group by, and the partials
+ * are then {@link #merge(GroupBy_KeyTypeName_)}d into one. A group by is not thread safe.</p>
+ */
+public class GroupBy_KeyTypeName_
+{
+    /** Number of rows read and accumulated together */
+    public static final int CHUNK_SIZE = 1024;
+    protected static final int DEFAULT_GROUPS = 16;
+
+    protected final Column_KeyTypeName_ keyColumn;
+    /** The value column, null when only counting */
+    protected final Column valueColumn;
+    /** Whether the values are summed as longs */
+    protected final boolean integral;
+    protected final GrowthStrategy growthStrategy = GrowthStrategy.doubleGrowth;
+    /** The keys, the entry of a key is the id of its group */
+    protected final HashSet_KeyTypeName_ groups;
+
+    protected int[] counts;
+    protected long[] longSums;
+    protected long[] longMins;
+    protected long[] longMaxes;
+    protected double[] doubleSums;
+    protected double[] doubleMins;
+    protected double[] doubleMaxes;
+
+    //the current chunk
+    protected final int[] chunkRows = new int[ CHUNK_SIZE ];
+    protected final _key_[] chunkKeys = new _key_[ CHUNK_SIZE ];
+    protected final int[] chunkGroups = new int[ CHUNK_SIZE ];
+    //the group of each code of a dictionary key storage, NO_ENTRY until seen
+    protected DictionaryStorage codedStorage;
+    protected int[] codeGroups;
+    protected long[] chunkLongs;
+    protected double[] chunkDoubles;
+
+    /**
+     * Constructor, counting only.
+     *
+     * @param keyColumn the key column
+     */
+    public GroupBy_KeyTypeName_( Column_KeyTypeName_ keyColumn )
+    {
+        this( keyColumn, null );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param keyColumn   the key column
+     * @param valueColumn the value column, of a numeric type, null to only count
+     */
+    public GroupBy_KeyTypeName_( Column_KeyTypeName_ keyColumn, Column valueColumn )
+    {
+        this.keyColumn = keyColumn;
+        this.valueColumn = valueColumn;
+        groups = new HashSet_KeyTypeName_( DEFAULT_GROUPS );
+        counts = ArrayFactoryInt.defaultIntProvider.alloc( DEFAULT_GROUPS );
+        if( valueColumn == null )
+        {
+            integral = false;
+            return;
+        }
+        switch( valueColumn.getType() )
+        {
+            case Types.Byte:
+            case Types.Char:
+            case Types.Short:
+            case Types.Int:
+            case Types.Long:
+                integral = true;
+                longSums = ArrayFactoryLong.defaultLongProvider.alloc( DEFAULT_GROUPS );
+                longMins = ArrayFactoryLong.defaultLongProvider.alloc( DEFAULT_GROUPS, Long.MAX_VALUE );
+                longMaxes = ArrayFactoryLong.defaultLongProvider.alloc( DEFAULT_GROUPS, Long.MIN_VALUE );
+                chunkLongs = new long[ CHUNK_SIZE ];
+                break;
+            case Types.Float:
+            case Types.Double:
+                integral = false;
+                doubleSums = ArrayFactoryDouble.defaultDoubleProvider.alloc( DEFAULT_GROUPS );
+                doubleMins = ArrayFactoryDouble.defaultDoubleProvider.alloc( DEFAULT_GROUPS,
+                                                                             Double.POSITIVE_INFINITY );
+                doubleMaxes = ArrayFactoryDouble.defaultDoubleProvider.alloc( DEFAULT_GROUPS,
+                                                                              Double.NEGATIVE_INFINITY );
+                chunkDoubles = new double[ CHUNK_SIZE ];
+                break;
+            default:
+                throw new IllegalArgumentException( "Can not aggregate column [" + valueColumn.getName() +
+                                                    "] of type [" + valueColumn.getType() + "]" );
+        }
+    }
+
+    /**
+     * Aggregate every live row of <i>rowTracker</i>.
+     *
+     * @param rowTracker the live rows
+     */
+    public void aggregate( RowTracker rowTracker )
+    {
+        aggregate( rowTracker, 0, rowTracker.getMaxRowId() + 1 );
+    }
+
+    /**
+     * Aggregate the live rows of <i>rowTracker</i> in [<i>fromRow</i>, <i>toRow</i>).
+     *
+     * @param rowTracker the live rows
+     * @param fromRow    the first row (inclusive)
+     * @param toRow      the last row (exclusive)
+     */
+    public void aggregate( RowTracker rowTracker, int fromRow, int toRow )
+    {
+        int row = ( fromRow < toRow ) ? rowTracker.nextRow( fromRow ) : Const.NO_ENTRY;
+        while( row != Const.NO_ENTRY && row < toRow )
+        {
+            int n = 0;
+            while( row != Const.NO_ENTRY && row < toRow && n < CHUNK_SIZE )
+            {
+                chunkRows[ n++ ] = row;
+                row = rowTracker.nextRow( row + 1 );
+            }
+            aggregateChunk( n );
+        }
+    }
+
+    /**
+     * Add the groups of <i>other</i> to this, a partial aggregate of other rows of the same columns.
+     *
+     * @param other the partial aggregate
+     */
+    public void merge( GroupBy_KeyTypeName_ other )
+    {
+        if( ( valueColumn == null ) != ( other.valueColumn == null ) || other.integral != integral )
+        {
+            throw new IllegalArgumentException( "Can only merge a group by of the same type of values" );
+        }
+        int numGroups = other.groups.getSize();
+        for( int entry = 0; entry < numGroups; entry++ )
+        {
+            int group = groups.insert( other.groups.get( entry ) );
+            ensureGroups( group + 1 );
+            counts[ group ] += other.counts[ entry ];
+            if( valueColumn == null ) continue;
+            if( integral )
+            {
+                longSums[ group ] += other.longSums[ entry ];
+                longMins[ group ] = Math.min( longMins[ group ], other.longMins[ entry ] );
+                longMaxes[ group ] = Math.max( longMaxes[ group ], other.longMaxes[ entry ] );
+            }
+            else
+            {
+                doubleSums[ group ] += other.doubleSums[ entry ];
+                doubleMins[ group ] = Math.min( doubleMins[ group ], other.doubleMins[ entry ] );
+                doubleMaxes[ group ] = Math.max( doubleMaxes[ group ], other.doubleMaxes[ entry ] );
+            }
+        }
+    }
+
+    /**
+     * Get the number of groups, the groups are 0 to the number of groups - 1.
+     *
+     * @return the number of groups
+     */
+    public int getGroupCount()
+    {
+        return groups.getSize();
+    }
+
+    /**
+     * Get the group of <i>key</i>.
+     *
+     * @param key the key
+     * @return the group, or Const.NO_ENTRY if no row had the key
+     */
+    public int getGroup( _key_ key )
+    {
+        return groups.getEntry( key );
+    }
+
+    public _key_ getKey( int group )
+    {
+        return groups.get( group );
+    }
+
+    public int getCount( int group )
+    {
+        return counts[ group ];
+    }
+
+    /**
+     * Get the sum of the group, integral sums as a double.
+     *
+     * @param group the group
+     * @return the sum
+     */
+    public double getSum( int group )
+    {
+        checkValues();
+        return integral ? longSums[ group ] : doubleSums[ group ];
+    }
+
+    public double getMin( int group )
+    {
+        checkValues();
+        return integral ? longMins[ group ] : doubleMins[ group ];
+    }
+
+    public double getMax( int group )
+    {
+        checkValues();
+        return integral ? longMaxes[ group ] : doubleMaxes[ group ];
+    }
+
+    public double getAverage( int group )
+    {
+        return getSum( group ) / counts[ group ];
+    }
+
+    /**
+     * Get the exact sum of the group, for integral values.
+     *
+     * @param group the group
+     * @return the sum
+     */
+    public long getLongSum( int group )
+    {
+        checkIntegral();
+        return longSums[ group ];
+    }
+
+    public long getLongMin( int group )
+    {
+        checkIntegral();
+        return longMins[ group ];
+    }
+
+    public long getLongMax( int group )
+    {
+        checkIntegral();
+        return longMaxes[ group ];
+    }
+
+    /** Remove every group, to aggregate again. */
+    public void clear()
+    {
+        int numGroups = groups.getSize();
+        groups.clear();
+        codedStorage = null;
+        for( int i = 0; i < numGroups; i++ )
+        {
+            counts[ i ] = 0;
+            if( valueColumn == null ) continue;
+            if( integral )
+            {
+                longSums[ i ] = 0;
+                longMins[ i ] = Long.MAX_VALUE;
+                longMaxes[ i ] = Long.MIN_VALUE;
+            }
+            else
+            {
+                doubleSums[ i ] = 0;
+                doubleMins[ i ] = Double.POSITIVE_INFINITY;
+                doubleMaxes[ i ] = Double.NEGATIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * Group and accumulate the first <i>n</i> rows of the chunk.
+     *
+     * @param n the number of rows
+     */
+    protected void aggregateChunk( int n )
+    {
+        ColStorage_KeyTypeName_ keyStorage = keyColumn.getStorage();
+        if( keyStorage instanceof DictionaryStorage )
+        {
+            groupCodes( keyStorage, n );
+        }
+        else
+        {
+            if( keyStorage instanceof ColStorageArray_KeyTypeName_ )
+            {
+                _key_[] data = ( ( ColStorageArray_KeyTypeName_ ) keyStorage ).getData();
+                for( int i = 0; i < n; i++ )
+                {
+                    chunkKeys[ i ] = data[ chunkRows[ i ] ];
+                }
+            }
+            else if( keyStorage instanceof ColStorageBlocked_KeyTypeName_ )
+            {
+                ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) keyStorage;
+                _key_[][] blocks = blocked.getBlocks();
+                int bitsPerBlock = blocked.getBitsPerBlock();
+                int mask = blocked.getBlockSize() - 1;
+                for( int i = 0; i < n; i++ )
+                {
+                    int row = chunkRows[ i ];
+                    chunkKeys[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                }
+            }
+            else
+            {
+                for( int i = 0; i < n; i++ )
+                {
+                    chunkKeys[ i ] = keyStorage.getValue( chunkRows[ i ] );
+                }
+            }
+            groups.insertAll( chunkKeys, 0, n, chunkGroups );
+        }
+        ensureGroups( groups.getSize() );
+        for( int i = 0; i < n; i++ )
+        {
+            counts[ chunkGroups[ i ] ]++;
+        }
+        if( valueColumn == null ) return;
+        if( integral )
+        {
+            readLongs( n );
+            for( int i = 0; i < n; i++ )
+            {
+                int group = chunkGroups[ i ];
+                long value = chunkLongs[ i ];
+                longSums[ group ] += value;
+                longMins[ group ] = Math.min( longMins[ group ], value );
+                longMaxes[ group ] = Math.max( longMaxes[ group ], value );
+            }
+        }
+        else
+        {
+            readDoubles( n );
+            for( int i = 0; i < n; i++ )
+            {
+                int group = chunkGroups[ i ];
+                double value = chunkDoubles[ i ];
+                doubleSums[ group ] += value;
+                doubleMins[ group ] = Math.min( doubleMins[ group ], value );
+                doubleMaxes[ group ] = Math.max( doubleMaxes[ group ], value );
+            }
+        }
+    }
+
+    /**
+     * Map the first <i>n</i> rows of the chunk to their groups by the codes of a dictionary key storage. The key
+     * of a code is inserted in the groups the first time the code is seen (and for every null key).
+     *
+     * @param keyStorage the key storage, a {@link DictionaryStorage}
+     * @param n          the number of rows
+     */
+    protected void groupCodes( ColStorage_KeyTypeName_ keyStorage, int n )
+    {
+        DictionaryStorage coded = ( DictionaryStorage ) keyStorage;
+        int dictionarySize = coded.getDictionarySize();
+        if( codedStorage != coded )
+        {
+            codedStorage = coded;
+            codeGroups = ArrayFactoryInt.defaultIntProvider.alloc( Math.max( dictionarySize, DEFAULT_GROUPS ),
+                                                                   Const.NO_ENTRY );
+        }
+        else
+        {
+            codeGroups = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( codeGroups, dictionarySize,
+                                                                                 Const.NO_ENTRY, growthStrategy );
+        }
+        for( int i = 0; i < n; i++ )
+        {
+            int row = chunkRows[ i ];
+            int code = coded.getCode( row );
+            int group = ( code == Const.NO_ENTRY ) ? Const.NO_ENTRY : codeGroups[ code ];
+            if( group == Const.NO_ENTRY )
+            {
+                group = groups.insert( keyStorage.getValue( row ) );
+                if( code != Const.NO_ENTRY )
+                {
+                    codeGroups[ code ] = group;
+                }
+            }
+            chunkGroups[ i ] = group;
+        }
+    }
+
+    /**
+     * Read the values of the first <i>n</i> rows of the chunk as longs, one loop per type. The values of an array
+     * or blocked storage are read straight from its array or blocks.
+     *
+     * @param n the number of rows
+     */
+    protected void readLongs( int n )
+    {
+        switch( valueColumn.getType() )
+        {
+            case Types.Byte:
+                ColStorageByte bytes = ( ( ColumnByte ) valueColumn ).getStorage();
+                if( bytes instanceof ColStorageArrayByte )
+                {
+                    byte[] data = ( ( ColStorageArrayByte ) bytes ).getData();
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = data[ chunkRows[ i ] ];
+                    }
+                }
+                else if( bytes instanceof ColStorageBlockedByte )
+                {
+                    ColStorageBlockedByte blocked = ( ColStorageBlockedByte ) bytes;
+                    byte[][] blocks = blocked.getBlocks();
+                    int bitsPerBlock = blocked.getBitsPerBlock();
+                    int mask = blocked.getBlockSize() - 1;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        int row = chunkRows[ i ];
+                        chunkLongs[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                    }
+                }
+                else
+                {
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = bytes.getValue( chunkRows[ i ] );
+                    }
+                }
+                break;
+            case Types.Char:
+                ColStorageChar chars = ( ( ColumnChar ) valueColumn ).getStorage();
+                if( chars instanceof ColStorageArrayChar )
+                {
+                    char[] data = ( ( ColStorageArrayChar ) chars ).getData();
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = data[ chunkRows[ i ] ];
+                    }
+                }
+                else if( chars instanceof ColStorageBlockedChar )
+                {
+                    ColStorageBlockedChar blocked = ( ColStorageBlockedChar ) chars;
+                    char[][] blocks = blocked.getBlocks();
+                    int bitsPerBlock = blocked.getBitsPerBlock();
+                    int mask = blocked.getBlockSize() - 1;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        int row = chunkRows[ i ];
+                        chunkLongs[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                    }
+                }
+                else
+                {
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = chars.getValue( chunkRows[ i ] );
+                    }
+                }
+                break;
+            case Types.Short:
+                ColStorageShort shorts = ( ( ColumnShort ) valueColumn ).getStorage();
+                if( shorts instanceof ColStorageArrayShort )
+                {
+                    short[] data = ( ( ColStorageArrayShort ) shorts ).getData();
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = data[ chunkRows[ i ] ];
+                    }
+                }
+                else if( shorts instanceof ColStorageBlockedShort )
+                {
+                    ColStorageBlockedShort blocked = ( ColStorageBlockedShort ) shorts;
+                    short[][] blocks = blocked.getBlocks();
+                    int bitsPerBlock = blocked.getBitsPerBlock();
+                    int mask = blocked.getBlockSize() - 1;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        int row = chunkRows[ i ];
+                        chunkLongs[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                    }
+                }
+                else
+                {
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = shorts.getValue( chunkRows[ i ] );
+                    }
+                }
+                break;
+            case Types.Int:
+                ColStorageInt ints = ( ( ColumnInt ) valueColumn ).getStorage();
+                if( ints instanceof ColStorageArrayInt )
+                {
+                    int[] data = ( ( ColStorageArrayInt ) ints ).getData();
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = data[ chunkRows[ i ] ];
+                    }
+                }
+                else if( ints instanceof ColStorageBlockedInt )
+                {
+                    ColStorageBlockedInt blocked = ( ColStorageBlockedInt ) ints;
+                    int[][] blocks = blocked.getBlocks();
+                    int bitsPerBlock = blocked.getBitsPerBlock();
+                    int mask = blocked.getBlockSize() - 1;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        int row = chunkRows[ i ];
+                        chunkLongs[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                    }
+                }
+                else
+                {
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = ints.getValue( chunkRows[ i ] );
+                    }
+                }
+                break;
+            case Types.Long:
+            default:
+                ColStorageLong longs = ( ( ColumnLong ) valueColumn ).getStorage();
+                if( longs instanceof ColStorageArrayLong )
+                {
+                    long[] data = ( ( ColStorageArrayLong ) longs ).getData();
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = data[ chunkRows[ i ] ];
+                    }
+                }
+                else if( longs instanceof ColStorageBlockedLong )
+                {
+                    ColStorageBlockedLong blocked = ( ColStorageBlockedLong ) longs;
+                    long[][] blocks = blocked.getBlocks();
+                    int bitsPerBlock = blocked.getBitsPerBlock();
+                    int mask = blocked.getBlockSize() - 1;
+                    for( int i = 0; i < n; i++ )
+                    {
+                        int row = chunkRows[ i ];
+                        chunkLongs[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                    }
+                }
+                else
+                {
+                    for( int i = 0; i < n; i++ )
+                    {
+                        chunkLongs[ i ] = longs.getValue( chunkRows[ i ] );
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * Read the values of the first <i>n</i> rows of the chunk as doubles, from the array or blocks of the storage
+     * when it has them.
+     *
+     * @param n the number of rows
+     */
+    protected void readDoubles( int n )
+    {
+        if( valueColumn.getType() == Types.Float )
+        {
+            ColStorageFloat floats = ( ( ColumnFloat ) valueColumn ).getStorage();
+            if( floats instanceof ColStorageArrayFloat )
+            {
+                float[] data = ( ( ColStorageArrayFloat ) floats ).getData();
+                for( int i = 0; i < n; i++ )
+                {
+                    chunkDoubles[ i ] = data[ chunkRows[ i ] ];
+                }
+            }
+            else if( floats instanceof ColStorageBlockedFloat )
+            {
+                ColStorageBlockedFloat blocked = ( ColStorageBlockedFloat ) floats;
+                float[][] blocks = blocked.getBlocks();
+                int bitsPerBlock = blocked.getBitsPerBlock();
+                int mask = blocked.getBlockSize() - 1;
+                for( int i = 0; i < n; i++ )
+                {
+                    int row = chunkRows[ i ];
+                    chunkDoubles[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+                }
+            }
+            else
+            {
+                for( int i = 0; i < n; i++ )
+                {
+                    chunkDoubles[ i ] = floats.getValue( chunkRows[ i ] );
+                }
+            }
+            return;
+        }
+        ColStorageDouble doubles = ( ( ColumnDouble ) valueColumn ).getStorage();
+        if( doubles instanceof ColStorageArrayDouble )
+        {
+            double[] data = ( ( ColStorageArrayDouble ) doubles ).getData();
+            for( int i = 0; i < n; i++ )
+            {
+                chunkDoubles[ i ] = data[ chunkRows[ i ] ];
+            }
+        }
+        else if( doubles instanceof ColStorageBlockedDouble )
+        {
+            ColStorageBlockedDouble blocked = ( ColStorageBlockedDouble ) doubles;
+            double[][] blocks = blocked.getBlocks();
+            int bitsPerBlock = blocked.getBitsPerBlock();
+            int mask = blocked.getBlockSize() - 1;
+            for( int i = 0; i < n; i++ )
+            {
+                int row = chunkRows[ i ];
+                chunkDoubles[ i ] = blocks[ row >> bitsPerBlock ][ row & mask ];
+            }
+        }
+        else
+        {
+            for( int i = 0; i < n; i++ )
+            {
+                chunkDoubles[ i ] = doubles.getValue( chunkRows[ i ] );
+            }
+        }
+    }
+
+    /**
+     * Grow the accumulators to hold <i>numGroups</i> groups, new minimums and maximums start at the extremes.
+     *
+     * @param numGroups the number of groups
+     */
+    protected void ensureGroups( int numGroups )
+    {
+        if( counts.length >= numGroups ) return;
+        counts = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( counts, numGroups, growthStrategy );
+        if( valueColumn == null ) return;
+        if( integral )
+        {
+            longSums = ArrayFactoryLong.defaultLongProvider.ensureArrayCapacity( longSums, numGroups,
+                                                                                 growthStrategy );
+            longMins = ArrayFactoryLong.defaultLongProvider.ensureArrayCapacity( longMins, numGroups,
+                                                                                 Long.MAX_VALUE, growthStrategy );
+            longMaxes = ArrayFactoryLong.defaultLongProvider.ensureArrayCapacity( longMaxes, numGroups,
+                                                                                  Long.MIN_VALUE, growthStrategy );
+        }
+        else
+        {
+            doubleSums = ArrayFactoryDouble.defaultDoubleProvider.ensureArrayCapacity( doubleSums, numGroups,
+                                                                                       growthStrategy );
+            doubleMins = ArrayFactoryDouble.defaultDoubleProvider.ensureArrayCapacity( doubleMins, numGroups,
+                                                                                       Double.POSITIVE_INFINITY,
+                                                                                       growthStrategy );
+            doubleMaxes = ArrayFactoryDouble.defaultDoubleProvider.ensureArrayCapacity( doubleMaxes, numGroups,
+                                                                                        Double.NEGATIVE_INFINITY,
+                                                                                        growthStrategy );
+        }
+    }
+
+    protected void checkValues()
+    {
+        if( valueColumn == null )
+        {
+            throw new IllegalStateException( "Group by only counts, it has no value column" );
+        }
+    }
+
+    protected void checkIntegral()
+    {
+        checkValues();
+        if( !integral )
+        {
+            throw new IllegalStateException( "Values of column [" + valueColumn.getName() + "] are not integral" );
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package store.table.change;
+
+import core.Const;
+import core.Types;
+import store.col.*;
+import store.table.LoggedTable;
+import store.table.snapshot.SnapshotInput;
+import store.table.snapshot.SnapshotOutput;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A write-ahead log of the changes to a {@link LoggedTable}. Each change of a row is a transaction of compact
+ * binary records, ended by a commit record that holds the CRC32 of the transaction.</p>
+ * <pre>
+ *     header: order (1 = big endian), MAGIC, VERSION
+ *     ADD    row
+ *     SET    row, column id, value (raw, by the type of the column)
+ *     REMOVE row
+ *     COMMIT CRC32 of the transaction, from its first record to the COMMIT
+ * </pre>
+ * <p>Records are put into a buffer that is written when it fills, and the file is forced to the disk once every
+ * <i>syncEvery</i> commits (group commit), or on {@link #sync()}. A commit is only durable once it has been
+ * synced, the cost of the fsync is shared by the commits of the group.</p>
+ * <p/>
+ * <p>On {@link #replay}, the committed transactions are applied to the table, in order. A transaction without
+ * its commit, or whose checksum does not match (a write torn by a crash), ends the log: it and anything after
+ * it is discarded and the file is truncated. Every record sets state (a row is added, a value set, a row
+ * removed), so the log can be replayed over a snapshot taken after some of it.</p>
+ * <p/>
+ * <p>As a {@link ChangeQueue}, the log answers which columns of the row have changed in the open
+ * transaction.</p>
+ */
+public class ChangeLog implements ChangeQueue
+{
+    /** 'JLOG' */
+    public static final int MAGIC = 0x4A4C4F47;
+    public static final int VERSION = 1;
+    /** Order, MAGIC and VERSION */
+    protected static final int HEADER_BYTES = 9;
+    public static final int DEFAULT_SYNC_EVERY = 64;
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    public static final byte ADD = 1;
+    public static final byte SET = 2;
+    public static final byte REMOVE = 3;
+    public static final byte COMMIT = 4;
+
+    protected final File file;
+    /** Number of commits in a group, forced to the disk together */
+    protected final int syncEvery;
+    protected final int bufferSize;
+    protected RandomAccessFile randomAccessFile;
+    protected FileChannel channel;
+    protected SnapshotOutput out;
+    /** Commits since the last sync */
+    protected int unsynced = 0;
+    /** Row of the open transaction, NO_ENTRY when there is none */
+    protected int row = Const.NO_ENTRY;
+    /** Columns changed in the open transaction */
+    protected final BitSet changed = new BitSet();
+
+    public ChangeLog( File file )
+    {
+        this( file, DEFAULT_SYNC_EVERY, DEFAULT_BUFFER_SIZE );
+    }
+
+    /**
+     * Full Constructor. The log must be opened with {@link #replay} before it is written.
+     *
+     * @param file       the log file
+     * @param syncEvery  number of commits forced to the disk together, 1 to force every commit
+     * @param bufferSize size of the write buffer, in bytes
+     */
+    public ChangeLog( File file, int syncEvery, int bufferSize )
+    {
+        if( syncEvery < 1 )
+        {
+            throw new IllegalArgumentException( "Must sync at least every [1] commit, not [" + syncEvery + "]" );
+        }
+        this.file = file;
+        this.syncEvery = syncEvery;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Open the log, applying the committed transactions in it to <i>table</i>, then truncating anything after the
+     * last of them. The log is then ready to be written.
+     *
+     * @param table the table, with its storage set
+     * @throws IOException on failing to read or write the file
+     */
+    public void replay( LoggedTable table ) throws IOException
+    {
+        if( channel != null )
+        {
+            throw new IllegalStateException( "Change log is already open [" + file + "]" );
+        }
+        randomAccessFile = new RandomAccessFile( file, "rw" );
+        channel = randomAccessFile.getChannel();
+        try
+        {
+            out = new SnapshotOutput( channel, bufferSize );
+            if( channel.size() == 0 )
+            {
+                out.putByte( ( byte ) ( ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? 1 : 0 ) );
+                out.putInt( MAGIC );
+                out.putInt( VERSION );
+                sync();
+                return;
+            }
+            long committed = read( table, Long.MAX_VALUE, false );
+            read( table, committed, true );
+            channel.truncate( committed );
+            channel.position( committed );
+        }
+        catch( IOException e )
+        {
+            close();
+            throw e;
+        }
+        catch( RuntimeException e )
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Begin the transaction of a change to <i>row</i>.
+     *
+     * @param row the row
+     */
+    public void begin( int row )
+    {
+        checkOpen();
+        if( this.row != Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "Transaction of row [" + this.row + "] is still open" );
+        }
+        this.row = row;
+        changed.clear();
+        out.resetChecksum();
+    }
+
+    public void add()
+    {
+        checkTransaction();
+        try
+        {
+            out.putByte( ADD );
+            out.putInt( row );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void remove()
+    {
+        checkTransaction();
+        try
+        {
+            out.putByte( REMOVE );
+            out.putInt( row );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setBool( int colId, boolean value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putByte( ( byte ) ( value ? 1 : 0 ) );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setByte( int colId, byte value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putByte( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setChar( int colId, char value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putChar( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setShort( int colId, short value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putShort( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setInt( int colId, int value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putInt( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setFloat( int colId, float value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putFloat( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setDouble( int colId, double value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putDouble( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setLong( int colId, long value )
+    {
+        try
+        {
+            putSet( colId );
+            out.putLong( value );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    public void setCharSequence( int colId, CharSequence value )
+    {
+        try
+        {
+            putSet( colId );
+            if( value == null )
+            {
+                out.putInt( -1 );
+                return;
+            }
+            int len = value.length();
+            out.putInt( len );
+            for( int i = 0; i < len; i++ )
+            {
+                out.putChar( value.charAt( i ) );
+            }
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    /** Commit the open transaction, forcing the log to the disk if it ends a group. */
+    public void commit()
+    {
+        checkTransaction();
+        try
+        {
+            out.putByte( COMMIT );
+            out.putLong( out.getChecksum() );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+        row = Const.NO_ENTRY;
+        changed.clear();
+        if( ++unsynced >= syncEvery )
+        {
+            sync();
+        }
+    }
+
+    /** Write out and force every commit to the disk. */
+    public void sync()
+    {
+        checkOpen();
+        try
+        {
+            out.flush();
+            channel.force( false );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+        unsynced = 0;
+    }
+
+    /**
+     * Drop every transaction in the log, once the table they changed has been saved elsewhere (a snapshot).
+     */
+    public void truncate()
+    {
+        if( row != Const.NO_ENTRY )
+        {
+            throw new IllegalStateException( "Transaction of row [" + row + "] is still open" );
+        }
+        sync();
+        try
+        {
+            channel.truncate( HEADER_BYTES );
+            channel.position( HEADER_BYTES );
+            channel.force( false );
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+    }
+
+    /**
+     * {@inheritDoc}. True for the columns set in the open transaction of the row.
+     *
+     * @param rowId the row
+     * @param colId the column id
+     * @return true if the column of the row has been changed, and not yet committed
+     */
+    @Override
+    public boolean isChanged( int rowId, int colId )
+    {
+        return rowId == row && changed.get( colId );
+    }
+
+    /** Sync and close the log. An open transaction is not committed, and will not be replayed. */
+    public void close()
+    {
+        if( channel == null ) return;
+        try
+        {
+            if( channel.isOpen() && out != null )
+            {
+                sync();
+            }
+            randomAccessFile.close();
+        }
+        catch( IOException e )
+        {
+            throw failed( e );
+        }
+        finally
+        {
+            channel = null;
+        }
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    protected void putSet( int colId ) throws IOException
+    {
+        checkTransaction();
+        out.putByte( SET );
+        out.putInt( row );
+        out.putInt( colId );
+        changed.set( colId );
+    }
+
+    /**
+     * Read the log from the start, up to <i>end</i>.
+     *
+     * @param table the table, for the columns (and to apply the changes to)
+     * @param end   position to stop at
+     * @param apply true to apply the changes, false only to find the end of the committed transactions
+     * @return the position after the last committed transaction
+     * @throws IOException on failing to read
+     */
+    protected long read( LoggedTable table, long end, boolean apply ) throws IOException
+    {
+        channel.position( 0 );
+        SnapshotInput in = new SnapshotInput( channel, bufferSize );
+        Column[] columns = table.getSchema().getColumns();
+        long committed;
+        try
+        {
+            in.setOrder( ( in.getByte() == 1 ) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN );
+            if( in.getInt() != MAGIC || in.getInt() != VERSION )
+            {
+                throw new IllegalStateException( "Not a change log [" + file + "]" );
+            }
+            committed = in.getPosition();
+        }
+        catch( EOFException e )
+        {
+            throw new IllegalStateException( "Not a change log [" + file + "]" );
+        }
+        try
+        {
+            in.resetChecksum();
+            while( in.getPosition() < end )
+            {
+                byte op = in.getByte();
+                if( op == COMMIT )
+                {
+                    long checksum = in.getChecksum();
+                    if( in.getLong() != checksum )
+                    {
+                        return committed;
+                    }
+                    committed = in.getPosition();
+                    in.resetChecksum();
+                    continue;
+                }
+                int row = in.getInt();
+                if( row < 0 )
+                {
+                    return committed;
+                }
+                switch( op )
+                {
+                    case ADD:
+                        if( apply ) table.replayAdd( row );
+                        break;
+                    case REMOVE:
+                        if( apply ) table.replayRemove( row );
+                        break;
+                    case SET:
+                        int colId = in.getInt();
+                        if( colId < 0 || colId >= columns.length || columns[ colId ] == null )
+                        {
+                            return committed;
+                        }
+                        if( apply ) table.ensureCapacity( row + 1 );
+                        readValue( columns[ colId ], row, in, apply );
+                        break;
+                    default:
+                        return committed;
+                }
+            }
+        }
+        catch( EOFException e )
+        {
+            //the log ends in a torn transaction
+        }
+        return committed;
+    }
+
+    protected void readValue( Column column, int row, SnapshotInput in, boolean apply ) throws IOException
+    {
+        switch( column.getType() )
+        {
+            case Types.Bool:
+                boolean bool = in.getByte() == 1;
+                if( apply ) ( ( ColumnBool ) column ).setBool( bool, row );
+                break;
+            case Types.Byte:
+                byte b = in.getByte();
+                if( apply ) ( ( ColumnByte ) column ).setByte( b, row );
+                break;
+            case Types.Char:
+                char c = in.getChar();
+                if( apply ) ( ( ColumnChar ) column ).setChar( c, row );
+                break;
+            case Types.Short:
+                short s = in.getShort();
+                if( apply ) ( ( ColumnShort ) column ).setShort( s, row );
+                break;
+            case Types.Int:
+                int i = in.getInt();
+                if( apply ) ( ( ColumnInt ) column ).setInt( i, row );
+                break;
+            case Types.Float:
+                float f = in.getFloat();
+                if( apply ) ( ( ColumnFloat ) column ).setFloat( f, row );
+                break;
+            case Types.Double:
+                double d = in.getDouble();
+                if( apply ) ( ( ColumnDouble ) column ).setDouble( d, row );
+                break;
+            case Types.Long:
+                long l = in.getLong();
+                if( apply ) ( ( ColumnLong ) column ).setLong( l, row );
+                break;
+            case Types.CharSequence:
+                int len = in.getInt();
+                if( len > channel.size() )
+                {
+                    throw new EOFException( "Record is longer than the log" );
+                }
+                if( len < 0 )
+                {
+                    if( apply ) ( ( ColumnCharSequence ) column ).setCharSequence( null, row );
+                    break;
+                }
+                char[] chars = new char[ len ];
+                for( int j = 0; j < len; j++ )
+                {
+                    chars[ j ] = in.getChar();
+                }
+                if( apply ) ( ( ColumnCharSequence ) column ).setCharSequence( new String( chars ), row );
+                break;
+            default:
+                throw new IllegalStateException( "Column [" + column.getName() + "] of type [" + column.getType() +
+                                                 "] can not be logged" );
+        }
+    }
+
+    protected void checkOpen()
+    {
+        if( channel == null ) throw new IllegalStateException( "Change log is not open [" + file + "]" );
+    }
+
+    protected void checkTransaction()
+    {
+        checkOpen();
+        if( row == Const.NO_ENTRY ) throw new IllegalStateException( "No open transaction" );
+    }
+
+    protected IllegalStateException failed( IOException e )
+    {
+        return new IllegalStateException( "Could not write the change log [" + file + "]", e );
+    }
+}
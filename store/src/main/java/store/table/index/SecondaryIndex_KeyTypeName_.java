@@ -0,0 +1,221 @@
+package store.table.index;
+
+import collections.hash.set.HashSet_KeyTypeName_;
+import collections.relationship.OneToManyInt;
+import core.Const;
+import core.Types;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import core.stub.*;
+import store.col.Column;
+import store.col.Column_KeyTypeName_;
+import store.table.ColumnTable;
+import store.table.TableListener;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A non-unique index on a column of a {@link ColumnTable}, finding every row of a value. The distinct values
+ * are held in a {@link HashSet_KeyTypeName_}, whose entries are compact ids, and each id is associated to its
+ * rows in a {@link OneToManyInt}. A lookup is a hash lookup then a walk of the rows of the id, the rows are
+ * copied into an array of the caller with no allocation.</p>
+ * <p/>
+ * <p>The index listens to the table, and is kept in step on each add, change and remove. A value is taken out
+ * of the set when its last row is, so its id is handed out again. Adding a row appends it to the rows of its
+ * value; removing or changing a row walks the rows of its old value.</p>
+ */
+public class SecondaryIndex_KeyTypeName_ implements TableListener
+{
+    protected static final int DEFAULT_SIZE = 16;
+
+    protected final ColumnTable table;
+    protected final Column_KeyTypeName_ column;
+    protected final GrowthStrategy growthStrategy = GrowthStrategy.doubleGrowth;
+    /** The distinct values, the entry of a value is its id */
+    protected final HashSet_KeyTypeName_ values;
+    /** Id of a value to its rows */
+    protected final OneToManyInt valueRows;
+    /** Id of the value of each row, NO_ENTRY for rows not in the index */
+    protected int[] rowValues;
+
+    /**
+     * Index the column <i>columnName</i> of <i>table</i>, and listen to the table.
+     *
+     * @param table      the table
+     * @param columnName the name of the column
+     */
+    public SecondaryIndex_KeyTypeName_( ColumnTable table, CharSequence columnName )
+    {
+        Column column = table.getSchema().getColumn( columnName );
+        if( column == null || column.getType() != Types._KeyTypeName_ )
+        {
+            throw new IllegalArgumentException( "Table has no column [" + columnName + "] of type [" +
+                                                Types._KeyTypeName_ + "]" );
+        }
+        this.table = table;
+        this.column = ( Column_KeyTypeName_ ) column;
+        int maxRowId = table.getRowTracker().getMaxRowId();
+        values = new HashSet_KeyTypeName_( DEFAULT_SIZE );
+        valueRows = new OneToManyInt( DEFAULT_SIZE, Math.max( DEFAULT_SIZE, table.getRowCount() ), true );
+        rowValues = ArrayFactoryInt.defaultIntProvider.alloc( Math.max( DEFAULT_SIZE, maxRowId + 1 ),
+                                                              Const.NO_ENTRY );
+        for( int row = 0; row <= maxRowId; row++ )
+        {
+            if( table.getRowTracker().containsRow( row ) )
+            {
+                index( row );
+            }
+        }
+        table.addListener( this );
+    }
+
+    /**
+     * Copy the rows of <i>key</i> into <i>target</i>, in the order they were indexed. If there are more rows
+     * than fit, only the first <i>target.length</i> are copied, the count returned tells how large an array
+     * would hold them all.
+     *
+     * @param key    the value
+     * @param target the array the rows are copied into
+     * @return the number of rows of the value
+     */
+    public int getRows( _key_ key, int[] target )
+    {
+        int id = values.getEntry( key );
+        if( id == Const.NO_ENTRY )
+        {
+            return 0;
+        }
+        int ct = 0;
+        int entry = valueRows.getNextRightEntry( id, Const.NO_ENTRY );
+        while( entry != Const.NO_ENTRY && ct < target.length )
+        {
+            target[ ct++ ] = valueRows.getRight( entry );
+            entry = valueRows.getNextRightEntry( id, entry );
+        }
+        return valueRows.getCountForLeft( id );
+    }
+
+    /**
+     * Get the number of rows of <i>key</i>.
+     *
+     * @param key the value
+     * @return the number of rows, 0 if no row has the value
+     */
+    public int getCount( _key_ key )
+    {
+        int id = values.getEntry( key );
+        return ( id == Const.NO_ENTRY ) ? 0 : valueRows.getCountForLeft( id );
+    }
+
+    /**
+     * Get the number of distinct values in the index.
+     *
+     * @return the number of values
+     */
+    public int getValueCount()
+    {
+        return values.getSize();
+    }
+
+    /**
+     * Get the number of rows in the index, the number of rows of the table.
+     *
+     * @return the size
+     */
+    public int getSize()
+    {
+        return valueRows.getSize();
+    }
+
+    public Column_KeyTypeName_ getColumn()
+    {
+        return column;
+    }
+
+    /** Stop listening to the table, the index is no longer kept in step. */
+    public void detach()
+    {
+        table.removeListener( this );
+    }
+
+    @Override
+    public void rowsAdded( int firstRow, int numRows )
+    {
+        int end = firstRow + numRows;
+        for( int row = firstRow; row < end; row++ )
+        {
+            index( row );
+        }
+    }
+
+    @Override
+    public void rowChanged( int row )
+    {
+        int old = getValue( row );
+        if( old != Const.NO_ENTRY && values.getEntry( column.get_KeyTypeName_( row ) ) == old )
+        {
+            return; //same value
+        }
+        unindex( row );
+        index( row );
+    }
+
+    @Override
+    public void rowRemoved( int row )
+    {
+        unindex( row );
+    }
+
+    @Override
+    public void cleared()
+    {
+        values.clear();
+        valueRows.clear();
+        Arrays.fill( rowValues, Const.NO_ENTRY );
+    }
+
+    /**
+     * Put <i>row</i> in the rows of its value.
+     *
+     * @param row the row
+     */
+    protected void index( int row )
+    {
+        int id = values.insert( column.get_KeyTypeName_( row ) );
+        valueRows.associate( id, row );
+        rowValues = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( rowValues, row + 1, Const.NO_ENTRY,
+                                                                           growthStrategy );
+        rowValues[ row ] = id;
+    }
+
+    /**
+     * Take <i>row</i> out of the rows of its value, and the value out of the index if it was the last row.
+     *
+     * @param row the row
+     */
+    protected void unindex( int row )
+    {
+        int id = getValue( row );
+        if( id == Const.NO_ENTRY )
+        {
+            return;
+        }
+        valueRows.disassociate( id, row );
+        rowValues[ row ] = Const.NO_ENTRY;
+        if( valueRows.getCountForLeft( id ) == 0 )
+        {
+            values.removeByEntry( id );
+        }
+    }
+
+    protected int getValue( int row )
+    {
+        return ( row < rowValues.length ) ? rowValues[ row ] : Const.NO_ENTRY;
+    }
+}
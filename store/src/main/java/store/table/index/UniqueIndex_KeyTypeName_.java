@@ -0,0 +1,215 @@
+package store.table.index;
+
+import collections.hash.set.HashSet_KeyTypeName_;
+import core.Const;
+import core.Types;
+import core.array.GrowthStrategy;
+import core.array.factory.ArrayFactoryInt;
+import core.stub.*;
+import store.col.Column;
+import store.col.Column_KeyTypeName_;
+import store.table.ColumnTable;
+import store.table.TableListener;
+
+import java.util.Arrays;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A unique index on a column of a {@link ColumnTable}, finding the row of a key. The keys are held in a
+ * {@link HashSet_KeyTypeName_}, and the row of each entry of the set in an array beside it, so a lookup is a
+ * hash lookup and an array read, and the row can then be read straight from the columns.</p>
+ * <p/>
+ * <p>The index listens to the table, and is kept in step on each add, change and remove. A key that is already
+ * the key of another row is refused with an IllegalStateException: the add is rolled back, the change stays
+ * open. Indexing a table that already holds a duplicate key fails with an IllegalArgumentException.</p>
+ */
+public class UniqueIndex_KeyTypeName_ implements TableListener
+{
+    protected final ColumnTable table;
+    protected final Column_KeyTypeName_ column;
+    protected final HashSet_KeyTypeName_ keys;
+    protected final GrowthStrategy growthStrategy = GrowthStrategy.doubleGrowth;
+    /** Row of each entry of the set */
+    protected int[] entryRows;
+    /** Entry of each row, NO_ENTRY for rows not in the index */
+    protected int[] rowEntries;
+
+    /**
+     * Index the column <i>columnName</i> of <i>table</i>, and listen to the table.
+     *
+     * @param table      the table
+     * @param columnName the name of the column
+     */
+    public UniqueIndex_KeyTypeName_( ColumnTable table, CharSequence columnName )
+    {
+        Column column = table.getSchema().getColumn( columnName );
+        if( column == null || column.getType() != Types._KeyTypeName_ )
+        {
+            throw new IllegalArgumentException( "Table has no column [" + columnName + "] of type [" +
+                                                Types._KeyTypeName_ + "]" );
+        }
+        this.table = table;
+        this.column = ( Column_KeyTypeName_ ) column;
+        int size = Math.max( 16, table.getRowCount() );
+        keys = new HashSet_KeyTypeName_( size );
+        entryRows = ArrayFactoryInt.defaultIntProvider.alloc( size );
+        rowEntries = ArrayFactoryInt.defaultIntProvider.alloc( table.getRowTracker().getMaxRowId() + 1,
+                                                               Const.NO_ENTRY );
+        int maxRowId = table.getRowTracker().getMaxRowId();
+        for( int row = 0; row <= maxRowId; row++ )
+        {
+            if( table.getRowTracker().containsRow( row ) )
+            {
+                try
+                {
+                    index( row );
+                }
+                catch( IllegalStateException e )
+                {
+                    throw new IllegalArgumentException( e.getMessage() );
+                }
+            }
+        }
+        table.addListener( this );
+    }
+
+    /**
+     * Get the row of <i>key</i>.
+     *
+     * @param key the key
+     * @return the row, or Const.NO_ENTRY if no row has the key
+     */
+    public int getRow( _key_ key )
+    {
+        int entry = keys.getEntry( key );
+        return ( entry == Const.NO_ENTRY ) ? Const.NO_ENTRY : entryRows[ entry ];
+    }
+
+    public boolean contains( _key_ key )
+    {
+        return keys.getEntry( key ) != Const.NO_ENTRY;
+    }
+
+    /**
+     * Get the number of keys in the index, the number of rows of the table.
+     *
+     * @return the size
+     */
+    public int getSize()
+    {
+        return keys.getSize();
+    }
+
+    public Column_KeyTypeName_ getColumn()
+    {
+        return column;
+    }
+
+    /** Stop listening to the table, the index is no longer kept in step. */
+    public void detach()
+    {
+        table.removeListener( this );
+    }
+
+    /**
+     * {@inheritDoc}. If a key is refused, the rows of this add already indexed are taken out again.
+     *
+     * @param firstRow the first row
+     * @param numRows  the number of rows, 1 for a single add
+     */
+    @Override
+    public void rowsAdded( int firstRow, int numRows )
+    {
+        int end = firstRow + numRows;
+        for( int row = firstRow; row < end; row++ )
+        {
+            try
+            {
+                index( row );
+            }
+            catch( IllegalStateException e )
+            {
+                for( int i = firstRow; i < row; i++ )
+                {
+                    rowRemoved( i );
+                }
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void rowChanged( int row )
+    {
+        int old = getEntry( row );
+        _key_ key = column.get_KeyTypeName_( row );
+        int entry = keys.getEntry( key );
+        if( entry != Const.NO_ENTRY )
+        {
+            if( entry == old ) return; //same key
+            throw duplicate( key, row, entry );
+        }
+        if( old != Const.NO_ENTRY )
+        {
+            keys.removeByEntry( old );
+            rowEntries[ row ] = Const.NO_ENTRY;
+        }
+        index( row );
+    }
+
+    @Override
+    public void rowRemoved( int row )
+    {
+        int entry = getEntry( row );
+        if( entry != Const.NO_ENTRY )
+        {
+            keys.removeByEntry( entry );
+            rowEntries[ row ] = Const.NO_ENTRY;
+        }
+    }
+
+    @Override
+    public void cleared()
+    {
+        keys.clear();
+        Arrays.fill( rowEntries, Const.NO_ENTRY );
+    }
+
+    /**
+     * Put the key of <i>row</i> in the index.
+     *
+     * @param row the row
+     */
+    protected void index( int row )
+    {
+        _key_ key = column.get_KeyTypeName_( row );
+        int existing = keys.getEntry( key );
+        if( existing != Const.NO_ENTRY )
+        {
+            if( entryRows[ existing ] == row ) return;
+            throw duplicate( key, row, existing );
+        }
+        int entry = keys.insert( key );
+        entryRows = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( entryRows, entry + 1, growthStrategy );
+        entryRows[ entry ] = row;
+        rowEntries = ArrayFactoryInt.defaultIntProvider.ensureArrayCapacity( rowEntries, row + 1, Const.NO_ENTRY,
+                                                                             growthStrategy );
+        rowEntries[ row ] = entry;
+    }
+
+    protected int getEntry( int row )
+    {
+        return ( row < rowEntries.length ) ? rowEntries[ row ] : Const.NO_ENTRY;
+    }
+
+    protected IllegalStateException duplicate( _key_ key, int row, int entry )
+    {
+        return new IllegalStateException( "Key [" + key + "] of row [" + row + "] is already the key of row [" +
+                                          entryRows[ entry ] + "] in column [" + column.getName() + "]" );
+    }
+}
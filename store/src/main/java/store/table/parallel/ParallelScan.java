@@ -0,0 +1,177 @@
+package store.table.parallel;
+
+import store.col.Column;
+import store.col.storage.generic.BlockedStorage;
+import store.col.storage.generic.ColStorage;
+import store.table.BaseTable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Runs a {@link ScanTask} over a range of rows on a {@link ForkJoinPool}. The rows are cut into partitions
+ * of <i>partitionRows</i>, on multiples of the partition size from row 0, and the partitions are split in
+ * halves down to one partition per task, the results merged back up in row order.</p>
+ * <p/>
+ * <p>The partition size is a power of two of at least {@link #MIN_PARTITION_ROWS}, and a multiple of the
+ * block size of every blocked storage of the table ({@link #getPartitionRows(BaseTable, int)}). So a partition
+ * covers whole blocks, two workers never read or write the same block, and a selection bitmap of the table
+ * (64 rows to a word) can be shared by every worker: a partition is whole words of the bitmap, so no two
+ * workers write the same word. The words are not aligned to cache lines, so the workers of neighbouring
+ * partitions may share the line at the boundary of their words, which costs the cache but not the result.</p>
+ */
+public class ParallelScan
+{
+    /** 8 words of a selection bitmap, so a partition is more than the line it may share with a neighbour */
+    public static final int MIN_PARTITION_ROWS = 512;
+    /** Number of partitions per thread of the pool, to balance partitions of uneven cost */
+    public static final int PARTITIONS_PER_THREAD = 4;
+    /** The largest power of two of an int */
+    protected static final int MAX_PARTITION_ROWS = 1 << 30;
+
+    protected final ForkJoinPool pool;
+    protected final int partitionRows;
+
+    /**
+     * Constructor, partitions of the blocks of <i>table</i>, sized for the rows of the table to give each
+     * thread of the common pool a few partitions.
+     *
+     * @param table the table
+     */
+    public ParallelScan( BaseTable table )
+    {
+        this( ForkJoinPool.commonPool(), getPartitionRows( table, ( table.getRowTracker().getMaxRowId() + 1 ) /
+                                                                  ( ForkJoinPool.commonPool().getParallelism() *
+                                                                    PARTITIONS_PER_THREAD ) ) );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param pool          the pool the partitions are scanned on
+     * @param partitionRows number of rows of a partition, rounded up to a power of two of at least
+     *                      {@link #MIN_PARTITION_ROWS}
+     */
+    public ParallelScan( ForkJoinPool pool, int partitionRows )
+    {
+        this.pool = pool;
+        this.partitionRows = getPartitionRows( partitionRows, MIN_PARTITION_ROWS );
+    }
+
+    /**
+     * Get a partition size for <i>table</i> of at least <i>minRows</i>, that covers whole blocks of each of its
+     * blocked storages.
+     *
+     * @param table   the table
+     * @param minRows the minimum number of rows of a partition
+     * @return the partition size, a power of two
+     */
+    public static int getPartitionRows( BaseTable table, int minRows )
+    {
+        int blockRows = MIN_PARTITION_ROWS;
+        for( Column column : table.getSchema().getColumns() )
+        {
+            if( column == null ) continue;
+            ColStorage storage = column.getStorage();
+            if( storage instanceof BlockedStorage )
+            {
+                blockRows = Math.max( blockRows, ( ( BlockedStorage ) storage ).getBlockSize() );
+            }
+        }
+        return getPartitionRows( minRows, blockRows );
+    }
+
+    /**
+     * Get the power of two of at least <i>minRows</i> and <i>blockRows</i>, itself a power of two.
+     */
+    protected static int getPartitionRows( int minRows, int blockRows )
+    {
+        if( minRows <= blockRows )
+        {
+            return blockRows;
+        }
+        int rows = Integer.highestOneBit( minRows );
+        return ( rows == minRows || rows == MAX_PARTITION_ROWS ) ? rows : rows << 1;
+    }
+
+    /**
+     * Scan the rows [<i>fromRow</i>, <i>toRow</i>) a partition at a time, in parallel, and merge the results.
+     *
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @param task    the task
+     * @param <R>     the result of the task
+     * @return the merged result, or the result of scanning no rows for an empty range
+     */
+    public <R> R scan( int fromRow, int toRow, ScanTask<R> task )
+    {
+        if( toRow <= fromRow )
+        {
+            return task.scan( fromRow, fromRow );
+        }
+        int firstPartition = fromRow / partitionRows;
+        int lastPartition = ( toRow - 1 ) / partitionRows;
+        return pool.invoke( new PartitionTask<R>( task, fromRow, toRow, firstPartition, lastPartition + 1 ) );
+    }
+
+    /**
+     * Scan every row up to the maximum row of <i>table</i>.
+     *
+     * @param table the table
+     * @param task  the task
+     * @param <R>   the result of the task
+     * @return the merged result
+     */
+    public <R> R scan( BaseTable table, ScanTask<R> task )
+    {
+        return scan( 0, table.getRowTracker().getMaxRowId() + 1, task );
+    }
+
+    public int getPartitionRows()
+    {
+        return partitionRows;
+    }
+
+    /** Scans the partitions [<i>lo</i>, <i>hi</i>), splitting them in halves down to one. */
+    protected class PartitionTask<R> extends RecursiveTask<R>
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final ScanTask<R> task;
+        protected final int fromRow;
+        protected final int toRow;
+        protected final int lo;
+        protected final int hi;
+
+        protected PartitionTask( ScanTask<R> task, int fromRow, int toRow, int lo, int hi )
+        {
+            this.task = task;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected R compute()
+        {
+            if( hi - lo == 1 )
+            {
+                int start = Math.max( fromRow, lo * partitionRows );
+                int end = ( int ) Math.min( toRow, ( long ) hi * partitionRows );
+                return task.scan( start, end );
+            }
+            int mid = ( lo + hi ) >>> 1;
+            PartitionTask<R> left = new PartitionTask<R>( task, fromRow, toRow, lo, mid );
+            left.fork();
+            R right = new PartitionTask<R>( task, fromRow, toRow, mid, hi ).compute();
+            return task.merge( left.join(), right );
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package store.table.parallel;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * The work of a {@link ParallelScan} on one partition of rows, and the merge of the results of two partitions.
+ * A filter sets the bits of its partition in a selection, an aggregate accumulates its own partial, a map
+ * writes its own rows of an output column. The scan of one partition is run by one thread, different
+ * partitions are scanned at the same time.
+ *
+ * @param <R> the result, may be Void for a task that writes its rows in place
+ */
+public interface ScanTask<R>
+{
+    /**
+     * Scan the rows [<i>fromRow</i>, <i>toRow</i>).
+     *
+     * @param fromRow the first row (inclusive)
+     * @param toRow   the last row (exclusive)
+     * @return the result of the partition
+     */
+    R scan( int fromRow, int toRow );
+
+    /**
+     * Merge the results of two partitions, <i>left</i> holding the rows before those of <i>right</i>.
+     *
+     * @param left  the result of the first partition
+     * @param right the result of the next partition
+     * @return the merged result, may be <i>left</i>
+     */
+    R merge( R left, R right );
+}
@@ -27,6 +27,15 @@ public interface RowTracker
      */
     void addRow( int rowId );
 
+    /**
+     * Add the rows <i>fromRowId</i> to <i>fromRowId</i>+<i>count</i>-1 to the tracker, none of which may be in
+     * the tracker already.
+     *
+     * @param fromRowId the id of the first row
+     * @param count     the number of rows
+     */
+    void addRows( int fromRowId, int count );
+
     /**
      * Remove a row from the tracker, by row id.
      *
@@ -42,6 +51,14 @@ public interface RowTracker
      */
     boolean containsRow( int rowId );
 
+    /**
+     * Get the first row in the tracker at or after <i>fromRowId</i>, to walk the rows in order.
+     *
+     * @param fromRowId the row id to start from
+     * @return the row id, or -1 if there is none
+     */
+    int nextRow( int fromRowId );
+
     /**
      * Get the maximum row id, or high watermark. If the Operator is completely compact that will be
      * the number of rows -1.
@@ -55,4 +72,11 @@ public interface RowTracker
      */
     void clear();
 
+    /**
+     * Return a copy of the row tracker, of the same rows, that changes independently of this one.
+     *
+     * @return the copy
+     */
+    RowTracker getCopy();
+
 }
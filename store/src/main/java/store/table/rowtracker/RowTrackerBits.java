@@ -36,6 +36,18 @@ public class RowTrackerBits implements RowTracker
         this.rows = new BitSet( numRows );
     }
 
+    /**
+     * Constructor, restoring the rows saved with {@link #toLongArray()}.
+     *
+     * @param words the bits of the rows, 64 rows to a word
+     */
+    public RowTrackerBits( long[] words )
+    {
+        this.rows = BitSet.valueOf( words );
+        this.numActiveRows = rows.cardinality();
+        this.highWaterMark = rows.length() - 1;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -64,6 +76,27 @@ public class RowTrackerBits implements RowTracker
         numActiveRows++;
     }
 
+    /**
+     * {@inheritDoc}. The bits of the range are set together.
+     *
+     * @param fromRowId the id of the first row
+     * @param count     the number of rows
+     */
+    @Override
+    public void addRows( int fromRowId, int count )
+    {
+        if( count <= 0 ) return;
+        int toRowId = fromRowId + count;
+        int existing = rows.nextSetBit( fromRowId );
+        if( existing != -1 && existing < toRowId )
+        {
+            throw new IllegalArgumentException( "Row [" + existing + "] already in RowTracker" );
+        }
+        if( toRowId - 1 > highWaterMark ) highWaterMark = toRowId - 1;
+        rows.set( fromRowId, toRowId );
+        numActiveRows += count;
+    }
+
     /**
      * {@inheritDoc}. If we are removing our maximum row, find the new one.
      *
@@ -78,23 +111,7 @@ public class RowTrackerBits implements RowTracker
             rows.set( rowId, false );
             if( rowId == highWaterMark )     //removing the high water mark, get a new one
             {
-                if( numActiveRows == 0 )
-                {
-                    highWaterMark = Const.NO_ENTRY;
-                    return;
-                }
-                int testBit = numActiveRows - 1; //must be at least this bit
-                int nextBit;
-                while( ( nextBit = rows.nextSetBit( testBit ) ) != -1 )  //iterate through set bits
-                {
-                    if( testBit == nextBit )   //we are at last set bit
-                    {
-                        highWaterMark = testBit;
-                        return;
-                    }
-                    testBit = nextBit;
-                }
-                highWaterMark = testBit;
+                highWaterMark = rows.previousSetBit( rowId ); //-1 when no rows are left
             }
             return;
         }
@@ -113,6 +130,18 @@ public class RowTrackerBits implements RowTracker
         return rows.get( rowId );
     }
 
+    /**
+     * {@inheritDoc}. Words with no rows are skipped a word at a time.
+     *
+     * @param fromRowId the row id to start from
+     * @return the row id, or -1 if there is none
+     */
+    @Override
+    public int nextRow( int fromRowId )
+    {
+        return rows.nextSetBit( fromRowId );
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -124,6 +153,31 @@ public class RowTrackerBits implements RowTracker
         return highWaterMark;
     }
 
+    /**
+     * The rows in the tracker as bits, 64 rows to a word, to save the tracker.
+     *
+     * @return the words of the rows
+     */
+    public long[] toLongArray()
+    {
+        return rows.toLongArray();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return a copy of the tracker
+     */
+    @Override
+    public RowTrackerBits getCopy()
+    {
+        RowTrackerBits copy = new RowTrackerBits( 0 );
+        copy.rows = ( BitSet ) rows.clone();
+        copy.numActiveRows = numActiveRows;
+        copy.highWaterMark = highWaterMark;
+        return copy;
+    }
+
     /** Clear all the rows in the row tracker. The high water mark will go back to -1. */
     public void clear()
     {
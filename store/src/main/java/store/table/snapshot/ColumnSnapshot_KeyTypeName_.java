@@ -0,0 +1,138 @@
+package store.table.snapshot;
+
+import core.Types;
+import core.memory.Buffers;
+import core.stub.*;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+import store.col.storage.block.ColStorageBlocked_KeyTypeName_;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * Writes and reads the raw values of a column storage to a snapshot. Each pass fills (or empties) as much of
+ * the snapshot buffer as it can, so there is one buffer check per buffer rather than one per row, and no
+ * objects are created. The values of an array storage, and of each block of a blocked storage, are copied to and
+ * from the buffer in one bulk copy per run, the values of other storages a row at a time.
+ */
+public class ColumnSnapshot_KeyTypeName_
+{
+    /**
+     * Put the first <i>rows</i> values of <i>storage</i>.
+     *
+     * @param storage the storage
+     * @param rows    number of rows to put
+     * @param out     the snapshot
+     * @throws IOException on failing to write
+     */
+    public static void write( ColStorage_KeyTypeName_ storage, int rows, SnapshotOutput out ) throws IOException
+    {
+        int elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+        int row = 0;
+        while( row < rows )
+        {
+            ByteBuffer buffer = out.reserve( elementBytes );
+            int position = buffer.position();
+            int n = Math.min( rows - row, buffer.remaining() / elementBytes );
+            put( storage, row, n, buffer, position );
+            buffer.position( position + n * elementBytes );
+            row += n;
+        }
+    }
+
+    /**
+     * Take <i>rows</i> values into the first rows of <i>storage</i>, growing it if needed.
+     *
+     * @param storage the storage
+     * @param rows    number of rows to take
+     * @param in      the snapshot
+     * @throws IOException on failing to read
+     */
+    public static void read( ColStorage_KeyTypeName_ storage, int rows, SnapshotInput in ) throws IOException
+    {
+        storage.checkGrowth( rows );
+        int elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+        int row = 0;
+        while( row < rows )
+        {
+            ByteBuffer buffer = in.require( elementBytes );
+            int position = buffer.position();
+            int n = Math.min( rows - row, buffer.remaining() / elementBytes );
+            take( storage, row, n, buffer, position );
+            buffer.position( position + n * elementBytes );
+            row += n;
+        }
+    }
+
+    /** Put the <i>n</i> values from <i>row</i> at byte <i>position</i> of the buffer. */
+    protected static void put( ColStorage_KeyTypeName_ storage, int row, int n, ByteBuffer buffer, int position )
+    {
+        int elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+        if( storage instanceof ColStorageArray_KeyTypeName_ )
+        {
+            Buffers.put_KeyTypeName_( buffer, position, ( ( ColStorageArray_KeyTypeName_ ) storage ).getData(), row, n );
+            return;
+        }
+        if( storage instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) storage;
+            _key_[][] blocks = blocked.getBlocks();
+            int bitsPerBlock = blocked.getBitsPerBlock();
+            int mask = blocked.getBlockSize() - 1;
+            while( n > 0 )
+            {
+                int idx = row & mask;
+                int len = Math.min( n, mask + 1 - idx );
+                Buffers.put_KeyTypeName_( buffer, position, blocks[ row >> bitsPerBlock ], idx, len );
+                row += len;
+                n -= len;
+                position += len * elementBytes;
+            }
+            return;
+        }
+        for( int end = row + n; row < end; row++ )
+        {
+            Buffers.put_KeyTypeName_( buffer, position, storage.getValue( row ) );
+            position += elementBytes;
+        }
+    }
+
+    /** Take <i>n</i> values at byte <i>position</i> of the buffer into the rows from <i>row</i>. */
+    protected static void take( ColStorage_KeyTypeName_ storage, int row, int n, ByteBuffer buffer, int position )
+    {
+        int elementBytes = Types.getSizeInBytes( Types._KeyTypeName_ );
+        if( storage instanceof ColStorageArray_KeyTypeName_ )
+        {
+            Buffers.get_KeyTypeName_( buffer, position, ( ( ColStorageArray_KeyTypeName_ ) storage ).getData(), row, n );
+            return;
+        }
+        if( storage instanceof ColStorageBlocked_KeyTypeName_ )
+        {
+            ColStorageBlocked_KeyTypeName_ blocked = ( ColStorageBlocked_KeyTypeName_ ) storage;
+            int bitsPerBlock = blocked.getBitsPerBlock();
+            int mask = blocked.getBlockSize() - 1;
+            while( n > 0 )
+            {
+                int idx = row & mask;
+                int len = Math.min( n, mask + 1 - idx );
+                Buffers.get_KeyTypeName_( buffer, position, blocked.getWritableBlock( row >> bitsPerBlock ), idx, len );
+                row += len;
+                n -= len;
+                position += len * elementBytes;
+            }
+            return;
+        }
+        for( int end = row + n; row < end; row++ )
+        {
+            storage.setValue( Buffers.get_KeyTypeName_( buffer, position ), row );
+            position += elementBytes;
+        }
+    }
+}
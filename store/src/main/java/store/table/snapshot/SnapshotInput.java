@@ -0,0 +1,164 @@
+package store.table.snapshot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>The input side of a snapshot, the reverse of {@link SnapshotOutput}. The channel is read into one large
+ * direct buffer, values are taken from the buffer, and a CRC32 checksum is kept of the bytes taken since
+ * {@link #resetChecksum()}.</p>
+ * <p/>
+ * <p>Bulk readers use {@link #require(int)} to get the buffer and take as many values as it holds with absolute
+ * gets, then move the position past them.</p>
+ */
+public class SnapshotInput
+{
+    protected final FileChannel channel;
+    protected final ByteBuffer buffer;
+    protected final CRC32 checksum = new CRC32();
+    /** Start of the bytes in the buffer not yet added to the checksum */
+    protected int checksumFrom = 0;
+    /** Bytes taken before the start of the buffer */
+    protected long offset = 0;
+
+    /**
+     * Full Constructor
+     *
+     * @param channel    the channel to read from
+     * @param bufferSize size of the buffer, in bytes
+     */
+    public SnapshotInput( FileChannel channel, int bufferSize )
+    {
+        if( bufferSize < 8 )
+        {
+            throw new IllegalArgumentException( "Buffer must hold at least one value of each type [" + bufferSize +
+                                                "]" );
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect( bufferSize ).order( ByteOrder.nativeOrder() );
+        buffer.limit( 0 );
+    }
+
+    /**
+     * Set the byte order of the values that follow, that of the snapshot.
+     *
+     * @param order the byte order
+     */
+    public void setOrder( ByteOrder order )
+    {
+        buffer.order( order );
+    }
+
+    /**
+     * Get the buffer, holding at least <i>bytes</i>.
+     *
+     * @param bytes the bytes about to be taken, at most 8
+     * @return the buffer
+     * @throws IOException  on failing to read
+     * @throws EOFException if the snapshot ends before <i>bytes</i>
+     */
+    public ByteBuffer require( int bytes ) throws IOException
+    {
+        if( buffer.remaining() < bytes )
+        {
+            updateChecksum();
+            offset += buffer.position();
+            buffer.compact();
+            checksumFrom = 0;
+            while( buffer.position() < bytes )
+            {
+                if( channel.read( buffer ) < 0 )
+                {
+                    throw new EOFException( "Snapshot ends early" );
+                }
+            }
+            buffer.flip();
+        }
+        return buffer;
+    }
+
+    public byte getByte() throws IOException
+    {
+        return require( 1 ).get();
+    }
+
+    public char getChar() throws IOException
+    {
+        return require( 2 ).getChar();
+    }
+
+    public short getShort() throws IOException
+    {
+        return require( 2 ).getShort();
+    }
+
+    public int getInt() throws IOException
+    {
+        return require( 4 ).getInt();
+    }
+
+    public long getLong() throws IOException
+    {
+        return require( 8 ).getLong();
+    }
+
+    public float getFloat() throws IOException
+    {
+        return require( 4 ).getFloat();
+    }
+
+    public double getDouble() throws IOException
+    {
+        return require( 8 ).getDouble();
+    }
+
+    /**
+     * Number of bytes taken, from where the channel was when the input was created.
+     *
+     * @return the bytes taken
+     */
+    public long getPosition()
+    {
+        return offset + buffer.position();
+    }
+
+    /** Start a new checksum from the next byte taken. */
+    public void resetChecksum()
+    {
+        checksum.reset();
+        checksumFrom = buffer.position();
+    }
+
+    /**
+     * The checksum of the bytes taken since the last {@link #resetChecksum()}.
+     *
+     * @return the checksum
+     */
+    public long getChecksum()
+    {
+        updateChecksum();
+        return checksum.getValue();
+    }
+
+    protected void updateChecksum()
+    {
+        int position = buffer.position();
+        if( position > checksumFrom )
+        {
+            ByteBuffer taken = buffer.duplicate();
+            taken.limit( position ).position( checksumFrom );
+            checksum.update( taken );
+        }
+        checksumFrom = position;
+    }
+}
@@ -0,0 +1,147 @@
+package store.table.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>The output side of a snapshot. Values are put into one large direct buffer, in native byte order, which is
+ * written to the channel whenever it fills, so the channel only ever sees large writes. A CRC32 checksum is
+ * kept of the bytes put since {@link #resetChecksum()}.</p>
+ * <p/>
+ * <p>Bulk writers use {@link #reserve(int)} to get the buffer and put as many values as fit with absolute puts,
+ * then move the position past them.</p>
+ */
+public class SnapshotOutput
+{
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    protected final FileChannel channel;
+    protected final ByteBuffer buffer;
+    protected final CRC32 checksum = new CRC32();
+    /** Start of the bytes in the buffer not yet added to the checksum */
+    protected int checksumFrom = 0;
+
+    /**
+     * Full Constructor
+     *
+     * @param channel    the channel to write to
+     * @param bufferSize size of the buffer, in bytes
+     */
+    public SnapshotOutput( FileChannel channel, int bufferSize )
+    {
+        if( bufferSize < 8 )
+        {
+            throw new IllegalArgumentException( "Buffer must hold at least one value of each type [" + bufferSize +
+                                                "]" );
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect( bufferSize ).order( ByteOrder.nativeOrder() );
+    }
+
+    /**
+     * Get the buffer, with room for at least <i>bytes</i>.
+     *
+     * @param bytes the bytes about to be put, at most 8
+     * @return the buffer
+     * @throws IOException on failing to write out the full buffer
+     */
+    public ByteBuffer reserve( int bytes ) throws IOException
+    {
+        if( buffer.remaining() < bytes )
+        {
+            flush();
+        }
+        return buffer;
+    }
+
+    public void putByte( byte value ) throws IOException
+    {
+        reserve( 1 ).put( value );
+    }
+
+    public void putChar( char value ) throws IOException
+    {
+        reserve( 2 ).putChar( value );
+    }
+
+    public void putShort( short value ) throws IOException
+    {
+        reserve( 2 ).putShort( value );
+    }
+
+    public void putInt( int value ) throws IOException
+    {
+        reserve( 4 ).putInt( value );
+    }
+
+    public void putLong( long value ) throws IOException
+    {
+        reserve( 8 ).putLong( value );
+    }
+
+    public void putFloat( float value ) throws IOException
+    {
+        reserve( 4 ).putFloat( value );
+    }
+
+    public void putDouble( double value ) throws IOException
+    {
+        reserve( 8 ).putDouble( value );
+    }
+
+    /** Start a new checksum from the next byte put. */
+    public void resetChecksum()
+    {
+        checksum.reset();
+        checksumFrom = buffer.position();
+    }
+
+    /**
+     * The checksum of the bytes put since the last {@link #resetChecksum()}.
+     *
+     * @return the checksum
+     */
+    public long getChecksum()
+    {
+        updateChecksum();
+        return checksum.getValue();
+    }
+
+    /**
+     * Write everything that has been put out to the channel.
+     *
+     * @throws IOException on failing to write
+     */
+    public void flush() throws IOException
+    {
+        updateChecksum();
+        buffer.flip();
+        while( buffer.hasRemaining() )
+        {
+            channel.write( buffer );
+        }
+        buffer.clear();
+        checksumFrom = 0;
+    }
+
+    protected void updateChecksum()
+    {
+        int position = buffer.position();
+        if( position > checksumFrom )
+        {
+            ByteBuffer pending = buffer.duplicate();
+            pending.limit( position ).position( checksumFrom );
+            checksum.update( pending );
+        }
+        checksumFrom = position;
+    }
+}
@@ -0,0 +1,223 @@
+package store.table.snapshot;
+
+import core.Types;
+import store.col.Column;
+import store.col.ColumnDefinition;
+import store.col.storage.generic.*;
+import store.schema.Schema;
+import store.table.BaseTable;
+import store.table.rowtracker.RowTrackerBits;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Reads a snapshot written by {@link TableSnapshotWriter}. Opening the snapshot reads the column definitions,
+ * from which the caller builds the table ({@link #getSchema()}) and sets its storage, then {@link #read} fills
+ * the columns and replaces the row tracker. The columns are matched by name, so the table may hold the columns
+ * in another order, or have more columns (left as they are).</p>
+ * <p/>
+ * <p>The values are taken straight from the read buffer into the storage, the only objects created are those of
+ * CharSequence columns. The checksum of every column is checked, a snapshot that does not match, or does not
+ * match the table, fails with an IllegalStateException.</p>
+ */
+public class TableSnapshotReader implements AutoCloseable
+{
+    protected final FileChannel channel;
+    protected final SnapshotInput in;
+    protected final ColumnDefinition[] definitions;
+
+    /**
+     * Open the snapshot in <i>file</i>.
+     *
+     * @param file the file
+     * @throws IOException on failing to read the file
+     */
+    public TableSnapshotReader( File file ) throws IOException
+    {
+        this( new FileInputStream( file ).getChannel(), SnapshotOutput.DEFAULT_BUFFER_SIZE );
+    }
+
+    /**
+     * Full Constructor. The reader takes the channel, and closes it.
+     *
+     * @param channel    the channel, at the start of the snapshot
+     * @param bufferSize size of the read buffer, in bytes
+     * @throws IOException on failing to read
+     */
+    public TableSnapshotReader( FileChannel channel, int bufferSize ) throws IOException
+    {
+        this.channel = channel;
+        this.in = new SnapshotInput( channel, bufferSize );
+        try
+        {
+            in.setOrder( ( in.getByte() == 1 ) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN );
+            if( in.getInt() != TableSnapshotWriter.MAGIC || in.getInt() != TableSnapshotWriter.VERSION )
+            {
+                throw new IllegalStateException( "Not a table snapshot" );
+            }
+            int numColumns = in.getInt();
+            definitions = new ColumnDefinition[ numColumns ];
+            for( int i = 0; i < numColumns; i++ )
+            {
+                byte type = in.getByte();
+                definitions[ i ] = new ColumnDefinition( type, readChars( in.getInt() ) );
+            }
+        }
+        catch( IOException e )
+        {
+            channel.close();
+            throw e;
+        }
+        catch( RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The definitions of the columns in the snapshot, in the order they are stored.
+     *
+     * @return the definitions
+     */
+    public ColumnDefinition[] getColumnDefinitions()
+    {
+        return definitions;
+    }
+
+    /**
+     * A new Schema of the columns in the snapshot.
+     *
+     * @return the schema
+     */
+    public Schema getSchema()
+    {
+        return new Schema( definitions );
+    }
+
+    /**
+     * Fill the columns of <i>table</i>, which must have its storage set, and replace its row tracker with that of
+     * the snapshot. May only be called once.
+     *
+     * @param table the table
+     * @throws IOException on failing to read
+     */
+    public void read( BaseTable table ) throws IOException
+    {
+        Schema schema = table.getSchema();
+        for( ColumnDefinition definition : definitions )
+        {
+            Column column = schema.getColumn( definition.getName() );
+            if( column == null || column.getType() != definition.getType() )
+            {
+                throw new IllegalStateException( "Table has no column [" + definition.getName() + "] of type [" +
+                                                 definition.getType() + "]" );
+            }
+            if( column.getStorage() == null )
+            {
+                throw new IllegalStateException( "Column [" + definition.getName() + "] has no storage" );
+            }
+            int rows = in.getInt();
+            in.resetChecksum();
+            readColumn( column, rows );
+            checkChecksum( "column [" + definition.getName() + "]" );
+        }
+
+        if( in.getByte() == 1 )
+        {
+            long[] words = new long[ in.getInt() ];
+            in.resetChecksum();
+            for( int i = 0; i < words.length; i++ )
+            {
+                words[ i ] = in.getLong();
+            }
+            checkChecksum( "row tracker" );
+            table.setRowTracker( new RowTrackerBits( words ) );
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    protected void readColumn( Column column, int rows ) throws IOException
+    {
+        ColStorage storage = column.getStorage();
+        switch( column.getType() )
+        {
+            case Types.Bool:
+                ColStorageBool bools = ( ColStorageBool ) storage;
+                bools.checkGrowth( rows );
+                for( int i = 0; i < rows; i++ )
+                {
+                    bools.setValue( in.getByte() == 1, i );
+                }
+                break;
+            case Types.Byte:
+                ColumnSnapshotByte.read( ( ColStorageByte ) storage, rows, in );
+                break;
+            case Types.Char:
+                ColumnSnapshotChar.read( ( ColStorageChar ) storage, rows, in );
+                break;
+            case Types.Short:
+                ColumnSnapshotShort.read( ( ColStorageShort ) storage, rows, in );
+                break;
+            case Types.Int:
+                ColumnSnapshotInt.read( ( ColStorageInt ) storage, rows, in );
+                break;
+            case Types.Float:
+                ColumnSnapshotFloat.read( ( ColStorageFloat ) storage, rows, in );
+                break;
+            case Types.Double:
+                ColumnSnapshotDouble.read( ( ColStorageDouble ) storage, rows, in );
+                break;
+            case Types.Long:
+                ColumnSnapshotLong.read( ( ColStorageLong ) storage, rows, in );
+                break;
+            case Types.CharSequence:
+                ColStorageCharSequence sequences = ( ColStorageCharSequence ) storage;
+                sequences.checkGrowth( rows );
+                for( int i = 0; i < rows; i++ )
+                {
+                    int len = in.getInt();
+                    sequences.setValue( ( len < 0 ) ? null : readChars( len ), i );
+                }
+                break;
+            case Types.Object:
+            default:
+                throw new IllegalStateException( "Column [" + column.getName() + "] of type [" +
+                                                 column.getType() + "] can not be read from a snapshot" );
+        }
+    }
+
+    protected String readChars( int len ) throws IOException
+    {
+        char[] chars = new char[ len ];
+        for( int i = 0; i < len; i++ )
+        {
+            chars[ i ] = in.getChar();
+        }
+        return new String( chars );
+    }
+
+    protected void checkChecksum( String section ) throws IOException
+    {
+        long checksum = in.getChecksum();
+        if( in.getLong() != checksum )
+        {
+            throw new IllegalStateException( "Snapshot is corrupt, checksum of the " + section + " does not match" );
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package store.table.snapshot;
+
+import core.Types;
+import store.col.Column;
+import store.col.storage.generic.*;
+import store.schema.Schema;
+import store.table.BaseTable;
+import store.table.rowtracker.RowTracker;
+import store.table.rowtracker.RowTrackerBits;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>Writes a snapshot of a {@link BaseTable}: the column definitions of the schema, the values of every column
+ * and the rows of the row tracker, restored with {@link TableSnapshotReader}. The snapshot is columnar, each
+ * column is written out whole, as raw values in native byte order, through one large direct buffer.</p>
+ * <pre>
+ *     order (1 = big endian), MAGIC, VERSION, number of columns
+ *     for each column: type, name length, name chars
+ *     for each column: rows, values, CRC32 of the values
+ *     row tracker: present (0 or 1), number of words, words (64 rows a word), CRC32 of the words
+ * </pre>
+ * <p>The rows written for each column are those up to the maximum row of the row tracker, or the capacity of
+ * the storage when the table has no tracker. Bool values take a byte, CharSequence values their length (-1 for
+ * null) and chars. Object columns can not be written.</p>
+ */
+public class TableSnapshotWriter
+{
+    /** 'JSNP' */
+    public static final int MAGIC = 0x4A534E50;
+    public static final int VERSION = 1;
+
+    protected final int bufferSize;
+
+    public TableSnapshotWriter()
+    {
+        this( SnapshotOutput.DEFAULT_BUFFER_SIZE );
+    }
+
+    /**
+     * Full Constructor
+     *
+     * @param bufferSize size of the write buffer, in bytes
+     */
+    public TableSnapshotWriter( int bufferSize )
+    {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Write the snapshot of <i>table</i> to <i>file</i>, replacing it, and force it to the disk.
+     *
+     * @param table the table
+     * @param file  the file
+     * @throws IOException on failing to write
+     */
+    public void write( BaseTable table, File file ) throws IOException
+    {
+        FileOutputStream stream = new FileOutputStream( file );
+        try
+        {
+            write( table, stream.getChannel() );
+            stream.getChannel().force( true );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Write the snapshot of <i>table</i> to <i>channel</i>, from its current position.
+     *
+     * @param table   the table
+     * @param channel the channel
+     * @throws IOException on failing to write
+     */
+    public void write( BaseTable table, FileChannel channel ) throws IOException
+    {
+        Schema schema = table.getSchema();
+        Column[] columns = schema.getColumns();
+        RowTracker rowTracker = table.getRowTracker();
+        SnapshotOutput out = new SnapshotOutput( channel, bufferSize );
+
+        out.putByte( ( byte ) ( ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? 1 : 0 ) );
+        out.putInt( MAGIC );
+        out.putInt( VERSION );
+        out.putInt( schema.getNumColumns() );
+        for( Column column : columns )
+        {
+            if( column != null )
+            {
+                CharSequence name = column.getName();
+                out.putByte( column.getType() );
+                out.putInt( name.length() );
+                for( int i = 0; i < name.length(); i++ )
+                {
+                    out.putChar( name.charAt( i ) );
+                }
+            }
+        }
+
+        for( Column column : columns )
+        {
+            if( column != null )
+            {
+                ColStorage storage = column.getStorage();
+                if( storage == null )
+                {
+                    throw new IllegalStateException( "Column [" + column.getName() + "] has no storage" );
+                }
+                int rows = storage.getCapacity();
+                if( rowTracker != null )
+                {
+                    rows = Math.min( rows, rowTracker.getMaxRowId() + 1 );
+                }
+                out.putInt( rows );
+                out.resetChecksum();
+                writeColumn( column, rows, out );
+                out.putLong( out.getChecksum() );
+            }
+        }
+
+        if( rowTracker == null )
+        {
+            out.putByte( ( byte ) 0 );
+        }
+        else
+        {
+            long[] words = getWords( rowTracker );
+            out.putByte( ( byte ) 1 );
+            out.putInt( words.length );
+            out.resetChecksum();
+            for( long word : words )
+            {
+                out.putLong( word );
+            }
+            out.putLong( out.getChecksum() );
+        }
+        out.flush();
+    }
+
+    protected void writeColumn( Column column, int rows, SnapshotOutput out ) throws IOException
+    {
+        ColStorage storage = column.getStorage();
+        switch( column.getType() )
+        {
+            case Types.Bool:
+                ColStorageBool bools = ( ColStorageBool ) storage;
+                for( int i = 0; i < rows; i++ )
+                {
+                    out.putByte( ( byte ) ( bools.getValue( i ) ? 1 : 0 ) );
+                }
+                break;
+            case Types.Byte:
+                ColumnSnapshotByte.write( ( ColStorageByte ) storage, rows, out );
+                break;
+            case Types.Char:
+                ColumnSnapshotChar.write( ( ColStorageChar ) storage, rows, out );
+                break;
+            case Types.Short:
+                ColumnSnapshotShort.write( ( ColStorageShort ) storage, rows, out );
+                break;
+            case Types.Int:
+                ColumnSnapshotInt.write( ( ColStorageInt ) storage, rows, out );
+                break;
+            case Types.Float:
+                ColumnSnapshotFloat.write( ( ColStorageFloat ) storage, rows, out );
+                break;
+            case Types.Double:
+                ColumnSnapshotDouble.write( ( ColStorageDouble ) storage, rows, out );
+                break;
+            case Types.Long:
+                ColumnSnapshotLong.write( ( ColStorageLong ) storage, rows, out );
+                break;
+            case Types.CharSequence:
+                ColStorageCharSequence sequences = ( ColStorageCharSequence ) storage;
+                for( int i = 0; i < rows; i++ )
+                {
+                    CharSequence value = sequences.getValue( i );
+                    if( value == null )
+                    {
+                        out.putInt( -1 );
+                        continue;
+                    }
+                    int len = value.length();
+                    out.putInt( len );
+                    for( int j = 0; j < len; j++ )
+                    {
+                        out.putChar( value.charAt( j ) );
+                    }
+                }
+                break;
+            case Types.Object:
+            default:
+                throw new IllegalStateException( "Column [" + column.getName() + "] of type [" +
+                                                 column.getType() + "] can not be written to a snapshot" );
+        }
+    }
+
+    /**
+     * The rows of the tracker as words, taken directly from a {@link RowTrackerBits}.
+     *
+     * @param rowTracker the row tracker
+     * @return the words, 64 rows a word
+     */
+    protected long[] getWords( RowTracker rowTracker )
+    {
+        if( rowTracker instanceof RowTrackerBits )
+        {
+            return ( ( RowTrackerBits ) rowTracker ).toLongArray();
+        }
+        int maxRowId = rowTracker.getMaxRowId();
+        long[] words = new long[ ( maxRowId >> 6 ) + 1 ];
+        for( int i = 0; i <= maxRowId; i++ )
+        {
+            if( rowTracker.containsRow( i ) )
+            {
+                words[ i >> 6 ] |= 1L << i;
+            }
+        }
+        return words;
+    }
+}
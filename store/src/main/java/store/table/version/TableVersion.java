@@ -0,0 +1,141 @@
+package store.table.version;
+
+import store.schema.Schema;
+import store.table.ColumnTable;
+import store.table.rowtracker.RowTracker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A version of a table published by a {@link VersionedTable}, the rows and values of the table at the time it
+ * was published. It is a fork of the table, so it holds its own row tracker and the blocks of the column storages
+ * as they were, and the writer clones a block before changing it. A version is never changed after it is
+ * published, so any number of reader threads may read it without locks, for as long as they hold it.</p>
+ * <p/>
+ * <p>The values are read through the columns of {@link #getSchema()}, the columns of the version, not those of
+ * the table being written. A reader must not change the version.</p>
+ * <p/>
+ * <p>A version counts its holders: the {@link VersionedTable} while it is the latest, and each reader between
+ * {@link VersionedTable#getVersion()} and {@link #close()}. When the last lets go the fork is released
+ * ({@link ColumnTable#release()}), so the writer no longer clones the blocks it shared with it, and the copies of
+ * the storages that can not be forked are closed.</p>
+ */
+public class TableVersion implements AutoCloseable
+{
+    protected final ColumnTable table;
+    protected final long version;
+    /** Number of holders of the version, 0 once it is released */
+    protected final AtomicInteger holders = new AtomicInteger( 1 );
+
+    /**
+     * Constructor, the version is held once, by its creator.
+     *
+     * @param table   the fork of the table, not changed after this
+     * @param version the number of the version
+     */
+    public TableVersion( ColumnTable table, long version )
+    {
+        this.table = table;
+        this.version = version;
+    }
+
+    /**
+     * Get the number of the version, the versions of a table are numbered from 0 in the order they are published.
+     *
+     * @return the version
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Get the schema of the version, whose columns read the values of the version.
+     *
+     * @return the schema
+     */
+    public Schema getSchema()
+    {
+        return table.getSchema();
+    }
+
+    /**
+     * Get the rows of the version.
+     *
+     * @return the row tracker, not to be changed
+     */
+    public RowTracker getRowTracker()
+    {
+        return table.getRowTracker();
+    }
+
+    /**
+     * Get the number of rows of the version.
+     *
+     * @return the row count
+     */
+    public int getRowCount()
+    {
+        return table.getRowCount();
+    }
+
+    /**
+     * Get the table of the version, for scans over a table. It must only be read.
+     *
+     * @return the table
+     */
+    public ColumnTable getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Let go of the version, once for each time it was taken from {@link VersionedTable#getVersion()}. The version
+     * must not be read after.
+     */
+    @Override
+    public void close()
+    {
+        if( holders.decrementAndGet() == 0 )
+        {
+            table.release();
+        }
+    }
+
+    /**
+     * Has the version been released, by its last holder letting go.
+     *
+     * @return true if released
+     */
+    public boolean isReleased()
+    {
+        return holders.get() == 0;
+    }
+
+    /**
+     * Hold the version once more, unless it has already been released.
+     *
+     * @return true if held, false if released
+     */
+    protected boolean hold()
+    {
+        while( true )
+        {
+            int current = holders.get();
+            if( current == 0 )
+            {
+                return false;
+            }
+            if( holders.compareAndSet( current, current + 1 ) )
+            {
+                return true;
+            }
+        }
+    }
+}
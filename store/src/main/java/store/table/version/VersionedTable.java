@@ -0,0 +1,95 @@
+package store.table.version;
+
+import store.table.ColumnTable;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * <p>A table written by one thread and read by many, by publishing versions of it. The writer changes the table
+ * as any {@link ColumnTable}, and calls {@link #publish()} when the table is in a state the readers should see
+ * (at the end of a batch of changes). Readers take the latest version with {@link #getVersion()}, a
+ * {@link TableVersion} that is never changed, so they read a consistent point in time without locks, and the
+ * writer never waits on them.</p>
+ * <p/>
+ * <p>A version is a {@link ColumnTable#fork()} of the table: it shares the blocks of the blocked storages, and
+ * the writer clones a block on its first write to it after a publish. So publishing is in the number of blocks
+ * (and the words of the row tracker), and each publish costs a copy of the blocks written since the last one.
+ * A storage that can not be forked (an array storage) is copied whole by every publish.</p>
+ * <p/>
+ * <p>The latest version is a volatile field, written after the fork is complete, so a reader that sees the
+ * version sees every block and row of it. A reader holds the version it takes until it closes it, and a version
+ * that is no longer the latest is released when its last reader closes it (at once if there is none): its
+ * blocks are no longer shared, so the writer writes to them in place again, and the copies of the storages that
+ * can not be forked are closed.</p>
+ * <pre>
+ *     try( TableVersion version = versioned.getVersion() )
+ *     {
+ *         ...read the columns of version.getSchema()
+ *     }
+ * </pre>
+ */
+public class VersionedTable
+{
+    /** The table, changed by the writer only */
+    protected final ColumnTable table;
+    /** The latest version published */
+    protected volatile TableVersion latest;
+
+    /**
+     * Constructor, publishes the table as it is as version 0.
+     *
+     * @param table the table, changed only by the writer thread from now on
+     */
+    public VersionedTable( ColumnTable table )
+    {
+        this.table = table;
+        latest = new TableVersion( table.fork(), 0 );
+    }
+
+    /**
+     * Publish the table as it is now, as the next version. Called by the writer, outside of a change of a row.
+     *
+     * @return the number of the version published
+     */
+    public long publish()
+    {
+        TableVersion previous = latest;
+        TableVersion version = new TableVersion( table.fork(), previous.getVersion() + 1 );
+        latest = version;
+        previous.close();
+        return version.getVersion();
+    }
+
+    /**
+     * Get the latest version published, for the readers. The version stays as it is until the reader closes it,
+     * which it must do once it is done reading, later versions are read by calling this again.
+     *
+     * @return the latest version, held for the caller
+     */
+    public TableVersion getVersion()
+    {
+        while( true )
+        {
+            TableVersion version = latest;
+            if( version.hold() )
+            {
+                return version;
+            }
+            //released by a publish since it was read, the latest is newer
+        }
+    }
+
+    /**
+     * Get the table, for the writer.
+     *
+     * @return the table
+     */
+    public ColumnTable getTable()
+    {
+        return table;
+    }
+}
@@ -0,0 +1,147 @@
+package store.col.scan;
+
+import collections.hash.set.HashSet_KeyTypeName_;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Test;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+import store.col.storage.block.ColStorageBlocked_KeyTypeName_;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+import store.col.storage.offheap.ColStorageOffHeap_KeyTypeName_;
+
+import java.util.BitSet;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColumnScan_KeyTypeName_
+{
+    public static final int TEST_SIZE = 200;
+    public static final int MOD = 50;
+    //a range of rows that starts and ends inside a block
+    public static final int FROM_ROW = 3;
+    public static final int TO_ROW = 197;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    protected void fill( ColStorage_KeyTypeName_ storage )
+    {
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            storage.setValue( IntValueConverter._key_FromInt( i % MOD ), i );
+        }
+    }
+
+    /** Every storage, whether read on its arrays or through getValue, selects the same rows */
+    @Test
+    public void scanTest()
+    {
+        if( template ) return;
+        scan( new ColStorageArray_KeyTypeName_( TEST_SIZE ) );
+        scan( new ColStorageBlocked_KeyTypeName_( 16, TEST_SIZE ) );
+        ColStorageOffHeap_KeyTypeName_ offHeap = new ColStorageOffHeap_KeyTypeName_( TEST_SIZE );
+        try
+        {
+            scan( offHeap );
+        }
+        finally
+        {
+            offHeap.close();
+        }
+    }
+
+    protected void scan( ColStorage_KeyTypeName_ storage )
+    {
+        fill( storage );
+        int[] target = new int[ TO_ROW - FROM_ROW ];
+        long[] bits = new long[ ( TEST_SIZE + 63 ) / 64 ];
+
+        int ct = ColumnScan_KeyTypeName_.range( storage, FROM_ROW, TO_ROW, IntValueConverter._key_FromInt( 10 ),
+                                                 IntValueConverter._key_FromInt( 20 ), target );
+        ColumnScan_KeyTypeName_.rangeBits( storage, FROM_ROW, TO_ROW, IntValueConverter._key_FromInt( 10 ),
+                                           IntValueConverter._key_FromInt( 20 ), bits );
+        assertSelected( ct, target, bits, 10, 20, -1 );
+
+        bits = new long[ bits.length ];
+        ct = ColumnScan_KeyTypeName_.equal( storage, FROM_ROW, TO_ROW, IntValueConverter._key_FromInt( 1 ), target );
+        ColumnScan_KeyTypeName_.equalBits( storage, FROM_ROW, TO_ROW, IntValueConverter._key_FromInt( 1 ), bits );
+        assertSelected( ct, target, bits, 1, 1, -1 );
+
+        HashSet_KeyTypeName_ values = new HashSet_KeyTypeName_( 4 );
+        values.insert( IntValueConverter._key_FromInt( 1 ) );
+        values.insert( IntValueConverter._key_FromInt( 49 ) );
+        bits = new long[ bits.length ];
+        ct = ColumnScan_KeyTypeName_.in( storage, FROM_ROW, TO_ROW, values, target );
+        ColumnScan_KeyTypeName_.inBits( storage, FROM_ROW, TO_ROW, values, bits );
+        assertSelected( ct, target, bits, 1, 1, 49 );
+
+        //nothing selected
+        TestCase.assertEquals( 0, ColumnScan_KeyTypeName_.range( storage, FROM_ROW, TO_ROW,
+                                                                 IntValueConverter._key_FromInt( 20 ),
+                                                                 IntValueConverter._key_FromInt( 10 ), target ) );
+        TestCase.assertEquals( 0, ColumnScan_KeyTypeName_.range( storage, FROM_ROW, FROM_ROW,
+                                                                 IntValueConverter._key_FromInt( 0 ),
+                                                                 IntValueConverter._key_FromInt( 20 ), target ) );
+    }
+
+    /**
+     * The rows selected are those in the range of rows with a value in [min, max], or equal to <i>other</i>.
+     */
+    protected void assertSelected( int ct, int[] target, long[] bits, int min, int max, int other )
+    {
+        BitSet selected = BitSet.valueOf( bits );
+        int expected = 0;
+        for( int row = 0; row < TEST_SIZE; row++ )
+        {
+            int value = row % MOD;
+            boolean match = row >= FROM_ROW && row < TO_ROW && ( ( value >= min && value <= max ) || value == other );
+            TestCase.assertEquals( match, selected.get( row ) );
+            if( match )
+            {
+                TestCase.assertEquals( row, target[ expected++ ] );
+            }
+        }
+        TestCase.assertEquals( expected, ct );
+    }
+
+    /** The target must hold every row of the range, the selection every row up to the end */
+    @Test
+    public void boundsTest()
+    {
+        if( template ) return;
+        ColStorage_KeyTypeName_ storage = new ColStorageArray_KeyTypeName_( TEST_SIZE );
+        try
+        {
+            ColumnScan_KeyTypeName_.equal( storage, 0, 10, IntValueConverter._key_FromInt( 1 ), new int[ 9 ] );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+        try
+        {
+            ColumnScan_KeyTypeName_.equalBits( storage, 0, 65, IntValueConverter._key_FromInt( 1 ), new long[ 1 ] );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+        try
+        {
+            ColumnScan_KeyTypeName_.equal( storage, 0, TEST_SIZE + 1, IntValueConverter._key_FromInt( 1 ),
+                                           new int[ TEST_SIZE + 1 ] );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+}
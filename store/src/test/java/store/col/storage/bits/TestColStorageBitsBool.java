@@ -0,0 +1,207 @@
+package store.col.storage.bits;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.array.ColStorageArrayBool;
+import store.col.storage.generic.BitsStorage;
+import store.col.storage.generic.ColStorageBool;
+
+import java.util.BitSet;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ * <p/>
+ * The flat and blocked bits storages, loaded with the same flags.
+ */
+public class TestColStorageBitsBool
+{
+    //not a multiple of 64
+    public static final int TEST_SIZE = 300;
+
+    protected ColStorageBitsBool flat;
+    protected ColStorageBlockedBitsBool blocked;
+
+    /** Flag of a row, true every third row */
+    protected static boolean flag( int row )
+    {
+        return row % 3 == 0;
+    }
+
+    @Before
+    public void setup()
+    {
+        flat = new ColStorageBitsBool( TEST_SIZE );
+        blocked = new ColStorageBlockedBitsBool( 128, TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            flat.setValue( flag( i ), i );
+            blocked.setValue( flag( i ), i );
+        }
+    }
+
+    protected void assertFlags( ColStorageBool storage, int rows )
+    {
+        for( int i = 0; i < rows; i++ )
+        {
+            TestCase.assertEquals( flag( i ), storage.getValue( i ) );
+        }
+    }
+
+    @Test
+    public void loadTest()
+    {
+        TestCase.assertEquals( Types.Bool, flat.getType() );
+        TestCase.assertEquals( 320, flat.getCapacity() );
+        TestCase.assertEquals( 384, blocked.getCapacity() );
+        TestCase.assertEquals( 128, blocked.getBlockSize() );
+        //a block holds at least a word
+        TestCase.assertEquals( 64, new ColStorageBlockedBitsBool( 3, 10 ).getBlockSize() );
+        assertFlags( flat, TEST_SIZE );
+        assertFlags( blocked, TEST_SIZE );
+        //set and clear over a set row
+        flat.setValue( false, 3 );
+        blocked.setValue( false, 3 );
+        TestCase.assertFalse( flat.getValue( 3 ) );
+        TestCase.assertFalse( blocked.getValue( 3 ) );
+        flat.setValue( true, 3 );
+        blocked.setValue( true, 3 );
+        assertFlags( flat, TEST_SIZE );
+        assertFlags( blocked, TEST_SIZE );
+    }
+
+    @Test
+    public void growthTest()
+    {
+        flat.checkGrowth( 320 );
+        TestCase.assertEquals( 320, flat.getCapacity() );
+        flat.checkGrowth( 321 );
+        TestCase.assertEquals( 640, flat.getCapacity() );
+        blocked.checkGrowth( 400 );
+        TestCase.assertEquals( 768, blocked.getCapacity() );
+        assertFlags( flat, TEST_SIZE );
+        assertFlags( blocked, TEST_SIZE );
+        TestCase.assertFalse( flat.getValue( 639 ) );
+        TestCase.assertFalse( blocked.getValue( 767 ) );
+        blocked.setValue( true, 767 );
+        TestCase.assertTrue( blocked.getValue( 767 ) );
+        //the capacity is whole words
+        ColStorageBitsBool exact = new ColStorageBitsBool( 64, GrowthStrategy.toExactSize );
+        exact.checkGrowth( 65 );
+        TestCase.assertEquals( 128, exact.getCapacity() );
+    }
+
+    /** Copies by word between bits storages, by row otherwise */
+    @Test
+    public void copyTest()
+    {
+        assertFlags( flat.getCopy(), TEST_SIZE );
+        assertFlags( blocked.getCopy(), TEST_SIZE );
+
+        ColStorageBlockedBitsBool words = new ColStorageBlockedBitsBool( 64, TEST_SIZE );
+        words.copyFrom( flat, 0, 0, 256 );
+        words.copyFrom( flat, 256, 256, TEST_SIZE - 256 );
+        assertFlags( words, TEST_SIZE );
+        ColStorageBitsBool fromBlocked = new ColStorageBitsBool( TEST_SIZE );
+        fromBlocked.copyFrom( blocked, 0, 0, 320 );
+        assertFlags( fromBlocked, TEST_SIZE );
+
+        ColStorageArrayBool array = new ColStorageArrayBool( TEST_SIZE );
+        array.copyFrom( flat, 0, 0, TEST_SIZE );
+        ColStorageBitsBool shifted = new ColStorageBitsBool( TEST_SIZE + 1 );
+        shifted.copyFrom( array, 0, 1, TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( flag( i ), shifted.getValue( i + 1 ) );
+        }
+    }
+
+    /** A fork shares the blocks until they are written */
+    @Test
+    public void forkTest()
+    {
+        ColStorageBlockedBitsBool fork = blocked.fork();
+        TestCase.assertTrue( fork.isShared( 0 ) );
+        TestCase.assertSame( blocked.getBlocks()[ 1 ], fork.getBlocks()[ 1 ] );
+        fork.setValue( true, 1 );
+        TestCase.assertFalse( fork.isShared( 0 ) );
+        TestCase.assertTrue( fork.isShared( 1 ) );
+        TestCase.assertFalse( blocked.getValue( 1 ) );
+        TestCase.assertTrue( fork.getValue( 1 ) );
+        blocked.copyFrom( flat, 128, 128, 128 );
+        TestCase.assertNotSame( blocked.getBlocks()[ 1 ], fork.getBlocks()[ 1 ] );
+        assertFlags( blocked, TEST_SIZE );
+        fork.setValue( false, 1 );
+        assertFlags( fork, TEST_SIZE );
+        //both forks released, the blocked storage writes to its blocks in place
+        ColStorageBlockedBitsBool other = blocked.fork();
+        other.release();
+        TestCase.assertTrue( blocked.isShared( 2 ) );
+        fork.release();
+        TestCase.assertFalse( blocked.isShared( 2 ) );
+        Object block = blocked.getBlocks()[ 2 ];
+        blocked.setValue( true, 257 );
+        TestCase.assertSame( block, blocked.getBlocks()[ 2 ] );
+        TestCase.assertTrue( blocked.getValue( 257 ) );
+    }
+
+    /** Word operations on a selection, against the same operations of a BitSet */
+    @Test
+    public void wordTest()
+    {
+        wordTest( flat );
+        wordTest( blocked );
+    }
+
+    protected void wordTest( BitsStorage storage )
+    {
+        int words = ( TEST_SIZE + 63 ) / 64;
+        BitSet flags = new BitSet();
+        BitSet evens = new BitSet();
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            flags.set( i, flag( i ) );
+            evens.set( i, i % 2 == 0 );
+        }
+        TestCase.assertEquals( flags.cardinality(), storage.cardinality( 0, words ) );
+        TestCase.assertEquals( flags.get( 64, 192 ).cardinality(), storage.cardinality( 1, 3 ) );
+        TestCase.assertEquals( flags.toLongArray()[ 2 ], storage.getWord( 2 ) );
+
+        //the words outside the range are left as they are
+        BitSet expected = ( BitSet ) evens.clone();
+        expected.and( flags );
+        expected.or( evens.get( 0, 64 ) );
+        long[] bits = evens.toLongArray();
+        storage.and( bits, 1, words );
+        TestCase.assertEquals( expected, BitSet.valueOf( bits ) );
+
+        expected = ( BitSet ) evens.clone();
+        expected.or( flags );
+        bits = evens.toLongArray();
+        storage.or( bits, 0, words );
+        TestCase.assertEquals( expected, BitSet.valueOf( bits ) );
+
+        expected = ( BitSet ) evens.clone();
+        expected.andNot( flags );
+        bits = evens.toLongArray();
+        storage.andNot( bits, 0, words );
+        TestCase.assertEquals( expected, BitSet.valueOf( bits ) );
+    }
+
+    /** The bool storage of the factories is the bits storage */
+    @Test
+    public void factoryTest()
+    {
+        TestCase.assertTrue( ColStorageFactory.defaultArrayStorageFactory.getStorage( Types.Bool, 10 ) instanceof
+                                     ColStorageBitsBool );
+        TestCase.assertTrue( ColStorageFactory.defaultBlockedStorageFactory.getStorage( Types.Bool, 1000 ) instanceof
+                                     ColStorageBlockedBitsBool );
+    }
+}
@@ -6,6 +6,7 @@ import core.stub.*;
 import junit.framework.TestCase;
 import org.junit.Before;
 import org.junit.Test;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
 
 /**
  * Copyright 5/7/13
@@ -215,6 +216,155 @@ public class TestColStorageBlocked_KeyTypeName_
     }
 
 
+    /**
+     * Copies between blocked stores of different block sizes and array stores, rows crossing blocks of both
+     * sides, and within a store both ways.
+     */
+    @Test
+    public void blockCopyTest()
+    {
+        if( template ) return;
+        int size = 200;
+        ColStorageArray_KeyTypeName_ array = new ColStorageArray_KeyTypeName_( size );
+        for( int i = 0; i < size; i++ )
+        {
+            array.setValue( IntValueConverter._key_FromInt( i % 100 + 1 ), i );
+        }
+        ColStorageBlocked_KeyTypeName_ source = new ColStorageBlocked_KeyTypeName_( 16, size );
+        source.copyFrom( array, 0, 0, size );
+        ColStorageBlocked_KeyTypeName_ target = new ColStorageBlocked_KeyTypeName_( 64, size );
+        _key_ empty = target.getValue( 0 );
+        target.copyFrom( source, 5, 37, 150 );
+        for( int i = 0; i < size; i++ )
+        {
+            TestCase.assertEquals( source.getValue( i ), array.getValue( i ) );
+            _key_ expected = ( i >= 37 && i < 187 ) ? array.getValue( i - 32 ) : empty;
+            TestCase.assertEquals( expected, target.getValue( i ) );
+        }
+        ColStorageArray_KeyTypeName_ back = new ColStorageArray_KeyTypeName_( size );
+        back.copyFrom( target, 37, 0, 150 );
+        for( int i = 0; i < 150; i++ )
+        {
+            TestCase.assertEquals( array.getValue( i + 5 ), back.getValue( i ) );
+        }
+
+        //within the store, to later rows then to earlier rows
+        ColStorageBlocked_KeyTypeName_ later = source.getCopy();
+        later.copyFrom( later, 0, 10, 150 );
+        ColStorageBlocked_KeyTypeName_ earlier = source.getCopy();
+        earlier.copyFrom( earlier, 10, 0, 150 );
+        for( int i = 0; i < 160; i++ )
+        {
+            TestCase.assertEquals( array.getValue( ( i < 10 ) ? i : i - 10 ), later.getValue( i ) );
+            if( i < 150 )
+            {
+                TestCase.assertEquals( array.getValue( i + 10 ), earlier.getValue( i ) );
+            }
+        }
+
+        //a copy shares no blocks, growth keeps the blocks
+        ColStorageBlocked_KeyTypeName_ copy = target.getCopy();
+        copy.setValue( empty, 40 );
+        TestCase.assertEquals( array.getValue( 8 ), target.getValue( 40 ) );
+        Object firstBlock = target.getBlocks()[ 0 ];
+        target.checkGrowth( size * 3 );
+        TestCase.assertSame( firstBlock, target.getBlocks()[ 0 ] );
+        TestCase.assertEquals( array.getValue( 8 ), target.getValue( 40 ) );
+        TestCase.assertEquals( empty, target.getValue( size * 3 - 1 ) );
+    }
+
+
+    /** A fork shares the blocks, and a write on either side clones only the block written, for the writer */
+    @Test
+    public void forkTest()
+    {
+        if( template ) return;
+        int size = 256;
+        ColStorageBlocked_KeyTypeName_ source = new ColStorageBlocked_KeyTypeName_( 64, size );
+        _key_ empty = source.getValue( 0 );
+        for( int i = 0; i < size; i++ )
+        {
+            source.setValue( IntValueConverter._key_FromInt( i % 100 + 1 ), i );
+        }
+        ColStorageBlocked_KeyTypeName_ fork = source.fork();
+        TestCase.assertEquals( size, fork.getCapacity() );
+        for( int i = 0; i < 4; i++ )
+        {
+            TestCase.assertTrue( source.isShared( i ) );
+            TestCase.assertTrue( fork.isShared( i ) );
+            TestCase.assertSame( source.getBlocks()[ i ], fork.getBlocks()[ i ] );
+        }
+
+        //the fork writes to block 1, the source writes to block 2
+        fork.setValue( empty, 70 );
+        source.fill( empty, 130, 140 );
+        TestCase.assertFalse( fork.isShared( 1 ) );
+        TestCase.assertFalse( source.isShared( 2 ) );
+        TestCase.assertTrue( fork.isShared( 0 ) );
+        TestCase.assertTrue( fork.isShared( 3 ) );
+        TestCase.assertSame( source.getBlocks()[ 0 ], fork.getBlocks()[ 0 ] );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 71 ), source.getValue( 70 ) );
+        TestCase.assertEquals( empty, fork.getValue( 70 ) );
+        TestCase.assertEquals( empty, source.getValue( 135 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 36 ), fork.getValue( 135 ) );
+
+        //the other holder of a block cloned by one side takes it back, without a clone
+        Object block = source.getBlocks()[ 1 ];
+        TestCase.assertFalse( source.isShared( 1 ) );
+        source.setValue( empty, 80 );
+        TestCase.assertSame( block, source.getBlocks()[ 1 ] );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 81 ), fork.getValue( 80 ) );
+
+        //a fork of a fork, the blocks held by three stores
+        ColStorageBlocked_KeyTypeName_ second = fork.fork();
+        second.copyFrom( source, 0, 0, size );
+        for( int i = 0; i < size; i++ )
+        {
+            TestCase.assertEquals( source.getValue( i ), second.getValue( i ) );
+        }
+        TestCase.assertEquals( empty, fork.getValue( 70 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 1 ), fork.getValue( 0 ) );
+        TestCase.assertTrue( source.isShared( 3 ) );
+
+        //growth adds blocks of this store only
+        fork.checkGrowth( size * 2 );
+        TestCase.assertFalse( fork.isShared( 5 ) );
+        fork.setValue( IntValueConverter._key_FromInt( 9 ), size + 1 );
+        TestCase.assertEquals( size, source.getCapacity() );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 9 ), fork.getValue( size + 1 ) );
+    }
+
+
+    /** Once its fork is released, the source writes to the blocks it shared in place */
+    @Test
+    public void releaseTest()
+    {
+        if( template ) return;
+        ColStorageBlocked_KeyTypeName_ source = new ColStorageBlocked_KeyTypeName_( 64, 256 );
+        for( int i = 0; i < 256; i++ )
+        {
+            source.setValue( IntValueConverter._key_FromInt( i % 100 + 1 ), i );
+        }
+        ColStorageBlocked_KeyTypeName_ fork = source.fork();
+        ColStorageBlocked_KeyTypeName_ second = source.fork();
+        fork.setValue( IntValueConverter._key_FromInt( 7 ), 0 );
+        fork.release();
+        TestCase.assertEquals( 0, fork.getCapacity() );
+        //still shared with the second fork
+        TestCase.assertTrue( source.isShared( 1 ) );
+        second.release();
+        for( int i = 0; i < 4; i++ )
+        {
+            TestCase.assertFalse( source.isShared( i ) );
+            Object block = source.getBlocks()[ i ];
+            source.setValue( IntValueConverter._key_FromInt( 9 ), i * 64 + 1 );
+            TestCase.assertSame( block, source.getBlocks()[ i ] );
+        }
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 1 ), source.getValue( 0 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 9 ), source.getValue( 65 ) );
+    }
+
+
     protected void assertValues( _key_ value, int startIdx, int endIdx )
     {
         int idxPtr = startIdx;
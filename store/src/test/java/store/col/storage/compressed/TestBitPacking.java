@@ -0,0 +1,77 @@
+package store.col.storage.compressed;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestBitPacking
+{
+    public static final int COUNT = 100;
+
+    /** Every width, values spanning words, set over other values */
+    @Test
+    public void packTest()
+    {
+        for( int width = 1; width <= 64; width++ )
+        {
+            long mask = ( width == 64 ) ? -1L : ( 1L << width ) - 1;
+            long[] words = new long[ BitPacking.getWords( COUNT, width ) ];
+            for( int i = 0; i < COUNT; i++ )
+            {
+                BitPacking.setBits( words, i, width, -1L );
+            }
+            for( int i = 0; i < COUNT; i++ )
+            {
+                BitPacking.setBits( words, i, width, i * 0x9E3779B97F4A7C15L );
+            }
+            for( int i = 0; i < COUNT; i++ )
+            {
+                TestCase.assertEquals( ( i * 0x9E3779B97F4A7C15L ) & mask, BitPacking.getBits( words, i, width ) );
+            }
+        }
+    }
+
+    /** The width of a range is taken unsigned, so the offsets of the whole long range fit */
+    @Test
+    public void widthTest()
+    {
+        TestCase.assertEquals( 0, BitPacking.getWidth( 0 ) );
+        TestCase.assertEquals( 1, BitPacking.getWidth( 1 ) );
+        TestCase.assertEquals( 10, BitPacking.getWidth( 1023 ) );
+        TestCase.assertEquals( 11, BitPacking.getWidth( 1024 ) );
+        TestCase.assertEquals( 64, BitPacking.getWidth( Long.MAX_VALUE - Long.MIN_VALUE ) );
+        TestCase.assertTrue( BitPacking.fits( 0, 0 ) );
+        TestCase.assertFalse( BitPacking.fits( 1, 0 ) );
+        TestCase.assertTrue( BitPacking.fits( 1023, 10 ) );
+        TestCase.assertFalse( BitPacking.fits( -1, 10 ) );
+        TestCase.assertTrue( BitPacking.fits( -1, 64 ) );
+        TestCase.assertEquals( 0, BitPacking.getWords( 0, 7 ) );
+        TestCase.assertEquals( 11, BitPacking.getWords( 100, 7 ) );
+    }
+
+    /** A storage of the extremes of a long packs in 64 bits */
+    @Test
+    public void extremesTest()
+    {
+        ColStorageBitPackedLong store = new ColStorageBitPackedLong( 16 );
+        store.setValue( Long.MIN_VALUE, 0 );
+        store.setValue( Long.MAX_VALUE, 1 );
+        store.setValue( -1L, 2 );
+        TestCase.assertEquals( 64, store.getBitsPerValue( 0 ) );
+        TestCase.assertEquals( Long.MIN_VALUE, store.getValue( 0 ) );
+        TestCase.assertEquals( Long.MAX_VALUE, store.getValue( 1 ) );
+        TestCase.assertEquals( -1L, store.getValue( 2 ) );
+        TestCase.assertEquals( 0L, store.getValue( 3 ) );
+
+        ColStorageBitPackedChar chars = new ColStorageBitPackedChar( 16 );
+        chars.setValue( Character.MAX_VALUE, 0 );
+        TestCase.assertEquals( 16, chars.getBitsPerValue( 0 ) );
+        TestCase.assertEquals( Character.MAX_VALUE, chars.getValue( 0 ) );
+    }
+}
@@ -0,0 +1,158 @@
+package store.col.storage.compressed;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import core.stub.IntValueConverter;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.scan.ColumnScan_KeyTypeName_;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColStorageBitPacked_KeyTypeName_
+{
+    //not a multiple of the block size
+    public static final int TEST_SIZE = 300;
+    public static final int BLOCK_SIZE = 64;
+    public static final int MOD = 50;
+
+    protected ColStorageBitPacked_KeyTypeName_ store;
+    protected ColStorageArray_KeyTypeName_ array;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        store = new ColStorageBitPacked_KeyTypeName_( BLOCK_SIZE, TEST_SIZE, GrowthStrategy.doubleGrowth );
+        array = new ColStorageArray_KeyTypeName_( TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            array.setValue( IntValueConverter._key_FromInt( i % MOD + 10 ), i );
+        }
+    }
+
+    protected void assertValues( ColStorageBitPacked_KeyTypeName_ packed )
+    {
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( array.getValue( i ), packed.getValue( i ) );
+        }
+    }
+
+    /** Row by row, each write out of the frame of its block encoding the block again */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        TestCase.assertEquals( Types._KeyTypeName_, store.getType() );
+        TestCase.assertEquals( 320, store.getCapacity() );
+        TestCase.assertEquals( 0, store.getBitsPerValue( 0 ) );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            store.setValue( array.getValue( i ), i );
+        }
+        assertValues( store );
+        //0 to 49, less a base of at least 10, in 6 bits
+        TestCase.assertTrue( store.getBitsPerValue( 0 ) <= 6 );
+        //the rows after the last row set are still 0
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( TEST_SIZE + 5 ) );
+
+        //in the frame, in place
+        store.setValue( IntValueConverter._key_FromInt( 11 ), 3 );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 11 ), store.getValue( 3 ) );
+        //below the base, and far above it
+        store.setValue( IntValueConverter._key_FromInt( 1 ), 4 );
+        store.setValue( IntValueConverter._key_FromInt( 120 ), 5 );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 11 ), store.getValue( 3 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 1 ), store.getValue( 4 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 120 ), store.getValue( 5 ) );
+        TestCase.assertEquals( array.getValue( 6 ), store.getValue( 6 ) );
+    }
+
+    /** A copy encodes each block once, and decodes to the source */
+    @Test
+    public void copyTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        assertValues( store );
+        ColStorageBitPacked_KeyTypeName_ copy = store.getCopy();
+        assertValues( copy );
+        copy.setValue( IntValueConverter._key_FromInt( 100 ), 0 );
+        TestCase.assertEquals( array.getValue( 0 ), store.getValue( 0 ) );
+
+        //a block of one value has no offsets
+        ColStorageArray_KeyTypeName_ sevens = new ColStorageArray_KeyTypeName_( BLOCK_SIZE );
+        for( int i = 0; i < BLOCK_SIZE; i++ )
+        {
+            sevens.setValue( IntValueConverter._key_FromInt( 7 ), i );
+        }
+        ColStorageBitPacked_KeyTypeName_ constant = new ColStorageBitPacked_KeyTypeName_( BLOCK_SIZE, BLOCK_SIZE,
+                                                                                          GrowthStrategy.doubleGrowth );
+        constant.copyFrom( sevens, 0, 0, BLOCK_SIZE );
+        TestCase.assertEquals( 0, constant.getBitsPerValue( 0 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 7 ), constant.getValue( BLOCK_SIZE - 1 ) );
+
+        //within the store, overlapping
+        ColStorageBitPacked_KeyTypeName_ shifted = new ColStorageBitPacked_KeyTypeName_( BLOCK_SIZE, TEST_SIZE,
+                                                                                         GrowthStrategy.doubleGrowth );
+        shifted.copyFrom( array, 0, 0, TEST_SIZE );
+        shifted.copyFrom( shifted, 0, 1, TEST_SIZE - 1 );
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( array.getValue( i - 1 ), shifted.getValue( i ) );
+        }
+    }
+
+    /** Growth adds blocks of 0, and keeps the blocks */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        store.checkGrowth( TEST_SIZE / 2 );
+        TestCase.assertEquals( 320, store.getCapacity() );
+        store.checkGrowth( 400 );
+        TestCase.assertEquals( 640, store.getCapacity() );
+        assertValues( store );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( 639 ) );
+        store.setValue( IntValueConverter._key_FromInt( 9 ), 639 );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 9 ), store.getValue( 639 ) );
+    }
+
+    /** Scans decode a block at a time, and select the rows of the plain storage */
+    @Test
+    public void scanTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        int[] expected = new int[ TEST_SIZE ];
+        int[] target = new int[ TEST_SIZE ];
+        long[] expectedBits = new long[ ( TEST_SIZE + 63 ) / 64 ];
+        long[] bits = new long[ expectedBits.length ];
+        int ct = ColumnScan_KeyTypeName_.range( array, 3, TEST_SIZE - 3, IntValueConverter._key_FromInt( 20 ),
+                                                IntValueConverter._key_FromInt( 30 ), expected );
+        TestCase.assertEquals( ct, ColumnScan_KeyTypeName_.range( store, 3, TEST_SIZE - 3,
+                                                                  IntValueConverter._key_FromInt( 20 ),
+                                                                  IntValueConverter._key_FromInt( 30 ), target ) );
+        for( int i = 0; i < ct; i++ )
+        {
+            TestCase.assertEquals( expected[ i ], target[ i ] );
+        }
+        ColumnScan_KeyTypeName_.equalBits( array, 3, TEST_SIZE - 3, IntValueConverter._key_FromInt( 15 ),
+                                           expectedBits );
+        ColumnScan_KeyTypeName_.equalBits( store, 3, TEST_SIZE - 3, IntValueConverter._key_FromInt( 15 ), bits );
+        for( int i = 0; i < bits.length; i++ )
+        {
+            TestCase.assertEquals( expectedBits[ i ], bits[ i ] );
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package store.col.storage.compressed;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import core.stub.IntValueConverter;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.scan.ColumnScan_KeyTypeName_;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColStorageRunLength_KeyTypeName_
+{
+    //not a multiple of the block size
+    public static final int TEST_SIZE = 300;
+    public static final int BLOCK_SIZE = 64;
+    public static final int RUN = 10;
+
+    protected ColStorageRunLength_KeyTypeName_ store;
+    protected ColStorageArray_KeyTypeName_ array;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        store = new ColStorageRunLength_KeyTypeName_( BLOCK_SIZE, TEST_SIZE, GrowthStrategy.doubleGrowth );
+        array = new ColStorageArray_KeyTypeName_( TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            array.setValue( IntValueConverter._key_FromInt( i / RUN % 5 + 1 ), i );
+        }
+    }
+
+    protected void assertValues( ColStorageRunLength_KeyTypeName_ runs )
+    {
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( array.getValue( i ), runs.getValue( i ) );
+        }
+    }
+
+    /** Row by row, each write of a new value encoding the block again */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        TestCase.assertEquals( Types._KeyTypeName_, store.getType() );
+        TestCase.assertEquals( 320, store.getCapacity() );
+        TestCase.assertEquals( 1, store.getRunCount( 0 ) );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            store.setValue( array.getValue( i ), i );
+        }
+        assertValues( store );
+        //rows 0-63, runs of 10
+        TestCase.assertEquals( 7, store.getRunCount( 0 ) );
+        //rows 256-299 then 0s
+        TestCase.assertEquals( 6, store.getRunCount( 4 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( TEST_SIZE + 5 ) );
+
+        //the same value, nothing changes
+        store.setValue( array.getValue( 5 ), 5 );
+        TestCase.assertEquals( 7, store.getRunCount( 0 ) );
+        //a run split in three
+        store.setValue( IntValueConverter._key_FromInt( 100 ), 5 );
+        TestCase.assertEquals( 9, store.getRunCount( 0 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 100 ), store.getValue( 5 ) );
+        TestCase.assertEquals( array.getValue( 4 ), store.getValue( 4 ) );
+        TestCase.assertEquals( array.getValue( 6 ), store.getValue( 6 ) );
+    }
+
+    /** A copy encodes each block once, and decodes to the source */
+    @Test
+    public void copyTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        assertValues( store );
+        ColStorageRunLength_KeyTypeName_ copy = store.getCopy();
+        assertValues( copy );
+        copy.setValue( IntValueConverter._key_FromInt( 100 ), 0 );
+        TestCase.assertEquals( array.getValue( 0 ), store.getValue( 0 ) );
+
+        //within the store, overlapping
+        store.copyFrom( store, 0, 1, TEST_SIZE - 1 );
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( array.getValue( i - 1 ), store.getValue( i ) );
+        }
+    }
+
+    /** Growth adds blocks of one run of 0, and keeps the blocks */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        store.checkGrowth( 400 );
+        TestCase.assertEquals( 640, store.getCapacity() );
+        assertValues( store );
+        TestCase.assertEquals( 1, store.getRunCount( 9 ) );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( 639 ) );
+    }
+
+    /** Scans decode a block at a time, and select the rows of the plain storage */
+    @Test
+    public void scanTest()
+    {
+        if( template ) return;
+        store.copyFrom( array, 0, 0, TEST_SIZE );
+        int[] expected = new int[ TEST_SIZE ];
+        int[] target = new int[ TEST_SIZE ];
+        int ct = ColumnScan_KeyTypeName_.equal( array, 7, TEST_SIZE - 7, IntValueConverter._key_FromInt( 3 ),
+                                                expected );
+        TestCase.assertEquals( ct, ColumnScan_KeyTypeName_.equal( store, 7, TEST_SIZE - 7,
+                                                                  IntValueConverter._key_FromInt( 3 ), target ) );
+        for( int i = 0; i < ct; i++ )
+        {
+            TestCase.assertEquals( expected[ i ], target[ i ] );
+        }
+        long[] expectedBits = new long[ ( TEST_SIZE + 63 ) / 64 ];
+        long[] bits = new long[ expectedBits.length ];
+        ColumnScan_KeyTypeName_.rangeBits( array, 7, TEST_SIZE - 7, IntValueConverter._key_FromInt( 2 ),
+                                           IntValueConverter._key_FromInt( 4 ), expectedBits );
+        ColumnScan_KeyTypeName_.rangeBits( store, 7, TEST_SIZE - 7, IntValueConverter._key_FromInt( 2 ),
+                                           IntValueConverter._key_FromInt( 4 ), bits );
+        for( int i = 0; i < bits.length; i++ )
+        {
+            TestCase.assertEquals( expectedBits[ i ], bits[ i ] );
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package store.col.storage.dictionary;
+
+import core.Const;
+import core.Types;
+import core.array.GrowthStrategy;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnCharSequence;
+import store.col.ColumnDefinition;
+import store.col.ColumnInt;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.array.ColStorageArrayCharSequence;
+import store.schema.Schema;
+import store.table.ColumnTable;
+import store.table.aggregate.GroupByCharSequence;
+
+import java.util.BitSet;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColStorageDictionaryCharSequence
+{
+    public static final int TEST_SIZE = 200;
+    public static final int NUM_VALUES = 7;
+
+    protected ColStorageDictionaryCharSequence store;
+
+    @Before
+    public void setup()
+    {
+        store = new ColStorageDictionaryCharSequence( TEST_SIZE );
+        TestCase.assertEquals( Types.CharSequence, store.getType() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            //every tenth row null
+            store.setValue( ( i % 10 == 0 ) ? null : value( i % NUM_VALUES ), i );
+        }
+    }
+
+    protected static String value( int i )
+    {
+        return "SYM" + i;
+    }
+
+    /** Each distinct value is held once, rows of equal values have equal codes */
+    @Test
+    public void loadTest()
+    {
+        TestCase.assertEquals( NUM_VALUES, store.getDictionarySize() );
+        TestCase.assertEquals( 1, store.getCodeWidth() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            if( i % 10 == 0 )
+            {
+                TestCase.assertNull( store.getValue( i ) );
+                TestCase.assertEquals( Const.NO_ENTRY, store.getCode( i ) );
+                continue;
+            }
+            TestCase.assertEquals( value( i % NUM_VALUES ), store.getValue( i ) );
+            TestCase.assertEquals( store.getCode( value( i % NUM_VALUES ) ), store.getCode( i ) );
+            TestCase.assertEquals( value( i % NUM_VALUES ), store.getDictionaryValue( store.getCode( i ) ) );
+        }
+        TestCase.assertEquals( Const.NO_ENTRY, store.getCode( "missing" ) );
+        TestCase.assertEquals( Const.NO_ENTRY, store.getCode( ( CharSequence ) null ) );
+
+        //the value is copied, the caller may reuse its CharSequence
+        StringBuilder builder = new StringBuilder( "abc" );
+        store.setValue( builder, 1 );
+        builder.setLength( 0 );
+        builder.append( "xyz" );
+        TestCase.assertEquals( "abc", store.getValue( 1 ).toString() );
+        TestCase.assertEquals( NUM_VALUES + 1, store.getDictionarySize() );
+    }
+
+    /** The codes widen from bytes to shorts to ints as the dictionary grows */
+    @Test
+    public void widenTest()
+    {
+        int rows = Short.MAX_VALUE + 10;
+        store = new ColStorageDictionaryCharSequence( TEST_SIZE );
+        store.checkGrowth( rows );
+        TestCase.assertEquals( Const.NO_ENTRY, store.getCode( rows - 1 ) );
+        for( int i = 0; i < rows; i++ )
+        {
+            store.setValue( "V" + i, i );
+            if( i == Byte.MAX_VALUE )
+            {
+                TestCase.assertEquals( 1, store.getCodeWidth() );
+            }
+            if( i == Byte.MAX_VALUE + 1 || i == Short.MAX_VALUE )
+            {
+                TestCase.assertEquals( 2, store.getCodeWidth() );
+            }
+        }
+        TestCase.assertEquals( 4, store.getCodeWidth() );
+        for( int i = 0; i < rows; i++ )
+        {
+            TestCase.assertEquals( "V" + i, store.getValue( i ) );
+        }
+    }
+
+    /** Equality filters on the codes, at every width */
+    @Test
+    public void equalTest()
+    {
+        assertEqual();
+        //widen the codes, without changing the first rows
+        store.checkGrowth( TEST_SIZE + Byte.MAX_VALUE + 1 );
+        for( int i = TEST_SIZE; i < store.getCapacity(); i++ )
+        {
+            store.setValue( "W" + i, i );
+        }
+        TestCase.assertEquals( 2, store.getCodeWidth() );
+        assertEqual();
+
+        int[] target = new int[ TEST_SIZE ];
+        TestCase.assertEquals( 0, store.equal( "missing", 0, TEST_SIZE, target ) );
+        try
+        {
+            store.equal( value( 1 ), 0, TEST_SIZE, new int[ TEST_SIZE - 1 ] );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+        try
+        {
+            store.equalBits( value( 1 ), 0, TEST_SIZE, new long[ 1 ] );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+
+    protected void assertEqual()
+    {
+        for( int v = 0; v < NUM_VALUES; v++ )
+        {
+            assertEqual( value( v ), v );
+        }
+        assertEqual( null, -1 );
+    }
+
+    /** The rows of [3, TEST_SIZE - 3) of <i>value</i> (<i>mod</i> of the row, -1 for null) are selected */
+    protected void assertEqual( CharSequence value, int mod )
+    {
+        int[] target = new int[ TEST_SIZE ];
+        long[] bits = new long[ ( TEST_SIZE + 63 ) / 64 ];
+        int ct = store.equal( value, 3, TEST_SIZE - 3, target );
+        store.equalBits( value, 3, TEST_SIZE - 3, bits );
+        BitSet selected = BitSet.valueOf( bits );
+        int expected = 0;
+        for( int row = 0; row < TEST_SIZE; row++ )
+        {
+            boolean isNull = row % 10 == 0;
+            boolean match = row >= 3 && row < TEST_SIZE - 3 && ( ( mod == -1 ) ? isNull :
+                                                                 !isNull && row % NUM_VALUES == mod );
+            TestCase.assertEquals( match, selected.get( row ) );
+            if( match )
+            {
+                TestCase.assertEquals( row, target[ expected++ ] );
+            }
+        }
+        TestCase.assertEquals( expected, ct );
+    }
+
+    /** Copies from another dictionary translate the codes, copies from other storages encode the values */
+    @Test
+    public void copyTest()
+    {
+        ColStorageDictionaryCharSequence copy = store.getCopy();
+        ColStorageDictionaryCharSequence other = new ColStorageDictionaryCharSequence( TEST_SIZE,
+                                                                                       GrowthStrategy.doubleGrowth );
+        other.setValue( "first", 0 );
+        other.copyFrom( store, 0, 1, TEST_SIZE - 1 );
+        ColStorageArrayCharSequence array = new ColStorageArrayCharSequence( TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            array.setValue( store.getValue( i ), i );
+        }
+        ColStorageDictionaryCharSequence fromArray = new ColStorageDictionaryCharSequence( TEST_SIZE );
+        fromArray.copyFrom( array, 0, 0, TEST_SIZE );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( store.getValue( i ), copy.getValue( i ) );
+            TestCase.assertEquals( store.getCode( i ), copy.getCode( i ) );
+            TestCase.assertEquals( store.getValue( i ), fromArray.getValue( i ) );
+            if( i > 0 )
+            {
+                TestCase.assertEquals( store.getValue( i - 1 ), other.getValue( i ) );
+            }
+        }
+        TestCase.assertEquals( "first", other.getValue( 0 ) );
+        TestCase.assertEquals( NUM_VALUES + 1, other.getDictionarySize() );
+
+        //within the store, overlapping
+        store.copyFrom( store, 0, 1, TEST_SIZE - 1 );
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( copy.getValue( i - 1 ), store.getValue( i ) );
+        }
+    }
+
+    /** A group by over a dictionary column groups on the codes */
+    @Test
+    public void groupByTest()
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.CharSequence, "symbol" ),
+                                    new ColumnDefinition( Types.Int, "qty" ) );
+        ColumnTable table = new ColumnTable( schema, 16, new DictionaryColStorageFactory(
+                ColStorageFactory.defaultArrayStorageFactory, GrowthStrategy.doubleGrowth ),
+                                             GrowthStrategy.doubleGrowth );
+        ColumnCharSequence symbol = ( ColumnCharSequence ) schema.getColumn( "symbol" );
+        ColumnInt qty = ( ColumnInt ) schema.getColumn( "qty" );
+        TestCase.assertTrue( symbol.getStorage() instanceof ColStorageDictionaryCharSequence );
+        int rows = GroupByCharSequence.CHUNK_SIZE * 2 + 10;
+        int first = table.beginAddRows( rows );
+        for( int row = first; row < first + rows; row++ )
+        {
+            symbol.setCharSequence( value( row % NUM_VALUES ), row );
+            qty.setInt( row, row );
+        }
+        table.endAddRows();
+
+        GroupByCharSequence groupBy = new GroupByCharSequence( symbol, qty );
+        groupBy.aggregate( table.getRowTracker() );
+        TestCase.assertEquals( NUM_VALUES, groupBy.getGroupCount() );
+        for( int v = 0; v < NUM_VALUES; v++ )
+        {
+            int group = groupBy.getGroup( value( v ) );
+            int count = 0;
+            long sum = 0;
+            for( int row = v; row < rows; row += NUM_VALUES )
+            {
+                count++;
+                sum += row;
+            }
+            TestCase.assertEquals( count, groupBy.getCount( group ) );
+            TestCase.assertEquals( sum, groupBy.getLongSum( group ) );
+        }
+
+        //the groups of the codes are forgotten on clear
+        groupBy.clear();
+        groupBy.aggregate( table.getRowTracker(), 0, NUM_VALUES );
+        TestCase.assertEquals( NUM_VALUES, groupBy.getGroupCount() );
+        TestCase.assertEquals( 1, groupBy.getCount( groupBy.getGroup( value( 3 ) ) ) );
+    }
+}
@@ -0,0 +1,236 @@
+package store.col.storage.mapped;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+import store.col.storage.generic.ColStorage_KeyTypeName_;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColStorageMapped_KeyTypeName_
+{
+
+    public static final int TEST_SIZE = 128;
+    public static final int BLOCK_SIZE = 32;
+    protected ColStorageMapped_KeyTypeName_ store;
+    protected File file;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup() throws IOException
+    {
+        if( template ) return;
+        file = File.createTempFile( "col", MappedColStorageFactory.FILE_EXTENSION );
+        TestCase.assertTrue( file.delete() );
+        store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, TEST_SIZE );
+        TestCase.assertEquals( Types._KeyTypeName_, store.getType() );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if( template ) return;
+        store.close();
+        file.delete();
+    }
+
+    /** Load the storage, new rows read as the default value */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        TestCase.assertEquals( TEST_SIZE, store.getCapacity() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( i ) );
+            store.setValue( IntValueConverter._key_FromInt( i ), i );
+        }
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( i ), store.getValue( i ) );
+        }
+    }
+
+    /** The values are still there when the file is opened again, with the block size of the file */
+    @Test
+    public void reopenTest()
+    {
+        if( template ) return;
+        loadTest();
+        store.close();
+        TestCase.assertTrue( store.isClosed() );
+        store.close(); //twice does nothing
+
+        store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE * 4, 1 );
+        TestCase.assertEquals( BLOCK_SIZE, store.getBlockSize() );
+        TestCase.assertEquals( TEST_SIZE, store.getCapacity() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( i ), store.getValue( i ) );
+        }
+    }
+
+    /**
+     * A variety of growths, assert that doesnt checkGrowth if already large enough,
+     * assert that growth keeps the values, zeroes the new rows, and is kept on reopen.
+     */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        loadTest();
+        store.checkGrowth( TEST_SIZE / 2 );
+        TestCase.assertEquals( TEST_SIZE, store.getCapacity() );
+        store.checkGrowth( TEST_SIZE + 1 );
+        TestCase.assertEquals( TEST_SIZE * 2, store.getCapacity() );
+        for( int i = TEST_SIZE; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( i ) );
+            store.setValue( IntValueConverter._key_FromInt( i ), i );
+        }
+        store.close();
+
+        store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, 1, GrowthStrategy.toExactSize );
+        TestCase.assertEquals( TEST_SIZE * 2, store.getCapacity() );
+        for( int i = 0; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( i ), store.getValue( i ) );
+        }
+        store.checkGrowth( TEST_SIZE * 2 + 1 );
+        TestCase.assertEquals( TEST_SIZE * 2 + BLOCK_SIZE, store.getCapacity() );
+    }
+
+    /** The copy is on the heap, and independent of the file */
+    @Test
+    public void copyTest()
+    {
+        if( template ) return;
+        loadTest();
+        ColStorage_KeyTypeName_ copy = store.getCopy();
+        TestCase.assertEquals( store.getCapacity(), copy.getCapacity() );
+        copy.setValue( IntValueConverter._key_FromInt( 99 ), 0 );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( 0 ) );
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( store.getValue( i ), copy.getValue( i ) );
+        }
+
+        ColStorageArray_KeyTypeName_ source = new ColStorageArray_KeyTypeName_( 8 );
+        for( int i = 0; i < 8; i++ )
+        {
+            source.setValue( IntValueConverter._key_FromInt( 1 ), i );
+        }
+        store.copyFrom( source, 2, BLOCK_SIZE - 3, 6 ); //across a block
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int expected = ( i >= BLOCK_SIZE - 3 && i < BLOCK_SIZE + 3 ) ? 1 : i;
+            TestCase.assertEquals( IntValueConverter._key_FromInt( expected ), store.getValue( i ) );
+        }
+    }
+
+    /** A file of another type, or not a column file at all, can not be opened */
+    @Test
+    public void mismatchTest() throws IOException
+    {
+        if( template ) return;
+        store.close();
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        raf.seek( 8 ); //the type, after the magic and the version
+        raf.write( Types._KeyTypeName_ + 1 );
+        raf.close();
+        try
+        {
+            store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, TEST_SIZE );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+
+        raf = new RandomAccessFile( file, "rw" );
+        raf.writeInt( 0 );
+        raf.close();
+        try
+        {
+            store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, TEST_SIZE );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        try
+        {
+            store.checkGrowth( 1 );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected, still closed
+        }
+    }
+
+    /** A truncated file, or a header of a block size out of range, can not be opened */
+    @Test
+    public void headerTest() throws IOException
+    {
+        if( template ) return;
+        store.close();
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        raf.seek( 10 ); //the block bits, after the magic, the version, the type and the order
+        raf.writeInt( 31 );
+        raf.close();
+        try
+        {
+            store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, TEST_SIZE );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+
+        raf = new RandomAccessFile( file, "rw" );
+        raf.setLength( ColStorageMapped_KeyTypeName_.HEADER_BYTES / 2 );
+        raf.close();
+        try
+        {
+            store = new ColStorageMapped_KeyTypeName_( file, BLOCK_SIZE, TEST_SIZE );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        TestCase.assertEquals( ColStorageMapped_KeyTypeName_.HEADER_BYTES / 2, file.length() );
+
+        TestCase.assertTrue( file.delete() );
+        try
+        {
+            store = new ColStorageMapped_KeyTypeName_( file, ( 1 << ColStorageMapped_KeyTypeName_.MAX_BLOCK_BITS ) + 1,
+                                                       TEST_SIZE );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package store.col.storage.offheap;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import core.memory.OffHeap;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.storage.array.ColStorageArray_KeyTypeName_;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColStorageOffHeap_KeyTypeName_
+{
+
+    public static final int TEST_SIZE = 128;
+    protected ColStorageOffHeap_KeyTypeName_ store;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        if( template ) return;
+        store = new ColStorageOffHeap_KeyTypeName_( TEST_SIZE );
+        TestCase.assertEquals( Types._KeyTypeName_, store.getType() );
+    }
+
+    @After
+    public void tearDown()
+    {
+        if( template ) return;
+        store.close();
+    }
+
+    /** Load the storage, new memory reads as the default value */
+    @Test
+    public void loadTest()
+    {
+        if( template ) return;
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( i ) );
+            store.setValue( IntValueConverter._key_FromInt( i ), i );
+        }
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( i ), store.getValue( i ) );
+        }
+    }
+
+    /**
+     * A variety of growths, assert that doesnt checkGrowth if already large enough,
+     * assert that growth keeps the values, zeroes the new rows, and follows strategy correctly.
+     */
+    @Test
+    public void growthTest()
+    {
+        if( template ) return;
+        loadTest();
+        store.checkGrowth( TEST_SIZE / 2 );
+        TestCase.assertEquals( TEST_SIZE, store.getCapacity() );
+        store.checkGrowth( TEST_SIZE + 1 );
+        TestCase.assertEquals( TEST_SIZE * 2, store.getCapacity() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( i ), store.getValue( i ) );
+        }
+        for( int i = TEST_SIZE; i < TEST_SIZE * 2; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( i ) );
+        }
+        store.close();
+        store = new ColStorageOffHeap_KeyTypeName_( TEST_SIZE, GrowthStrategy.toExactSize );
+        store.checkGrowth( TEST_SIZE + 1 );
+        TestCase.assertEquals( TEST_SIZE + 1, store.getCapacity() );
+    }
+
+    /** The copy holds the same values in its own memory */
+    @Test
+    public void copyTest()
+    {
+        if( template ) return;
+        loadTest();
+        ColStorageOffHeap_KeyTypeName_ copy = store.getCopy();
+        TestCase.assertEquals( store.getCapacity(), copy.getCapacity() );
+        TestCase.assertEquals( store.getStrategy(), copy.getStrategy() );
+        copy.setValue( IntValueConverter._key_FromInt( 99 ), 0 );
+        TestCase.assertEquals( IntValueConverter._key_FromInt( 0 ), store.getValue( 0 ) );
+        for( int i = 1; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( store.getValue( i ), copy.getValue( i ) );
+        }
+        copy.close();
+    }
+
+    /**
+     * Copy from another off-heap store (a memory copy) and from an array store, assert the correct values are
+     * copied, and doesn't overwrite any correct existing data.
+     */
+    @Test
+    public void testCopyFrom()
+    {
+        if( template ) return;
+        ColStorageOffHeap_KeyTypeName_ offHeapSource = new ColStorageOffHeap_KeyTypeName_( 8 );
+        ColStorageArray_KeyTypeName_ arraySource = new ColStorageArray_KeyTypeName_( 8 );
+        for( int i = 0; i < 8; i++ )
+        {
+            offHeapSource.setValue( IntValueConverter._key_FromInt( 1 ), i );
+            arraySource.setValue( IntValueConverter._key_FromInt( 2 ), i );
+        }
+        loadTest();
+        store.copyFrom( offHeapSource, 0, 3, 8 );
+        store.copyFrom( arraySource, 2, 20, 6 );
+        int[] expected = new int[ TEST_SIZE ];
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            expected[ i ] = ( i >= 3 && i < 11 ) ? 1 : ( i >= 20 && i < 26 ) ? 2 : i;
+            TestCase.assertEquals( IntValueConverter._key_FromInt( expected[ i ] ), store.getValue( i ) );
+        }
+        offHeapSource.close();
+
+        //within the store, overlapping to later rows then to earlier rows
+        store.copyFrom( store, 18, 22, 8 );
+        System.arraycopy( expected, 18, expected, 22, 8 );
+        store.copyFrom( store, 2, 0, 9 );
+        System.arraycopy( expected, 2, expected, 0, 9 );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            TestCase.assertEquals( IntValueConverter._key_FromInt( expected[ i ] ), store.getValue( i ) );
+        }
+    }
+
+    /** Closing frees the memory, and only once */
+    @Test
+    public void closeTest()
+    {
+        if( template ) return;
+        long before = OffHeap.getAllocatedBytes();
+        ColStorageOffHeap_KeyTypeName_ other = new ColStorageOffHeap_KeyTypeName_( TEST_SIZE );
+        other.checkGrowth( TEST_SIZE * 4 );
+        TestCase.assertEquals( before + TEST_SIZE * 4 * OffHeap.sizeOf_KeyTypeName_, OffHeap.getAllocatedBytes() );
+        TestCase.assertFalse( other.isClosed() );
+        long used = directMemoryUsed();
+        other.close();
+        TestCase.assertTrue( other.isClosed() );
+        TestCase.assertEquals( before, OffHeap.getAllocatedBytes() );
+        if( OffHeap.isFreedAtOnce() )
+        {
+            //released by the close, not by the garbage collector
+            TestCase.assertTrue( directMemoryUsed() <= used - TEST_SIZE * 4 * OffHeap.sizeOf_KeyTypeName_ );
+        }
+        other.close();
+        TestCase.assertEquals( before, OffHeap.getAllocatedBytes() );
+        try
+        {
+            other.checkGrowth( 1 );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+    }
+
+    protected static long directMemoryUsed()
+    {
+        for( BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans( BufferPoolMXBean.class ) )
+        {
+            if( pool.getName().equals( "direct" ) )
+            {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,325 @@
+package store.table;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import core.memory.OffHeap;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnBool;
+import store.col.ColumnDefinition;
+import store.col.ColumnInt;
+import store.col.ColumnLong;
+import store.col.storage.ColStorageFactory;
+import store.col.storage.block.ColStorageBlockedInt;
+import store.col.storage.offheap.ColStorageOffHeapLong;
+import store.schema.Schema;
+import store.table.snapshot.TableSnapshotReader;
+import store.table.snapshot.TableSnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestColumnTable
+{
+    public static final int NUM_ROWS = 1000;
+
+    protected ColumnTable table;
+    protected ColumnInt id;
+    protected ColumnLong time;
+
+    @Before
+    public void setup()
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                    new ColumnDefinition( Types.Long, "time" ) );
+        table = new ColumnTable( schema, 4, ColStorageFactory.defaultArrayStorageFactory,
+                                 GrowthStrategy.doubleGrowth );
+        id = ( ColumnInt ) schema.getColumn( "id" );
+        time = ( ColumnLong ) schema.getColumn( "time" );
+    }
+
+    /** Rows are compact, growing every column together, and removed rows are handed out again */
+    @Test
+    public void addRemoveTest()
+    {
+        for( int i = 0; i < NUM_ROWS; i++ )
+        {
+            TestCase.assertEquals( i, table.beginAddRow() );
+            id.setInt( i, i );
+            time.setLong( i * 10L, i );
+            table.endAddRow();
+        }
+        TestCase.assertEquals( NUM_ROWS, table.getRowCount() );
+        TestCase.assertTrue( table.capacity >= NUM_ROWS );
+        TestCase.assertEquals( table.capacity, id.getStorage().getCapacity() );
+        TestCase.assertEquals( table.capacity, time.getStorage().getCapacity() );
+
+        table.removeRow( 10 );
+        table.removeRow( 20 );
+        TestCase.assertEquals( NUM_ROWS - 2, table.getRowCount() );
+        TestCase.assertFalse( table.getRowTracker().containsRow( 10 ) );
+        TestCase.assertEquals( 20, table.beginAddRow() );
+        table.endAddRow();
+        TestCase.assertEquals( 10, table.beginAddRow() );
+        table.endAddRow();
+        TestCase.assertEquals( NUM_ROWS, table.beginAddRow() );
+        table.endAddRow();
+
+        table.beginChangeRow( 5 );
+        id.setInt( 50, 5 );
+        table.endChangeRow();
+        TestCase.assertEquals( 50, id.getInt( 5 ) );
+        TestCase.assertEquals( NUM_ROWS - 1, id.getInt( NUM_ROWS - 1 ) );
+    }
+
+    /** A batch is a contiguous range after the last row, with one begin and end, free rows are left for single adds */
+    @Test
+    public void addRowsTest()
+    {
+        for( int i = 0; i < 10; i++ )
+        {
+            table.beginAddRow();
+            table.endAddRow();
+        }
+        table.removeRow( 3 );
+        int first = table.beginAddRows( NUM_ROWS );
+        TestCase.assertEquals( 10, first );
+        TestCase.assertTrue( table.capacity >= first + NUM_ROWS );
+        for( int i = first; i < first + NUM_ROWS; i++ )
+        {
+            id.setInt( i, i );
+        }
+        table.endAddRows();
+        TestCase.assertEquals( NUM_ROWS + 9, table.getRowCount() );
+        TestCase.assertEquals( first + NUM_ROWS - 1, table.getRowTracker().getMaxRowId() );
+        TestCase.assertEquals( first + NUM_ROWS - 1, id.getInt( first + NUM_ROWS - 1 ) );
+        TestCase.assertEquals( 3, table.beginAddRow() );
+        table.endAddRow();
+        TestCase.assertEquals( first + NUM_ROWS, table.beginAddRows( 1 ) );
+        table.endAddRows();
+
+        table.clear();
+        TestCase.assertEquals( 0, table.getRowCount() );
+        TestCase.assertEquals( 0, table.beginAddRows( 5 ) );
+        try
+        {
+            table.endAddRow();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected, a batch is ended with endAddRows
+        }
+        table.endAddRows();
+    }
+
+    /** The default constructor's blocked storage grows past its initial size, by single adds and by a batch */
+    @Test
+    public void blockedGrowthTest()
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "id" ) );
+        ColumnTable blocked = new ColumnTable( schema, 4 );
+        ColumnInt ids = ( ColumnInt ) schema.getColumn( "id" );
+        int initial = blocked.capacity;
+        for( int i = 0; i <= initial; i++ )
+        {
+            blocked.beginAddRow();
+            ids.setInt( i, i );
+            blocked.endAddRow();
+        }
+        TestCase.assertTrue( blocked.capacity > initial );
+        int batch = blocked.capacity * 2;
+        int first = blocked.beginAddRows( batch );
+        TestCase.assertEquals( initial + 1, first );
+        TestCase.assertTrue( blocked.capacity >= first + batch );
+        for( int i = first; i < first + batch; i++ )
+        {
+            ids.setInt( i, i );
+        }
+        blocked.endAddRows();
+        TestCase.assertEquals( blocked.capacity, ids.getStorage().getCapacity() );
+        for( int i = 0; i < blocked.getRowCount(); i++ )
+        {
+            TestCase.assertEquals( i, ids.getInt( i ) );
+        }
+    }
+
+    /** Restored from a snapshot with holes, the holes are added first, then the rows after the last one */
+    @Test
+    public void restoreTest() throws IOException
+    {
+        int first = table.beginAddRows( NUM_ROWS );
+        for( int i = first; i < NUM_ROWS; i++ )
+        {
+            id.setInt( i, i );
+        }
+        table.endAddRows();
+        table.removeRow( 30 );
+        table.removeRow( 10 );
+        table.removeRow( NUM_ROWS - 1 );
+        File file = File.createTempFile( "table", ".snapshot" );
+        try
+        {
+            new TableSnapshotWriter().write( table, file );
+            TableSnapshotReader reader = new TableSnapshotReader( file );
+            ColumnTable restored = new ColumnTable( reader.getSchema(), 4 );
+            reader.read( restored );
+            reader.close();
+            ColumnInt ids = ( ColumnInt ) restored.getSchema().getColumn( "id" );
+            TestCase.assertEquals( NUM_ROWS - 3, restored.getRowCount() );
+            TestCase.assertTrue( restored.capacity >= NUM_ROWS - 1 );
+            TestCase.assertEquals( NUM_ROWS - 2, ids.getInt( NUM_ROWS - 2 ) );
+
+            TestCase.assertEquals( 10, restored.beginAddRow() );
+            restored.endAddRow();
+            TestCase.assertEquals( 30, restored.beginAddRow() );
+            restored.endAddRow();
+            TestCase.assertEquals( NUM_ROWS - 1, restored.beginAddRow() );
+            ids.setInt( -1, NUM_ROWS - 1 );
+            restored.endAddRow();
+            TestCase.assertEquals( NUM_ROWS, restored.beginAddRows( 2 ) );
+            restored.endAddRows();
+            TestCase.assertEquals( NUM_ROWS + 2, restored.getRowCount() );
+            TestCase.assertEquals( -1, ids.getInt( NUM_ROWS - 1 ) );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    /** Changes must be between a begin and an end */
+    @Test
+    public void stateTest()
+    {
+        table.beginAddRow();
+        try
+        {
+            table.beginAddRows( 5 );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        try
+        {
+            table.endChangeRow();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        table.endAddRow();
+        try
+        {
+            table.removeRow( 1 );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+
+    /** A fork has the rows of the table, and the two change independently */
+    @Test
+    public void forkTest()
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                    new ColumnDefinition( Types.Bool, "flag" ) );
+        ColumnTable blocked = new ColumnTable( schema, 256 );
+        ColumnInt ids = ( ColumnInt ) schema.getColumn( "id" );
+        int first = blocked.beginAddRows( NUM_ROWS );
+        for( int i = first; i < NUM_ROWS; i++ )
+        {
+            ids.setInt( i, i );
+        }
+        blocked.endAddRows();
+        blocked.removeRow( 5 );
+
+        ColumnTable fork = blocked.fork();
+        Schema forkSchema = fork.getSchema();
+        TestCase.assertNotSame( schema, forkSchema );
+        TestCase.assertTrue( forkSchema.isLocked() );
+        ColumnInt forkIds = ( ColumnInt ) forkSchema.getColumn( "id" );
+        ColumnBool forkFlags = ( ColumnBool ) forkSchema.getColumn( "flag" );
+        TestCase.assertEquals( ids.getId(), forkIds.getId() );
+        TestCase.assertEquals( NUM_ROWS - 1, fork.getRowCount() );
+        TestCase.assertEquals( blocked.capacity, fork.capacity );
+        for( int i = 0; i < NUM_ROWS; i++ )
+        {
+            TestCase.assertEquals( i, forkIds.getInt( i ) );
+        }
+
+        //changes on either side are not seen by the other
+        fork.beginChangeRow( 10 );
+        forkIds.setInt( -10, 10 );
+        forkFlags.setBool( true, 10 );
+        fork.endChangeRow();
+        fork.removeRow( 20 );
+        blocked.beginChangeRow( 11 );
+        ids.setInt( -11, 11 );
+        blocked.endChangeRow();
+        TestCase.assertEquals( 10, ids.getInt( 10 ) );
+        TestCase.assertFalse( ( ( ColumnBool ) schema.getColumn( "flag" ) ).getBool( 10 ) );
+        TestCase.assertEquals( -10, forkIds.getInt( 10 ) );
+        TestCase.assertTrue( forkFlags.getBool( 10 ) );
+        TestCase.assertEquals( 11, forkIds.getInt( 11 ) );
+        TestCase.assertTrue( blocked.getRowTracker().containsRow( 20 ) );
+        TestCase.assertFalse( fork.getRowTracker().containsRow( 20 ) );
+
+        //the free rows were forked too
+        TestCase.assertEquals( 20, fork.beginAddRow() );
+        fork.endAddRow();
+        TestCase.assertEquals( 5, fork.beginAddRow() );
+        fork.endAddRow();
+        TestCase.assertEquals( 5, blocked.beginAddRow() );
+        blocked.endAddRow();
+        TestCase.assertEquals( NUM_ROWS, blocked.beginAddRow() );
+        blocked.endAddRow();
+
+        //released, the table writes to the blocks it shared in place
+        fork.release();
+        ColStorageBlockedInt storage = ( ColStorageBlockedInt ) ids.getStorage();
+        Object block = storage.getBlocks()[ 0 ];
+        ids.setInt( -12, 12 );
+        TestCase.assertSame( block, storage.getBlocks()[ 0 ] );
+        TestCase.assertEquals( -12, ids.getInt( 12 ) );
+
+        //the off-heap storage is copied, and the copy closed on release
+        Schema offHeapSchema = new Schema( new ColumnDefinition( Types.Long, "time" ) );
+        ColumnTable offHeap = new ColumnTable( offHeapSchema, 64, ColStorageFactory.defaultOffHeapStorageFactory,
+                                               GrowthStrategy.doubleGrowth );
+        offHeap.beginAddRows( 64 );
+        ( ( ColumnLong ) offHeapSchema.getColumn( "time" ) ).setLong( 3L, 63 );
+        offHeap.endAddRows();
+        long allocated = OffHeap.getAllocatedBytes();
+        ColumnTable offHeapFork = offHeap.fork();
+        ColStorageOffHeapLong forkStorage = ( ColStorageOffHeapLong ) offHeapFork.getSchema().getColumn( "time" )
+                                                                                 .getStorage();
+        TestCase.assertEquals( allocated + 64 * OffHeap.sizeOfLong, OffHeap.getAllocatedBytes() );
+        offHeapFork.release();
+        TestCase.assertTrue( forkStorage.isClosed() );
+        TestCase.assertEquals( allocated, OffHeap.getAllocatedBytes() );
+        TestCase.assertEquals( 3L, ( ( ColumnLong ) offHeapSchema.getColumn( "time" ) ).getLong( 63 ) );
+        offHeap.release();
+
+        //the array storage is copied
+        table.beginAddRow();
+        id.setInt( 7, 0 );
+        table.endAddRow();
+        ColumnTable copy = table.fork();
+        ( ( ColumnInt ) copy.getSchema().getColumn( "id" ) ).setInt( 8, 0 );
+        TestCase.assertEquals( 7, id.getInt( 0 ) );
+    }
+}
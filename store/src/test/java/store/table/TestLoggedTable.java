@@ -0,0 +1,245 @@
+package store.table;
+
+import core.Types;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnCharSequence;
+import store.col.ColumnDefinition;
+import store.col.ColumnDouble;
+import store.col.ColumnInt;
+import store.col.storage.ColStorageFactory;
+import store.schema.Schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestLoggedTable
+{
+    public static final int NUM_ROWS = 100;
+    public static final int ID = 0;
+    public static final int PRICE = 1;
+    public static final int SYMBOL = 2;
+
+    protected File logFile;
+    protected File snapshotFile;
+    protected LoggedTable table;
+
+    @Before
+    public void setup() throws IOException
+    {
+        logFile = File.createTempFile( "table", ".log" );
+        TestCase.assertTrue( logFile.delete() );
+        snapshotFile = new File( logFile.getPath() + ".snapshot" );
+        table = open();
+    }
+
+    @After
+    public void tearDown()
+    {
+        table.close();
+        logFile.delete();
+        snapshotFile.delete();
+    }
+
+    protected LoggedTable open() throws IOException
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                    new ColumnDefinition( Types.Double, "price" ),
+                                    new ColumnDefinition( Types.CharSequence, "symbol" ) );
+        return new LoggedTable( schema, 8, ColStorageFactory.defaultArrayStorageFactory, logFile, snapshotFile, 16 );
+    }
+
+    protected void load()
+    {
+        for( int i = 0; i < NUM_ROWS; i++ )
+        {
+            TestCase.assertEquals( i, table.beginAddRow() );
+            table.setInt( ID, i );
+            table.setDouble( PRICE, i * 1.5 );
+            table.setCharSequence( SYMBOL, ( i % 10 == 0 ) ? null : "S" + i );
+            table.endAddRow();
+        }
+        table.beginChangeRow( 7 );
+        table.setDouble( PRICE, -1 );
+        TestCase.assertTrue( table.getChangeLog().isChanged( 7, PRICE ) );
+        TestCase.assertFalse( table.getChangeLog().isChanged( 7, ID ) );
+        TestCase.assertFalse( table.getChangeLog().isChanged( 6, PRICE ) );
+        table.endChangeRow();
+        TestCase.assertFalse( table.getChangeLog().isChanged( 7, PRICE ) );
+        table.removeRow( 3 );
+    }
+
+    protected void assertLoaded( LoggedTable table, int numRows )
+    {
+        Schema schema = table.getSchema();
+        TestCase.assertEquals( numRows - 1, table.getRowTracker().getRowCount() );
+        TestCase.assertEquals( numRows - 1, table.getRowTracker().getMaxRowId() );
+        TestCase.assertFalse( table.getRowTracker().containsRow( 3 ) );
+        for( int i = 0; i < numRows; i++ )
+        {
+            if( i == 3 ) continue;
+            TestCase.assertEquals( i, ( ( ColumnInt ) schema.getColumn( "id" ) ).getInt( i ) );
+            TestCase.assertEquals( ( i == 7 ) ? -1 : i * 1.5, ( ( ColumnDouble ) schema.getColumn( "price" ) ).getDouble( i ) );
+            CharSequence symbol = ( ( ColumnCharSequence ) schema.getColumn( "symbol" ) ).getCharSequence( i );
+            TestCase.assertEquals( ( i % 10 == 0 ) ? null : "S" + i, ( symbol == null ) ? null : symbol.toString() );
+        }
+    }
+
+    /** Close and open again, the changes are replayed from the log */
+    @Test
+    public void replayTest() throws IOException
+    {
+        load();
+        assertLoaded( table, NUM_ROWS );
+        table.close();
+        table = open();
+        assertLoaded( table, NUM_ROWS );
+
+        //continues where it left off
+        TestCase.assertEquals( NUM_ROWS, table.beginAddRow() );
+        table.endAddRow();
+        table.close();
+        table = open();
+        TestCase.assertTrue( table.getRowTracker().containsRow( NUM_ROWS ) );
+    }
+
+    /** The default constructor's blocked storage grows past its initial size, and replays into it */
+    @Test
+    public void growthTest() throws IOException
+    {
+        table.close();
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                    new ColumnDefinition( Types.Double, "price" ),
+                                    new ColumnDefinition( Types.CharSequence, "symbol" ) );
+        table = new LoggedTable( schema, 8, logFile );
+        int initial = table.capacity;
+        int rows = initial * 4 + 1;
+        for( int i = 0; i < rows; i++ )
+        {
+            table.beginAddRow();
+            table.setInt( ID, i );
+            table.endAddRow();
+        }
+        TestCase.assertTrue( table.capacity >= rows );
+        table.close();
+
+        schema = new Schema( new ColumnDefinition( Types.Int, "id" ),
+                             new ColumnDefinition( Types.Double, "price" ),
+                             new ColumnDefinition( Types.CharSequence, "symbol" ) );
+        table = new LoggedTable( schema, 8, logFile );
+        TestCase.assertEquals( rows, table.getRowTracker().getRowCount() );
+        for( int i = 0; i < rows; i++ )
+        {
+            TestCase.assertEquals( i, ( ( ColumnInt ) schema.getColumn( "id" ) ).getInt( i ) );
+        }
+    }
+
+    /** An open change is never replayed, nor is a commit torn by a crash */
+    @Test
+    public void tornTest() throws IOException
+    {
+        load();
+        table.beginChangeRow( 8 );
+        table.setInt( ID, 1000 );
+        table.close();
+        table = open();
+        assertLoaded( table, NUM_ROWS );
+
+        table.beginAddRow();
+        table.setInt( ID, NUM_ROWS );
+        table.endAddRow();
+        table.close();
+        long length = logFile.length();
+        RandomAccessFile raf = new RandomAccessFile( logFile, "rw" );
+        raf.setLength( length - 3 ); //into the checksum of the last commit
+        raf.close();
+        table = open();
+        assertLoaded( table, NUM_ROWS );
+        TestCase.assertTrue( logFile.length() < length - 3 ); //the torn commit is truncated
+    }
+
+    /** A checkpoint empties the log, and the table is restored from the snapshot and the log */
+    @Test
+    public void checkpointTest() throws IOException
+    {
+        load();
+        long length = logFile.length();
+        table.checkpoint();
+        TestCase.assertTrue( snapshotFile.exists() );
+        TestCase.assertTrue( logFile.length() < length );
+
+        table.beginChangeRow( 9 );
+        table.setDouble( PRICE, 99 );
+        table.endChangeRow();
+        table.close();
+        table = open();
+        TestCase.assertEquals( 99.0, ( ( ColumnDouble ) table.getSchema().getColumn( "price" ) ).getDouble( 9 ) );
+        table.beginChangeRow( 9 );
+        table.setDouble( PRICE, 9 * 1.5 );
+        table.endChangeRow();
+        assertLoaded( table, NUM_ROWS );
+    }
+
+    /** Changes must be between a begin and an end */
+    @Test
+    public void stateTest()
+    {
+        try
+        {
+            table.setInt( ID, 1 );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        table.beginAddRow();
+        try
+        {
+            table.beginAddRow();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        try
+        {
+            table.setDouble( ID, 1 );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected, wrong type
+        }
+        try
+        {
+            table.endChangeRow();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        table.endAddRow();
+        try
+        {
+            table.beginChangeRow( 5 );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package store.table.aggregate;
+
+import core.Const;
+import core.Types;
+import core.array.GrowthStrategy;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnDefinition;
+import store.col.ColumnDouble;
+import store.col.ColumnInt;
+import store.col.Column_KeyTypeName_;
+import store.col.storage.ColStorageFactory;
+import store.schema.Schema;
+import store.table.ColumnTable;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestGroupBy_KeyTypeName_
+{
+    //more rows than a chunk, so the groups span chunks
+    public static final int TEST_SIZE = GroupBy_KeyTypeName_.CHUNK_SIZE * 2 + 100;
+    public static final int NUM_GROUPS = 7;
+    //keys away from the default value of a column
+    public static final int OFFSET_FROM_ZERO = 10;
+
+    protected ColumnTable table;
+    protected Column_KeyTypeName_ keyColumn;
+    protected ColumnInt qtyColumn;
+    protected ColumnDouble priceColumn;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        if( template ) return;
+        load( ColStorageFactory.defaultBlockedStorageFactory );
+    }
+
+    /** The table of TEST_SIZE rows less every tenth, in the storage of <i>factory</i> */
+    protected void load( ColStorageFactory factory )
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types._KeyTypeName_, "key" ),
+                                    new ColumnDefinition( Types.Int, "qty" ),
+                                    new ColumnDefinition( Types.Double, "price" ) );
+        table = new ColumnTable( schema, 64, factory, GrowthStrategy.doubleGrowth );
+        keyColumn = ( Column_KeyTypeName_ ) schema.getColumn( "key" );
+        qtyColumn = ( ColumnInt ) schema.getColumn( "qty" );
+        priceColumn = ( ColumnDouble ) schema.getColumn( "price" );
+        int first = table.beginAddRows( TEST_SIZE );
+        for( int row = first; row < first + TEST_SIZE; row++ )
+        {
+            keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( row % NUM_GROUPS + OFFSET_FROM_ZERO ), row );
+            qtyColumn.setInt( row - 1000, row );
+            priceColumn.setDouble( row * 0.5, row );
+        }
+        table.endAddRows();
+        //removed rows are not aggregated
+        for( int row = 0; row < TEST_SIZE; row += 10 )
+        {
+            table.removeRow( row );
+        }
+    }
+
+    /** Count, sum, min and max of each group, computed row by row */
+    protected void assertGroups( GroupBy_KeyTypeName_ groupBy, boolean prices )
+    {
+        TestCase.assertEquals( NUM_GROUPS, groupBy.getGroupCount() );
+        for( int g = 0; g < NUM_GROUPS; g++ )
+        {
+            int group = groupBy.getGroup( IntValueConverter._key_FromInt( g + OFFSET_FROM_ZERO ) );
+            TestCase.assertTrue( group != Const.NO_ENTRY );
+            TestCase.assertEquals( IntValueConverter._key_FromInt( g + OFFSET_FROM_ZERO ), groupBy.getKey( group ) );
+            int count = 0;
+            long sum = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for( int row = g; row < TEST_SIZE; row += NUM_GROUPS )
+            {
+                if( row % 10 == 0 ) continue;
+                count++;
+                sum += row - 1000;
+                min = Math.min( min, row - 1000 );
+                max = Math.max( max, row - 1000 );
+            }
+            TestCase.assertEquals( count, groupBy.getCount( group ) );
+            if( prices )
+            {
+                //price is half of qty + 1000
+                TestCase.assertEquals( ( sum + 1000L * count ) * 0.5, groupBy.getSum( group ), 1e-6 );
+                TestCase.assertEquals( ( min + 1000 ) * 0.5, groupBy.getMin( group ) );
+                TestCase.assertEquals( ( max + 1000 ) * 0.5, groupBy.getMax( group ) );
+            }
+            else
+            {
+                TestCase.assertEquals( sum, groupBy.getLongSum( group ) );
+                TestCase.assertEquals( min, groupBy.getLongMin( group ) );
+                TestCase.assertEquals( max, groupBy.getLongMax( group ) );
+                TestCase.assertEquals( ( double ) sum / count, groupBy.getAverage( group ), 1e-9 );
+            }
+        }
+        TestCase.assertEquals( Const.NO_ENTRY, groupBy.getGroup( IntValueConverter._key_FromInt( 1 ) ) );
+    }
+
+    @Test
+    public void aggregateTest()
+    {
+        if( template ) return;
+        GroupBy_KeyTypeName_ qty = new GroupBy_KeyTypeName_( keyColumn, qtyColumn );
+        qty.aggregate( table.getRowTracker() );
+        assertGroups( qty, false );
+
+        GroupBy_KeyTypeName_ price = new GroupBy_KeyTypeName_( keyColumn, priceColumn );
+        price.aggregate( table.getRowTracker() );
+        assertGroups( price, true );
+        try
+        {
+            price.getLongSum( 0 );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected, not integral
+        }
+
+        //aggregates again from empty
+        qty.clear();
+        TestCase.assertEquals( 0, qty.getGroupCount() );
+        qty.aggregate( table.getRowTracker() );
+        assertGroups( qty, false );
+    }
+
+    /** From the array of an array storage, and row by row from an off-heap storage */
+    @Test
+    public void storageTest()
+    {
+        if( template ) return;
+        ColStorageFactory[] factories = { ColStorageFactory.defaultArrayStorageFactory,
+                                          ColStorageFactory.defaultOffHeapStorageFactory };
+        for( ColStorageFactory factory : factories )
+        {
+            load( factory );
+            GroupBy_KeyTypeName_ qty = new GroupBy_KeyTypeName_( keyColumn, qtyColumn );
+            qty.aggregate( table.getRowTracker() );
+            assertGroups( qty, false );
+            GroupBy_KeyTypeName_ price = new GroupBy_KeyTypeName_( keyColumn, priceColumn );
+            price.aggregate( table.getRowTracker() );
+            assertGroups( price, true );
+        }
+    }
+
+    /** Partials of ranges of rows, merged, are the aggregate of every row */
+    @Test
+    public void mergeTest()
+    {
+        if( template ) return;
+        int split = TEST_SIZE / 3;
+        GroupBy_KeyTypeName_ merged = new GroupBy_KeyTypeName_( keyColumn, qtyColumn );
+        GroupBy_KeyTypeName_ partial = new GroupBy_KeyTypeName_( keyColumn, qtyColumn );
+        merged.aggregate( table.getRowTracker(), 0, split );
+        partial.aggregate( table.getRowTracker(), split, TEST_SIZE );
+        merged.merge( partial );
+        assertGroups( merged, false );
+
+        GroupBy_KeyTypeName_ counts = new GroupBy_KeyTypeName_( keyColumn );
+        counts.aggregate( table.getRowTracker(), 0, 0 );
+        TestCase.assertEquals( 0, counts.getGroupCount() );
+        counts.aggregate( table.getRowTracker() );
+        TestCase.assertEquals( NUM_GROUPS, counts.getGroupCount() );
+        try
+        {
+            merged.merge( counts );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+    }
+}
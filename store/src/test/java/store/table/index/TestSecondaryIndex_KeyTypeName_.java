@@ -0,0 +1,136 @@
+package store.table.index;
+
+import core.Types;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnDefinition;
+import store.col.Column_KeyTypeName_;
+import store.schema.Schema;
+import store.table.ColumnTable;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestSecondaryIndex_KeyTypeName_
+{
+    public static final int TEST_SIZE = 100;
+    public static final int NUM_VALUES = 7;
+    //values away from the default value of a column
+    public static final int OFFSET_FROM_ZERO = 10;
+
+    protected ColumnTable table;
+    protected Column_KeyTypeName_ keyColumn;
+    protected SecondaryIndex_KeyTypeName_ index;
+    protected int[] target = new int[ TEST_SIZE ];
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        if( template ) return;
+        Schema schema = new Schema( new ColumnDefinition( Types._KeyTypeName_, "key" ) );
+        table = new ColumnTable( schema, 8 );
+        keyColumn = ( Column_KeyTypeName_ ) schema.getColumn( "key" );
+    }
+
+    protected _key_ key( int i )
+    {
+        return IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO );
+    }
+
+    protected int addRow( int value )
+    {
+        int row = table.beginAddRow();
+        keyColumn.set_KeyTypeName_( key( value ), row );
+        table.endAddRow();
+        return row;
+    }
+
+    /** Every row of a value, whether in the table before the index or added after it */
+    @Test
+    public void lookupTest()
+    {
+        if( template ) return;
+        for( int i = 0; i < TEST_SIZE / 2; i++ )
+        {
+            addRow( i % NUM_VALUES );
+        }
+        index = new SecondaryIndex_KeyTypeName_( table, "key" );
+        int first = table.beginAddRows( TEST_SIZE / 2 );
+        for( int i = TEST_SIZE / 2; i < TEST_SIZE; i++ )
+        {
+            keyColumn.set_KeyTypeName_( key( i % NUM_VALUES ), first + i - TEST_SIZE / 2 );
+        }
+        table.endAddRows();
+        TestCase.assertEquals( TEST_SIZE, index.getSize() );
+        TestCase.assertEquals( NUM_VALUES, index.getValueCount() );
+        for( int v = 0; v < NUM_VALUES; v++ )
+        {
+            int count = index.getRows( key( v ), target );
+            TestCase.assertEquals( index.getCount( key( v ) ), count );
+            TestCase.assertEquals( ( TEST_SIZE - v + NUM_VALUES - 1 ) / NUM_VALUES, count );
+            for( int i = 0; i < count; i++ )
+            {
+                TestCase.assertEquals( v + i * NUM_VALUES, target[ i ] );
+            }
+        }
+        TestCase.assertEquals( 0, index.getRows( key( NUM_VALUES ), target ) );
+        TestCase.assertEquals( 0, index.getCount( key( NUM_VALUES ) ) );
+
+        //a short array is filled, the count is of every row
+        int[] small = new int[ 2 ];
+        TestCase.assertEquals( index.getCount( key( 0 ) ), index.getRows( key( 0 ), small ) );
+        TestCase.assertEquals( 0, small[ 0 ] );
+        TestCase.assertEquals( NUM_VALUES, small[ 1 ] );
+    }
+
+    /** A change moves the row to the rows of its new value, a remove takes it out */
+    @Test
+    public void changeRemoveTest()
+    {
+        if( template ) return;
+        lookupTest();
+        int count = index.getCount( key( 0 ) );
+        table.beginChangeRow( 0 );
+        keyColumn.set_KeyTypeName_( key( 1 ), 0 );
+        table.endChangeRow();
+        TestCase.assertEquals( count - 1, index.getCount( key( 0 ) ) );
+        int ones = index.getRows( key( 1 ), target );
+        TestCase.assertEquals( 0, target[ ones - 1 ] ); //appended to the rows of 1
+
+        table.removeRow( 1 );
+        TestCase.assertEquals( ones - 1, index.getCount( key( 1 ) ) );
+        TestCase.assertEquals( TEST_SIZE - 1, index.getSize() );
+
+        //the last row of a value takes the value out
+        table.beginChangeRow( 1 + NUM_VALUES );
+        keyColumn.set_KeyTypeName_( key( NUM_VALUES ), 1 + NUM_VALUES );
+        table.endChangeRow();
+        TestCase.assertEquals( 1, index.getCount( key( NUM_VALUES ) ) );
+        TestCase.assertEquals( NUM_VALUES + 1, index.getValueCount() );
+        table.removeRow( 1 + NUM_VALUES );
+        TestCase.assertEquals( NUM_VALUES, index.getValueCount() );
+        TestCase.assertEquals( 0, index.getCount( key( NUM_VALUES ) ) );
+
+        table.clear();
+        TestCase.assertEquals( 0, index.getSize() );
+        TestCase.assertEquals( 0, index.getValueCount() );
+        addRow( 3 );
+        addRow( 3 );
+        TestCase.assertEquals( 2, index.getRows( key( 3 ), target ) );
+        TestCase.assertEquals( 0, target[ 0 ] );
+        TestCase.assertEquals( 1, target[ 1 ] );
+
+        index.detach();
+        addRow( 3 );
+        TestCase.assertEquals( 2, index.getCount( key( 3 ) ) );
+    }
+}
@@ -0,0 +1,161 @@
+package store.table.index;
+
+import core.Const;
+import core.Types;
+import core.stub.IntValueConverter;
+import core.stub.*;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnDefinition;
+import store.col.ColumnInt;
+import store.col.Column_KeyTypeName_;
+import store.schema.Schema;
+import store.table.ColumnTable;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestUniqueIndex_KeyTypeName_
+{
+    public static final int TEST_SIZE = 64;
+    //keys away from the default value of a column
+    public static final int OFFSET_FROM_ZERO = 10;
+
+    protected ColumnTable table;
+    protected Column_KeyTypeName_ keyColumn;
+    protected ColumnInt valColumn;
+    protected UniqueIndex_KeyTypeName_ index;
+
+    boolean template = ( this.getClass().getCanonicalName().contains( "_" ) );
+
+    @Before
+    public void setup()
+    {
+        if( template ) return;
+        Schema schema = new Schema( new ColumnDefinition( Types._KeyTypeName_, "key" ),
+                                    new ColumnDefinition( Types.Int, "val" ) );
+        table = new ColumnTable( schema, 8 );
+        keyColumn = ( Column_KeyTypeName_ ) schema.getColumn( "key" );
+        valColumn = ( ColumnInt ) schema.getColumn( "val" );
+    }
+
+    protected int addRow( int key )
+    {
+        int row = table.beginAddRow();
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( key ), row );
+        valColumn.setInt( key * 2, row );
+        table.endAddRow();
+        return row;
+    }
+
+    /** Rows already in the table are indexed, new rows are indexed as they are added */
+    @Test
+    public void lookupTest()
+    {
+        if( template ) return;
+        for( int i = 0; i < TEST_SIZE / 2; i++ )
+        {
+            addRow( i + OFFSET_FROM_ZERO );
+        }
+        index = new UniqueIndex_KeyTypeName_( table, "key" );
+        for( int i = TEST_SIZE / 2; i < TEST_SIZE; i++ )
+        {
+            addRow( i + OFFSET_FROM_ZERO );
+        }
+        TestCase.assertEquals( TEST_SIZE, index.getSize() );
+        for( int i = 0; i < TEST_SIZE; i++ )
+        {
+            int row = index.getRow( IntValueConverter._key_FromInt( i + OFFSET_FROM_ZERO ) );
+            TestCase.assertEquals( i, row );
+            TestCase.assertEquals( ( i + OFFSET_FROM_ZERO ) * 2, valColumn.getInt( row ) );
+        }
+        TestCase.assertEquals( Const.NO_ENTRY, index.getRow( IntValueConverter._key_FromInt( 1 ) ) );
+        TestCase.assertFalse( index.contains( IntValueConverter._key_FromInt( 1 ) ) );
+    }
+
+    /** A change moves the row to its new key, a remove takes the key out */
+    @Test
+    public void changeRemoveTest()
+    {
+        if( template ) return;
+        lookupTest();
+        table.beginChangeRow( 5 );
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 2 ), 5 );
+        table.endChangeRow();
+        TestCase.assertEquals( 5, index.getRow( IntValueConverter._key_FromInt( 2 ) ) );
+        TestCase.assertFalse( index.contains( IntValueConverter._key_FromInt( 5 + OFFSET_FROM_ZERO ) ) );
+
+        table.beginChangeRow( 6 ); //no change of the key
+        valColumn.setInt( 0, 6 );
+        table.endChangeRow();
+        TestCase.assertEquals( 6, index.getRow( IntValueConverter._key_FromInt( 6 + OFFSET_FROM_ZERO ) ) );
+
+        table.removeRow( 7 );
+        TestCase.assertFalse( index.contains( IntValueConverter._key_FromInt( 7 + OFFSET_FROM_ZERO ) ) );
+        TestCase.assertEquals( TEST_SIZE - 1, index.getSize() );
+        //the free row is handed out again, with a new key
+        TestCase.assertEquals( 7, addRow( 3 ) );
+        TestCase.assertEquals( 7, index.getRow( IntValueConverter._key_FromInt( 3 ) ) );
+
+        table.clear();
+        TestCase.assertEquals( 0, index.getSize() );
+        TestCase.assertEquals( 0, addRow( 2 ) );
+        TestCase.assertEquals( 0, index.getRow( IntValueConverter._key_FromInt( 2 ) ) );
+    }
+
+    /** A duplicate key rolls back an add, and leaves a change open to be corrected */
+    @Test
+    public void duplicateTest()
+    {
+        if( template ) return;
+        lookupTest();
+        try
+        {
+            addRow( OFFSET_FROM_ZERO );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        TestCase.assertEquals( TEST_SIZE, table.getRowCount() );
+        TestCase.assertEquals( 0, index.getRow( IntValueConverter._key_FromInt( OFFSET_FROM_ZERO ) ) );
+
+        int first = table.beginAddRows( 3 );
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 1 ), first );
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 2 ), first + 1 );
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 1 ), first + 2 );
+        try
+        {
+            table.endAddRows();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        TestCase.assertEquals( TEST_SIZE, table.getRowCount() );
+        TestCase.assertEquals( TEST_SIZE, index.getSize() );
+        TestCase.assertFalse( index.contains( IntValueConverter._key_FromInt( 2 ) ) );
+
+        table.beginChangeRow( 1 );
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 2 + OFFSET_FROM_ZERO ), 1 );
+        try
+        {
+            table.endChangeRow();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        keyColumn.set_KeyTypeName_( IntValueConverter._key_FromInt( 1 ), 1 );
+        table.endChangeRow();
+        TestCase.assertEquals( 1, index.getRow( IntValueConverter._key_FromInt( 1 ) ) );
+    }
+}
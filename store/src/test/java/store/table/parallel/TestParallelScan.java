@@ -0,0 +1,190 @@
+package store.table.parallel;
+
+import core.Types;
+import core.array.GrowthStrategy;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnDefinition;
+import store.col.ColumnInt;
+import store.col.ColumnLong;
+import store.col.scan.ColumnScanLong;
+import store.col.storage.block.BlockedColStorageFactory;
+import store.schema.Schema;
+import store.table.ColumnTable;
+import store.table.aggregate.GroupByInt;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestParallelScan
+{
+    public static final int NUM_ROWS = 20000;
+    public static final int NUM_GROUPS = 13;
+
+    protected ForkJoinPool pool;
+    protected ColumnTable table;
+    protected ColumnInt keyColumn;
+    protected ColumnLong valueColumn;
+    protected ColumnLong doubledColumn;
+    protected ParallelScan parallelScan;
+
+    @Before
+    public void setup()
+    {
+        pool = new ForkJoinPool( 4 );
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "key" ),
+                                    new ColumnDefinition( Types.Long, "value" ),
+                                    new ColumnDefinition( Types.Long, "doubled" ) );
+        //1024 row blocks
+        table = new ColumnTable( schema, 1024, new BlockedColStorageFactory( GrowthStrategy.doubleGrowth, 1 ),
+                                 GrowthStrategy.doubleGrowth );
+        keyColumn = ( ColumnInt ) schema.getColumn( "key" );
+        valueColumn = ( ColumnLong ) schema.getColumn( "value" );
+        doubledColumn = ( ColumnLong ) schema.getColumn( "doubled" );
+        int first = table.beginAddRows( NUM_ROWS );
+        for( int row = first; row < NUM_ROWS; row++ )
+        {
+            keyColumn.setInt( row % NUM_GROUPS, row );
+            valueColumn.setLong( row, row );
+        }
+        table.endAddRows();
+        for( int row = 0; row < NUM_ROWS; row += 7 )
+        {
+            table.removeRow( row );
+        }
+        parallelScan = new ParallelScan( pool, ParallelScan.getPartitionRows( table, 1000 ) );
+    }
+
+    @After
+    public void tearDown()
+    {
+        pool.shutdown();
+    }
+
+    /** Partitions are powers of two, and cover whole blocks */
+    @Test
+    public void partitionRowsTest()
+    {
+        TestCase.assertEquals( 1024, parallelScan.getPartitionRows() );
+        TestCase.assertEquals( 1024, ParallelScan.getPartitionRows( table, 1 ) );
+        TestCase.assertEquals( 4096, ParallelScan.getPartitionRows( table, 4000 ) );
+        TestCase.assertEquals( 4096, ParallelScan.getPartitionRows( table, 4096 ) );
+        TestCase.assertEquals( ParallelScan.MIN_PARTITION_ROWS, new ParallelScan( pool, 3 ).getPartitionRows() );
+        TestCase.assertEquals( 1 << 30, new ParallelScan( pool, Integer.MAX_VALUE ).getPartitionRows() );
+    }
+
+    /** Every worker sets the bits of its partition in one shared selection */
+    @Test
+    public void filterTest()
+    {
+        final long[] bits = new long[ ( NUM_ROWS + 63 ) / 64 ];
+        parallelScan.scan( table, new ScanTask<Void>()
+        {
+            @Override
+            public Void scan( int fromRow, int toRow )
+            {
+                ColumnScanLong.rangeBits( valueColumn.getStorage(), fromRow, toRow, 100L, 15000L, bits );
+                return null;
+            }
+
+            @Override
+            public Void merge( Void left, Void right )
+            {
+                return null;
+            }
+        } );
+        long[] expected = new long[ bits.length ];
+        ColumnScanLong.rangeBits( valueColumn.getStorage(), 0, NUM_ROWS, 100L, 15000L, expected );
+        for( int i = 0; i < bits.length; i++ )
+        {
+            TestCase.assertEquals( expected[ i ], bits[ i ] );
+        }
+    }
+
+    /** Partial group bys of each partition, merged, are the group by of the whole table */
+    @Test
+    public void aggregateTest()
+    {
+        GroupByInt groupBy = parallelScan.scan( 5, NUM_ROWS - 5, new ScanTask<GroupByInt>()
+        {
+            @Override
+            public GroupByInt scan( int fromRow, int toRow )
+            {
+                GroupByInt partial = new GroupByInt( keyColumn, valueColumn );
+                partial.aggregate( table.getRowTracker(), fromRow, toRow );
+                return partial;
+            }
+
+            @Override
+            public GroupByInt merge( GroupByInt left, GroupByInt right )
+            {
+                left.merge( right );
+                return left;
+            }
+        } );
+        GroupByInt expected = new GroupByInt( keyColumn, valueColumn );
+        expected.aggregate( table.getRowTracker(), 5, NUM_ROWS - 5 );
+        TestCase.assertEquals( NUM_GROUPS, groupBy.getGroupCount() );
+        for( int key = 0; key < NUM_GROUPS; key++ )
+        {
+            int group = groupBy.getGroup( key );
+            int expectedGroup = expected.getGroup( key );
+            TestCase.assertEquals( expected.getCount( expectedGroup ), groupBy.getCount( group ) );
+            TestCase.assertEquals( expected.getLongSum( expectedGroup ), groupBy.getLongSum( group ) );
+            TestCase.assertEquals( expected.getLongMin( expectedGroup ), groupBy.getLongMin( group ) );
+            TestCase.assertEquals( expected.getLongMax( expectedGroup ), groupBy.getLongMax( group ) );
+        }
+    }
+
+    /** Each worker writes the rows of its partition of another column, the row counts are merged in order */
+    @Test
+    public void mapTest()
+    {
+        Integer rows = parallelScan.scan( 0, NUM_ROWS, new ScanTask<Integer>()
+        {
+            @Override
+            public Integer scan( int fromRow, int toRow )
+            {
+                for( int row = fromRow; row < toRow; row++ )
+                {
+                    doubledColumn.setLong( valueColumn.getLong( row ) * 2, row );
+                }
+                return toRow - fromRow;
+            }
+
+            @Override
+            public Integer merge( Integer left, Integer right )
+            {
+                return left + right;
+            }
+        } );
+        TestCase.assertEquals( NUM_ROWS, rows.intValue() );
+        for( int row = 0; row < NUM_ROWS; row++ )
+        {
+            TestCase.assertEquals( row * 2L, doubledColumn.getLong( row ) );
+        }
+        //an empty range scans no rows
+        TestCase.assertEquals( 0, parallelScan.scan( 10, 10, new ScanTask<Integer>()
+        {
+            @Override
+            public Integer scan( int fromRow, int toRow )
+            {
+                return toRow - fromRow;
+            }
+
+            @Override
+            public Integer merge( Integer left, Integer right )
+            {
+                return left + right;
+            }
+        } ).intValue() );
+    }
+}
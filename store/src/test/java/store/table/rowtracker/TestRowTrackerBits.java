@@ -120,5 +120,57 @@ public class TestRowTrackerBits
         }
     }
 
+    /** Save the rows as words and restore them, count and high water mark included */
+    @Test
+    public void wordsTest()
+    {
+        initTest();
+        rowTracker.addRow( 200 );
+        rowTracker.removeRow( 3 );
+        RowTrackerBits restored = new RowTrackerBits( rowTracker.toLongArray() );
+        TestCase.assertEquals( rowTracker.getRowCount(), restored.getRowCount() );
+        TestCase.assertEquals( 200, restored.getMaxRowId() );
+        TestCase.assertFalse( restored.containsRow( 3 ) );
+        TestCase.assertTrue( restored.containsRow( 17 ) );
+        restored.removeRow( 200 ); //the new high water mark is above the hole at 3
+        TestCase.assertEquals( 17, restored.getMaxRowId() );
+        TestCase.assertEquals( -1, new RowTrackerBits( new long[ 0 ] ).getMaxRowId() );
+    }
 
-}
\ No newline at end of file
+    /** Add a range of rows together, a range over a row already tracked is refused */
+    @Test
+    public void addRowsTest()
+    {
+        rowTracker.addRows( 4, 10 );
+        TestCase.assertEquals( 10, rowTracker.getRowCount() );
+        TestCase.assertEquals( 13, rowTracker.getMaxRowId() );
+        TestCase.assertFalse( rowTracker.containsRow( 3 ) );
+        TestCase.assertTrue( rowTracker.containsRow( 4 ) );
+        try
+        {
+            rowTracker.addRows( 0, 5 );
+            TestCase.fail();
+        }
+        catch( IllegalArgumentException e )
+        {
+            //expected
+        }
+        TestCase.assertEquals( 10, rowTracker.getRowCount() );
+    }
+
+    /** Walk the rows in order, over the gaps */
+    @Test
+    public void nextRowTest()
+    {
+        TestCase.assertEquals( -1, rowTracker.nextRow( 0 ) );
+        rowTracker.addRow( 2 );
+        rowTracker.addRow( 3 );
+        rowTracker.addRow( 200 );
+        TestCase.assertEquals( 2, rowTracker.nextRow( 0 ) );
+        TestCase.assertEquals( 3, rowTracker.nextRow( 3 ) );
+        TestCase.assertEquals( 200, rowTracker.nextRow( 4 ) );
+        TestCase.assertEquals( -1, rowTracker.nextRow( 201 ) );
+        rowTracker.removeRow( 3 );
+        TestCase.assertEquals( 200, rowTracker.nextRow( 3 ) );
+    }
+}
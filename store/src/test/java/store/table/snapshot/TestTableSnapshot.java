@@ -0,0 +1,242 @@
+package store.table.snapshot;
+
+import core.Types;
+import junit.framework.TestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.*;
+import store.col.storage.ColStorageFactory;
+import store.schema.Schema;
+import store.table.BaseTable;
+import store.table.rowtracker.RowTracker;
+import store.table.rowtracker.RowTrackerBits;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestTableSnapshot
+{
+    public static final int NUM_ROWS = 1000;
+    /** Small, so the values cross the buffer many times */
+    public static final int BUFFER_SIZE = 60;
+
+    protected File file;
+    protected SnapshotTable table;
+
+    @Before
+    public void setup() throws IOException
+    {
+        file = File.createTempFile( "table", ".snapshot" );
+        table = load( ColStorageFactory.defaultBlockedStorageFactory );
+    }
+
+    /** A table of NUM_ROWS rows less rows 5 and NUM_ROWS - 1, in the storage of <i>factory</i> */
+    protected static SnapshotTable load( ColStorageFactory factory )
+    {
+        SnapshotTable table = new SnapshotTable( new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                                             new ColumnDefinition( Types.Double, "price" ),
+                                                             new ColumnDefinition( Types.Bool, "active" ),
+                                                             new ColumnDefinition( Types.CharSequence, "symbol" ),
+                                                             new ColumnDefinition( Types.Long, "time" ) ) );
+        table.setStorage( NUM_ROWS, factory );
+        table.setRowTracker( new RowTrackerBits( NUM_ROWS ) );
+        Schema schema = table.getSchema();
+        for( int i = 0; i < NUM_ROWS; i++ )
+        {
+            ( ( ColumnInt ) schema.getColumn( "id" ) ).setInt( i, i );
+            ( ( ColumnDouble ) schema.getColumn( "price" ) ).setDouble( i * 0.5, i );
+            ( ( ColumnBool ) schema.getColumn( "active" ) ).setBool( i % 3 == 0, i );
+            ( ( ColumnCharSequence ) schema.getColumn( "symbol" ) ).setCharSequence( ( i % 7 == 0 ) ? null : "S" + i, i );
+            ( ( ColumnLong ) schema.getColumn( "time" ) ).setLong( Long.MAX_VALUE - i, i );
+            table.getRowTracker().addRow( i );
+        }
+        table.getRowTracker().removeRow( 5 );
+        table.getRowTracker().removeRow( NUM_ROWS - 1 );
+        return table;
+    }
+
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    /** Write the table, restore it into a table built from the snapshot, with other storage */
+    @Test
+    public void restoreTest() throws IOException
+    {
+        new TableSnapshotWriter( BUFFER_SIZE ).write( table, file );
+
+        TableSnapshotReader reader = new TableSnapshotReader( new RandomAccessFile( file, "r" ).getChannel(),
+                                                              BUFFER_SIZE );
+        ColumnDefinition[] definitions = reader.getColumnDefinitions();
+        TestCase.assertEquals( 5, definitions.length );
+        TestCase.assertEquals( "price", definitions[ 1 ].getName().toString() );
+        TestCase.assertEquals( Types.Double, definitions[ 1 ].getType() );
+
+        SnapshotTable restored = new SnapshotTable( reader.getSchema() );
+        restored.setStorage( 16, ColStorageFactory.defaultArrayStorageFactory );
+        reader.read( restored );
+        reader.close();
+        assertRestored( restored );
+    }
+
+    /**
+     * From array storage in one copy per buffer, into blocked storage in one copy per block and buffer, and row
+     * by row into off-heap storage
+     */
+    @Test
+    public void storageTest() throws IOException
+    {
+        new TableSnapshotWriter( BUFFER_SIZE ).write( load( ColStorageFactory.defaultArrayStorageFactory ), file );
+        ColStorageFactory[] factories = { ColStorageFactory.defaultBlockedStorageFactory,
+                                          ColStorageFactory.defaultOffHeapStorageFactory };
+        for( ColStorageFactory factory : factories )
+        {
+            TableSnapshotReader reader = new TableSnapshotReader( file );
+            SnapshotTable restored = new SnapshotTable( reader.getSchema() );
+            restored.setStorage( 16, factory );
+            reader.read( restored );
+            reader.close();
+            assertRestored( restored );
+        }
+    }
+
+    protected void assertRestored( BaseTable restored )
+    {
+        Schema schema = restored.getSchema();
+        RowTracker rowTracker = restored.getRowTracker();
+        TestCase.assertEquals( NUM_ROWS - 2, rowTracker.getRowCount() );
+        TestCase.assertEquals( NUM_ROWS - 2, rowTracker.getMaxRowId() );
+        TestCase.assertFalse( rowTracker.containsRow( 5 ) );
+        for( int i = 0; i < NUM_ROWS - 1; i++ )
+        {
+            TestCase.assertEquals( i, ( ( ColumnInt ) schema.getColumn( "id" ) ).getInt( i ) );
+            TestCase.assertEquals( i * 0.5, ( ( ColumnDouble ) schema.getColumn( "price" ) ).getDouble( i ) );
+            TestCase.assertEquals( i % 3 == 0, ( ( ColumnBool ) schema.getColumn( "active" ) ).getBool( i ) );
+            CharSequence symbol = ( ( ColumnCharSequence ) schema.getColumn( "symbol" ) ).getCharSequence( i );
+            if( i % 7 == 0 )
+            {
+                TestCase.assertNull( symbol );
+            }
+            else
+            {
+                TestCase.assertEquals( "S" + i, symbol.toString() );
+            }
+            TestCase.assertEquals( Long.MAX_VALUE - i, ( ( ColumnLong ) schema.getColumn( "time" ) ).getLong( i ) );
+        }
+    }
+
+    /** A changed byte in a column fails the restore */
+    @Test
+    public void corruptTest() throws IOException
+    {
+        new TableSnapshotWriter().write( table, file );
+        RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+        raf.seek( raf.length() / 2 );
+        int value = raf.read();
+        raf.seek( raf.length() / 2 );
+        raf.write( value + 1 );
+        raf.close();
+
+        TableSnapshotReader reader = new TableSnapshotReader( file );
+        SnapshotTable restored = new SnapshotTable( reader.getSchema() );
+        restored.setStorage( NUM_ROWS );
+        try
+        {
+            reader.read( restored );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /** The table must have the columns of the snapshot, and Object columns can not be written */
+    @Test
+    public void mismatchTest() throws IOException
+    {
+        new TableSnapshotWriter().write( table, file );
+        TableSnapshotReader reader = new TableSnapshotReader( file );
+        SnapshotTable other = new SnapshotTable( new Schema( new ColumnDefinition( Types.Int, "id" ),
+                                                             new ColumnDefinition( Types.Int, "price" ) ) );
+        other.setStorage( NUM_ROWS );
+        try
+        {
+            reader.read( other );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        SnapshotTable objects = new SnapshotTable( new Schema( new ColumnDefinition( Types.Object, "object" ) ) );
+        objects.setStorage( NUM_ROWS );
+        try
+        {
+            new TableSnapshotWriter().write( objects, file );
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+    }
+
+    protected static class SnapshotTable extends BaseTable
+    {
+        public SnapshotTable( Schema schema )
+        {
+            super( schema );
+        }
+
+        @Override
+        public int beginAddRow()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endAddRow()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void beginChangeRow( int row )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void endChangeRow()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeRow( int row )
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package store.table.version;
+
+import core.Types;
+import junit.framework.TestCase;
+import org.junit.Before;
+import org.junit.Test;
+import store.col.ColumnDefinition;
+import store.col.ColumnInt;
+import store.col.storage.block.ColStorageBlockedInt;
+import store.schema.Schema;
+import store.table.ColumnTable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copyright 10/18/26
+ * All rights reserved.
+ * <p/>
+ * User: Max Miller
+ * Created: 10/18/26
+ */
+public class TestVersionedTable
+{
+    public static final int NUM_ROWS = 5000;
+    public static final int NUM_VERSIONS = 200;
+    public static final int NUM_READERS = 3;
+
+    protected VersionedTable versioned;
+    protected ColumnInt value;
+
+    @Before
+    public void setup()
+    {
+        Schema schema = new Schema( new ColumnDefinition( Types.Int, "value" ) );
+        ColumnTable table = new ColumnTable( schema, NUM_ROWS );
+        value = ( ColumnInt ) schema.getColumn( "value" );
+        int first = table.beginAddRows( NUM_ROWS );
+        for( int i = first; i < NUM_ROWS; i++ )
+        {
+            value.setInt( 0, i );
+        }
+        table.endAddRows();
+        versioned = new VersionedTable( table );
+    }
+
+    /** A version keeps its rows and values, the changes after it are seen by the next version */
+    @Test
+    public void publishTest()
+    {
+        TableVersion first = versioned.getVersion();
+        TestCase.assertEquals( 0, first.getVersion() );
+        ColumnTable table = versioned.getTable();
+        table.beginChangeRow( 3 );
+        value.setInt( 3, 3 );
+        table.endChangeRow();
+        table.removeRow( 4 );
+        TestCase.assertSame( first, versioned.getVersion() );
+
+        TestCase.assertEquals( 1, versioned.publish() );
+        TableVersion second = versioned.getVersion();
+        ColumnInt firstValue = ( ColumnInt ) first.getSchema().getColumn( "value" );
+        ColumnInt secondValue = ( ColumnInt ) second.getSchema().getColumn( "value" );
+        TestCase.assertEquals( 0, firstValue.getInt( 3 ) );
+        TestCase.assertEquals( 3, secondValue.getInt( 3 ) );
+        TestCase.assertEquals( NUM_ROWS, first.getRowCount() );
+        TestCase.assertTrue( first.getRowTracker().containsRow( 4 ) );
+        TestCase.assertEquals( NUM_ROWS - 1, second.getRowCount() );
+        TestCase.assertFalse( second.getRowTracker().containsRow( 4 ) );
+
+        //the writer goes on, the published versions stay
+        table.beginChangeRow( 3 );
+        value.setInt( 30, 3 );
+        table.endChangeRow();
+        table.beginAddRows( 10 );
+        table.endAddRows();
+        TestCase.assertEquals( 0, firstValue.getInt( 3 ) );
+        TestCase.assertEquals( 3, secondValue.getInt( 3 ) );
+        TestCase.assertEquals( NUM_ROWS - 1, second.getRowCount() );
+        first.close();
+        second.close();
+
+        //not while a row is being changed
+        table.beginChangeRow( 5 );
+        try
+        {
+            versioned.publish();
+            TestCase.fail();
+        }
+        catch( IllegalStateException e )
+        {
+            //expected
+        }
+        table.endChangeRow();
+    }
+
+    /** A version no longer the latest is released by its last reader, and its blocks are no longer shared */
+    @Test
+    public void releaseTest()
+    {
+        ColumnTable table = versioned.getTable();
+        TableVersion first = versioned.getVersion();
+        versioned.publish();
+        TestCase.assertFalse( first.isReleased() );
+        first.close();
+        TestCase.assertTrue( first.isReleased() );
+        TestCase.assertEquals( 0, first.getTable().capacity );
+
+        //not held by a reader, released by the next publish
+        TableVersion second = versioned.getVersion();
+        second.close();
+        TestCase.assertFalse( second.isReleased() );
+        versioned.publish();
+        TestCase.assertTrue( second.isReleased() );
+
+        //the block is shared by the writer and the latest version only, so it is cloned once
+        TableVersion latest = versioned.getVersion();
+        ColStorageBlockedInt latestStorage = ( ColStorageBlockedInt ) latest.getSchema().getColumn( "value" )
+                                                                            .getStorage();
+        ColStorageBlockedInt storage = ( ColStorageBlockedInt ) value.getStorage();
+        TestCase.assertTrue( latestStorage.isShared( 0 ) );
+        table.beginChangeRow( 1 );
+        value.setInt( 1, 1 );
+        table.endChangeRow();
+        TestCase.assertFalse( latestStorage.isShared( 0 ) );
+        TestCase.assertFalse( storage.isShared( 0 ) );
+        Object block = storage.getBlocks()[ 0 ];
+        value.setInt( 2, 2 );
+        TestCase.assertSame( block, storage.getBlocks()[ 0 ] );
+        TestCase.assertEquals( 0, ( ( ColumnInt ) latest.getSchema().getColumn( "value" ) ).getInt( 2 ) );
+        latest.close();
+        TestCase.assertFalse( latest.isReleased() );
+    }
+
+    /**
+     * One writer sets every row to the number of the next version and adds a row, then publishes it. Every
+     * version a reader sees has every row at its number, and one row more than the version before.
+     */
+    @Test
+    public void concurrentTest() throws InterruptedException
+    {
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Thread[] readers = new Thread[ NUM_READERS ];
+        for( int r = 0; r < NUM_READERS; r++ )
+        {
+            readers[ r ] = new Thread( new Runnable()
+            {
+                long last = -1;
+
+                @Override
+                public void run()
+                {
+                    while( !done.get() && failure.get() == null )
+                    {
+                        TableVersion version = versioned.getVersion();
+                        try
+                        {
+                            check( version );
+                        }
+                        finally
+                        {
+                            version.close();
+                        }
+                    }
+                }
+
+                /** Check the version, setting the failure if it is not as published */
+                private void check( TableVersion version )
+                {
+                    long number = version.getVersion();
+                    if( number < last )
+                    {
+                        failure.set( "Version [" + number + "] after version [" + last + "]" );
+                        return;
+                    }
+                    last = number;
+                    ColumnInt col = ( ColumnInt ) version.getSchema().getColumn( "value" );
+                    int rows = version.getRowTracker().getMaxRowId() + 1;
+                    if( rows != NUM_ROWS + number || version.getRowCount() != rows )
+                    {
+                        failure.set( "Version [" + number + "] has [" + rows + "] rows" );
+                        return;
+                    }
+                    for( int i = 0; i < rows; i++ )
+                    {
+                        if( col.getInt( i ) != number )
+                        {
+                            failure.set( "Row [" + i + "] of version [" + number + "] is [" +
+                                         col.getInt( i ) + "]" );
+                            return;
+                        }
+                    }
+                }
+            } );
+            readers[ r ].start();
+        }
+
+        ColumnTable table = versioned.getTable();
+        for( int v = 1; v <= NUM_VERSIONS; v++ )
+        {
+            int row = table.beginAddRow();
+            table.endAddRow();
+            for( int i = 0; i <= row; i++ )
+            {
+                value.setInt( v, i );
+            }
+            TestCase.assertEquals( v, versioned.publish() );
+        }
+        done.set( true );
+        for( Thread reader : readers )
+        {
+            reader.join();
+        }
+        TestCase.assertNull( failure.get(), failure.get() );
+        TableVersion latest = versioned.getVersion();
+        TestCase.assertEquals( NUM_VERSIONS, latest.getVersion() );
+        latest.close();
+    }
+}